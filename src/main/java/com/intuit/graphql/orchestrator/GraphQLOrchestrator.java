@@ -1,5 +1,10 @@
 package com.intuit.graphql.orchestrator;
 
+import com.intuit.graphql.orchestrator.batch.DataLoaderRegistryTemplate;
+import com.intuit.graphql.orchestrator.cache.PreparsedDocumentCache;
+import com.intuit.graphql.orchestrator.deadline.Deadline;
+import com.intuit.graphql.orchestrator.dispatch.LevelAwareDispatchInstrumentation;
+import com.intuit.graphql.orchestrator.schema.GraphQLObjects;
 import com.intuit.graphql.orchestrator.schema.RuntimeGraph;
 import graphql.ExecutionInput;
 import graphql.ExecutionResult;
@@ -10,69 +15,88 @@ import graphql.execution.ExecutionIdProvider;
 import graphql.execution.ExecutionStrategy;
 import graphql.execution.instrumentation.ChainedInstrumentation;
 import graphql.execution.instrumentation.Instrumentation;
-import graphql.execution.instrumentation.dataloader.DataLoaderDispatcherInstrumentation;
 import graphql.schema.GraphQLSchema;
 import lombok.extern.slf4j.Slf4j;
-import org.dataloader.BatchLoader;
-import org.dataloader.DataLoader;
 import org.dataloader.DataLoaderRegistry;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.function.Function;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
-import java.util.stream.Collectors;
 
 import static java.util.Objects.requireNonNull;
 
+/**
+ * Executes requests against a {@link RuntimeGraph}.
+ *
+ * <p>The runtime graph can be replaced while the orchestrator serves requests, see {@link
+ * #swapRuntimeGraph(RuntimeGraph)}. A request is executed entirely against the graph that was published when it
+ * started: its engine, batch loaders and cached documents.
+ */
 @Slf4j
 public class GraphQLOrchestrator {
 
   public static final String DATA_LOADER_REGISTRY_CONTEXT_KEY = DataLoaderRegistry.class.getName() + ".context.key";
 
-  private final RuntimeGraph runtimeGraph;
+  /**
+   * The key of the {@link #getRuntimeGraphVersion() version} of the runtime graph serving a request in its {@link
+   * GraphQLContext}.
+   */
+  public static final String RUNTIME_GRAPH_VERSION_CONTEXT_KEY = RuntimeGraph.class.getName() + ".version";
+
   private final List<Instrumentation> instrumentations;
   private final ExecutionIdProvider executionIdProvider;
   private final ExecutionStrategy queryExecutionStrategy;
   private final ExecutionStrategy mutationExecutionStrategy;
+  private final Duration defaultTimeout;
+  private final PreparsedDocumentCache documentCache;
+  private final AtomicReference<ExecutableGraph> executableGraph = new AtomicReference<>();
+  private final Object swapLock = new Object();
+  private volatile Duration lastSwapDuration = Duration.ZERO;
 
   private GraphQLOrchestrator(final RuntimeGraph runtimeGraph, final List<Instrumentation> instrumentations,
                               final ExecutionIdProvider executionIdProvider, final ExecutionStrategy queryExecutionStrategy,
-                              final ExecutionStrategy mutationExecutionStrategy) {
-    this.runtimeGraph = runtimeGraph;
+                              final ExecutionStrategy mutationExecutionStrategy, final Duration defaultTimeout,
+                              final PreparsedDocumentCache documentCache) {
     this.instrumentations = instrumentations;
     this.executionIdProvider = executionIdProvider;
     this.queryExecutionStrategy = queryExecutionStrategy;
     this.mutationExecutionStrategy = mutationExecutionStrategy;
+    this.documentCache = documentCache;
+    this.defaultTimeout = defaultTimeout;
+    this.executableGraph.set(new ExecutableGraph(runtimeGraph, buildGraphQL(runtimeGraph), 1));
   }
 
   public static GraphQLOrchestrator.Builder newOrchestrator() {
     return new Builder();
   }
 
-  @SuppressWarnings("unchecked")
-  private DataLoaderRegistry buildNewDataLoaderRegistry() {
-    final DataLoaderRegistry dataLoaderRegistry = new DataLoaderRegistry();
-
+  private DataLoaderRegistry buildNewDataLoaderRegistry(ExecutableGraph graph) {
     // Important to make sure that the same instance of dataloader, (not batchloader)
     // is used for batching queries belonging to same provider. Also very very important
     // to create a new DataLoader per request. Else it will use the cache which is shared
-    // across request.
-    final Map<BatchLoader, DataLoader> temporaryMap = this.runtimeGraph.getBatchLoaderMap().values().stream().distinct()
-            .collect(Collectors.toMap(Function.identity(), DataLoader::new));
-
-    this.runtimeGraph.getBatchLoaderMap()
-            .forEach((key, batchLoader) ->
-                    dataLoaderRegistry.register(key, temporaryMap.getOrDefault(batchLoader, new DataLoader(batchLoader))));
-    return dataLoaderRegistry;
+    // across request. The template takes care of both and only creates the DataLoaders
+    // that the request actually uses.
+    return graph.dataLoaderRegistryTemplate.newDataLoaderRegistry();
   }
 
-  public CompletableFuture<ExecutionResult> execute(ExecutionInput executionInput) {
-
+  /**
+   * Builds the GraphQL engine for the given runtime graph. The engine, its instrumentation chain and execution
+   * strategies hold no per-request state, so a single instance is shared by all executions against the graph. Only
+   * the {@link DataLoaderRegistry} is created per request.
+   *
+   * @param runtimeGraph the runtime graph to execute against
+   * @return the GraphQL engine
+   */
+  private GraphQL buildGraphQL(RuntimeGraph runtimeGraph) {
     final GraphQL.Builder graphqlBuilder = GraphQL.newGraphQL(runtimeGraph.getExecutableSchema())
             .instrumentation(new ChainedInstrumentation(instrumentations))
             .executionIdProvider(executionIdProvider)
@@ -82,20 +106,110 @@ public class GraphQLOrchestrator {
       graphqlBuilder.mutationExecutionStrategy(mutationExecutionStrategy);
     }
 
-    final GraphQL graphQL = graphqlBuilder.build();
+    if (Objects.nonNull(documentCache)) {
+      graphqlBuilder.preparsedDocumentProvider(documentCache.forSchema(runtimeGraph.getExecutableSchema()));
+    }
+
+    // graphql-java adds its DataLoaderDispatcherInstrumentation to a chain without one, which would dispatch the
+    // data loaders a second time, in between the rounds of the level aware instrumentation
+    if (instrumentations.stream().anyMatch(LevelAwareDispatchInstrumentation.class::isInstance)) {
+      graphqlBuilder.doNotAddDefaultInstrumentations();
+    }
+
+    return graphqlBuilder.build();
+  }
+
+  public CompletableFuture<ExecutionResult> execute(ExecutionInput executionInput) {
+    final ExecutableGraph graph = executableGraph.get();
 
     final ExecutionInput newExecutionInput = executionInput
-            .transform(builder -> builder.dataLoaderRegistry(buildNewDataLoaderRegistry()));
+            .transform(builder -> builder.dataLoaderRegistry(buildNewDataLoaderRegistry(graph)));
 
-    if (newExecutionInput.getContext() instanceof GraphQLContext) {
-      ((GraphQLContext) executionInput.getContext())
-              .put(DATA_LOADER_REGISTRY_CONTEXT_KEY, newExecutionInput.getDataLoaderRegistry());
+    GraphQLContext graphQLContext = newExecutionInput.getGraphQLContext();
+    GraphQLContext context = getLegacyContext(newExecutionInput).orElse(graphQLContext);
+    context.put(DATA_LOADER_REGISTRY_CONTEXT_KEY, newExecutionInput.getDataLoaderRegistry());
+    context.put(RUNTIME_GRAPH_VERSION_CONTEXT_KEY, graph.version);
+    if (defaultTimeout != null && !Deadline.from(context).isPresent()) {
+      Deadline.after(defaultTimeout).attach(context);
+    }
+    if (context != graphQLContext) {
+      graphQLContext.putAll(context);
     }
-    return graphQL.executeAsync(newExecutionInput);
+    return graph.graphQL.executeAsync(newExecutionInput);
+  }
+
+  /**
+   * graphql-java keeps a context given to {@link ExecutionInput.Builder#context(Object)} apart from the {@link
+   * GraphQLContext} of the execution. Such a context is still the one service providers and hooks receive, so the
+   * orchestrator keeps its entries there and copies them to the {@link ExecutionInput#getGraphQLContext() graphql
+   * context}, which graphql-java hands to instrumentations and data fetching environments.
+   */
+  @SuppressWarnings("deprecation")
+  private static Optional<GraphQLContext> getLegacyContext(ExecutionInput executionInput) {
+    Object context = executionInput.getContext();
+    return context instanceof GraphQLContext ? Optional.of((GraphQLContext) context) : Optional.empty();
+  }
+
+  /**
+   * Replaces the runtime graph. The engine and batch loaders of the new graph are built before it is published, and
+   * the graph is published atomically: requests that started before finish on the previous graph, requests that start
+   * after run on the new one. The document cache, if any, drops the documents validated against the previous schema.
+   * The caches of the stitcher, i.e. downstream query plans and root field and entity results, are kept per schema,
+   * so requests on the new graph never see entries built for the previous one.
+   *
+   * @param runtimeGraph the new runtime graph
+   * @return the version of the new runtime graph
+   */
+  public long swapRuntimeGraph(final RuntimeGraph runtimeGraph) {
+    requireNonNull(runtimeGraph);
+    long start = System.nanoTime();
+    synchronized (swapLock) {
+      GraphQL graphQL = buildGraphQL(runtimeGraph);
+      ExecutableGraph graph = new ExecutableGraph(runtimeGraph, graphQL, executableGraph.get().version + 1);
+      executableGraph.set(graph);
+      lastSwapDuration = Duration.ofNanos(System.nanoTime() - start);
+      log.info("Published runtime graph version {} in {} ms", graph.version, lastSwapDuration.toMillis());
+      return graph.version;
+    }
+  }
+
+  /**
+   * Stitches a runtime graph with the given executor and {@link #swapRuntimeGraph(RuntimeGraph) swaps} it in once it
+   * is built. Requests are served by the current graph in the meantime.
+   *
+   * @param runtimeGraphSupplier stitches the new runtime graph, e.g. {@code schemaStitcher::stitchGraph}
+   * @param executor the executor to stitch and swap on
+   * @return the version of the new runtime graph, or the failure of the stitch
+   */
+  public CompletableFuture<Long> swapRuntimeGraphAsync(final Supplier<RuntimeGraph> runtimeGraphSupplier,
+      final Executor executor) {
+    requireNonNull(runtimeGraphSupplier);
+    return CompletableFuture.supplyAsync(runtimeGraphSupplier, requireNonNull(executor))
+        .thenApply(this::swapRuntimeGraph);
   }
 
   public GraphQLSchema getSchema() {
-    return runtimeGraph.getExecutableSchema();
+    return getRuntimeGraph().getExecutableSchema();
+  }
+
+  public RuntimeGraph getRuntimeGraph() {
+    return executableGraph.get().runtimeGraph;
+  }
+
+  /**
+   * @return the version of the runtime graph serving new requests: 1 for the graph the orchestrator was built with,
+   * incremented by every swap
+   */
+  public long getRuntimeGraphVersion() {
+    return executableGraph.get().version;
+  }
+
+  /**
+   * @return the time the last swap took to build the engine of the new graph and publish it, or zero if the graph
+   * was never swapped
+   */
+  public Duration getLastSwapDuration() {
+    return lastSwapDuration;
   }
 
   public CompletableFuture<ExecutionResult> execute(UnaryOperator<ExecutionInput.Builder> unaryOperator) {
@@ -106,14 +220,35 @@ public class GraphQLOrchestrator {
     return execute(executionInputBuilder.build());
   }
 
+  /**
+   * A runtime graph with the engine and the batch loaders built for it.
+   */
+  private static final class ExecutableGraph {
+
+    private final RuntimeGraph runtimeGraph;
+    private final GraphQL graphQL;
+    private final DataLoaderRegistryTemplate dataLoaderRegistryTemplate;
+    private final long version;
+
+    private ExecutableGraph(RuntimeGraph runtimeGraph, GraphQL graphQL, long version) {
+      this.runtimeGraph = runtimeGraph;
+      this.graphQL = graphQL;
+      this.dataLoaderRegistryTemplate = new DataLoaderRegistryTemplate(
+          GraphQLObjects.cast(runtimeGraph.getBatchLoaderMap()));
+      this.version = version;
+    }
+  }
+
   public static class Builder {
 
     private RuntimeGraph runtimeGraph = null;
     private ExecutionIdProvider executionIdProvider = ExecutionIdProvider.DEFAULT_EXECUTION_ID_PROVIDER;
     private ExecutionStrategy queryExecutionStrategy = new AsyncExecutionStrategy();
     private ExecutionStrategy mutationExecutionStrategy = null;
+    private Duration defaultTimeout = null;
+    private PreparsedDocumentCache documentCache = null;
     private List<Instrumentation> instrumentations = new LinkedList<>(
-            Arrays.asList(new DataLoaderDispatcherInstrumentation()));
+            Arrays.asList(new LevelAwareDispatchInstrumentation()));
 
     private Builder() {
     }
@@ -153,9 +288,39 @@ public class GraphQLOrchestrator {
       return this;
     }
 
+    /**
+     * The deadline of requests whose {@link GraphQLContext} has no {@link Deadline} attached. Downstream calls that
+     * are still running at the deadline are abandoned and their fields resolve to {@code null} with a timeout error.
+     * No deadline by default.
+     *
+     * <p>Like the data loader registry, the deadline is kept in the context of the request, so it only applies to
+     * requests whose {@link ExecutionInput#getContext() context} is a {@link GraphQLContext}. Requests with another
+     * context type run without a deadline.
+     *
+     * @param defaultTimeout the time a request may take
+     * @return this builder
+     */
+    public Builder defaultTimeout(final Duration defaultTimeout) {
+      this.defaultTimeout = requireNonNull(defaultTimeout);
+      return this;
+    }
+
+    /**
+     * Caches parsed and validated client documents and, if the cache has a persisted query store, resolves persisted
+     * query ids. The cache may be shared with the orchestrator of a rebuilt runtime graph; documents validated against
+     * the previous schema are then dropped. Every request is parsed and validated by default.
+     *
+     * @param documentCache the document cache
+     * @return this builder
+     */
+    public Builder documentCache(final PreparsedDocumentCache documentCache) {
+      this.documentCache = requireNonNull(documentCache);
+      return this;
+    }
+
     public GraphQLOrchestrator build() {
-      return new GraphQLOrchestrator(runtimeGraph, instrumentations, executionIdProvider, queryExecutionStrategy,
-              mutationExecutionStrategy);
+      return new GraphQLOrchestrator(runtimeGraph, new ArrayList<>(instrumentations), executionIdProvider,
+              queryExecutionStrategy, mutationExecutionStrategy, defaultTimeout, documentCache);
     }
   }
 }
@@ -36,6 +36,36 @@ public interface ServiceProvider extends QueryExecutor {
 
   default boolean isFederationProvider() { return getSeviceType() == ServiceType.FEDERATION_SUBGRAPH; }
 
+  /**
+   * The maximum number of entity representations sent in one {@code _entities} call. Larger entity fetch batches are
+   * split into chunks. A value of zero or less means no limit.
+   *
+   * @return the maximum number of representations per entity fetch call.
+   */
+  default int maxEntityBatchSize() {
+    return Integer.MAX_VALUE;
+  }
+
+  /**
+   * The maximum number of chunks of one entity fetch batch that are in flight at the same time. A value of zero or less
+   * means no limit.
+   *
+   * @return the maximum number of concurrent entity fetch calls per batch.
+   */
+  default int maxConcurrentEntityBatches() {
+    return Integer.MAX_VALUE;
+  }
+
+  /**
+   * The maximum time a downstream call to this provider may take. Calls are also bounded by the deadline of the
+   * request, if it has one. A value of zero or less means no limit.
+   *
+   * @return the timeout of a downstream call in milliseconds.
+   */
+  default long timeoutMillis() {
+    return 0;
+  }
+
   enum ServiceType {
     FEDERATION_SUBGRAPH,
     GRAPHQL,
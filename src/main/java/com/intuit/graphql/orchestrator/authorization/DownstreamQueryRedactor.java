@@ -39,7 +39,7 @@ public class DownstreamQueryRedactor {
     return AuthDownstreamQueryModifier.builder()
         .rootParentType(rootParentType)
         .fieldAuthorization(fieldAuthorization)
-        .graphQLContext(dataFetchingEnvironment.getContext())
+        .graphQLContext(dataFetchingEnvironment.getGraphQlContext())
         .queryVariables(dataFetchingEnvironment.getVariables())
         .graphQLSchema(dataFetchingEnvironment.getGraphQLSchema())
         .selectionCollector(new SelectionCollector(fragmentsByName))
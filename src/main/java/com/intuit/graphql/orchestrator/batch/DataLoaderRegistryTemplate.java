@@ -0,0 +1,71 @@
+package com.intuit.graphql.orchestrator.batch;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.dataloader.BatchLoader;
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderFactory;
+import org.dataloader.DataLoaderRegistry;
+
+/**
+ * A compiled form of a batch loader map. The map is scanned once: every data loader key is assigned the slot of its
+ * {@link BatchLoader}, and keys that share a batch loader share a slot. Per request, {@link
+ * #newDataLoaderRegistry()} returns a {@link LazyDataLoaderRegistry} which only creates the {@link DataLoader} of a
+ * slot when one of its keys is first requested.
+ */
+public class DataLoaderRegistryTemplate {
+
+  private final Map<String, Integer> slotsByKey;
+  private final BatchLoader<?, ?>[] batchLoaders;
+
+  public DataLoaderRegistryTemplate(Map<String, ? extends BatchLoader<?, ?>> batchLoaderMap) {
+    Objects.requireNonNull(batchLoaderMap);
+
+    Map<BatchLoader<?, ?>, Integer> slotsByBatchLoader = new LinkedHashMap<>();
+    Map<String, Integer> slots = new HashMap<>();
+    batchLoaderMap.forEach((key, batchLoader) -> {
+      Integer slot = slotsByBatchLoader.computeIfAbsent(batchLoader, bl -> slotsByBatchLoader.size());
+      slots.put(key, slot);
+    });
+
+    this.slotsByKey = Collections.unmodifiableMap(slots);
+    this.batchLoaders = slotsByBatchLoader.keySet().toArray(new BatchLoader<?, ?>[0]);
+  }
+
+  /**
+   * Creates a new registry for a single request. The returned registry must not be shared across requests since each
+   * {@link DataLoader} caches the values it loaded.
+   *
+   * @return a new lazy data loader registry
+   */
+  public DataLoaderRegistry newDataLoaderRegistry() {
+    return new LazyDataLoaderRegistry(this);
+  }
+
+  /**
+   * Returns the slot of the batch loader registered for the given key.
+   *
+   * @param key the data loader key
+   * @return the slot, or -1 if no batch loader is registered for the key
+   */
+  int getSlot(String key) {
+    Integer slot = slotsByKey.get(key);
+    return slot == null ? -1 : slot;
+  }
+
+  int getSlotCount() {
+    return batchLoaders.length;
+  }
+
+  Set<String> getKeys() {
+    return slotsByKey.keySet();
+  }
+
+  DataLoader<?, ?> newDataLoader(int slot) {
+    return DataLoaderFactory.newDataLoader(batchLoaders[slot]);
+  }
+}
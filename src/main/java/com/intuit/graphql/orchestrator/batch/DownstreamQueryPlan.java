@@ -0,0 +1,95 @@
+package com.intuit.graphql.orchestrator.batch;
+
+import com.intuit.graphql.orchestrator.cache.PrintedQueryCache;
+import graphql.language.Document;
+import graphql.language.FragmentDefinition;
+import graphql.language.OperationDefinition;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.Getter;
+import org.apache.commons.collections4.MapUtils;
+
+/**
+ * The downstream operation that {@link GraphQLServiceBatchLoader} produces for a batch: the finished operation, the
+ * fragment definitions it references and the names of the variables it declares. A plan holds no variable values, so
+ * it can be reused by any request that produces the same downstream operation. The downstream document is built and
+ * printed at most once per plan, so requests served from a {@link DownstreamQueryPlanCache} do not print it again.
+ */
+public class DownstreamQueryPlan {
+
+  static final DownstreamQueryPlan EMPTY = new DownstreamQueryPlan(null, Collections.emptyList(), null);
+
+  @Getter
+  private final OperationDefinition operationDefinition;
+  @Getter
+  private final List<FragmentDefinition> fragmentDefinitions;
+
+  /**
+   * Names of the variables to send downstream. {@code null} if the client operation has no variable definitions, in
+   * which case the variables are passed through unfiltered.
+   */
+  @Getter
+  private final Set<String> variableNames;
+
+  // built on first use; a race only builds an equal document or query twice
+  private volatile Document document;
+  private volatile String query;
+
+  DownstreamQueryPlan(OperationDefinition operationDefinition, List<FragmentDefinition> fragmentDefinitions,
+      Set<String> variableNames) {
+    this.operationDefinition = operationDefinition;
+    this.fragmentDefinitions = fragmentDefinitions;
+    this.variableNames = variableNames;
+  }
+
+  /**
+   * @return the document of the operation and its fragment definitions
+   */
+  public Document getDocument() {
+    Document document = this.document;
+    if (document == null) {
+      Document.Builder builder = Document.newDocument();
+      fragmentDefinitions.forEach(builder::definition);
+      document = builder.definition(operationDefinition).build();
+      this.document = document;
+    }
+    return document;
+  }
+
+  /**
+   * @param printedQueryCache looks up the printed query of a plan that has not printed its document yet
+   * @return the compactly printed {@link #getDocument() document}
+   */
+  public String getQuery(PrintedQueryCache printedQueryCache) {
+    String query = this.query;
+    if (query == null) {
+      query = printedQueryCache.print(getDocument());
+      this.query = query;
+    }
+    return query;
+  }
+
+  /**
+   * @return true if every field of the batch was removed and there is nothing to send downstream
+   */
+  public boolean isEmpty() {
+    return operationDefinition == null;
+  }
+
+  Map<String, Object> filterVariables(Map<String, Object> mergedVariables) {
+    if (variableNames == null || MapUtils.isEmpty(mergedVariables)) {
+      return mergedVariables;
+    }
+
+    Map<String, Object> output = new HashMap<>();
+    variableNames.forEach(variableName -> {
+      if (mergedVariables.containsKey(variableName)) {
+        output.put(variableName, mergedVariables.get(variableName));
+      }
+    });
+    return output;
+  }
+}
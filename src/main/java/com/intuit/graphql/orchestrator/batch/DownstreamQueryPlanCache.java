@@ -0,0 +1,202 @@
+package com.intuit.graphql.orchestrator.batch;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.intuit.graphql.orchestrator.cache.DocumentFingerprint;
+import com.intuit.graphql.orchestrator.cache.SchemaScoped;
+import graphql.language.Argument;
+import graphql.language.Directive;
+import graphql.language.Document;
+import graphql.language.Node;
+import graphql.language.VariableReference;
+import graphql.schema.DataFetchingEnvironment;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Caches {@link DownstreamQueryPlan}s of {@link GraphQLServiceBatchLoader}.
+ *
+ * <p>A plan is keyed by the client document, the operation name, the service namespace and the execution paths of
+ * the batch keys. Values of variables used by {@code @skip} and {@code @include} change the downstream operation, so
+ * they are part of the key as well. All other variable values are bound per request.
+ *
+ * <p>Plans are {@link SchemaScoped kept per schema}, so a cache may outlive a stitch: plans built for a previous
+ * runtime graph are never served to requests of another one.
+ *
+ * <p>The downstream operation also depends on field authorization. The batch loader only consults the cache when the
+ * default field authorization is in effect.
+ */
+public class DownstreamQueryPlanCache {
+
+  /**
+   * A disabled cache. Every plan is created on demand.
+   */
+  public static final DownstreamQueryPlanCache NONE = new DownstreamQueryPlanCache(0);
+
+  private static final Set<String> CONDITIONAL_DIRECTIVES = new HashSet<>(Arrays.asList("skip", "include"));
+
+  private final boolean enabled;
+  private final SchemaScoped<Cache<PlanKey, DownstreamQueryPlan>> plans;
+
+  // client documents are shared by all DataFetchingEnvironments of a request; weak keys compare by identity
+  private final Cache<Document, ClientDocument> clientDocuments;
+
+  public DownstreamQueryPlanCache(long maximumSize) {
+    this.enabled = maximumSize > 0;
+    this.plans = new SchemaScoped<>(() -> CacheBuilder.newBuilder()
+        .maximumSize(maximumSize)
+        .recordStats()
+        .build());
+    this.clientDocuments = CacheBuilder.newBuilder()
+        .weakKeys()
+        .maximumSize(maximumSize)
+        .build();
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Returns the cached plan for the batch, creating and caching it with {@code planSupplier} on a miss.
+   *
+   * @param keys the batch loader keys
+   * @param namespace the namespace of the downstream service
+   * @param operationName the name of the downstream operation
+   * @param planSupplier creates the plan on a miss
+   * @return the downstream query plan
+   */
+  DownstreamQueryPlan get(List<DataFetchingEnvironment> keys, String namespace, String operationName,
+      Supplier<DownstreamQueryPlan> planSupplier) {
+    Document document = keys.get(0).getDocument();
+    if (!enabled || document == null) {
+      return planSupplier.get();
+    }
+
+    ClientDocument clientDocument = clientDocuments.getIfPresent(document);
+    if (clientDocument == null) {
+      clientDocument = new ClientDocument(document);
+      clientDocuments.put(document, clientDocument);
+    }
+
+    List<String> paths = new ArrayList<>(keys.size());
+    for (DataFetchingEnvironment key : keys) {
+      paths.add(key.getExecutionStepInfo().getPath().toString());
+    }
+
+    PlanKey planKey = new PlanKey(clientDocument.fingerprint, operationName, namespace, paths,
+        clientDocument.conditionalVariableValues(keys.get(0).getVariables()));
+
+    Cache<PlanKey, DownstreamQueryPlan> schemaPlans = plans.get(keys.get(0).getGraphQLSchema());
+    DownstreamQueryPlan plan = schemaPlans.getIfPresent(planKey);
+    if (plan == null) {
+      plan = planSupplier.get();
+      schemaPlans.put(planKey, plan);
+    }
+    return plan;
+  }
+
+  /**
+   * Hit, miss and eviction counts of the plans of all schemas that are still referenced.
+   *
+   * @return a snapshot of the cache statistics
+   */
+  public CacheStats stats() {
+    return plans.values().stream()
+        .map(Cache::stats)
+        .reduce(new CacheStats(0, 0, 0, 0, 0, 0), CacheStats::plus);
+  }
+
+  public long size() {
+    return plans.values().stream().mapToLong(Cache::size).sum();
+  }
+
+  public void invalidateAll() {
+    plans.clear();
+    clientDocuments.invalidateAll();
+  }
+
+  private static class ClientDocument {
+
+    private final DocumentFingerprint fingerprint;
+    private final Set<String> conditionalVariableNames = new HashSet<>();
+
+    private ClientDocument(Document document) {
+      this.fingerprint = DocumentFingerprint.of(document);
+      collectConditionalVariableNames(document);
+    }
+
+    private void collectConditionalVariableNames(Node<?> node) {
+      if (node instanceof Directive && CONDITIONAL_DIRECTIVES.contains(((Directive) node).getName())) {
+        Argument ifArgument = ((Directive) node).getArgument("if");
+        if (ifArgument != null && ifArgument.getValue() instanceof VariableReference) {
+          conditionalVariableNames.add(((VariableReference) ifArgument.getValue()).getName());
+        }
+        return;
+      }
+      for (Node<?> child : node.getChildren()) {
+        collectConditionalVariableNames(child);
+      }
+    }
+
+    private Map<String, Object> conditionalVariableValues(Map<String, Object> variables) {
+      if (conditionalVariableNames.isEmpty()) {
+        return Collections.emptyMap();
+      }
+      Map<String, Object> values = new HashMap<>();
+      conditionalVariableNames.forEach(name -> values.put(name, variables.get(name)));
+      return values;
+    }
+  }
+
+  private static class PlanKey {
+
+    private final DocumentFingerprint document;
+    private final String operationName;
+    private final String namespace;
+    private final List<String> paths;
+    private final Map<String, Object> conditionalVariableValues;
+    private final int hash;
+
+    private PlanKey(DocumentFingerprint document, String operationName, String namespace, List<String> paths,
+        Map<String, Object> conditionalVariableValues) {
+      this.document = document;
+      this.operationName = operationName;
+      this.namespace = namespace;
+      this.paths = paths;
+      this.conditionalVariableValues = conditionalVariableValues;
+      this.hash = Objects.hash(document, operationName, namespace, paths, conditionalVariableValues);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof PlanKey)) {
+        return false;
+      }
+      PlanKey that = (PlanKey) o;
+      return hash == that.hash
+          && Objects.equals(operationName, that.operationName)
+          && Objects.equals(namespace, that.namespace)
+          && Objects.equals(paths, that.paths)
+          && Objects.equals(conditionalVariableValues, that.conditionalVariableValues)
+          && Objects.equals(document, that.document);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
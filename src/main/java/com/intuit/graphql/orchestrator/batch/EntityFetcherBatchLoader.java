@@ -3,10 +3,16 @@ package com.intuit.graphql.orchestrator.batch;
 import static com.intuit.graphql.orchestrator.utils.GraphQLUtil.AST_TRANSFORMER;
 import static com.intuit.graphql.orchestrator.utils.GraphQLUtil.unwrapAll;
 import static com.intuit.graphql.orchestrator.utils.IntrospectionUtil.__typenameField;
+import static graphql.language.AstPrinter.printAstCompact;
 import static graphql.language.Field.newField;
 import static graphql.language.InlineFragment.newInlineFragment;
 
+import com.google.common.cache.CacheBuilder;
 import com.intuit.graphql.orchestrator.ServiceProvider;
+import com.intuit.graphql.orchestrator.cache.EntityResultCache;
+import com.intuit.graphql.orchestrator.cache.SchemaScoped;
+import com.intuit.graphql.orchestrator.deadline.Deadline;
+import com.intuit.graphql.orchestrator.deadline.DownstreamTimeouts;
 import com.intuit.graphql.orchestrator.federation.EntityFetchingException;
 import com.intuit.graphql.orchestrator.federation.EntityQuery;
 import com.intuit.graphql.orchestrator.federation.metadata.FederationMetadata;
@@ -26,11 +32,16 @@ import graphql.schema.GraphQLType;
 import graphql.schema.GraphQLTypeUtil;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 import org.apache.commons.collections4.CollectionUtils;
 import org.dataloader.BatchLoader;
@@ -38,21 +49,41 @@ import org.dataloader.BatchLoader;
 public class EntityFetcherBatchLoader implements BatchLoader<DataFetchingEnvironment, DataFetcherResult<Object>> {
 
     private final QueryResponseModifier queryResponseModifier = new DefaultQueryResponseModifier();
-    private final BatchResultTransformer batchResultTransformer;
+    private final EntityFetcherBatchResultTransformer batchResultTransformer;
+    private final StreamingEntityFetcherBatchResultTransformer streamingBatchResultTransformer;
     private final String entityTypeName;
+    private final String extensionFieldName;
     private final List<String> representationFieldTemplate;
     private final ServiceProvider entityServiceProvider;
 
     private final ServiceMetadata entityServiceMetadata;
+    private final EntityResultCache entityCache;
+
+    // the entity selection only depends on the client field and the schema, so it is built once per field of a query
+    private final SchemaScoped<Map<Field, EntitySelection>> entitySelections = new SchemaScoped<>(
+        () -> CacheBuilder.newBuilder().weakKeys().<Field, EntitySelection>build().asMap());
+
+    private final LongAdder rawRepresentationCount = new LongAdder();
+    private final LongAdder uniqueRepresentationCount = new LongAdder();
 
     public EntityFetcherBatchLoader(FederationMetadata.EntityExtensionMetadata metadata,
                                     ServiceMetadata entityServiceMetadata,
                                     String fieldName) {
+        this(metadata, entityServiceMetadata, fieldName, EntityResultCache.NONE);
+    }
+
+    public EntityFetcherBatchLoader(FederationMetadata.EntityExtensionMetadata metadata,
+                                    ServiceMetadata entityServiceMetadata,
+                                    String fieldName,
+                                    EntityResultCache entityCache) {
         this.entityServiceProvider = metadata.getServiceProvider();
         this.entityTypeName = metadata.getTypeName();
+        this.extensionFieldName = fieldName;
         this.representationFieldTemplate = generateRepresentationTemplate(metadata, fieldName);
         this.batchResultTransformer = new EntityFetcherBatchResultTransformer(metadata.getServiceProvider().getNameSpace(), metadata.getTypeName(), fieldName);
+        this.streamingBatchResultTransformer = new StreamingEntityFetcherBatchResultTransformer(metadata.getServiceProvider().getNameSpace(), metadata.getTypeName(), fieldName);
         this.entityServiceMetadata = entityServiceMetadata;
+        this.entityCache = entityCache;
     }
 
     @Override
@@ -60,23 +91,173 @@ public class EntityFetcherBatchLoader implements BatchLoader<DataFetchingEnviron
         DataFetchingEnvironment dfeTemplate = dataFetchingEnvironments.get(0);
         GraphQLContext graphQLContext = dfeTemplate.getContext();
 
-        List<Map<String, Object>> representations = dataFetchingEnvironments.stream()
+        EntityRepresentations representations = EntityRepresentations.of(dataFetchingEnvironments.stream()
             .map(this::createRepresentation)
-            .collect(Collectors.toList());
+            .collect(Collectors.toList()));
+        rawRepresentationCount.add(representations.getRawCount());
+        uniqueRepresentationCount.add(representations.getUniqueCount());
+
+        List<DataFetchingEnvironment> uniqueDataFetchingEnvironments =
+            representations.uniqueKeys(dataFetchingEnvironments);
 
-        List<InlineFragment> inlineFragments = new ArrayList<>();
-        inlineFragments.add(createEntityRequestInlineFragment(dfeTemplate));
+        EntitySelection entitySelection = entitySelections.get(dfeTemplate.getGraphQLSchema())
+            .computeIfAbsent(dfeTemplate.getField(), field -> createEntitySelection(dfeTemplate));
+        List<InlineFragment> inlineFragments = Collections.singletonList(entitySelection.inlineFragment);
+
+        List<Map<String, Object>> uniqueRepresentations = representations.getUniqueRepresentations();
+        if (!entityCache.isEnabled(entityTypeName, extensionFieldName)) {
+            return fetchEntities(graphQLContext, inlineFragments, uniqueRepresentations,
+                uniqueDataFetchingEnvironments)
+                .thenApply(representations::fanOut);
+        }
+
+        // only entities that are not cached are fetched; the cached ones are merged back in batch order
+        EntityResultCache.Batch cachedBatch = entityCache.lookup(entityTypeName, extensionFieldName,
+            dfeTemplate.getGraphQLSchema(), graphQLContext, entitySelection.printedInlineFragment,
+            uniqueRepresentations);
+        List<Map<String, Object>> missingRepresentations = cachedBatch.missing(uniqueRepresentations);
+        CompletableFuture<List<DataFetcherResult<Object>>> fetchedResults = missingRepresentations.isEmpty()
+            ? CompletableFuture.completedFuture(Collections.emptyList())
+            : fetchEntities(graphQLContext, inlineFragments, missingRepresentations,
+                cachedBatch.missing(uniqueDataFetchingEnvironments));
+        return fetchedResults
+            .thenApply(cachedBatch::complete)
+            .thenApply(representations::fanOut);
+    }
+
+    private CompletableFuture<List<DataFetcherResult<Object>>> fetchEntities(GraphQLContext graphQLContext,
+        List<InlineFragment> inlineFragments, List<Map<String, Object>> representations,
+        List<DataFetchingEnvironment> dataFetchingEnvironments) {
+        int chunkSize = positiveOrUnlimited(entityServiceProvider.maxEntityBatchSize());
+        int chunkCount = (representations.size() + chunkSize - 1) / chunkSize;
+
+        if (chunkCount <= 1) {
+            return fetchEntities(graphQLContext, inlineFragments, representations, dataFetchingEnvironments, 0);
+        }
 
+        // results of the chunks are concatenated in chunk order, so errors are remapped to the index in the batch
+        return fetchChunks(chunkCount, positiveOrUnlimited(entityServiceProvider.maxConcurrentEntityBatches()), chunk -> {
+            int fromIndex = chunk * chunkSize;
+            int toIndex = Math.min(fromIndex + chunkSize, representations.size());
+            return fetchEntities(graphQLContext, inlineFragments, representations.subList(fromIndex, toIndex),
+                dataFetchingEnvironments.subList(fromIndex, toIndex), fromIndex);
+        });
+    }
+
+    private CompletableFuture<List<DataFetcherResult<Object>>> fetchEntities(GraphQLContext graphQLContext,
+        List<InlineFragment> inlineFragments, List<Map<String, Object>> representations,
+        List<DataFetchingEnvironment> dataFetchingEnvironments, int entityIndexOffset) {
+
+        Deadline deadline = DownstreamTimeouts.deadlineFor(graphQLContext, entityServiceProvider);
         EntityQuery entityQuery = EntityQuery.builder()
             .graphQLContext(graphQLContext)
             .inlineFragments(inlineFragments)
             .variables(representations)
             .build();
+        String namespace = entityServiceProvider.getNameSpace();
+
+        if (this.entityServiceProvider instanceof StreamingQueryExecutor) {
+            return DownstreamTimeouts.recoverBatch(DownstreamTimeouts.within(deadline, namespace,
+                    () -> ((StreamingQueryExecutor) this.entityServiceProvider)
+                        .queryForStream(entityQuery.createExecutionInput(), graphQLContext))
+                .thenApply(response -> JsonResponseReader.toBatchResult(response,
+                    (parser, keys) -> streamingBatchResultTransformer.toBatchResult(parser, keys, entityIndexOffset),
+                    dataFetchingEnvironments)), dataFetchingEnvironments);
+        }
+
+        return DownstreamTimeouts.recoverBatch(DownstreamTimeouts.within(deadline, namespace,
+                () -> this.entityServiceProvider.query(entityQuery.createExecutionInput(), graphQLContext))
+            .thenApply(queryResponseModifier::modify)
+            .thenApply(result -> batchResultTransformer.toBatchResult(result, dataFetchingEnvironments,
+                entityIndexOffset)), dataFetchingEnvironments);
+    }
 
-    return this.entityServiceProvider
-        .query(entityQuery.createExecutionInput(), graphQLContext)
-        .thenApply(queryResponseModifier::modify)
-        .thenApply(result -> batchResultTransformer.toBatchResult(result, dataFetchingEnvironments));
+    private static int positiveOrUnlimited(int limit) {
+        return limit > 0 ? limit : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Runs the chunks with at most {@code maxInFlight} of them in flight and concatenates their results in chunk
+     * order. The first chunk that fails fails the result right away and no further chunks are fetched.
+     */
+    private <T> CompletableFuture<List<T>> fetchChunks(int chunkCount, int maxInFlight,
+        IntFunction<CompletableFuture<List<T>>> chunkFetcher) {
+        List<List<T>> chunkResults = new ArrayList<>(Collections.nCopies(chunkCount, null));
+        AtomicInteger nextChunk = new AtomicInteger();
+        CompletableFuture<List<T>> combined = new CompletableFuture<>();
+
+        CompletableFuture<?>[] lanes = new CompletableFuture<?>[Math.min(maxInFlight, chunkCount)];
+        for (int i = 0; i < lanes.length; i++) {
+            ChunkLane<T> lane = new ChunkLane<>(chunkCount, nextChunk, chunkFetcher, chunkResults, combined);
+            lane.fetchNext();
+            lanes[i] = lane.done;
+        }
+
+        CompletableFuture.allOf(lanes).thenRun(() -> combined.complete(chunkResults.stream()
+            .flatMap(List::stream)
+            .collect(Collectors.toList())));
+        return combined;
+    }
+
+    /**
+     * Fetches chunks one after another until none are left. A chunk that completed synchronously, e.g. from a
+     * synchronous executor, is followed by the next one in the same loop rather than in a nested callback, so the
+     * stack does not grow with the number of chunks. A failed chunk leaves no chunks to the other lanes.
+     */
+    private static final class ChunkLane<T> {
+
+        private final int chunkCount;
+        private final AtomicInteger nextChunk;
+        private final IntFunction<CompletableFuture<List<T>>> chunkFetcher;
+        private final List<List<T>> chunkResults;
+        private final CompletableFuture<List<T>> combined;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private ChunkLane(int chunkCount, AtomicInteger nextChunk, IntFunction<CompletableFuture<List<T>>> chunkFetcher,
+            List<List<T>> chunkResults, CompletableFuture<List<T>> combined) {
+            this.chunkCount = chunkCount;
+            this.nextChunk = nextChunk;
+            this.chunkFetcher = chunkFetcher;
+            this.chunkResults = chunkResults;
+            this.combined = combined;
+        }
+
+        private void fetchNext() {
+            int chunk;
+            while ((chunk = nextChunk.getAndIncrement()) < chunkCount) {
+                CompletableFuture<List<T>> result = chunkFetcher.apply(chunk);
+                if (!result.isDone() || result.isCompletedExceptionally()) {
+                    int pendingChunk = chunk;
+                    result.whenComplete((value, throwable) -> {
+                        if (throwable != null) {
+                            nextChunk.set(chunkCount);
+                            combined.completeExceptionally(throwable);
+                            done.completeExceptionally(throwable);
+                        } else {
+                            chunkResults.set(pendingChunk, value);
+                            fetchNext();
+                        }
+                    });
+                    return;
+                }
+                chunkResults.set(chunk, result.join());
+            }
+            done.complete(null);
+        }
+    }
+
+    /**
+     * @return the number of entity representations requested by all batches, including duplicates
+     */
+    public long getRawRepresentationCount() {
+        return rawRepresentationCount.sum();
+    }
+
+    /**
+     * @return the number of entity representations sent to the entity service after duplicates were collapsed
+     */
+    public long getUniqueRepresentationCount() {
+        return uniqueRepresentationCount.sum();
     }
 
     private List<String> generateRepresentationTemplate(FederationMetadata.EntityExtensionMetadata metadata, String fieldName) {
@@ -110,6 +291,12 @@ public class EntityFetcherBatchLoader implements BatchLoader<DataFetchingEnviron
         return representationFields;
     }
 
+    private EntitySelection createEntitySelection(DataFetchingEnvironment dfe) {
+        InlineFragment inlineFragment = createEntityRequestInlineFragment(dfe);
+        return new EntitySelection(inlineFragment, entityCache.isEnabled(entityTypeName, extensionFieldName)
+            ? printAstCompact(inlineFragment) : null);
+    }
+
     private InlineFragment createEntityRequestInlineFragment(DataFetchingEnvironment dfe) {
         Field originalField = dfe.getField();
         final GraphQLType fieldType = unwrapAll(dfe.getFieldType());
@@ -176,4 +363,18 @@ public class EntityFetcherBatchLoader implements BatchLoader<DataFetchingEnviron
             .collect(Collectors.toMap(Field::getName, field -> field.getAlias() == null? field.getName() : field.getAlias()));
     }
 
+    /**
+     * The inline fragment that selects the extension field from the {@code _entities} field, and its printed form if
+     * the field is cached.
+     */
+    private static final class EntitySelection {
+
+        private final InlineFragment inlineFragment;
+        private final String printedInlineFragment;
+
+        private EntitySelection(InlineFragment inlineFragment, String printedInlineFragment) {
+            this.inlineFragment = inlineFragment;
+            this.printedInlineFragment = printedInlineFragment;
+        }
+    }
 }
@@ -1,9 +1,11 @@
 package com.intuit.graphql.orchestrator.batch;
 
 import com.intuit.graphql.orchestrator.federation.EntityFetchingException;
+import graphql.ErrorClassification;
 import graphql.GraphQLError;
 import graphql.execution.DataFetcherResult;
 import graphql.language.Field;
+import graphql.language.SourceLocation;
 import graphql.schema.DataFetchingEnvironment;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
@@ -23,7 +25,7 @@ public class EntityFetcherBatchResultTransformer  implements BatchResultTransfor
     private final String entityName;
     private final String extFieldName;
 
-    private final int ENTITY_PATH_IDX = 1;
+    private static final int ENTITY_PATH_IDX = 1;
 
     public static final String NO_ENTITY_FIELD = "Faulty entity response due to null _entities field";
 
@@ -36,6 +38,18 @@ public class EntityFetcherBatchResultTransformer  implements BatchResultTransfor
     @Override
     public List<DataFetcherResult<Object>> toBatchResult(DataFetcherResult<Map<String, Object>> dataFetcherResult,
                                                          List<DataFetchingEnvironment> dataFetchingEnvironments) {
+        return toBatchResult(dataFetcherResult, dataFetchingEnvironments, 0);
+    }
+
+    /**
+     * Transforms the response of one chunk of an entity fetch batch.
+     *
+     * @param entityIndexOffset the index of the chunk's first entity in the batch. {@code _entities/<idx>} error paths
+     *     are remapped by this offset.
+     */
+    public List<DataFetcherResult<Object>> toBatchResult(DataFetcherResult<Map<String, Object>> dataFetcherResult,
+                                                         List<DataFetchingEnvironment> dataFetchingEnvironments,
+                                                         int entityIndexOffset) {
         List<DataFetcherResult<Object>> dataFetcherResults = new ArrayList<>();
         List<Map<String, Object>> _entities = (MapUtils.isEmpty(dataFetcherResult.getData())) ? Collections.emptyList() : (List<Map<String, Object>>) dataFetcherResult.getData().get(_ENTITIES_FIELD_NAME);
 
@@ -51,7 +65,7 @@ public class EntityFetcherBatchResultTransformer  implements BatchResultTransfor
                     .build();
         }
 
-        mapErrorsToEntities(dataFetcherResult, _entities);
+        mapErrorsToEntities(dataFetcherResult, _entities, entityIndexOffset);
 
         //using IntStream instead of regular for loop or atomic reference, so we can parallelize this if we want
         IntStream.range(0, _entities.size()).forEach( idx -> {
@@ -74,9 +88,11 @@ public class EntityFetcherBatchResultTransformer  implements BatchResultTransfor
         return dataFetcherResults;
     }
 
-    private void mapErrorsToEntities( DataFetcherResult<Map<String, Object>> dataFetcherResult, List<Map<String, Object>> entityList) {
+    private void mapErrorsToEntities( DataFetcherResult<Map<String, Object>> dataFetcherResult, List<Map<String, Object>> entityList, int entityIndexOffset) {
         if(dataFetcherResult.hasErrors()) {
-            dataFetcherResult.getErrors().forEach(error -> {
+            dataFetcherResult.getErrors().forEach(downstreamError -> {
+                Integer pathIndex = downstreamError.getPath() != null ? (Integer) downstreamError.getPath().get(ENTITY_PATH_IDX) : null;
+                GraphQLError error = remapEntityIndex(downstreamError, entityIndexOffset);
                 error.getExtensions().put("serviceNamespace", providerNamespace);
                 error.getExtensions().put("parentTypename", entityName);
                 error.getExtensions().put("fieldName", extFieldName);
@@ -85,7 +101,6 @@ public class EntityFetcherBatchResultTransformer  implements BatchResultTransfor
                 //Decided to ignore if errors have no path to match field resolver. This should not happen though.
                 if(error.getPath() != null) {
                     //path is always _entities/entityIdx/entityField for entity fetch
-                    Integer pathIndex = (Integer) error.getPath().get(ENTITY_PATH_IDX);
                     Map<String, Object> entityInfo = entityList.get(pathIndex);
 
                     if(entityInfo != null) {
@@ -103,4 +118,57 @@ public class EntityFetcherBatchResultTransformer  implements BatchResultTransfor
             });
         }
     }
+
+    /**
+     * Shifts the entity index of an {@code _entities/<idx>/...} error path by {@code entityIndexOffset}.
+     */
+    static GraphQLError remapEntityIndex(GraphQLError error, int entityIndexOffset) {
+        List<Object> path = error.getPath();
+        if (entityIndexOffset == 0 || path == null || path.size() <= ENTITY_PATH_IDX
+            || !(path.get(ENTITY_PATH_IDX) instanceof Integer)) {
+            return error;
+        }
+
+        List<Object> remappedPath = new ArrayList<>(path);
+        remappedPath.set(ENTITY_PATH_IDX, (Integer) path.get(ENTITY_PATH_IDX) + entityIndexOffset);
+        return new RemappedPathError(error, remappedPath);
+    }
+
+    private static class RemappedPathError implements GraphQLError {
+
+        private static final long serialVersionUID = 1L;
+
+        private final GraphQLError error;
+        private final List<Object> path;
+
+        private RemappedPathError(GraphQLError error, List<Object> path) {
+            this.error = error;
+            this.path = path;
+        }
+
+        @Override
+        public String getMessage() {
+            return error.getMessage();
+        }
+
+        @Override
+        public List<SourceLocation> getLocations() {
+            return error.getLocations();
+        }
+
+        @Override
+        public ErrorClassification getErrorType() {
+            return error.getErrorType();
+        }
+
+        @Override
+        public List<Object> getPath() {
+            return path;
+        }
+
+        @Override
+        public Map<String, Object> getExtensions() {
+            return error.getExtensions();
+        }
+    }
 }
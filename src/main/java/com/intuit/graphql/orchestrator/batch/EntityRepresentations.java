@@ -0,0 +1,100 @@
+package com.intuit.graphql.orchestrator.batch;
+
+import graphql.execution.DataFetcherResult;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The entity representations of an entity fetch batch with duplicates collapsed. Keys that resolve the same entity
+ * share a single representation; results for the unique representations are fanned back out to every key. Errors of a
+ * result are reported once, with the first key of its representation.
+ */
+class EntityRepresentations {
+
+  private final List<Map<String, Object>> uniqueRepresentations;
+  private final int[] representationIndexes;
+
+  private EntityRepresentations(List<Map<String, Object>> uniqueRepresentations, int[] representationIndexes) {
+    this.uniqueRepresentations = uniqueRepresentations;
+    this.representationIndexes = representationIndexes;
+  }
+
+  static EntityRepresentations of(List<Map<String, Object>> representations) {
+    Map<Map<String, Object>, Integer> indexByRepresentation = new HashMap<>();
+    List<Map<String, Object>> uniqueRepresentations = new ArrayList<>();
+    int[] representationIndexes = new int[representations.size()];
+
+    for (int i = 0; i < representations.size(); i++) {
+      Map<String, Object> representation = representations.get(i);
+      Integer index = indexByRepresentation.get(representation);
+      if (index == null) {
+        index = uniqueRepresentations.size();
+        indexByRepresentation.put(representation, index);
+        uniqueRepresentations.add(representation);
+      }
+      representationIndexes[i] = index;
+    }
+    return new EntityRepresentations(uniqueRepresentations, representationIndexes);
+  }
+
+  List<Map<String, Object>> getUniqueRepresentations() {
+    return uniqueRepresentations;
+  }
+
+  int getRawCount() {
+    return representationIndexes.length;
+  }
+
+  int getUniqueCount() {
+    return uniqueRepresentations.size();
+  }
+
+  /**
+   * @param keys the keys of the batch, in the order of the raw representations
+   * @return the first key of each unique representation
+   */
+  <T> List<T> uniqueKeys(List<T> keys) {
+    if (getUniqueCount() == getRawCount()) {
+      return keys;
+    }
+    List<T> uniqueKeys = new ArrayList<>(getUniqueCount());
+    for (int i = 0; i < representationIndexes.length; i++) {
+      if (representationIndexes[i] == uniqueKeys.size()) {
+        uniqueKeys.add(keys.get(i));
+      }
+    }
+    return uniqueKeys;
+  }
+
+  /**
+   * @param uniqueResults one result per unique representation
+   * @return one result per key
+   * @throws IllegalStateException if there is not one result per unique representation
+   */
+  List<DataFetcherResult<Object>> fanOut(List<DataFetcherResult<Object>> uniqueResults) {
+    if (uniqueResults.size() != getUniqueCount()) {
+      throw new IllegalStateException(String.format("Expected %d entity results, got %d", getUniqueCount(),
+          uniqueResults.size()));
+    }
+    if (getUniqueCount() == getRawCount()) {
+      return uniqueResults;
+    }
+    List<DataFetcherResult<Object>> results = new ArrayList<>(representationIndexes.length);
+    int fannedOutCount = 0;
+    for (int representationIndex : representationIndexes) {
+      DataFetcherResult<Object> result = uniqueResults.get(representationIndex);
+      if (representationIndex == fannedOutCount) {
+        results.add(result);
+        fannedOutCount++;
+      } else {
+        results.add(DataFetcherResult.newResult()
+            .data(result.getData())
+            .localContext(result.getLocalContext())
+            .build());
+      }
+    }
+    return results;
+  }
+}
@@ -0,0 +1,119 @@
+package com.intuit.graphql.orchestrator.batch;
+
+import com.intuit.graphql.orchestrator.schema.transform.FieldResolverContext;
+import graphql.schema.DataFetchingEnvironment;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The environments of a field resolver batch grouped by the values their resolver arguments are bound from. The
+ * arguments of a {@code @resolver} field are a function of the {@link FieldResolverContext#getRequiredFields()
+ * required fields} of the parent, so environments of the same field node whose parents agree on these values share a
+ * single aliased field in the downstream query.
+ */
+class FieldResolverBatchGroups {
+
+  private final int[] aliasIndexes;
+  private final int uniqueCount;
+
+  private FieldResolverBatchGroups(int[] aliasIndexes, int uniqueCount) {
+    this.aliasIndexes = aliasIndexes;
+    this.uniqueCount = uniqueCount;
+  }
+
+  static FieldResolverBatchGroups of(List<DataFetchingEnvironment> dataFetchingEnvironments,
+      FieldResolverContext fieldResolverContext) {
+    Set<String> requiredFields = fieldResolverContext.getRequiredFields();
+    Map<List<Object>, Integer> indexByKey = new HashMap<>();
+    int[] aliasIndexes = new int[dataFetchingEnvironments.size()];
+    int uniqueCount = 0;
+
+    for (int i = 0; i < dataFetchingEnvironments.size(); i++) {
+      List<Object> key = groupKey(dataFetchingEnvironments.get(i), requiredFields);
+      Integer index = key == null ? null : indexByKey.get(key);
+      if (index == null) {
+        index = uniqueCount++;
+        if (key != null) {
+          indexByKey.put(key, index);
+        }
+      }
+      aliasIndexes[i] = index;
+    }
+    return new FieldResolverBatchGroups(aliasIndexes, uniqueCount);
+  }
+
+  /**
+   * @return the field node and the values of the required fields, or {@code null} if the environment cannot share a
+   * group
+   */
+  private static List<Object> groupKey(DataFetchingEnvironment dataFetchingEnvironment, Set<String> requiredFields) {
+    Map<String, Object> parentSource = dataFetchingEnvironment.getSource();
+    if (requiredFields == null || parentSource == null) {
+      return null;
+    }
+    List<Object> key = new ArrayList<>(requiredFields.size() + 1);
+    key.add(new FieldIdentity(dataFetchingEnvironment));
+    for (String requiredField : requiredFields) {
+      key.add(parentSource.get(requiredField));
+    }
+    return key;
+  }
+
+  int getRawCount() {
+    return aliasIndexes.length;
+  }
+
+  int getUniqueCount() {
+    return uniqueCount;
+  }
+
+  /**
+   * @return for each environment, the alias index of the field that resolves its group
+   */
+  int[] getAliasIndexes() {
+    return aliasIndexes;
+  }
+
+  /**
+   * @param dataFetchingEnvironments the environments of the batch
+   * @return the first environment of each group
+   */
+  List<DataFetchingEnvironment> uniqueEnvironments(List<DataFetchingEnvironment> dataFetchingEnvironments) {
+    if (getUniqueCount() == getRawCount()) {
+      return dataFetchingEnvironments;
+    }
+    List<DataFetchingEnvironment> uniqueEnvironments = new ArrayList<>(getUniqueCount());
+    for (int i = 0; i < aliasIndexes.length; i++) {
+      if (aliasIndexes[i] == uniqueEnvironments.size()) {
+        uniqueEnvironments.add(dataFetchingEnvironments.get(i));
+      }
+    }
+    return uniqueEnvironments;
+  }
+
+  /**
+   * Compares the field nodes of environments by identity: environments of the items of a list share the node, and the
+   * node determines the selection set sent downstream.
+   */
+  private static class FieldIdentity {
+
+    private final Object field;
+
+    FieldIdentity(DataFetchingEnvironment dataFetchingEnvironment) {
+      this.field = dataFetchingEnvironment.getField();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof FieldIdentity && ((FieldIdentity) o).field == field;
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(field);
+    }
+  }
+}
@@ -1,7 +1,11 @@
 package com.intuit.graphql.orchestrator.batch;
 
 import com.intuit.graphql.orchestrator.ServiceProvider;
+import com.intuit.graphql.orchestrator.cache.PrintedQueryCache;
+import com.intuit.graphql.orchestrator.deadline.Deadline;
+import com.intuit.graphql.orchestrator.deadline.DownstreamTimeouts;
 import com.intuit.graphql.orchestrator.fieldresolver.FieldResolverBatchSelectionSetSupplier;
+import com.intuit.graphql.orchestrator.fieldresolver.ValueTemplate;
 import com.intuit.graphql.orchestrator.fieldresolver.QueryOperationFactory;
 import com.intuit.graphql.orchestrator.resolverdirective.ResolverDirectiveDefinition;
 import com.intuit.graphql.orchestrator.schema.GraphQLObjects;
@@ -28,12 +32,13 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 import static com.intuit.graphql.orchestrator.GraphQLOrchestrator.DATA_LOADER_REGISTRY_CONTEXT_KEY;
 import static com.intuit.graphql.orchestrator.resolverdirective.FieldResolverDirectiveUtil.FQN_FIELD_SEPARATOR;
 import static com.intuit.graphql.orchestrator.resolverdirective.FieldResolverDirectiveUtil.createFieldResolverOperationName;
-import static graphql.language.AstPrinter.printAstCompact;
 
 public class FieldResolverBatchLoader implements BatchLoader<DataFetchingEnvironment, DataFetcherResult<Object>> {
 
@@ -45,15 +50,28 @@ public class FieldResolverBatchLoader implements BatchLoader<DataFetchingEnviron
 
   private final FieldResolverContext fieldResolverContext;
 
-  private final BatchResultTransformer batchResultTransformer;
+  private final FieldResolverBatchResultTransformer batchResultTransformer;
 
   private final ServiceMetadata serviceMetadata;
 
+  private final Map<String, ValueTemplate> valueTemplates = new ConcurrentHashMap<>();
+
   private final QueryOperationFactory queryOperationFactory = new QueryOperationFactory();
 
+  private final PrintedQueryCache printedQueryCache = PrintedQueryCache.defaultInstance();
+
+  private final FieldResolverQueryMode queryMode;
+
+  private final LongAdder rawFieldCount = new LongAdder();
+  private final LongAdder uniqueFieldCount = new LongAdder();
 
+
+  /**
+   * @param queryMode how to pass the resolver arguments, {@link FieldResolverQueryMode#INLINE} if {@code null}
+   */
   @Builder
-  public FieldResolverBatchLoader(FieldResolverContext fieldResolverContext, ServiceMetadata serviceMetadata) {
+  public FieldResolverBatchLoader(FieldResolverContext fieldResolverContext, ServiceMetadata serviceMetadata,
+      FieldResolverQueryMode queryMode) {
     Objects.requireNonNull(fieldResolverContext, "fieldResolverContext is required");
     Objects.requireNonNull(fieldResolverContext.getResolverDirectiveDefinition(),
         "resolverDirectiveDefinition is required");
@@ -62,10 +80,16 @@ public class FieldResolverBatchLoader implements BatchLoader<DataFetchingEnviron
 
     this.serviceMetadata = serviceMetadata;
     this.fieldResolverContext = fieldResolverContext;
+    this.queryMode = queryMode == null ? FieldResolverQueryMode.INLINE : queryMode;
     ResolverDirectiveDefinition resolverDirectiveDefinition = fieldResolverContext.getResolverDirectiveDefinition();
 
     this.resolverSelectedFields = StringUtils.split(resolverDirectiveDefinition.getField(), FQN_FIELD_SEPARATOR);
     this.batchResultTransformer = new FieldResolverBatchResultTransformer(resolverSelectedFields, fieldResolverContext);
+    if (resolverDirectiveDefinition.getArguments() != null) {
+      resolverDirectiveDefinition.getArguments().forEach(resolverArgumentDefinition -> valueTemplates
+          .put(resolverArgumentDefinition.getName(),
+              ValueTemplate.forArgument(fieldResolverContext, resolverArgumentDefinition)));
+    }
   }
 
   @Override
@@ -74,29 +98,58 @@ public class FieldResolverBatchLoader implements BatchLoader<DataFetchingEnviron
     String originalOperationName = dataFetchingEnvironments.get(0).getOperationDefinition().getName();
     String downstreamQueryOpName = createFieldResolverOperationName(originalOperationName);
 
+    FieldResolverBatchGroups batchGroups = FieldResolverBatchGroups.of(dataFetchingEnvironments, fieldResolverContext);
+    rawFieldCount.add(batchGroups.getRawCount());
+    uniqueFieldCount.add(batchGroups.getUniqueCount());
+
+    List<DataFetchingEnvironment> batchEnvironments = batchGroups.uniqueEnvironments(dataFetchingEnvironments);
+
     FieldResolverBatchSelectionSetSupplier fieldResolverBatchSelectionSetSupplier =
-            new FieldResolverBatchSelectionSetSupplier(resolverSelectedFields,
-                dataFetchingEnvironments, fieldResolverContext, serviceMetadata);
+            new FieldResolverBatchSelectionSetSupplier(resolverSelectedFields, batchEnvironments,
+                fieldResolverContext, serviceMetadata, valueTemplates, queryMode);
 
     SelectionSet selectionSet = fieldResolverBatchSelectionSetSupplier.get();
-    OperationDefinition downstreamQueryOpDef = queryOperationFactory.create(downstreamQueryOpName, selectionSet);
+    Map<String, Object> variables = fieldResolverBatchSelectionSetSupplier.getVariables();
+    OperationDefinition downstreamQueryOpDef = queryOperationFactory.create(downstreamQueryOpName, selectionSet,
+        fieldResolverBatchSelectionSetSupplier.getVariableDefinitions());
 
     if (this.fieldResolverContext.isRequiresTypeNameInjection()) {
       downstreamQueryOpDef = queryOperationModifier.modifyQuery(
           dataFetchingEnvironments.get(0).getGraphQLSchema(),
           downstreamQueryOpDef,
           // each DFE have identical fragmentsByName since this is a batch call for same field
-          // Arguments on the field with @resolver now allowed, set variables empty
-          dataFetchingEnvironments.get(0).getFragmentsByName(), Collections.emptyMap());
+          // Arguments on the field with @resolver now allowed, only the resolver argument variables are set
+          dataFetchingEnvironments.get(0).getFragmentsByName(), variables);
     }
 
     List<Definition<FragmentDefinition>> downstreamQueryFragmentDefinitions =
         createResolverQueryFragmentDefinitions(dataFetchingEnvironments.get(0));
 
+    OperationDefinition downstreamQuery = downstreamQueryOpDef;
     ServiceProvider serviceProvider = serviceMetadata.getServiceProvider();
-    return execute(dataFetchingEnvironments.get(0), downstreamQueryOpDef, downstreamQueryFragmentDefinitions, serviceProvider)
+    GraphQLContext context = dataFetchingEnvironments.get(0).getContext();
+    Deadline deadline = DownstreamTimeouts.deadlineFor(context, serviceProvider);
+    return DownstreamTimeouts.recoverBatch(DownstreamTimeouts.within(deadline, serviceProvider.getNameSpace(),
+            () -> execute(context, downstreamQuery, downstreamQueryFragmentDefinitions,
+                variables, serviceProvider))
         .thenApply(queryResponseModifier::modify)
-        .thenApply(result -> batchResultTransformer.toBatchResult(result, dataFetchingEnvironments));
+        .thenApply(result -> batchResultTransformer.toBatchResult(result, dataFetchingEnvironments,
+            batchGroups.getAliasIndexes())),
+        dataFetchingEnvironments);
+  }
+
+  /**
+   * @return the number of resolver fields requested by all batches, including fields with identical arguments
+   */
+  public long getRawFieldCount() {
+    return rawFieldCount.sum();
+  }
+
+  /**
+   * @return the number of aliased fields sent downstream after fields with identical arguments were collapsed
+   */
+  public long getUniqueFieldCount() {
+    return uniqueFieldCount.sum();
   }
 
   private List<Definition<FragmentDefinition>> createResolverQueryFragmentDefinitions(DataFetchingEnvironment dataFetchingEnvironment) {
@@ -113,13 +166,12 @@ public class FieldResolverBatchLoader implements BatchLoader<DataFetchingEnviron
         .collect(Collectors.toList());
   }
 
-  private CompletableFuture<Map<String, Object>> execute(DataFetchingEnvironment dataFetchingEnvironment,
+  private CompletableFuture<Map<String, Object>> execute(GraphQLContext context,
       OperationDefinition resolverQueryOpDef,
       List<Definition<FragmentDefinition>> resolverQueryFragmentDefs,
+      Map<String, Object> variables,
       ServiceProvider serviceProvider
   ) {
-    GraphQLContext context = dataFetchingEnvironment.getContext();
-
     Document resolverQueryDoc = Document.newDocument()
         .definitions(resolverQueryFragmentDefs.stream().map(GraphQLObjects::<Definition<FragmentDefinition>>cast)
             .collect(Collectors.toList()))
@@ -130,11 +182,12 @@ public class FieldResolverBatchLoader implements BatchLoader<DataFetchingEnviron
         .dataLoaderRegistry(context.get(DATA_LOADER_REGISTRY_CONTEXT_KEY))
         .context(context)
         .root(resolverQueryDoc)
-        .query(printAstCompact(resolverQueryDoc))
+        .query(printedQueryCache.print(resolverQueryDoc))
+        .variables(variables)
         .operationName(resolverQueryOpDef.getName())
         .build();
 
-    return serviceProvider.query(resolverQueryExecutionInput, dataFetchingEnvironment.getContext());
+    return serviceProvider.query(resolverQueryExecutionInput, context);
   }
 
 }
\ No newline at end of file
@@ -50,6 +50,19 @@ public class FieldResolverBatchResultTransformer implements BatchResultTransform
   @Override
   public List<DataFetcherResult<Object>> toBatchResult(DataFetcherResult<Map<String, Object>> dataFetcherResult,
       List<DataFetchingEnvironment> dataFetchingEnvironments) {
+    int[] aliasIndexes = new int[CollectionUtils.size(dataFetchingEnvironments)];
+    Arrays.setAll(aliasIndexes, i -> i);
+    return toBatchResult(dataFetcherResult, dataFetchingEnvironments, aliasIndexes);
+  }
+
+  /**
+   * Transforms the result of a batch in which environments share aliased fields. The data and the errors of each field
+   * are fanned out to every environment that shares it, with the errors mapped to the path of the environment.
+   *
+   * @param aliasIndexes for each environment, the alias index of its field
+   */
+  public List<DataFetcherResult<Object>> toBatchResult(DataFetcherResult<Map<String, Object>> dataFetcherResult,
+      List<DataFetchingEnvironment> dataFetchingEnvironments, int[] aliasIndexes) {
 
     List<DataFetcherResult<Object>> dataFetcherResults = new ArrayList<>();
 
@@ -58,12 +71,13 @@ public class FieldResolverBatchResultTransformer implements BatchResultTransform
 
       Object pathData = null;
       if (MapUtils.isNotEmpty(dataFetcherResult.getData())) {
-        pathData = getDataFromBatchResult(dataFetcherResult.getData(), i);
+        pathData = getDataFromBatchResult(dataFetcherResult.getData(), aliasIndexes[i]);
       }
 
       List<GraphQLError> pathErrors = Collections.emptyList();
       if (CollectionUtils.isNotEmpty(dataFetcherResult.getErrors())) {
-        pathErrors = getErrorsFromBatchResult(dataFetcherResult.getErrors(), dataFetchingEnvironment, i);
+        pathErrors = getErrorsFromBatchResult(dataFetcherResult.getErrors(), dataFetchingEnvironment, aliasIndexes[i],
+            i == 0);
       }
 
       dataFetcherResults.add(DataFetcherResult.newResult()
@@ -91,7 +105,7 @@ public class FieldResolverBatchResultTransformer implements BatchResultTransform
   }
 
   private List<GraphQLError> getErrorsFromBatchResult(List<GraphQLError> batchErrors,
-      DataFetchingEnvironment dfe, int aliasCounter) {
+      DataFetchingEnvironment dfe, int aliasCounter, boolean includeErrorsWithoutPath) {
 
     int lastIndex = resolverSelectedFields.length - 1;
     String leafFieldName = resolverSelectedFields[lastIndex];
@@ -100,7 +114,7 @@ public class FieldResolverBatchResultTransformer implements BatchResultTransform
         .replaceSegment(createAlias(leafFieldName, aliasCounter));
 
     List<GraphQLError> errorsWithoutPath = Collections.emptyList();
-    if (aliasCounter == 0) {
+    if (includeErrorsWithoutPath) {
       errorsWithoutPath = batchErrors
           .stream()
           .filter(graphQLError -> CollectionUtils.isEmpty(graphQLError.getPath()))  // Ideally this shouldn't happen. The specs requires errors to have path if can be associated in the field.
@@ -0,0 +1,25 @@
+package com.intuit.graphql.orchestrator.batch;
+
+/**
+ * How {@link FieldResolverBatchLoader} passes the arguments of a {@code @resolver} field to the target service.
+ */
+public enum FieldResolverQueryMode {
+
+  /**
+   * Argument values are inlined as literals. Every batch produces its own query text.
+   */
+  INLINE,
+
+  /**
+   * Argument values are passed as variables, e.g. {@code $id_0}. The query text of a batch depends only on its size,
+   * so that downstream parse and validation caches can hit.
+   */
+  VARIABLES,
+
+  /**
+   * Like {@link #VARIABLES}, with the batch padded to the next power of two by repeating its last field. The padding
+   * fields are skipped with {@code @skip} directives whose variables are set to true, so the target service does not
+   * resolve them. Trades a few variables for fewer distinct query texts.
+   */
+  BUCKETED_VARIABLES
+}
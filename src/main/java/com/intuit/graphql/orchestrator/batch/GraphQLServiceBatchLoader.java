@@ -1,7 +1,6 @@
 package com.intuit.graphql.orchestrator.batch;
 
 import static com.intuit.graphql.orchestrator.schema.transform.DomainTypesTransformer.DELIMITER;
-import static graphql.language.AstPrinter.printAstCompact;
 import static graphql.language.OperationDefinition.Operation.QUERY;
 import static graphql.schema.GraphQLTypeUtil.unwrapAll;
 import static java.util.Objects.requireNonNull;
@@ -11,7 +10,10 @@ import com.intuit.graphql.orchestrator.authorization.DownstreamQueryRedactor;
 import com.intuit.graphql.orchestrator.authorization.DownstreamQueryRedactorResult;
 import com.intuit.graphql.orchestrator.authorization.FieldAuthorization;
 import com.intuit.graphql.orchestrator.batch.MergedFieldModifier.MergedFieldModifierResult;
-import com.intuit.graphql.orchestrator.schema.GraphQLObjects;
+import com.intuit.graphql.orchestrator.cache.PrintedQueryCache;
+import com.intuit.graphql.orchestrator.cache.RootFieldResultCache;
+import com.intuit.graphql.orchestrator.deadline.Deadline;
+import com.intuit.graphql.orchestrator.deadline.DownstreamTimeouts;
 import com.intuit.graphql.orchestrator.schema.ServiceMetadata;
 import graphql.ExecutionInput;
 import graphql.GraphQLContext;
@@ -20,14 +22,11 @@ import graphql.VisibleForTesting;
 import graphql.execution.DataFetcherResult;
 import graphql.execution.ExecutionStepInfo;
 import graphql.execution.MergedField;
-import graphql.language.Definition;
 import graphql.language.Directive;
-import graphql.language.Document;
 import graphql.language.Field;
 import graphql.language.FragmentDefinition;
 import graphql.language.OperationDefinition;
 import graphql.language.OperationDefinition.Operation;
-import graphql.language.Selection;
 import graphql.language.SelectionSet;
 import graphql.language.TypeName;
 import graphql.language.VariableDefinition;
@@ -41,6 +40,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -49,6 +49,7 @@ import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.collections4.MultiValuedMap;
@@ -56,6 +57,7 @@ import org.apache.commons.collections4.multimap.ArrayListValuedHashMap;
 import org.apache.commons.lang3.StringUtils;
 import org.dataloader.BatchLoader;
 
+@Slf4j
 public class GraphQLServiceBatchLoader implements BatchLoader<DataFetchingEnvironment, DataFetcherResult<Object>> {
 
   private final FieldAuthorization DEFAULT_FIELD_AUTHORIZATION = new DefaultFieldAuthorization();
@@ -65,7 +67,10 @@ public class GraphQLServiceBatchLoader implements BatchLoader<DataFetchingEnviro
   private final QueryOperationModifier queryOperationModifier;
   private final ServiceMetadata serviceMetadata;
   private final BatchLoaderExecutionHooks<DataFetchingEnvironment, DataFetcherResult<Object>> hooks;
-  private DownStreamQueryOptimizer queryOptimizer;
+  private final PrintedQueryCache printedQueryCache;
+  private final DownstreamQueryPlanCache queryPlanCache;
+  private final RootFieldResultCache resultCache;
+  private final StreamingBatchResultTransformer streamingBatchResultTransformer;
 
   @VisibleForTesting
   VariableDefinitionFilter variableDefinitionFilter = new VariableDefinitionFilter();
@@ -77,6 +82,10 @@ public class GraphQLServiceBatchLoader implements BatchLoader<DataFetchingEnviro
     this.queryOperationModifier = builder.queryOperationModifier;
     this.serviceMetadata = builder.serviceMetadata;
     this.hooks = builder.hooks;
+    this.printedQueryCache = builder.printedQueryCache;
+    this.queryPlanCache = builder.queryPlanCache;
+    this.resultCache = builder.resultCache;
+    this.streamingBatchResultTransformer = builder.streamingBatchResultTransformer;
   }
 
   @Override
@@ -98,12 +107,118 @@ public class GraphQLServiceBatchLoader implements BatchLoader<DataFetchingEnviro
   private CompletableFuture<List<DataFetcherResult<Object>>> load(List<DataFetchingEnvironment> keys,
       GraphQLContext context, Object authData, FieldAuthorization fieldAuthorization) {
 
+    // cached results may only be served if field authorization cannot redact them
+    if (!resultCache.isEnabled() || !(fieldAuthorization instanceof DefaultFieldAuthorization)) {
+      return loadFromService(keys, context, authData, fieldAuthorization, hooks);
+    }
+
+    RootFieldResultCache.Batch cachedBatch = resultCache.lookup(serviceMetadata, context, keys);
+    if (!cachedBatch.hasCachedResults()) {
+      return loadFromService(keys, context, authData, fieldAuthorization, hooks).thenApply(cachedBatch::complete);
+    }
+
+    List<DataFetchingEnvironment> staleKeys = cachedBatch.getStaleKeys();
+    if (!staleKeys.isEmpty()) {
+      refresh(cachedBatch, staleKeys, context, authData, fieldAuthorization);
+    }
+
+    List<DataFetchingEnvironment> missingKeys = cachedBatch.getMissingKeys();
+    if (missingKeys.isEmpty()) {
+      return CompletableFuture.completedFuture(cachedBatch.complete(Collections.emptyList()));
+    }
+    return loadFromService(missingKeys, context, authData, fieldAuthorization, hooks)
+        .thenApply(cachedBatch::complete);
+  }
+
+  /**
+   * Fetches stale results in the background. The refresh is not part of the batch of the request, so it runs without
+   * the execution hooks, and its failures are logged as no caller sees them.
+   */
+  private void refresh(RootFieldResultCache.Batch cachedBatch, List<DataFetchingEnvironment> staleKeys,
+      GraphQLContext context, Object authData, FieldAuthorization fieldAuthorization) {
+    CompletableFuture<List<DataFetcherResult<Object>>> refreshedResults;
+    try {
+      refreshedResults = loadFromService(staleKeys, context, authData, fieldAuthorization,
+          BatchLoaderExecutionHooks.DEFAULT_HOOKS);
+    } catch (RuntimeException e) {
+      refreshedResults = new CompletableFuture<>();
+      refreshedResults.completeExceptionally(e);
+    }
+    refreshedResults.whenComplete((results, throwable) -> {
+      if (throwable != null) {
+        log.warn("Failed to refresh cached results of {}", serviceMetadata.getServiceProvider().getNameSpace(),
+            throwable);
+      }
+      cachedBatch.refresh(results);
+    });
+  }
+
+  private CompletableFuture<List<DataFetcherResult<Object>>> loadFromService(List<DataFetchingEnvironment> keys,
+      GraphQLContext context, Object authData, FieldAuthorization fieldAuthorization,
+      BatchLoaderExecutionHooks<DataFetchingEnvironment, DataFetcherResult<Object>> hooks) {
+
     hooks.onBatchLoadStart(context, keys);
 
     Optional<OperationDefinition> operation = getFirstOperation(keys);
     Operation operationType = operation.map(OperationDefinition::getOperation).orElse(QUERY);
     String operationName = operation.map(OperationDefinition::getName).orElse(operationType.toString());
 
+    MultiValuedMap<String, GraphqlErrorException> queryRedactErrorsByKey = new ArrayListValuedHashMap<>();
+
+    Map<String, Object> mergedVariables = new HashMap<>();
+    keys.stream()
+        .flatMap(dataFetchingEnvironment -> dataFetchingEnvironment.getVariables().entrySet().stream())
+        .distinct()
+        .forEach(entry -> mergedVariables.put(entry.getKey(), entry.getValue()));
+
+    // the downstream query only depends on the client operation as long as field authorization does not redact it
+    DownstreamQueryPlan queryPlan = fieldAuthorization instanceof DefaultFieldAuthorization
+        ? queryPlanCache.get(keys, serviceMetadata.getServiceProvider().getNameSpace(), operationName,
+            () -> createQueryPlan(keys, operation, operationType, operationName, authData, fieldAuthorization,
+                queryRedactErrorsByKey, mergedVariables))
+        : createQueryPlan(keys, operation, operationType, operationName, authData, fieldAuthorization,
+            queryRedactErrorsByKey, mergedVariables);
+
+    if (queryPlan.isEmpty()) {
+      List<DataFetcherResult<Object>> batchResult = keys.stream()
+        .map( key -> {
+          String keyPath = key.getExecutionStepInfo().getPath().toString();
+          Collection<GraphqlErrorException> graphqlErrorsColl = queryRedactErrorsByKey.get(keyPath);
+          return DataFetcherResult.newResult()
+          .errors(new ArrayList<>(graphqlErrorsColl))
+          .build();
+        })
+        .collect(Collectors.toList());
+      return CompletableFuture.completedFuture(batchResult);
+    }
+
+    Map<String, Object> filteredVariables = queryPlan.filterVariables(mergedVariables);
+    OperationDefinition queryOp = queryPlan.getOperationDefinition();
+    String namespace = serviceMetadata.getServiceProvider().getNameSpace();
+    Deadline deadline = DownstreamTimeouts.deadlineFor(context, serviceMetadata.getServiceProvider());
+    ExecutionInput executionInput = createExecutionInput(context, queryPlan, filteredVariables, hooks);
+
+    CompletableFuture<List<DataFetcherResult<Object>>> batchResultFuture = isStreaming(queryOp)
+        ? DownstreamTimeouts.within(deadline, namespace,
+                () -> ((StreamingQueryExecutor) queryExecutor).queryForStream(executionInput, context))
+            .thenApply(response -> JsonResponseReader.toBatchResult(response, streamingBatchResultTransformer, keys))
+        : DownstreamTimeouts.within(deadline, namespace, () -> execute(context, queryOp, executionInput, hooks))
+            .thenApply(queryResponseModifier::modify)
+            .thenApply(result -> batchResultTransformer.toBatchResult(result, keys));
+
+    return DownstreamTimeouts.recoverBatch(batchResultFuture, keys)
+        .thenApply(batchResult -> addQueryRedactErrors(batchResult, queryRedactErrorsByKey, keys))
+        .thenApply(batchResult -> {
+          hooks.onBatchLoadEnd(context, batchResult);
+          return batchResult;
+        });
+  }
+
+  private DownstreamQueryPlan createQueryPlan(List<DataFetchingEnvironment> keys,
+      Optional<OperationDefinition> operation, Operation operationType, String operationName, Object authData,
+      FieldAuthorization fieldAuthorization, MultiValuedMap<String, GraphqlErrorException> queryRedactErrorsByKey,
+      Map<String, Object> mergedVariables) {
+
     GraphQLSchema graphQLSchema = getSchema(keys);
 
     List<Directive> operationDirectives = operation.map(OperationDefinition::getDirectives)
@@ -115,8 +230,6 @@ public class GraphQLServiceBatchLoader implements BatchLoader<DataFetchingEnviro
 
     Map<String, FragmentDefinition> mergedFragmentDefinitions = new HashMap<>();
 
-    MultiValuedMap<String, GraphqlErrorException> queryRedactErrorsByKey = new ArrayListValuedHashMap<>();
-
     for (final DataFetchingEnvironment key : keys) {
       MergedFieldModifierResult result = new MergedFieldModifier(key).getFilteredRootField();
       MergedField filteredRootField = result.getMergedField();
@@ -132,12 +245,8 @@ public class GraphQLServiceBatchLoader implements BatchLoader<DataFetchingEnviro
         if (mergedFragmentDefinitions.containsKey(fragmentDefinition.getName())) {
           FragmentDefinition old = mergedFragmentDefinitions.get(fragmentDefinition.getName());
 
-          List<Selection> newSelections = fragmentDefinition.getSelectionSet().getSelections();
-          List<Selection> oldSelections = new ArrayList<>(old.getSelectionSet().getSelections());
-
-          oldSelections.addAll(newSelections);
-
-          SelectionSet newSelectionSet = old.getSelectionSet().transform(builder -> builder.selections(oldSelections));
+          SelectionSet newSelectionSet = old.getSelectionSet().transform(builder ->
+              fragmentDefinition.getSelectionSet().getSelections().forEach(builder::selection));
 
           mergedFragmentDefinitions.put(old.getName(), old.transform(builder -> builder.selectionSet(newSelectionSet)));
         } else {
@@ -165,26 +274,11 @@ public class GraphQLServiceBatchLoader implements BatchLoader<DataFetchingEnviro
 
     SelectionSet filteredSelection = selectionSetBuilder.build();
     if (CollectionUtils.isEmpty(filteredSelection.getSelections())) {
-      List<DataFetcherResult<Object>> batchResult = keys.stream()
-        .map( key -> {
-          String keyPath = key.getExecutionStepInfo().getPath().toString();
-          Collection<GraphqlErrorException> graphqlErrorsColl = queryRedactErrorsByKey.get(keyPath);
-          return DataFetcherResult.newResult()
-          .errors(new ArrayList<>(graphqlErrorsColl))
-          .build();
-        })
-        .collect(Collectors.toList());
-      return CompletableFuture.completedFuture(batchResult);
+      return DownstreamQueryPlan.EMPTY;
     }
-    queryOptimizer = new DownStreamQueryOptimizer(operationType);
+    DownStreamQueryOptimizer queryOptimizer = new DownStreamQueryOptimizer(operationType);
     filteredSelection = queryOptimizer.getTransformedSelectionSet(filteredSelection);
 
-    Map<String, Object> mergedVariables = new HashMap<>();
-    keys.stream()
-        .flatMap(dataFetchingEnvironment -> dataFetchingEnvironment.getVariables().entrySet().stream())
-        .distinct()
-        .forEach(entry -> mergedVariables.put(entry.getKey(), entry.getValue()));
-
     List<VariableDefinition> variableDefinitions = keys.stream()
         .map(DataFetchingEnvironment::getOperationDefinition)
         .filter(Objects::nonNull)
@@ -192,8 +286,7 @@ public class GraphQLServiceBatchLoader implements BatchLoader<DataFetchingEnviro
         .distinct()
         .collect(Collectors.toList());
 
-    List<Definition> fragmentsAsDefinitions = mergedFragmentDefinitions.values().stream()
-        .map(GraphQLObjects::<Definition>cast).collect(Collectors.toList());
+    List<FragmentDefinition> fragmentDefinitions = new ArrayList<>(mergedFragmentDefinitions.values());
 
     OperationDefinition query = OperationDefinition.newOperationDefinition()
         .name(operationName)
@@ -204,6 +297,7 @@ public class GraphQLServiceBatchLoader implements BatchLoader<DataFetchingEnviro
         .build();
 
     Map<String, Object> filteredVariables = mergedVariables;
+    Set<String> variableNames = null;
 
     if (!variableDefinitions.isEmpty()) {
       final Set<String> foundVariableReferences = variableDefinitionFilter.getVariableReferencesFromNode(
@@ -218,6 +312,10 @@ public class GraphQLServiceBatchLoader implements BatchLoader<DataFetchingEnviro
           .filter(variableDefinition -> foundVariableReferences.contains(variableDefinition.getName()))
           .collect(Collectors.toList());
 
+      variableNames = filteredVariableDefinitions.stream()
+          .map(VariableDefinition::getName)
+          .collect(Collectors.toCollection(LinkedHashSet::new));
+
       filteredVariables = filterVariables(filteredVariableDefinitions, mergedVariables);
 
       query = query.transform(builder -> builder.variableDefinitions(filteredVariableDefinitions));
@@ -227,14 +325,7 @@ public class GraphQLServiceBatchLoader implements BatchLoader<DataFetchingEnviro
       query = queryOperationModifier.modifyQuery(graphQLSchema, query, mergedFragmentDefinitions, filteredVariables);
     }
 
-    return execute(context, query, filteredVariables, fragmentsAsDefinitions)
-        .thenApply(queryResponseModifier::modify)
-        .thenApply(result -> batchResultTransformer.toBatchResult(result, keys))
-        .thenApply(batchResult -> addQueryRedactErrors(batchResult, queryRedactErrorsByKey, keys))
-        .thenApply(batchResult -> {
-          hooks.onBatchLoadEnd(context, batchResult);
-          return batchResult;
-        });
+    return new DownstreamQueryPlan(query, fragmentDefinitions, variableNames);
   }
 
   private List<DataFetcherResult<Object>> addQueryRedactErrors(
@@ -296,34 +387,41 @@ public class GraphQLServiceBatchLoader implements BatchLoader<DataFetchingEnviro
     return map;
   }
 
-  private CompletableFuture<Map<String, Object>> execute(GraphQLContext context, OperationDefinition queryOp,
-      final Map<String, Object> variables, List<Definition> fragmentDefinitions) {
-    Document document = Document.newDocument()
-        .definitions(fragmentDefinitions)
-        .definition(queryOp)
-        .build();
-
+  private ExecutionInput createExecutionInput(GraphQLContext context, DownstreamQueryPlan queryPlan,
+      final Map<String, Object> variables,
+      BatchLoaderExecutionHooks<DataFetchingEnvironment, DataFetcherResult<Object>> hooks) {
     ExecutionInput i = ExecutionInput.newExecutionInput()
-        .context(context)
-        .root(document)
-        .query(printAstCompact(document))
-        .operationName(queryOp.getName())
+        .graphQLContext(builder -> builder.of(context))
+        .root(queryPlan.getDocument())
+        .query(queryPlan.getQuery(printedQueryCache))
+        .operationName(queryPlan.getOperationDefinition().getName())
         .variables(variables)
         .build();
 
     hooks.onExecutionInput(context, i);
+    return i;
+  }
 
+  private CompletableFuture<Map<String, Object>> execute(GraphQLContext context, OperationDefinition queryOp,
+      ExecutionInput executionInput,
+      BatchLoaderExecutionHooks<DataFetchingEnvironment, DataFetcherResult<Object>> hooks) {
     if (queryOp.getSelectionSet().getSelections().isEmpty()) {
       return CompletableFuture.completedFuture(new HashMap<>());
     }
 
-    return this.queryExecutor.query(i, context)
+    return this.queryExecutor.query(executionInput, context)
         .thenApply(result -> {
           hooks.onQueryResult(context, result);
           return result;
         });
   }
 
+  private boolean isStreaming(OperationDefinition queryOp) {
+    return streamingBatchResultTransformer != null && queryExecutor instanceof StreamingQueryExecutor
+        && !queryOp.getSelectionSet().getSelections().isEmpty();
+  }
+
+
   private FragmentDefinition redactFragmentDefinition(final FragmentDefinition origFragmentDefinition,
       GraphQLType typeCondition, Object authData, FieldAuthorization fieldAuthorization,
       DataFetchingEnvironment dataFetchingEnvironment, MultiValuedMap<String, GraphqlErrorException> queryRedactErrorsByKey,
@@ -405,7 +503,7 @@ public class GraphQLServiceBatchLoader implements BatchLoader<DataFetchingEnviro
 
   private GraphQLContext getContext(List<DataFetchingEnvironment> environments) {
     return environments.stream()
-        .map(DataFetchingEnvironment::<GraphQLContext>getContext)
+        .map(DataFetchingEnvironment::getGraphQlContext)
         .filter(Objects::nonNull)
         .findFirst()
         .orElse(null);
@@ -426,6 +524,7 @@ public class GraphQLServiceBatchLoader implements BatchLoader<DataFetchingEnviro
 
     public static final QueryResponseModifier defaultQueryResponseModifier = new DefaultQueryResponseModifier();
     public static final BatchResultTransformer defaultBatchResultTransformer = new SubtreeBatchResultTransformer();
+    public static final StreamingBatchResultTransformer defaultStreamingBatchResultTransformer = new StreamingSubtreeBatchResultTransformer();
     public static final BatchLoaderExecutionHooks<DataFetchingEnvironment, DataFetcherResult<Object>> defaultHooks = BatchLoaderExecutionHooks.DEFAULT_HOOKS;
 
     private Builder() {
@@ -438,6 +537,10 @@ public class GraphQLServiceBatchLoader implements BatchLoader<DataFetchingEnviro
     private BatchResultTransformer batchResultTransformer = defaultBatchResultTransformer;
     private QueryOperationModifier queryOperationModifier = new QueryOperationModifier();
     private BatchLoaderExecutionHooks<DataFetchingEnvironment, DataFetcherResult<Object>> hooks = defaultHooks;
+    private PrintedQueryCache printedQueryCache = PrintedQueryCache.defaultInstance();
+    private DownstreamQueryPlanCache queryPlanCache = DownstreamQueryPlanCache.NONE;
+    private RootFieldResultCache resultCache = RootFieldResultCache.NONE;
+    private StreamingBatchResultTransformer streamingBatchResultTransformer;
 
     public Builder queryExecutor(final QueryExecutor queryExecutor) {
       this.queryExecutor = requireNonNull(queryExecutor);
@@ -470,7 +573,40 @@ public class GraphQLServiceBatchLoader implements BatchLoader<DataFetchingEnviro
       return this;
     }
 
+    public Builder printedQueryCache(final PrintedQueryCache printedQueryCache) {
+      this.printedQueryCache = requireNonNull(printedQueryCache);
+      return this;
+    }
+
+    public Builder queryPlanCache(final DownstreamQueryPlanCache queryPlanCache) {
+      this.queryPlanCache = requireNonNull(queryPlanCache);
+      return this;
+    }
+
+    public Builder resultCache(final RootFieldResultCache resultCache) {
+      this.resultCache = requireNonNull(resultCache);
+      return this;
+    }
+
+    /**
+     * Transformer for responses of a {@link StreamingQueryExecutor}. Defaults to {@link
+     * StreamingSubtreeBatchResultTransformer} unless a custom {@link QueryResponseModifier}, {@link
+     * BatchResultTransformer} or {@link BatchLoaderExecutionHooks} is set, in which case streamed responses are read
+     * into a map first. A streamed response is never read into a map, so if a transformer is set explicitly,
+     * {@link BatchLoaderExecutionHooks#onQueryResult(GraphQLContext, Map)} is not called for it.
+     */
+    public Builder streamingBatchResultTransformer(
+        final StreamingBatchResultTransformer streamingBatchResultTransformer) {
+      this.streamingBatchResultTransformer = requireNonNull(streamingBatchResultTransformer);
+      return this;
+    }
+
     public GraphQLServiceBatchLoader build() {
+      // custom hooks may observe the whole response in onQueryResult, which streaming does not materialize
+      if (streamingBatchResultTransformer == null && queryResponseModifier == defaultQueryResponseModifier
+          && batchResultTransformer == defaultBatchResultTransformer && hooks == defaultHooks) {
+        streamingBatchResultTransformer = defaultStreamingBatchResultTransformer;
+      }
       return new GraphQLServiceBatchLoader(this);
     }
   }
@@ -0,0 +1,78 @@
+package com.intuit.graphql.orchestrator.batch;
+
+import static java.util.Collections.emptyList;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.intuit.graphql.orchestrator.schema.GraphQLObjects;
+import com.intuit.graphql.orchestrator.schema.RawGraphQLError;
+import graphql.GraphQLError;
+import graphql.execution.DataFetcherResult;
+import graphql.schema.DataFetchingEnvironment;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Reads JSON responses of a {@link StreamingQueryExecutor}.
+ */
+final class JsonResponseReader {
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {
+  };
+
+  private JsonResponseReader() {
+  }
+
+  static Map<String, Object> readMap(InputStream response) {
+    try (InputStream in = response) {
+      return OBJECT_MAPPER.readValue(in, MAP_TYPE);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  static JsonParser createParser(byte[] buffer, int offset, int length) throws IOException {
+    return OBJECT_MAPPER.getFactory().createParser(buffer, offset, length);
+  }
+
+  static List<DataFetcherResult<Object>> toBatchResult(InputStream response,
+      StreamingBatchResultTransformer transformer, List<DataFetchingEnvironment> keys) {
+    try (JsonParser parser = OBJECT_MAPPER.getFactory().createParser(response)) {
+      return transformer.toBatchResult(parser, keys);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Reads the value at the current token.
+   */
+  static Object readValue(JsonParser parser) throws IOException {
+    return parser.currentToken() == JsonToken.VALUE_NULL ? null : parser.readValueAs(Object.class);
+  }
+
+  /**
+   * Reads the {@code errors} array at the current token.
+   */
+  static List<GraphQLError> readErrors(JsonParser parser) throws IOException {
+    final List<Map<String, Object>> errorsMap = Optional.ofNullable(readValue(parser))
+        .map(GraphQLObjects::<List<Map<String, Object>>>cast)
+        .orElse(emptyList());
+
+    return errorsMap.stream()
+        .map(val -> Optional.ofNullable(val)
+            .map(GraphQLObjects::<Map<String, Object>>cast)
+            .orElseThrow(IllegalArgumentException::new))
+        .map(RawGraphQLError::new)
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,65 @@
+package com.intuit.graphql.orchestrator.batch;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderRegistry;
+
+/**
+ * A {@link DataLoaderRegistry} that creates the {@link DataLoader}s of a {@link DataLoaderRegistryTemplate} on first
+ * use. Keys that share a batch loader resolve to the same {@link DataLoader} instance, so their loads are batched
+ * together.
+ *
+ * <p>Only data loaders that have been requested are part of {@link #getDataLoaders()}, which is what gets
+ * dispatched. A data loader that has never been requested has nothing to dispatch.
+ */
+public class LazyDataLoaderRegistry extends DataLoaderRegistry {
+
+  private final DataLoaderRegistryTemplate template;
+  private final AtomicReferenceArray<DataLoader<?, ?>> dataLoadersBySlot;
+
+  LazyDataLoaderRegistry(DataLoaderRegistryTemplate template) {
+    this.template = template;
+    this.dataLoadersBySlot = new AtomicReferenceArray<>(template.getSlotCount());
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <K, V> DataLoader<K, V> getDataLoader(String key) {
+    DataLoader<?, ?> dataLoader = dataLoaders.get(key);
+    if (dataLoader == null) {
+      int slot = template.getSlot(key);
+      if (slot < 0) {
+        return null;
+      }
+      dataLoader = dataLoaders.computeIfAbsent(key, k -> getOrCreateDataLoader(slot));
+    }
+    return (DataLoader<K, V>) dataLoader;
+  }
+
+  @Override
+  public <K, V> DataLoader<K, V> computeIfAbsent(String key,
+      Function<String, DataLoader<?, ?>> mappingFunction) {
+    DataLoader<K, V> dataLoader = getDataLoader(key);
+    return dataLoader != null ? dataLoader : super.computeIfAbsent(key, mappingFunction);
+  }
+
+  @Override
+  public Set<String> getKeys() {
+    Set<String> keys = new HashSet<>(template.getKeys());
+    keys.addAll(dataLoaders.keySet());
+    return keys;
+  }
+
+  private DataLoader<?, ?> getOrCreateDataLoader(int slot) {
+    DataLoader<?, ?> dataLoader = dataLoadersBySlot.get(slot);
+    if (dataLoader == null) {
+      DataLoader<?, ?> newDataLoader = template.newDataLoader(slot);
+      dataLoader = dataLoadersBySlot.compareAndSet(slot, null, newDataLoader)
+          ? newDataLoader : dataLoadersBySlot.get(slot);
+    }
+    return dataLoader;
+  }
+}
@@ -0,0 +1,463 @@
+package com.intuit.graphql.orchestrator.batch;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A read-mostly {@link Map} view of a JSON object in a raw response buffer.
+ *
+ * <p>{@link #parse(byte[])} tokenizes the buffer once and records where every value starts and which values belong to
+ * which object or array. Nothing is decoded at that point except numbers, which the tokenizer has to read anyway.
+ * Strings are decoded the first time they are read, and nested objects and arrays become views over the same index,
+ * so no part of the buffer is tokenized twice and fields that are never read (for example the {@code __typename} and
+ * key fields the orchestrator adds to downstream queries) are never decoded. Views keep the buffer and its index
+ * reachable, as a fully decoded response would keep its values reachable.
+ *
+ * <p>A {@link QueryExecutor} opts in by returning {@code LazyJsonMap.parse(responseBytes)} instead of a fully decoded
+ * map. {@link QueryResponseModifier}s, batch result transformers and data fetchers read it like any other map.
+ * Reading is thread-safe: a value is decoded at most once as seen by all readers, and every reader gets the same
+ * instance. The first modification decodes all fields into a regular map; like {@link HashMap}, modifications are not
+ * thread-safe.
+ */
+public final class LazyJsonMap extends AbstractMap<String, Object> {
+
+  private static final int INDEX_THRESHOLD = 8;
+
+  private final Tape tape;
+  private final String[] names;
+  private final int[] entries;
+  private final int size;
+  private final Map<String, Integer> index;
+
+  private volatile Map<String, Object> materialized;
+
+  private LazyJsonMap(Tape tape, int entry) {
+    this.tape = tape;
+
+    String[] fieldNames = new String[INDEX_THRESHOLD];
+    int[] fieldEntries = new int[INDEX_THRESHOLD];
+    Map<String, Integer> fieldIndex = null;
+    int count = 0;
+    for (int child = entry + 1; child < tape.next[entry]; child = tape.next[child]) {
+      String name = tape.names[child];
+      int existing = indexOf(fieldNames, count, fieldIndex, name);
+      if (existing >= 0) {
+        fieldEntries[existing] = child;
+        continue;
+      }
+      if (count == fieldNames.length) {
+        fieldNames = Arrays.copyOf(fieldNames, count * 2);
+        fieldEntries = Arrays.copyOf(fieldEntries, count * 2);
+      }
+      fieldNames[count] = name;
+      fieldEntries[count] = child;
+      if (fieldIndex != null) {
+        fieldIndex.put(name, count);
+      } else if (count == INDEX_THRESHOLD) {
+        fieldIndex = new HashMap<>();
+        for (int i = 0; i <= count; i++) {
+          fieldIndex.put(fieldNames[i], i);
+        }
+      }
+      count++;
+    }
+    this.names = fieldNames;
+    this.entries = fieldEntries;
+    this.size = count;
+    this.index = fieldIndex;
+  }
+
+  /**
+   * @param json a JSON object in UTF-8
+   * @return a lazy view of the object; the buffer must not be modified afterwards
+   * @throws UncheckedIOException if the buffer does not hold a well-formed JSON object
+   */
+  public static LazyJsonMap parse(byte[] json) {
+    return parse(json, 0, json.length);
+  }
+
+  public static LazyJsonMap parse(byte[] json, int offset, int length) {
+    try {
+      return new LazyJsonMap(Tape.build(json, offset, length), 0);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public static LazyJsonMap parse(String json) {
+    return parse(json.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static int indexOf(String[] names, int size, Map<String, Integer> index, Object name) {
+    if (index != null) {
+      Integer i = index.get(name);
+      return i == null ? -1 : i;
+    }
+    for (int i = 0; i < size; i++) {
+      if (names[i].equals(name)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public Object get(Object key) {
+    Map<String, Object> map = materialized;
+    if (map != null) {
+      return map.get(key);
+    }
+    int i = indexOf(names, size, index, key);
+    return i < 0 ? null : tape.value(entries[i]);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    Map<String, Object> map = materialized;
+    return map != null ? map.containsKey(key) : indexOf(names, size, index, key) >= 0;
+  }
+
+  @Override
+  public int size() {
+    Map<String, Object> map = materialized;
+    return map != null ? map.size() : size;
+  }
+
+  @Override
+  public Object put(String key, Object value) {
+    return materialize().put(key, value);
+  }
+
+  @Override
+  public Object remove(Object key) {
+    return materialize().remove(key);
+  }
+
+  @Override
+  public void clear() {
+    materialize().clear();
+  }
+
+  private Map<String, Object> materialize() {
+    Map<String, Object> map = materialized;
+    if (map == null) {
+      map = new LinkedHashMap<>();
+      for (int i = 0; i < size; i++) {
+        map.put(names[i], tape.value(entries[i]));
+      }
+      materialized = map;
+    }
+    return map;
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    Map<String, Object> map = materialized;
+    if (map != null) {
+      return map.entrySet();
+    }
+    return new AbstractSet<Entry<String, Object>>() {
+      @Override
+      public Iterator<Entry<String, Object>> iterator() {
+        return new Iterator<Entry<String, Object>>() {
+          private int next;
+
+          @Override
+          public boolean hasNext() {
+            return next < size;
+          }
+
+          @Override
+          public Entry<String, Object> next() {
+            if (!hasNext()) {
+              throw new NoSuchElementException();
+            }
+            int i = next++;
+            return new LazyEntry(i);
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return LazyJsonMap.this.size();
+      }
+    };
+  }
+
+  /**
+   * An entry that decodes its value on {@link #getValue()}, so keys can be listed without decoding values.
+   */
+  private final class LazyEntry implements Entry<String, Object> {
+
+    private final int i;
+
+    private LazyEntry(int i) {
+      this.i = i;
+    }
+
+    @Override
+    public String getKey() {
+      return names[i];
+    }
+
+    @Override
+    public Object getValue() {
+      return tape.value(entries[i]);
+    }
+
+    @Override
+    public Object setValue(Object value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Entry)) {
+        return false;
+      }
+      Entry<?, ?> e = (Entry<?, ?>) o;
+      return Objects.equals(getKey(), e.getKey()) && Objects.equals(getValue(), e.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+    }
+
+    @Override
+    public String toString() {
+      return getKey() + "=" + getValue();
+    }
+  }
+
+  /**
+   * A {@link java.util.List} view of a JSON array whose elements are decoded on first access.
+   */
+  private static final class LazyJsonList extends AbstractList<Object> {
+
+    private final Tape tape;
+    private final int[] entries;
+
+    private LazyJsonList(Tape tape, int entry) {
+      this.tape = tape;
+      int[] elements = new int[INDEX_THRESHOLD];
+      int count = 0;
+      for (int child = entry + 1; child < tape.next[entry]; child = tape.next[child]) {
+        if (count == elements.length) {
+          elements = Arrays.copyOf(elements, count * 2);
+        }
+        elements[count++] = child;
+      }
+      this.entries = Arrays.copyOf(elements, count);
+    }
+
+    @Override
+    public Object get(int i) {
+      if (i < 0 || i >= entries.length) {
+        throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + entries.length);
+      }
+      return tape.value(entries[i]);
+    }
+
+    @Override
+    public Object set(int i, Object element) {
+      Object previous = get(i);
+      tape.set(entries[i], element);
+      return previous;
+    }
+
+    @Override
+    public int size() {
+      return entries.length;
+    }
+  }
+
+  /**
+   * The structure of a JSON buffer: one entry per value in document order. An entry records the kind of the value,
+   * where it starts in the buffer, the field name it is the value of, and the entry following the value and all of
+   * its descendants, so the children of an object or array are found without tokenizing it again. Decoded values are
+   * published through an {@link AtomicReferenceArray}.
+   */
+  private static final class Tape {
+
+    private static final byte OBJECT = 0;
+    private static final byte ARRAY = 1;
+    private static final byte STRING = 2;
+    private static final byte NUMBER = 3;
+    private static final byte TRUE = 4;
+    private static final byte FALSE = 5;
+    private static final byte NULL = 6;
+
+    // marks a value replaced by null through LazyJsonList#set
+    private static final Object NULL_VALUE = new Object();
+
+    private final byte[] buffer;
+    private final byte[] kinds;
+    private final int[] starts;
+    private final int[] next;
+    private final String[] names;
+    private final AtomicReferenceArray<Object> values;
+
+    private Tape(byte[] buffer, byte[] kinds, int[] starts, int[] next, String[] names, Object[] values) {
+      this.buffer = buffer;
+      this.kinds = kinds;
+      this.starts = starts;
+      this.next = next;
+      this.names = names;
+      this.values = new AtomicReferenceArray<>(values);
+    }
+
+    private static Tape build(byte[] buffer, int offset, int length) throws IOException {
+      try (JsonParser parser = JsonResponseReader.createParser(buffer, offset, length)) {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+          throw new IOException("Expected a JSON object at offset " + offset);
+        }
+
+        int capacity = Math.max(64, length >> 4);
+        byte[] kinds = new byte[capacity];
+        int[] starts = new int[capacity];
+        int[] next = new int[capacity];
+        String[] names = new String[capacity];
+        Object[] values = new Object[capacity];
+        int[] containers = new int[16];
+
+        kinds[0] = OBJECT;
+        int count = 1;
+        int depth = 0;
+        containers[depth++] = 0;
+        String name = null;
+
+        while (depth > 0) {
+          JsonToken token = parser.nextToken();
+          if (token == null) {
+            throw new IOException("Unexpected end of JSON object at offset " + offset);
+          }
+          if (token == JsonToken.FIELD_NAME) {
+            name = parser.getCurrentName();
+            continue;
+          }
+          if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+            next[containers[--depth]] = count;
+            continue;
+          }
+
+          if (count == kinds.length) {
+            capacity = count * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            next = Arrays.copyOf(next, capacity);
+            names = Arrays.copyOf(names, capacity);
+            values = Arrays.copyOf(values, capacity);
+          }
+          int entry = count++;
+          kinds[entry] = kindOf(token);
+          starts[entry] = offset + (int) parser.getTokenLocation().getByteOffset();
+          names[entry] = name;
+          next[entry] = count;
+          name = null;
+
+          if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+            if (depth == containers.length) {
+              containers = Arrays.copyOf(containers, depth * 2);
+            }
+            containers[depth++] = entry;
+          } else if (token.isNumeric()) {
+            values[entry] = parser.getNumberValue();
+          }
+        }
+
+        return new Tape(buffer, kinds, starts, next, names, Arrays.copyOf(values, count));
+      }
+    }
+
+    private static byte kindOf(JsonToken token) {
+      switch (token) {
+        case START_OBJECT:
+          return OBJECT;
+        case START_ARRAY:
+          return ARRAY;
+        case VALUE_STRING:
+          return STRING;
+        case VALUE_NUMBER_INT:
+        case VALUE_NUMBER_FLOAT:
+          return NUMBER;
+        case VALUE_TRUE:
+          return TRUE;
+        case VALUE_FALSE:
+          return FALSE;
+        default:
+          return NULL;
+      }
+    }
+
+    private Object value(int entry) {
+      Object value = values.get(entry);
+      if (value != null) {
+        return value == NULL_VALUE ? null : value;
+      }
+      switch (kinds[entry]) {
+        case TRUE:
+          return Boolean.TRUE;
+        case FALSE:
+          return Boolean.FALSE;
+        case NULL:
+          return null;
+        case OBJECT:
+          value = new LazyJsonMap(this, entry);
+          break;
+        case ARRAY:
+          value = new LazyJsonList(this, entry);
+          break;
+        default:
+          value = decodeString(starts[entry]);
+      }
+      // readers racing on the same value all return the instance that was published first
+      return values.compareAndSet(entry, null, value) ? value : value(entry);
+    }
+
+    private void set(int entry, Object value) {
+      values.set(entry, value == null ? NULL_VALUE : value);
+    }
+
+    /**
+     * Decodes the string whose opening quote is at {@code start}. Strings without escape sequences are decoded from
+     * the buffer directly, the others by a parser bounded to the string.
+     */
+    private String decodeString(int start) {
+      boolean escaped = false;
+      int end = start + 1;
+      while (buffer[end] != '"') {
+        if (buffer[end] == '\\') {
+          escaped = true;
+          end++;
+        }
+        end++;
+      }
+      if (!escaped) {
+        return new String(buffer, start + 1, end - start - 1, StandardCharsets.UTF_8);
+      }
+      try (JsonParser parser = JsonResponseReader.createParser(buffer, start, end + 1 - start)) {
+        parser.nextToken();
+        return parser.getText();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+}
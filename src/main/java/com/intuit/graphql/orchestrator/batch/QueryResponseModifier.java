@@ -3,6 +3,10 @@ package com.intuit.graphql.orchestrator.batch;
 import graphql.execution.DataFetcherResult;
 import java.util.Map;
 
+/**
+ * Converts a downstream response into a {@link DataFetcherResult}. The response may be a {@link LazyJsonMap}, in which
+ * case only the fields that are read get decoded.
+ */
 @FunctionalInterface
 public interface QueryResponseModifier {
 
@@ -0,0 +1,124 @@
+package com.intuit.graphql.orchestrator.batch;
+
+import graphql.execution.ExecutionStepInfo;
+import graphql.execution.ResultPath;
+import graphql.language.Field;
+import graphql.schema.DataFetchingEnvironment;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A trie of the response paths of a batch of keys. Segments are response keys (field alias or name) and list indexes.
+ * Keys that share a path prefix are resolved in a single descent of the response.
+ */
+class ResultPathTrie {
+
+  private static final int[] NO_KEYS = new int[0];
+
+  private Map<Object, ResultPathTrie> children;
+  private int[] keyIndexes = NO_KEYS;
+
+  private ResultPathTrie() {
+  }
+
+  static ResultPathTrie of(List<DataFetchingEnvironment> keys) {
+    ResultPathTrie root = new ResultPathTrie();
+    // sibling keys share their parent ExecutionStepInfo, so each parent is resolved to a node only once
+    Map<ExecutionStepInfo, ResultPathTrie> parentNodes = new IdentityHashMap<>();
+    for (int i = 0; i < keys.size(); i++) {
+      root.nodeFor(keys.get(i).getExecutionStepInfo(), parentNodes).addKey(i);
+    }
+    return root;
+  }
+
+  /**
+   * Finds or creates the node for the path of {@code stepInfo}. The operation root (Query/Mutation) is ignored.
+   */
+  private ResultPathTrie nodeFor(ExecutionStepInfo stepInfo, Map<ExecutionStepInfo, ResultPathTrie> parentNodes) {
+    if (stepInfo == null || stepInfo.getPath().getLevel() == 0) {
+      return this;
+    }
+    ResultPathTrie parent = parentNodes.get(stepInfo.getParent());
+    if (parent == null) {
+      parent = nodeFor(stepInfo.getParent(), parentNodes);
+      parentNodes.put(stepInfo.getParent(), parent);
+    }
+    return parent.child(segment(stepInfo));
+  }
+
+  private void addKey(int keyIndex) {
+    keyIndexes = Arrays.copyOf(keyIndexes, keyIndexes.length + 1);
+    keyIndexes[keyIndexes.length - 1] = keyIndex;
+  }
+
+  /**
+   * @return the response key (alias or field name) or list index of the step
+   */
+  static Object segment(ExecutionStepInfo stepInfo) {
+    ResultPath path = stepInfo.getPath();
+    if (path.isListSegment()) {
+      return path.getSegmentIndex();
+    }
+    final Field field = stepInfo.getField().getSingleField();
+    return field.getAlias() != null ? field.getAlias() : field.getName();
+  }
+
+  private ResultPathTrie child(Object segment) {
+    if (children == null) {
+      children = new HashMap<>();
+    }
+    ResultPathTrie child = children.get(segment);
+    if (child == null) {
+      child = new ResultPathTrie();
+      children.put(segment, child);
+    }
+    return child;
+  }
+
+  /**
+   * @param segment a field name or list index
+   * @return the child for the segment, or {@code null} if no key path continues with it
+   */
+  ResultPathTrie getChild(Object segment) {
+    return children == null ? null : children.get(segment);
+  }
+
+  boolean hasKeys() {
+    return keyIndexes.length > 0;
+  }
+
+  /**
+   * Assigns {@code data} to the keys of this node and the matching parts of it to the keys of all descendants.
+   *
+   * @param data the response value at this node
+   * @param results the results per key index
+   */
+  void partition(Object data, Object[] results) {
+    for (int keyIndex : keyIndexes) {
+      results[keyIndex] = data;
+    }
+    if (children != null && data != null) {
+      for (Map.Entry<Object, ResultPathTrie> child : children.entrySet()) {
+        child.getValue().partition(get(data, child.getKey()), results);
+      }
+    }
+  }
+
+  /**
+   * @return the value at {@code segment} of a response map or list, or {@code null} if there is none
+   */
+  static Object get(Object data, Object segment) {
+    if (data instanceof Map) {
+      return ((Map<?, ?>) data).get(segment);
+    }
+    if (data instanceof List && segment instanceof Integer) {
+      List<?> list = (List<?>) data;
+      int index = (Integer) segment;
+      return index < list.size() ? list.get(index) : null;
+    }
+    return null;
+  }
+}
@@ -0,0 +1,25 @@
+package com.intuit.graphql.orchestrator.batch;
+
+import com.fasterxml.jackson.core.JsonParser;
+import graphql.execution.DataFetcherResult;
+import graphql.schema.DataFetchingEnvironment;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Splits a streamed downstream response into results per batch key. The streaming counterpart of
+ * {@link BatchResultTransformer}.
+ */
+@FunctionalInterface
+public interface StreamingBatchResultTransformer {
+
+  /**
+   * @param response a parser positioned before the first token of the response
+   * @param keys the batch loader keys
+   * @return one result per key, in key order
+   * @throws IOException if the response cannot be read
+   */
+  List<DataFetcherResult<Object>> toBatchResult(JsonParser response, List<DataFetchingEnvironment> keys)
+      throws IOException;
+
+}
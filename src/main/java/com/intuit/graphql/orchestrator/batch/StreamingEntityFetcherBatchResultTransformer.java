@@ -0,0 +1,162 @@
+package com.intuit.graphql.orchestrator.batch;
+
+import static com.intuit.graphql.orchestrator.utils.FederationConstants._ENTITIES_FIELD_NAME;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.intuit.graphql.orchestrator.federation.EntityFetchingException;
+import graphql.GraphQLError;
+import graphql.execution.DataFetcherResult;
+import graphql.language.Field;
+import graphql.schema.DataFetchingEnvironment;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Streaming counterpart of {@link EntityFetcherBatchResultTransformer}. Reads the {@code _entities} array element by
+ * element and keeps only the requested field of each entity.
+ */
+@Slf4j
+public class StreamingEntityFetcherBatchResultTransformer implements StreamingBatchResultTransformer {
+
+    private final String providerNamespace;
+    private final String entityName;
+    private final String extFieldName;
+
+    private final int ENTITY_PATH_IDX = 1;
+
+    public StreamingEntityFetcherBatchResultTransformer(String providerNamespace, String entityName, String fieldName) {
+        this.providerNamespace = providerNamespace;
+        this.entityName = entityName;
+        this.extFieldName = fieldName;
+    }
+
+    @Override
+    public List<DataFetcherResult<Object>> toBatchResult(JsonParser response,
+                                                         List<DataFetchingEnvironment> dataFetchingEnvironments) throws IOException {
+        return toBatchResult(response, dataFetchingEnvironments, 0);
+    }
+
+    /**
+     * Transforms the response of one chunk of an entity fetch batch.
+     *
+     * @param entityIndexOffset the index of the chunk's first entity in the batch. {@code _entities/<idx>} error paths
+     *     are remapped by this offset.
+     */
+    public List<DataFetcherResult<Object>> toBatchResult(JsonParser response,
+                                                         List<DataFetchingEnvironment> dataFetchingEnvironments,
+                                                         int entityIndexOffset) throws IOException {
+        List<Object> fieldData = new ArrayList<>();
+        List<GraphQLError> errors = Collections.emptyList();
+
+        if (response.nextToken() == JsonToken.START_OBJECT) {
+            while (response.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = response.getCurrentName();
+                response.nextToken();
+                if ("data".equals(fieldName)) {
+                    readData(response, dataFetchingEnvironments, fieldData);
+                } else if ("errors".equals(fieldName)) {
+                    errors = JsonResponseReader.readErrors(response);
+                } else {
+                    response.skipChildren();
+                }
+            }
+        }
+
+        if (fieldData.isEmpty()) {
+            //Should not happen; if it did, downstream did not create entity fetcher correctly or is not using DGS
+            log.warn("Provider {} is not Federation subgraph specification compliant. _entities field missing or empty in the response.", providerNamespace);
+
+            throw EntityFetchingException.builder()
+                    .serviceNameSpace(providerNamespace)
+                    .parentTypeName(entityName)
+                    .fieldName(extFieldName)
+                    .additionalInfo(EntityFetcherBatchResultTransformer.NO_ENTITY_FIELD)
+                    .build();
+        }
+
+        List<List<GraphQLError>> errorsByEntity = mapErrorsToEntities(errors, fieldData.size(), entityIndexOffset);
+
+        List<DataFetcherResult<Object>> dataFetcherResults = new ArrayList<>();
+        for (int idx = 0; idx < fieldData.size(); idx++) {
+            dataFetcherResults.add(DataFetcherResult.newResult()
+                    .data(fieldData.get(idx))
+                    .errors(errorsByEntity.get(idx))
+                    .build()
+            );
+        }
+
+        return dataFetcherResults;
+    }
+
+    private void readData(JsonParser parser, List<DataFetchingEnvironment> dataFetchingEnvironments,
+                          List<Object> fieldData) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            parser.nextToken();
+            if (!_ENTITIES_FIELD_NAME.equals(fieldName) || parser.currentToken() != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                continue;
+            }
+
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                int idx = fieldData.size();
+                if (idx >= dataFetchingEnvironments.size() || parser.currentToken() != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    fieldData.add(null);
+                    continue;
+                }
+
+                Field field = dataFetchingEnvironments.get(idx).getField();
+                String fieldNameOrAlias = field.getAlias() == null ? field.getName() : field.getAlias();
+
+                Object value = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String entityFieldName = parser.getCurrentName();
+                    parser.nextToken();
+                    if (fieldNameOrAlias.equals(entityFieldName)) {
+                        value = JsonResponseReader.readValue(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                fieldData.add(value);
+            }
+        }
+    }
+
+    private List<List<GraphQLError>> mapErrorsToEntities(List<GraphQLError> errors, int entityCount,
+                                                         int entityIndexOffset) {
+        List<List<GraphQLError>> errorsByEntity = new ArrayList<>(entityCount);
+        for (int idx = 0; idx < entityCount; idx++) {
+            errorsByEntity.add(new ArrayList<>());
+        }
+
+        errors.forEach(downstreamError -> {
+            GraphQLError error = EntityFetcherBatchResultTransformer.remapEntityIndex(downstreamError, entityIndexOffset);
+            error.getExtensions().put("serviceNamespace", providerNamespace);
+            error.getExtensions().put("parentTypename", entityName);
+            error.getExtensions().put("fieldName", extFieldName);
+            error.getExtensions().put("downstreamErrors", error.toSpecification());
+
+            //Decided to ignore if errors have no path to match field resolver. This should not happen though.
+            //path is always _entities/entityIdx/entityField for entity fetch
+            List<Object> path = downstreamError.getPath();
+            if (path != null && path.size() > ENTITY_PATH_IDX && path.get(ENTITY_PATH_IDX) instanceof Integer) {
+                int pathIndex = (Integer) path.get(ENTITY_PATH_IDX);
+                if (pathIndex >= 0 && pathIndex < entityCount) {
+                    errorsByEntity.get(pathIndex).add(error);
+                }
+            }
+        });
+        return errorsByEntity;
+    }
+}
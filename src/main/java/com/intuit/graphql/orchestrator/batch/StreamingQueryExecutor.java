@@ -0,0 +1,37 @@
+package com.intuit.graphql.orchestrator.batch;
+
+import graphql.ExecutionInput;
+import graphql.GraphQLContext;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A {@link QueryExecutor} that hands back the raw JSON response of the downstream service.
+ *
+ * <p>Batch loaders read the response incrementally with a {@link StreamingBatchResultTransformer} and route each
+ * subtree to the batch key that requested it, without materializing the whole response first. Callers that need
+ * the response as a map still get one through {@link #query(ExecutionInput, GraphQLContext)}, which decodes the
+ * whole response; executors whose responses are mostly left unread may override it to return a {@link LazyJsonMap}.
+ *
+ * <p>{@link BatchLoaderExecutionHooks#onQueryResult(GraphQLContext, Map)} observes the whole response, so a GraphQL
+ * service batch loader with custom hooks does not stream by default; it reads the response into a map and calls the
+ * hook. The hook is only skipped if a {@link StreamingBatchResultTransformer} is set explicitly together with custom
+ * hooks. Entity fetcher batch loaders have no execution hooks.
+ */
+public interface StreamingQueryExecutor extends QueryExecutor {
+
+  /**
+   * Executes the query and returns the response body in GraphQL specification format. The caller closes the stream.
+   *
+   * @param executionInput the downstream query
+   * @param context the instance of {@link GraphQLContext} used in the execution context.
+   * @return the JSON response body
+   */
+  CompletableFuture<InputStream> queryForStream(ExecutionInput executionInput, GraphQLContext context);
+
+  @Override
+  default CompletableFuture<Map<String, Object>> query(ExecutionInput executionInput, GraphQLContext context) {
+    return queryForStream(executionInput, context).thenApply(JsonResponseReader::readMap);
+  }
+}
@@ -0,0 +1,89 @@
+package com.intuit.graphql.orchestrator.batch;
+
+import static graphql.execution.DataFetcherResult.newResult;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import graphql.GraphQLError;
+import graphql.execution.DataFetcherResult;
+import graphql.schema.DataFetchingEnvironment;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Streaming counterpart of {@link SubtreeBatchResultTransformer}. Walks the {@code data} object of the response token
+ * by token, materializes only the subtrees that batch keys point to and skips everything else.
+ */
+public class StreamingSubtreeBatchResultTransformer implements StreamingBatchResultTransformer {
+
+  @Override
+  public List<DataFetcherResult<Object>> toBatchResult(final JsonParser response,
+      final List<DataFetchingEnvironment> keys) throws IOException {
+
+    ResultPathTrie root = ResultPathTrie.of(keys);
+
+    Object[] partitionedResults = new Object[keys.size()];
+    List<GraphQLError> errors = Collections.emptyList();
+
+    if (response.nextToken() == JsonToken.START_OBJECT) {
+      while (response.nextToken() == JsonToken.FIELD_NAME) {
+        String fieldName = response.getCurrentName();
+        response.nextToken();
+        if ("data".equals(fieldName)) {
+          read(response, root, partitionedResults);
+        } else if ("errors".equals(fieldName)) {
+          errors = JsonResponseReader.readErrors(response);
+        } else {
+          response.skipChildren();
+        }
+      }
+    }
+
+    List<DataFetcherResult<Object>> results = new ArrayList<>(keys.size());
+    for (int i = 0; i < keys.size(); i++) {
+      /*  Add all errors only once to any of the DataFetcherResult.
+       *  Since this is per service graphql-java will collect this properly.
+       */
+      results.add(newResult()
+          .data(partitionedResults[i])
+          .errors(i == 0 ? errors : Collections.emptyList())
+          .build());
+    }
+
+    return results;
+  }
+
+  private void read(JsonParser parser, ResultPathTrie node, Object[] partitionedResults) throws IOException {
+    if (node.hasKeys()) {
+      node.partition(JsonResponseReader.readValue(parser), partitionedResults);
+      return;
+    }
+
+    JsonToken token = parser.currentToken();
+    if (token == JsonToken.START_OBJECT) {
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        ResultPathTrie child = node.getChild(parser.getCurrentName());
+        parser.nextToken();
+        if (child == null) {
+          parser.skipChildren();
+        } else {
+          read(parser, child, partitionedResults);
+        }
+      }
+    } else if (token == JsonToken.START_ARRAY) {
+      int index = 0;
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+        ResultPathTrie child = node.getChild(index++);
+        if (child == null) {
+          parser.skipChildren();
+        } else {
+          read(parser, child, partitionedResults);
+        }
+      }
+    } else {
+      parser.skipChildren();
+    }
+  }
+}
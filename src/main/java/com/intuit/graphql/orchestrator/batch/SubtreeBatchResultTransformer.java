@@ -5,13 +5,12 @@ import static graphql.execution.DataFetcherResult.newResult;
 import graphql.GraphQLError;
 import graphql.execution.DataFetcherResult;
 import graphql.execution.ExecutionStepInfo;
-import graphql.language.Field;
 import graphql.schema.DataFetchingEnvironment;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Stack;
 
 public class SubtreeBatchResultTransformer implements BatchResultTransformer {
 
@@ -19,22 +18,18 @@ public class SubtreeBatchResultTransformer implements BatchResultTransformer {
   public List<DataFetcherResult<Object>> toBatchResult(final DataFetcherResult<Map<String, Object>> result,
       final List<DataFetchingEnvironment> keys) {
 
-    List<DataFetcherResult<Object>> results = new ArrayList<>();
+    List<DataFetcherResult<Object>> results = new ArrayList<>(keys.size());
     final Map<String, Object> data = result.getData();
 
+    /*  The ExecutionStepInfo parents of the keys form a trie of their paths. Keys sharing a parent share its
+     *  resolved value, so every path prefix is looked up only once per batch.
+     */
+    final Map<ExecutionStepInfo, Object> resolvedParents = new IdentityHashMap<>();
+
     for (int i = 0; i < keys.size(); i++) {
 
       final DataFetchingEnvironment key = keys.get(i);
-      Stack<String> dataFetchingPath = buildDataFetchingPath(key.getExecutionStepInfo());
-
-      Object partitionedResult = data;
-      while (!dataFetchingPath.isEmpty()) {
-        final String step = dataFetchingPath.pop();
-        partitionedResult = get(partitionedResult, step);
-        if (partitionedResult == null) {
-          break;
-        }
-      }
+      Object partitionedResult = resolve(key.getExecutionStepInfo(), data, resolvedParents);
 
       /*  Add all errors only once to any of the DataFetcherResult.
        *  Since this is per service graphql-java will collect this properly.
@@ -50,31 +45,23 @@ public class SubtreeBatchResultTransformer implements BatchResultTransformer {
     return results;
   }
 
-  private Object get(Object data, String fieldName) {
-    if (data == null) {
-      return null;
-    }
-
-    if (data instanceof Map) {
-      return ((Map) data).get(fieldName);
+  private Object resolve(ExecutionStepInfo stepInfo, Object data, Map<ExecutionStepInfo, Object> resolvedParents) {
+    //ignore Query/Mutation
+    if (stepInfo == null || stepInfo.getPath().getLevel() == 0) {
+      return data;
     }
 
-    //todo handle arrays
-    return null;
-  }
-
-  private Stack<String> buildDataFetchingPath(ExecutionStepInfo leafInfo) {
-    Stack<String> hierarchy = new Stack<>();
-
-    ExecutionStepInfo curr = leafInfo;
-
-    //ignore Query/Mutation
-    while (curr != null && curr.getPath().getLevel() != 0) {
-      final Field field = curr.getField().getSingleField();
-      hierarchy.push(field.getAlias() != null ? field.getAlias() : field.getName());
-      curr = curr.getParent();
+    final ExecutionStepInfo parent = stepInfo.getParent();
+    Object parentData;
+    if (parent == null || parent.getPath().getLevel() == 0) {
+      parentData = data;
+    } else if (resolvedParents.containsKey(parent)) {
+      parentData = resolvedParents.get(parent);
+    } else {
+      parentData = resolve(parent, data, resolvedParents);
+      resolvedParents.put(parent, parentData);
     }
 
-    return hierarchy;
+    return parentData == null ? null : ResultPathTrie.get(parentData, ResultPathTrie.segment(stepInfo));
   }
 }
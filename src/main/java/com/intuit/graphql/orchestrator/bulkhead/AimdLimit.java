@@ -0,0 +1,34 @@
+package com.intuit.graphql.orchestrator.bulkhead;
+
+import java.time.Duration;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Additive increase, multiplicative decrease. The limit grows by one for every call that completes in time while at
+ * least half of the limit is in use, and is multiplied by {@code backoffRatio} for every call that fails or takes
+ * longer than {@code latencyThreshold}.
+ */
+@Builder
+@Getter
+public class AimdLimit implements LimitAlgorithm {
+
+  @Builder.Default private final int initialLimit = 20;
+  @Builder.Default private final int minLimit = 1;
+  @Builder.Default private final int maxLimit = 200;
+  @Builder.Default private final double backoffRatio = 0.9;
+  @Builder.Default private final Duration latencyThreshold = Duration.ofSeconds(5);
+
+  @Override
+  public int update(int limit, int inFlight, long latencyNanos, boolean failed) {
+    if (failed || latencyNanos > latencyThreshold.toNanos()) {
+      int decreased = Math.min(limit - 1, (int) (limit * backoffRatio));
+      return Math.max(minLimit, decreased);
+    }
+    // only grow while the limit is actually used, otherwise it drifts up during light load
+    if (inFlight * 2 >= limit) {
+      return Math.min(maxLimit, limit + 1);
+    }
+    return limit;
+  }
+}
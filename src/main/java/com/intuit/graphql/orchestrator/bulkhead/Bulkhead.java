@@ -0,0 +1,191 @@
+package com.intuit.graphql.orchestrator.bulkhead;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * Limits the number of downstream calls in flight to one service provider.
+ *
+ * <p>A call that exceeds the limit waits in a bounded FIFO queue and is started when a call in flight completes. A
+ * call that finds the queue full fails immediately with a {@link BulkheadFullException}. No thread blocks while
+ * waiting; the returned future completes when the call does. A queued call whose future was completed in the meantime,
+ * e.g. cancelled by a timeout, is dropped without being started.
+ *
+ * <p>Queued calls are started by the thread that released their slot, one after the other. A call that completes while
+ * that thread is still starting calls only frees its slot, so calls that complete synchronously do not nest.
+ */
+public final class Bulkhead {
+
+  private final String namespace;
+  private final int maxQueueSize;
+  private final LimitAlgorithm limitAlgorithm;
+  private final BulkheadListener listener;
+
+  private final Deque<PendingCall<?>> queue = new ArrayDeque<>();
+  private int limit;
+  private int inFlight;
+  private boolean draining;
+
+  public Bulkhead(String namespace, BulkheadConfig config, BulkheadListener listener) {
+    this.namespace = Objects.requireNonNull(namespace);
+    this.maxQueueSize = Math.max(0, config.getMaxQueueSize());
+    this.limitAlgorithm = config.resolveLimitAlgorithm();
+    this.listener = Objects.requireNonNull(listener);
+    this.limit = Math.max(1, limitAlgorithm.getInitialLimit());
+  }
+
+  /**
+   * Starts the call now if the limit allows it, or once a slot frees up.
+   *
+   * @param call starts the downstream call
+   * @param <T> the result type
+   * @return the result of the call, or a future failed with {@link BulkheadFullException} if it was rejected
+   */
+  public <T> CompletableFuture<T> execute(Supplier<? extends CompletionStage<T>> call) {
+    PendingCall<T> pendingCall = new PendingCall<>(call);
+
+    Admission admission;
+    int inFlightSnapshot;
+    int queueDepth;
+    synchronized (this) {
+      if (inFlight < limit && queue.isEmpty()) {
+        inFlight++;
+        admission = Admission.START;
+      } else if (queue.size() < maxQueueSize) {
+        queue.addLast(pendingCall);
+        admission = Admission.QUEUED;
+      } else {
+        admission = Admission.REJECTED;
+      }
+      inFlightSnapshot = inFlight;
+      queueDepth = queue.size();
+    }
+
+    switch (admission) {
+      case START:
+        pendingCall.start();
+        break;
+      case QUEUED:
+        listener.onQueued(namespace, queueDepth);
+        break;
+      default:
+        listener.onRejected(namespace, inFlightSnapshot, queueDepth);
+        pendingCall.result.completeExceptionally(new BulkheadFullException(namespace, inFlightSnapshot, queueDepth));
+    }
+    return pendingCall.result;
+  }
+
+  private void release(long latencyNanos, boolean failed) {
+    int previousLimit;
+    int newLimit;
+    synchronized (this) {
+      previousLimit = limit;
+      limit = Math.max(1, limitAlgorithm.update(limit, inFlight, latencyNanos, failed));
+      newLimit = limit;
+      inFlight--;
+    }
+
+    if (newLimit != previousLimit) {
+      listener.onLimitChanged(namespace, previousLimit, newLimit);
+    }
+    drain();
+  }
+
+  private void releaseUnused() {
+    synchronized (this) {
+      inFlight--;
+    }
+    drain();
+  }
+
+  /**
+   * Starts queued calls while slots are free. Only one thread drains at a time; slots released meanwhile, including by
+   * calls this thread started, are picked up by its loop.
+   */
+  private void drain() {
+    synchronized (this) {
+      if (draining) {
+        return;
+      }
+      draining = true;
+    }
+    while (true) {
+      PendingCall<?> next = null;
+      synchronized (this) {
+        while (inFlight < limit && next == null && !queue.isEmpty()) {
+          PendingCall<?> queued = queue.pollFirst();
+          if (!queued.result.isDone()) {
+            next = queued;
+            inFlight++;
+          }
+        }
+        if (next == null) {
+          draining = false;
+          return;
+        }
+      }
+      next.start();
+    }
+  }
+
+  public String getNamespace() {
+    return namespace;
+  }
+
+  public synchronized int getLimit() {
+    return limit;
+  }
+
+  public synchronized int getInFlight() {
+    return inFlight;
+  }
+
+  public synchronized int getQueueDepth() {
+    return queue.size();
+  }
+
+  private enum Admission {
+    START,
+    QUEUED,
+    REJECTED
+  }
+
+  private final class PendingCall<T> {
+
+    private final Supplier<? extends CompletionStage<T>> call;
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+
+    private PendingCall(Supplier<? extends CompletionStage<T>> call) {
+      this.call = call;
+    }
+
+    private void start() {
+      if (result.isDone()) {
+        releaseUnused();
+        return;
+      }
+      long startNanos = System.nanoTime();
+      CompletionStage<T> stage;
+      try {
+        stage = Objects.requireNonNull(call.get(), "call returned null");
+      } catch (RuntimeException e) {
+        release(System.nanoTime() - startNanos, true);
+        result.completeExceptionally(e);
+        return;
+      }
+
+      stage.whenComplete((value, error) -> {
+        release(System.nanoTime() - startNanos, error != null);
+        if (error != null) {
+          result.completeExceptionally(error);
+        } else {
+          result.complete(value);
+        }
+      });
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package com.intuit.graphql.orchestrator.bulkhead;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Limits of the {@link Bulkhead} of one namespace.
+ */
+@Builder
+@Getter
+public class BulkheadConfig {
+
+  /**
+   * The number of calls in flight at the same time. Ignored if a {@link #limitAlgorithm} is set.
+   */
+  @Builder.Default private final int maxConcurrentCalls = 64;
+
+  /**
+   * The number of calls waiting for a slot. Calls beyond that fail with a {@link BulkheadFullException}; zero fails
+   * every call that exceeds the limit.
+   */
+  @Builder.Default private final int maxQueueSize = 64;
+
+  /**
+   * Adapts the limit from observed latencies and failures. If not set, the limit is fixed at
+   * {@link #maxConcurrentCalls}.
+   */
+  private final LimitAlgorithm limitAlgorithm;
+
+  LimitAlgorithm resolveLimitAlgorithm() {
+    return limitAlgorithm != null ? limitAlgorithm : new FixedLimit(maxConcurrentCalls);
+  }
+}
@@ -0,0 +1,19 @@
+package com.intuit.graphql.orchestrator.bulkhead;
+
+import lombok.Getter;
+
+/**
+ * Fails a downstream call that was rejected by a {@link Bulkhead}.
+ */
+@Getter
+public class BulkheadFullException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String namespace;
+
+  public BulkheadFullException(String namespace, int inFlight, int queueDepth) {
+    super(String.format("Too many concurrent calls to %s: %d in flight, %d waiting", namespace, inFlight, queueDepth));
+    this.namespace = namespace;
+  }
+}
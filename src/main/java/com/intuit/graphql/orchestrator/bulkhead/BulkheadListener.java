@@ -0,0 +1,43 @@
+package com.intuit.graphql.orchestrator.bulkhead;
+
+/**
+ * Observability hooks of a {@link Bulkhead}. Hooks are called on the thread that queued, rejected or completed a
+ * call and must not block.
+ */
+public interface BulkheadListener {
+
+  BulkheadListener NONE = new BulkheadListener() {
+  };
+
+  /**
+   * A call had to wait because the limit was reached.
+   *
+   * @param namespace the namespace of the service provider
+   * @param queueDepth the number of waiting calls, including this one
+   */
+  default void onQueued(String namespace, int queueDepth) {
+
+  }
+
+  /**
+   * A call was rejected because the limit was reached and the wait queue was full.
+   *
+   * @param namespace the namespace of the service provider
+   * @param inFlight the number of calls in flight
+   * @param queueDepth the number of waiting calls
+   */
+  default void onRejected(String namespace, int inFlight, int queueDepth) {
+
+  }
+
+  /**
+   * The {@link LimitAlgorithm} changed the limit.
+   *
+   * @param namespace the namespace of the service provider
+   * @param previousLimit the limit before the change
+   * @param newLimit the limit after the change
+   */
+  default void onLimitChanged(String namespace, int previousLimit, int newLimit) {
+
+  }
+}
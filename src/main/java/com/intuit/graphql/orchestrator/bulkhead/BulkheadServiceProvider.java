@@ -0,0 +1,106 @@
+package com.intuit.graphql.orchestrator.bulkhead;
+
+import com.intuit.graphql.orchestrator.ServiceProvider;
+import com.intuit.graphql.orchestrator.batch.StreamingQueryExecutor;
+import graphql.ExecutionInput;
+import graphql.GraphQLContext;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A {@link ServiceProvider} whose queries pass through a {@link Bulkhead}. All other methods delegate.
+ */
+class BulkheadServiceProvider implements ServiceProvider {
+
+  private final ServiceProvider delegate;
+  private final Bulkhead bulkhead;
+
+  private BulkheadServiceProvider(ServiceProvider delegate, Bulkhead bulkhead) {
+    this.delegate = delegate;
+    this.bulkhead = bulkhead;
+  }
+
+  static ServiceProvider of(ServiceProvider delegate, Bulkhead bulkhead) {
+    if (delegate instanceof StreamingQueryExecutor) {
+      return new Streaming(delegate, bulkhead);
+    }
+    return new BulkheadServiceProvider(delegate, bulkhead);
+  }
+
+  ServiceProvider getDelegate() {
+    return delegate;
+  }
+
+  Bulkhead getBulkhead() {
+    return bulkhead;
+  }
+
+  @Override
+  public CompletableFuture<Map<String, Object>> query(ExecutionInput executionInput, GraphQLContext context) {
+    return bulkhead.execute(() -> delegate.query(executionInput, context));
+  }
+
+  @Override
+  public String getNameSpace() {
+    return delegate.getNameSpace();
+  }
+
+  @Override
+  public Map<String, String> sdlFiles() {
+    return delegate.sdlFiles();
+  }
+
+  @Override
+  public Set<String> domainTypes() {
+    return delegate.domainTypes();
+  }
+
+  @Override
+  public ServiceType getSeviceType() {
+    return delegate.getSeviceType();
+  }
+
+  @Override
+  public boolean isFederationProvider() {
+    return delegate.isFederationProvider();
+  }
+
+  @Override
+  public int maxEntityBatchSize() {
+    return delegate.maxEntityBatchSize();
+  }
+
+  @Override
+  public int maxConcurrentEntityBatches() {
+    return delegate.maxConcurrentEntityBatches();
+  }
+
+  @Override
+  public long timeoutMillis() {
+    return delegate.timeoutMillis();
+  }
+
+  @Override
+  public String toString() {
+    return delegate.toString();
+  }
+
+  private static final class Streaming extends BulkheadServiceProvider implements StreamingQueryExecutor {
+
+    private Streaming(ServiceProvider delegate, Bulkhead bulkhead) {
+      super(delegate, bulkhead);
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> query(ExecutionInput executionInput, GraphQLContext context) {
+      return super.query(executionInput, context);
+    }
+
+    @Override
+    public CompletableFuture<InputStream> queryForStream(ExecutionInput executionInput, GraphQLContext context) {
+      return getBulkhead().execute(() -> ((StreamingQueryExecutor) getDelegate()).queryForStream(executionInput, context));
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package com.intuit.graphql.orchestrator.bulkhead;
+
+import static java.util.Objects.requireNonNull;
+
+import com.intuit.graphql.orchestrator.ServiceProvider;
+import com.intuit.graphql.orchestrator.VirtualOrchestratorProvider;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link Bulkhead}s of all service providers, keyed by namespace.
+ *
+ * <p>The stitcher {@link #decorate(ServiceProvider) decorates} every service provider, so the GraphQL, entity fetcher
+ * and field resolver batch loaders as well as the REST data fetcher all share the bulkhead of the namespace they
+ * call. Bulkheads are created once per namespace and kept across stitches.
+ */
+public class Bulkheads {
+
+  /**
+   * No bulkheads; service providers are not decorated.
+   */
+  public static final Bulkheads NONE = newBuilder().build();
+
+  private final BulkheadConfig defaultConfig;
+  private final Map<String, BulkheadConfig> configs;
+  private final BulkheadListener listener;
+  private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+  private Bulkheads(Builder builder) {
+    this.defaultConfig = builder.defaultConfig;
+    this.configs = new HashMap<>(builder.configs);
+    this.listener = builder.listener;
+  }
+
+  public static Builder newBuilder() {
+    return new Builder();
+  }
+
+  /**
+   * @param serviceProvider a service provider
+   * @return a service provider whose queries pass through the bulkhead of its namespace, or {@code serviceProvider}
+   * itself if its namespace has no bulkhead
+   */
+  public ServiceProvider decorate(ServiceProvider serviceProvider) {
+    if (serviceProvider instanceof BulkheadServiceProvider) {
+      return serviceProvider;
+    }
+    Bulkhead bulkhead = get(serviceProvider.getNameSpace());
+    return bulkhead == null ? serviceProvider : BulkheadServiceProvider.of(serviceProvider, bulkhead);
+  }
+
+  /**
+   * @param namespace the namespace of a service provider
+   * @return the bulkhead of the namespace, or {@code null} if it has none
+   */
+  public Bulkhead get(String namespace) {
+    if (VirtualOrchestratorProvider.ORCHESTRATOR.equals(namespace)) {
+      return null;
+    }
+    BulkheadConfig config = configs.getOrDefault(namespace, defaultConfig);
+    if (config == null) {
+      return null;
+    }
+    return bulkheads.computeIfAbsent(namespace, key -> new Bulkhead(key, config, listener));
+  }
+
+  public static final class Builder {
+
+    private BulkheadConfig defaultConfig;
+    private final Map<String, BulkheadConfig> configs = new HashMap<>();
+    private BulkheadListener listener = BulkheadListener.NONE;
+
+    private Builder() {
+    }
+
+    /**
+     * @param config the limits of namespaces without their own config
+     * @return this builder
+     */
+    public Builder defaultConfig(final BulkheadConfig config) {
+      this.defaultConfig = requireNonNull(config);
+      return this;
+    }
+
+    public Builder config(final String namespace, final BulkheadConfig config) {
+      this.configs.put(requireNonNull(namespace), requireNonNull(config));
+      return this;
+    }
+
+    public Builder listener(final BulkheadListener listener) {
+      this.listener = requireNonNull(listener);
+      return this;
+    }
+
+    public Bulkheads build() {
+      return new Bulkheads(this);
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package com.intuit.graphql.orchestrator.bulkhead;
+
+/**
+ * A limit that does not change.
+ */
+public class FixedLimit implements LimitAlgorithm {
+
+  private final int limit;
+
+  public FixedLimit(int limit) {
+    if (limit < 1) {
+      throw new IllegalArgumentException("limit must be positive: " + limit);
+    }
+    this.limit = limit;
+  }
+
+  @Override
+  public int getInitialLimit() {
+    return limit;
+  }
+
+  @Override
+  public int update(int limit, int inFlight, long latencyNanos, boolean failed) {
+    return limit;
+  }
+}
@@ -0,0 +1,26 @@
+package com.intuit.graphql.orchestrator.bulkhead;
+
+/**
+ * Computes the concurrency limit of a {@link Bulkhead} from the calls it observes.
+ *
+ * <p>Implementations must be stateless; the current limit is passed in with every sample, so one instance can be
+ * shared by the bulkheads of all namespaces.
+ */
+public interface LimitAlgorithm {
+
+  /**
+   * @return the limit a bulkhead starts with
+   */
+  int getInitialLimit();
+
+  /**
+   * Called when a downstream call completes.
+   *
+   * @param limit the current limit
+   * @param inFlight the number of calls in flight, including the completed one
+   * @param latencyNanos the latency of the completed call
+   * @param failed whether the call completed exceptionally
+   * @return the new limit; values below one are treated as one
+   */
+  int update(int limit, int inFlight, long latencyNanos, boolean failed);
+}
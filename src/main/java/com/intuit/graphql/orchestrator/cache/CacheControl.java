@@ -0,0 +1,42 @@
+package com.intuit.graphql.orchestrator.cache;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import lombok.Getter;
+
+/**
+ * The cache policy of a root query field, declared with {@code @cacheControl(maxAge:, scope:)} in the SDL of its
+ * service.
+ *
+ * <pre>
+ * directive &#64;cacheControl(maxAge: Int, scope: CacheControlScope) on FIELD_DEFINITION
+ * </pre>
+ */
+@Getter
+public class CacheControl {
+
+  public enum Scope {
+    /**
+     * The result is the same for every client.
+     */
+    PUBLIC,
+    /**
+     * The result depends on the client; it is only shared by requests with the same scope key.
+     */
+    PRIVATE
+  }
+
+  private final Duration maxAge;
+  private final Scope scope;
+
+  public CacheControl(Duration maxAge, Scope scope) {
+    this.maxAge = requireNonNull(maxAge);
+    this.scope = requireNonNull(scope);
+  }
+
+  @Override
+  public String toString() {
+    return "CacheControl{maxAge=" + maxAge.getSeconds() + ", scope=" + scope + '}';
+  }
+}
@@ -0,0 +1,84 @@
+package com.intuit.graphql.orchestrator.cache;
+
+import graphql.language.AstComparator;
+import graphql.language.BooleanValue;
+import graphql.language.Document;
+import graphql.language.Field;
+import graphql.language.FloatValue;
+import graphql.language.IntValue;
+import graphql.language.NamedNode;
+import graphql.language.Node;
+import graphql.language.OperationDefinition;
+import graphql.language.StringValue;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A structural fingerprint of a {@link Document} that can be used as a cache key.
+ *
+ * <p>The hash is computed in a single walk of the AST, without printing it. Source locations, comments and ignored
+ * characters do not contribute, so two documents built separately for the same downstream operation have the same
+ * fingerprint. Equality is verified with {@link AstComparator} so a hash collision can never return a value cached for
+ * a different document.
+ */
+public final class DocumentFingerprint {
+
+  private final Document document;
+  private final int hash;
+
+  private DocumentFingerprint(Document document) {
+    this.document = document;
+    this.hash = hash(document);
+  }
+
+  public static DocumentFingerprint of(Document document) {
+    return new DocumentFingerprint(Objects.requireNonNull(document));
+  }
+
+  public Document getDocument() {
+    return document;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof DocumentFingerprint)) {
+      return false;
+    }
+    DocumentFingerprint that = (DocumentFingerprint) o;
+    return hash == that.hash && AstComparator.isEqual(document, that.document);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  private static int hash(Node<?> node) {
+    int result = node.getClass().hashCode();
+
+    if (node instanceof NamedNode) {
+      result = 31 * result + Objects.hashCode(((NamedNode<?>) node).getName());
+    }
+    if (node instanceof Field) {
+      result = 31 * result + Objects.hashCode(((Field) node).getAlias());
+    } else if (node instanceof OperationDefinition) {
+      result = 31 * result + Objects.hashCode(((OperationDefinition) node).getOperation());
+    } else if (node instanceof StringValue) {
+      result = 31 * result + Objects.hashCode(((StringValue) node).getValue());
+    } else if (node instanceof IntValue) {
+      result = 31 * result + Objects.hashCode(((IntValue) node).getValue());
+    } else if (node instanceof FloatValue) {
+      result = 31 * result + Objects.hashCode(((FloatValue) node).getValue());
+    } else if (node instanceof BooleanValue) {
+      result = 31 * result + Boolean.hashCode(((BooleanValue) node).isValue());
+    }
+
+    for (Node<?> child : node.getChildren()) {
+      result = 31 * result + hash(child);
+    }
+    return result;
+  }
+}
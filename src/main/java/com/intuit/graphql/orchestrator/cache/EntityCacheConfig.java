@@ -0,0 +1,23 @@
+package com.intuit.graphql.orchestrator.cache;
+
+import java.time.Duration;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Limits of the {@link EntityResultCache} of one entity extension field.
+ */
+@Builder
+@Getter
+public class EntityCacheConfig {
+
+  /**
+   * How long a fetched entity field is served from the cache.
+   */
+  @Builder.Default private final Duration timeToLive = Duration.ofMinutes(1);
+
+  /**
+   * The number of cached entities. The least recently used entities are evicted first.
+   */
+  @Builder.Default private final long maximumSize = 10_000;
+}
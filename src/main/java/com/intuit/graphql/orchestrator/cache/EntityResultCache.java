@@ -0,0 +1,297 @@
+package com.intuit.graphql.orchestrator.cache;
+
+import static com.intuit.graphql.orchestrator.utils.GraphQLUtil.deepCopy;
+import static graphql.execution.DataFetcherResult.newResult;
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import graphql.GraphQLContext;
+import graphql.execution.DataFetcherResult;
+import graphql.schema.FieldCoordinates;
+import graphql.schema.GraphQLSchema;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Caches the fields that federated entity extensions fetch from their owning service with an {@code _entities}
+ * query.
+ *
+ * <p>Each entity extension field configured with an {@link EntityCacheConfig} has its own cache with its own time to
+ * live and size. An entity is keyed by its representation, i.e. {@code __typename} and the key and required field
+ * values, and by the printed selection of the extension field. If a {@link Builder#scopeKey(Function) scope key} is
+ * set, entities are further partitioned by the scope key of the request context.
+ *
+ * <p>Only entities that are not cached are sent to the service. Entities fetched with errors are not cached, and
+ * every request gets its own copy of a cached entity field. Entities are {@link SchemaScoped kept per schema}, so
+ * entity fields fetched for a previous runtime graph are not served after a re-stitch or a swap of the runtime graph.
+ */
+public class EntityResultCache {
+
+  /**
+   * No entity field is cached.
+   */
+  public static final EntityResultCache NONE = newBuilder().build();
+
+  // Guava caches do not hold null values; a null entity field is cached as this marker
+  private static final Object NULL_DATA = new Object();
+
+  private final Map<FieldCoordinates, EntityCacheConfig> fieldConfigs;
+  private final Map<String, EntityCacheConfig> typeConfigs;
+  private final Function<GraphQLContext, Object> scopeKey;
+  private final Ticker ticker;
+  private final SchemaScoped<Map<FieldCoordinates, Cache<EntityKey, Object>>> caches =
+      new SchemaScoped<>(ConcurrentHashMap::new);
+
+  private EntityResultCache(Builder builder) {
+    this.fieldConfigs = new HashMap<>(builder.fieldConfigs);
+    this.typeConfigs = new HashMap<>(builder.typeConfigs);
+    this.scopeKey = builder.scopeKey;
+    this.ticker = builder.ticker;
+  }
+
+  public static Builder newBuilder() {
+    return new Builder();
+  }
+
+  /**
+   * @param typeName the name of the entity type
+   * @param fieldName the name of the entity extension field
+   * @return whether the field is cached
+   */
+  public boolean isEnabled(String typeName, String fieldName) {
+    return getConfig(typeName, fieldName) != null;
+  }
+
+  /**
+   * Looks up the cached entity fields of an entity fetch batch.
+   *
+   * @param typeName the name of the entity type
+   * @param fieldName the name of the entity extension field
+   * @param schema the schema the request is executed against
+   * @param context the request context
+   * @param selection the printed selection of the extension field
+   * @param representations the unique entity representations of the batch
+   * @return the cached entity fields of the batch
+   */
+  public Batch lookup(String typeName, String fieldName, GraphQLSchema schema, GraphQLContext context,
+      String selection, List<Map<String, Object>> representations) {
+    Cache<EntityKey, Object> cache = getCache(typeName, fieldName, schema);
+    Object partition = context == null ? null : scopeKey.apply(context);
+
+    Batch batch = new Batch(cache, representations.size());
+    for (int i = 0; i < representations.size(); i++) {
+      EntityKey entityKey = new EntityKey(representations.get(i), selection, partition);
+      batch.entityKeys[i] = entityKey;
+      batch.cachedData[i] = cache == null ? null : cache.getIfPresent(entityKey);
+    }
+    return batch;
+  }
+
+  /**
+   * @param typeName the name of the entity type
+   * @param fieldName the name of the entity extension field
+   * @return hit, miss and eviction counts of the cache of the field for all schemas that are still referenced
+   */
+  public CacheStats stats(String typeName, String fieldName) {
+    FieldCoordinates coordinates = FieldCoordinates.coordinates(typeName, fieldName);
+    return caches.values().stream()
+        .map(schemaCaches -> schemaCaches.get(coordinates))
+        .filter(Objects::nonNull)
+        .map(Cache::stats)
+        .reduce(new CacheStats(0, 0, 0, 0, 0, 0), CacheStats::plus);
+  }
+
+  public void invalidateAll() {
+    caches.clear();
+  }
+
+  private EntityCacheConfig getConfig(String typeName, String fieldName) {
+    EntityCacheConfig config = fieldConfigs.get(FieldCoordinates.coordinates(typeName, fieldName));
+    return config != null ? config : typeConfigs.get(typeName);
+  }
+
+  private Cache<EntityKey, Object> getCache(String typeName, String fieldName, GraphQLSchema schema) {
+    EntityCacheConfig config = getConfig(typeName, fieldName);
+    if (config == null) {
+      return null;
+    }
+    return caches.get(schema).computeIfAbsent(FieldCoordinates.coordinates(typeName, fieldName), coordinates ->
+        CacheBuilder.newBuilder()
+            .expireAfterWrite(config.getTimeToLive())
+            .maximumSize(config.getMaximumSize())
+            .ticker(ticker)
+            .recordStats()
+            .build());
+  }
+
+  /**
+   * The cached entity fields of one batch. Only the {@link #missing(List) missing} entities are fetched.
+   */
+  public static final class Batch {
+
+    private final Cache<EntityKey, Object> cache;
+    private final EntityKey[] entityKeys;
+    private final Object[] cachedData;
+
+    private Batch(Cache<EntityKey, Object> cache, int size) {
+      this.cache = cache;
+      this.entityKeys = new EntityKey[size];
+      this.cachedData = new Object[size];
+    }
+
+    public boolean hasCachedResults() {
+      for (Object data : cachedData) {
+        if (data != null) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * @param values one value per representation of the batch, e.g. the representations or the batch loader keys
+     * @return the values of the representations without a cached entity field, in batch order
+     */
+    public <T> List<T> missing(List<T> values) {
+      List<T> missingValues = new ArrayList<>();
+      for (int i = 0; i < cachedData.length; i++) {
+        if (cachedData[i] == null) {
+          missingValues.add(values.get(i));
+        }
+      }
+      return missingValues;
+    }
+
+    /**
+     * Caches the fetched entity fields and merges them with the cached ones.
+     *
+     * @param fetchedResults one result per {@link #missing(List) missing} representation
+     * @return one result per representation of the batch, in batch order
+     * @throws IllegalStateException if there is not one result per missing representation
+     */
+    public List<DataFetcherResult<Object>> complete(List<DataFetcherResult<Object>> fetchedResults) {
+      int missingCount = 0;
+      for (Object data : cachedData) {
+        if (data == null) {
+          missingCount++;
+        }
+      }
+      if (fetchedResults.size() != missingCount) {
+        throw new IllegalStateException(String.format("Expected %d fetched entity results, got %d", missingCount,
+            fetchedResults.size()));
+      }
+
+      List<DataFetcherResult<Object>> results = new ArrayList<>(cachedData.length);
+      int fetchedIndex = 0;
+      for (int i = 0; i < cachedData.length; i++) {
+        if (cachedData[i] != null) {
+          Object data = cachedData[i] == NULL_DATA ? null : deepCopy(cachedData[i]);
+          results.add(newResult().data(data).build());
+          continue;
+        }
+        DataFetcherResult<Object> fetchedResult = fetchedResults.get(fetchedIndex++);
+        if (cache != null && fetchedResult.getErrors().isEmpty()) {
+          Object data = fetchedResult.getData();
+          cache.put(entityKeys[i], data == null ? NULL_DATA : deepCopy(data));
+        }
+        results.add(fetchedResult);
+      }
+      return results;
+    }
+  }
+
+  private static class EntityKey {
+
+    private final Map<String, Object> representation;
+    private final String selection;
+    private final Object partition;
+    private final int hash;
+
+    private EntityKey(Map<String, Object> representation, String selection, Object partition) {
+      this.representation = representation;
+      this.selection = selection;
+      this.partition = partition;
+      this.hash = Objects.hash(representation, selection, partition);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof EntityKey)) {
+        return false;
+      }
+      EntityKey that = (EntityKey) o;
+      return hash == that.hash
+          && Objects.equals(partition, that.partition)
+          && Objects.equals(representation, that.representation)
+          && Objects.equals(selection, that.selection);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  public static final class Builder {
+
+    private final Map<FieldCoordinates, EntityCacheConfig> fieldConfigs = new HashMap<>();
+    private final Map<String, EntityCacheConfig> typeConfigs = new HashMap<>();
+    private Function<GraphQLContext, Object> scopeKey = context -> null;
+    private Ticker ticker = Ticker.systemTicker();
+
+    private Builder() {
+    }
+
+    /**
+     * @param typeName the name of the entity type
+     * @param config the limits of all extension fields of the type without their own config
+     * @return this builder
+     */
+    public Builder entity(final String typeName, final EntityCacheConfig config) {
+      this.typeConfigs.put(requireNonNull(typeName), requireNonNull(config));
+      return this;
+    }
+
+    /**
+     * @param typeName the name of the entity type
+     * @param fieldName the name of the entity extension field
+     * @param config the limits of the extension field
+     * @return this builder
+     */
+    public Builder entityField(final String typeName, final String fieldName, final EntityCacheConfig config) {
+      this.fieldConfigs.put(FieldCoordinates.coordinates(requireNonNull(typeName), requireNonNull(fieldName)),
+          requireNonNull(config));
+      return this;
+    }
+
+    /**
+     * @param scopeKey extracts the key that partitions cached entities, e.g. the user id, from the request context.
+     * Entities are shared by all requests if it returns {@code null}.
+     * @return this builder
+     */
+    public Builder scopeKey(final Function<GraphQLContext, Object> scopeKey) {
+      this.scopeKey = requireNonNull(scopeKey);
+      return this;
+    }
+
+    public Builder ticker(final Ticker ticker) {
+      this.ticker = requireNonNull(ticker);
+      return this;
+    }
+
+    public EntityResultCache build() {
+      return new EntityResultCache(this);
+    }
+  }
+}
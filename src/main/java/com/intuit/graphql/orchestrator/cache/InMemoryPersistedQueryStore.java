@@ -0,0 +1,49 @@
+package com.intuit.graphql.orchestrator.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+/**
+ * A bounded in memory {@link PersistedQueryStore}. The least recently used queries are evicted first.
+ */
+public class InMemoryPersistedQueryStore implements PersistedQueryStore {
+
+  public static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+
+  private final Cache<String, String> queries;
+
+  public InMemoryPersistedQueryStore() {
+    this(DEFAULT_MAXIMUM_SIZE);
+  }
+
+  public InMemoryPersistedQueryStore(long maximumSize) {
+    this.queries = CacheBuilder.newBuilder()
+        .maximumSize(maximumSize)
+        .recordStats()
+        .build();
+  }
+
+  @Override
+  public String getQuery(String persistedQueryId) {
+    return queries.getIfPresent(persistedQueryId);
+  }
+
+  @Override
+  public void putQuery(String persistedQueryId, String query) {
+    queries.put(persistedQueryId, query);
+  }
+
+  /**
+   * Hit, miss and eviction counts of this store.
+   *
+   * @return a snapshot of the store statistics
+   */
+  public CacheStats stats() {
+    return queries.stats();
+  }
+
+  public long size() {
+    return queries.size();
+  }
+}
@@ -0,0 +1,24 @@
+package com.intuit.graphql.orchestrator.cache;
+
+/**
+ * Holds the query texts of persisted queries by their id, the SHA-256 hash of the query text.
+ *
+ * <p>Implementations may be shared by several orchestrator instances, e.g. backed by a distributed cache. Query texts
+ * do not depend on the schema, so a store does not have to be cleared when the runtime graph changes.
+ */
+public interface PersistedQueryStore {
+
+  /**
+   * @param persistedQueryId the SHA-256 hash of the query text
+   * @return the query text or {@code null} if the query is not persisted
+   */
+  String getQuery(String persistedQueryId);
+
+  /**
+   * Called once the query text has been verified against its id.
+   *
+   * @param persistedQueryId the SHA-256 hash of the query text
+   * @param query the query text
+   */
+  void putQuery(String persistedQueryId, String query);
+}
@@ -0,0 +1,199 @@
+package com.intuit.graphql.orchestrator.cache;
+
+import static graphql.execution.preparsed.persisted.PersistedQuerySupport.PERSISTED_QUERY_MARKER;
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.ApolloPersistedQuerySupport;
+import graphql.execution.preparsed.persisted.PersistedQueryCache;
+import graphql.execution.preparsed.persisted.PersistedQueryCacheMiss;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import graphql.schema.GraphQLSchema;
+import java.util.function.Function;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * A bounded cache of parsed and validated client documents.
+ *
+ * <p>Parsing and validating a query against a large stitched schema is expensive, while clients send the same queries
+ * over and over. Documents are keyed by their query text and by the schema they were validated against. Invalid
+ * documents are cached as well, together with their validation errors.
+ *
+ * <p>If a {@link PersistedQueryStore} is set, clients may send the SHA-256 hash of a query in the
+ * {@code persistedQuery} extension instead of the query text, as with Apollo automatic persisted queries. An unknown
+ * hash is answered with a {@code PersistedQueryNotFound} error, and a client that then sends the query text together
+ * with its hash registers the query in the store. Query texts that do not match their hash are rejected.
+ *
+ * <p>The cache is used through the {@link PreparsedDocumentProvider} returned by {@link #forSchema(GraphQLSchema)}.
+ * Once documents are requested for another schema, e.g. because the runtime graph was rebuilt, the documents validated
+ * against the previous schema are dropped.
+ */
+public class PreparsedDocumentCache {
+
+  public static final long DEFAULT_MAXIMUM_SIZE = 1_000;
+
+  private final Cache<DocumentKey, PreparsedDocumentEntry> documents;
+  private final PersistedQuerySupport persistedQuerySupport;
+  private volatile GraphQLSchema currentSchema;
+
+  private PreparsedDocumentCache(Builder builder) {
+    this.documents = CacheBuilder.newBuilder()
+        .maximumSize(builder.maximumSize)
+        .recordStats()
+        .build();
+    this.persistedQuerySupport = builder.persistedQueryStore == null ? null
+        : new ApolloPersistedQuerySupport(new StoreBackedPersistedQueryCache(builder.persistedQueryStore));
+  }
+
+  public static Builder newBuilder() {
+    return new Builder();
+  }
+
+  /**
+   * Returns the document provider of the given schema. Documents cached for any other schema are dropped.
+   *
+   * @param schema the schema documents are validated against
+   * @return the document provider to build the {@code GraphQL} engine of the schema with
+   */
+  public synchronized PreparsedDocumentProvider forSchema(GraphQLSchema schema) {
+    requireNonNull(schema);
+    if (currentSchema != schema) {
+      currentSchema = schema;
+      documents.invalidateAll();
+    }
+    return (executionInput, parseAndValidate) -> getDocument(schema, executionInput, parseAndValidate);
+  }
+
+  /**
+   * Hit, miss and eviction counts of the parsed and validated documents.
+   *
+   * @return a snapshot of the cache statistics
+   */
+  public CacheStats stats() {
+    return documents.stats();
+  }
+
+  public long size() {
+    return documents.size();
+  }
+
+  public void invalidateAll() {
+    documents.invalidateAll();
+  }
+
+  private PreparsedDocumentEntry getDocument(GraphQLSchema schema, ExecutionInput executionInput,
+      Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate) {
+    Function<ExecutionInput, PreparsedDocumentEntry> cachedParseAndValidate =
+        input -> getOrParse(schema, input, parseAndValidate);
+    return persistedQuerySupport == null
+        ? cachedParseAndValidate.apply(executionInput)
+        : persistedQuerySupport.getDocument(executionInput, cachedParseAndValidate);
+  }
+
+  private PreparsedDocumentEntry getOrParse(GraphQLSchema schema, ExecutionInput executionInput,
+      Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate) {
+    DocumentKey key = new DocumentKey(schema, executionInput.getQuery());
+    PreparsedDocumentEntry entry = documents.getIfPresent(key);
+    if (entry == null) {
+      entry = parseAndValidate.apply(executionInput);
+      documents.put(key, entry);
+    }
+    return entry;
+  }
+
+  private static class StoreBackedPersistedQueryCache implements PersistedQueryCache {
+
+    private final PersistedQueryStore store;
+
+    private StoreBackedPersistedQueryCache(PersistedQueryStore store) {
+      this.store = store;
+    }
+
+    @Override
+    public PreparsedDocumentEntry getPersistedQueryDocument(Object persistedQueryId, ExecutionInput executionInput,
+        PersistedQueryCacheMiss onCacheMiss) {
+      String persistedQuery = store.getQuery(persistedQueryId.toString());
+      if (persistedQuery != null) {
+        return onCacheMiss.apply(persistedQuery);
+      }
+
+      String query = executionInput.getQuery();
+      if (StringUtils.isBlank(query) || PERSISTED_QUERY_MARKER.equals(query)) {
+        throw new PersistedQueryNotFound(persistedQueryId);
+      }
+      // verifies the query against its id before it is parsed
+      PreparsedDocumentEntry entry = onCacheMiss.apply(query);
+      if (!entry.hasErrors()) {
+        store.putQuery(persistedQueryId.toString(), query);
+      }
+      return entry;
+    }
+  }
+
+  private static class DocumentKey {
+
+    private final GraphQLSchema schema;
+    private final String query;
+
+    private DocumentKey(GraphQLSchema schema, String query) {
+      this.schema = schema;
+      this.query = query;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof DocumentKey)) {
+        return false;
+      }
+      DocumentKey that = (DocumentKey) o;
+      return schema == that.schema && query.equals(that.query);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(schema) + query.hashCode();
+    }
+  }
+
+  public static final class Builder {
+
+    private long maximumSize = DEFAULT_MAXIMUM_SIZE;
+    private PersistedQueryStore persistedQueryStore = null;
+
+    private Builder() {
+    }
+
+    /**
+     * @param maximumSize the maximum number of documents held by the cache
+     * @return this builder
+     */
+    public Builder maximumSize(final long maximumSize) {
+      this.maximumSize = maximumSize;
+      return this;
+    }
+
+    /**
+     * Enables persisted queries. Disabled by default.
+     *
+     * @param persistedQueryStore the store of the persisted query texts, e.g. an {@link InMemoryPersistedQueryStore}
+     * @return this builder
+     */
+    public Builder persistedQueryStore(final PersistedQueryStore persistedQueryStore) {
+      this.persistedQueryStore = requireNonNull(persistedQueryStore);
+      return this;
+    }
+
+    public PreparsedDocumentCache build() {
+      return new PreparsedDocumentCache(this);
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package com.intuit.graphql.orchestrator.cache;
+
+import static graphql.language.AstPrinter.printAstCompact;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import graphql.language.Document;
+
+/**
+ * A bounded cache of compactly printed downstream documents.
+ *
+ * <p>Downstream documents are generated per request, but for repeating client operations they are structurally
+ * identical most of the time. Documents are keyed by their {@link DocumentFingerprint}; variable values are passed
+ * separately from the document and are therefore not part of the key. On a hit the document is not printed.
+ * {@link com.intuit.graphql.orchestrator.batch.DownstreamQueryPlan Plans} of a downstream query plan cache keep their
+ * printed query, so only plans built per request look it up again.
+ *
+ * <p>The cache is bounded by weight. The weight of an entry is the length of its printed query, doubled to account for
+ * the document held by the key.
+ */
+public class PrintedQueryCache {
+
+  /**
+   * Default maximum weight, roughly the number of characters of printed queries held by the cache.
+   */
+  public static final long DEFAULT_MAXIMUM_WEIGHT = 8L * 1024 * 1024;
+
+  private static final PrintedQueryCache DEFAULT_INSTANCE = new PrintedQueryCache(DEFAULT_MAXIMUM_WEIGHT);
+
+  private final Cache<DocumentFingerprint, String> cache;
+
+  public PrintedQueryCache(long maximumWeight) {
+    this.cache = CacheBuilder.newBuilder()
+        .maximumWeight(maximumWeight)
+        .weigher((DocumentFingerprint key, String printedQuery) -> 2 * printedQuery.length())
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * The instance shared by all loaders and data fetchers that are not configured with their own cache.
+   *
+   * @return the shared printed query cache
+   */
+  public static PrintedQueryCache defaultInstance() {
+    return DEFAULT_INSTANCE;
+  }
+
+  /**
+   * Returns the compact printed form of the document, printing it only if a structurally identical document has not
+   * been printed before.
+   *
+   * @param document the downstream document
+   * @return the printed query
+   */
+  public String print(Document document) {
+    DocumentFingerprint fingerprint = DocumentFingerprint.of(document);
+    String printedQuery = cache.getIfPresent(fingerprint);
+    if (printedQuery == null) {
+      printedQuery = printAstCompact(document);
+      cache.put(fingerprint, printedQuery);
+    }
+    return printedQuery;
+  }
+
+  /**
+   * Hit, miss and eviction counts of this cache.
+   *
+   * @return a snapshot of the cache statistics
+   */
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  public long size() {
+    return cache.size();
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+}
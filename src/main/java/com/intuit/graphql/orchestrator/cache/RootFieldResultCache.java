@@ -0,0 +1,395 @@
+package com.intuit.graphql.orchestrator.cache;
+
+import static com.intuit.graphql.orchestrator.utils.GraphQLUtil.deepCopy;
+import static graphql.execution.DataFetcherResult.newResult;
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.intuit.graphql.orchestrator.cache.CacheControl.Scope;
+import com.intuit.graphql.orchestrator.schema.ServiceMetadata;
+import graphql.GraphQLContext;
+import graphql.execution.DataFetcherResult;
+import graphql.language.OperationDefinition;
+import graphql.language.OperationDefinition.Operation;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.DataFetchingFieldSelectionSet;
+import graphql.schema.SelectedField;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Caches the results of root query fields of GraphQL services that declare {@code @cacheControl(maxAge:, scope:)}.
+ *
+ * <p>A result is keyed by the namespace, the field name, the argument values and a fingerprint of the normalized
+ * selection set of the field, so aliases, fragments and {@code @skip}/{@code @include} do not split entries. Results
+ * of {@link Scope#PRIVATE PRIVATE} fields are further keyed by the scope key of the request context; they are not
+ * cached for requests without one.
+ *
+ * <p>Cached fields are removed from the downstream query. A result older than its {@code maxAge} is still served for
+ * the {@link Builder#staleWhileRevalidate(Duration) stale-while-revalidate} window while one request refreshes it in
+ * the background.
+ *
+ * <p>The cache is bounded by size and evicts the least recently used results first. Results are only cached if the
+ * downstream call returned no errors, and every request gets its own copy of a cached result. Results are {@link
+ * SchemaScoped kept per schema}, so results fetched for a previous runtime graph are not served after a re-stitch or a
+ * swap of the runtime graph.
+ */
+public class RootFieldResultCache {
+
+  /**
+   * A disabled cache. Every root field is fetched from its service.
+   */
+  public static final RootFieldResultCache NONE = newBuilder().maximumSize(0).build();
+
+  public static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+
+  private final boolean enabled;
+  private final SchemaScoped<Cache<ResultKey, CachedResult>> results;
+  private final long staleWhileRevalidateNanos;
+  private final Function<GraphQLContext, Object> scopeKey;
+  private final Ticker ticker;
+
+  private RootFieldResultCache(Builder builder) {
+    this.enabled = builder.maximumSize > 0;
+    this.results = new SchemaScoped<>(() -> CacheBuilder.newBuilder()
+        .maximumSize(builder.maximumSize)
+        .recordStats()
+        .build());
+    this.staleWhileRevalidateNanos = builder.staleWhileRevalidate.toNanos();
+    this.scopeKey = builder.scopeKey;
+    this.ticker = builder.ticker;
+  }
+
+  public static Builder newBuilder() {
+    return new Builder();
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Looks up the cached results of a batch of a GraphQL service.
+   *
+   * @param serviceMetadata the metadata of the service
+   * @param context the request context
+   * @param keys the batch loader keys
+   * @return the cached results of the batch
+   */
+  public Batch lookup(ServiceMetadata serviceMetadata, GraphQLContext context, List<DataFetchingEnvironment> keys) {
+    String namespace = serviceMetadata.getServiceProvider().getNameSpace();
+    long now = ticker.read();
+
+    Cache<ResultKey, CachedResult> schemaResults = results.get(keys.isEmpty() ? null : keys.get(0).getGraphQLSchema());
+    Batch batch = new Batch(keys, schemaResults, now);
+    for (int i = 0; i < keys.size(); i++) {
+      DataFetchingEnvironment key = keys.get(i);
+      CacheControl cacheControl = getCacheControl(serviceMetadata, key);
+      if (cacheControl == null) {
+        continue;
+      }
+      Object partition = null;
+      if (cacheControl.getScope() == Scope.PRIVATE) {
+        partition = context == null ? null : scopeKey.apply(context);
+        if (partition == null) {
+          continue;
+        }
+      }
+
+      ResultKey resultKey = new ResultKey(namespace, key.getFieldDefinition().getName(), key.getArguments(),
+          fingerprint(key.getSelectionSet()), partition);
+      batch.resultKeys[i] = resultKey;
+      batch.maxAges[i] = cacheControl.getMaxAge().toNanos();
+
+      CachedResult cachedResult = schemaResults.getIfPresent(resultKey);
+      if (cachedResult != null && now - cachedResult.expiresAt > staleWhileRevalidateNanos) {
+        schemaResults.invalidate(resultKey);
+        cachedResult = null;
+      }
+      batch.cachedResults[i] = cachedResult;
+    }
+    return batch;
+  }
+
+  /**
+   * Hit, miss and eviction counts of the results of all schemas that are still referenced.
+   *
+   * @return a snapshot of the cache statistics
+   */
+  public CacheStats stats() {
+    return results.values().stream()
+        .map(Cache::stats)
+        .reduce(new CacheStats(0, 0, 0, 0, 0, 0), CacheStats::plus);
+  }
+
+  public long size() {
+    return results.values().stream().mapToLong(Cache::size).sum();
+  }
+
+  public void invalidateAll() {
+    results.clear();
+  }
+
+  private CacheControl getCacheControl(ServiceMetadata serviceMetadata, DataFetchingEnvironment key) {
+    OperationDefinition operationDefinition = key.getOperationDefinition();
+    if (operationDefinition != null && operationDefinition.getOperation() != Operation.QUERY) {
+      return null;
+    }
+    if (key.getExecutionStepInfo() == null || key.getExecutionStepInfo().getPath().getLevel() != 1
+        || key.getFieldDefinition() == null) {
+      return null;
+    }
+    return serviceMetadata.getRootFieldCacheControl(key.getFieldDefinition().getName());
+  }
+
+  /**
+   * The result shape of a selection set: the result key path, possible object types, name and arguments of every
+   * selected field, ordered by result key path. The order of fields in the client query does not matter as the
+   * response is ordered by graphql-java.
+   */
+  private static List<List<Object>> fingerprint(DataFetchingFieldSelectionSet selectionSet) {
+    if (selectionSet == null) {
+      return Collections.emptyList();
+    }
+    List<SelectedField> fields = selectionSet.getFields();
+    List<List<Object>> fingerprint = new ArrayList<>(fields.size());
+    for (SelectedField field : fields) {
+      fingerprint.add(Arrays.asList(resultKeyPath(field), field.getObjectTypeNames(), field.getName(),
+          field.getArguments()));
+    }
+    fingerprint.sort(Comparator.comparing(entry -> (String) entry.get(0)));
+    return fingerprint;
+  }
+
+  private static String resultKeyPath(SelectedField field) {
+    StringBuilder path = new StringBuilder(field.getResultKey());
+    // the outermost parent is the root field itself, whose alias does not change the cached result
+    for (SelectedField parent = field.getParentField(); parent != null && parent.getParentField() != null;
+        parent = parent.getParentField()) {
+      path.insert(0, '/').insert(0, parent.getResultKey());
+    }
+    return path.toString();
+  }
+
+  /**
+   * The cached results of one batch. Keys without a fresh or stale result are {@link #getMissingKeys() fetched} from
+   * the service; stale results are served while {@link #getStaleKeys() their keys} are fetched in the background.
+   */
+  public final class Batch {
+
+    private final List<DataFetchingEnvironment> keys;
+    private final Cache<ResultKey, CachedResult> schemaResults;
+    private final long now;
+    private final ResultKey[] resultKeys;
+    private final long[] maxAges;
+    private final CachedResult[] cachedResults;
+    private final List<Integer> staleIndexes = new ArrayList<>();
+
+    private Batch(List<DataFetchingEnvironment> keys, Cache<ResultKey, CachedResult> schemaResults, long now) {
+      this.keys = keys;
+      this.schemaResults = schemaResults;
+      this.now = now;
+      this.resultKeys = new ResultKey[keys.size()];
+      this.maxAges = new long[keys.size()];
+      this.cachedResults = new CachedResult[keys.size()];
+    }
+
+    public boolean hasCachedResults() {
+      return Arrays.stream(cachedResults).anyMatch(Objects::nonNull);
+    }
+
+    /**
+     * @return the keys without a cached result, in batch order
+     */
+    public List<DataFetchingEnvironment> getMissingKeys() {
+      List<DataFetchingEnvironment> missingKeys = new ArrayList<>();
+      for (int i = 0; i < keys.size(); i++) {
+        if (cachedResults[i] == null) {
+          missingKeys.add(keys.get(i));
+        }
+      }
+      return missingKeys;
+    }
+
+    /**
+     * Returns the keys with a stale result that no other request is refreshing yet. The caller must fetch them and
+     * pass the results to {@link #refresh(List)}.
+     *
+     * @return the keys to refresh, in batch order
+     */
+    public List<DataFetchingEnvironment> getStaleKeys() {
+      List<DataFetchingEnvironment> staleKeys = new ArrayList<>();
+      for (int i = 0; i < keys.size(); i++) {
+        CachedResult cachedResult = cachedResults[i];
+        if (cachedResult != null && now >= cachedResult.expiresAt && cachedResult.refreshing.compareAndSet(false, true)) {
+          staleIndexes.add(i);
+          staleKeys.add(keys.get(i));
+        }
+      }
+      return staleKeys;
+    }
+
+    /**
+     * Stores the refreshed results of the {@link #getStaleKeys() stale keys}.
+     *
+     * @param refreshedResults the results of the stale keys, or {@code null} if they could not be fetched
+     */
+    public void refresh(List<DataFetcherResult<Object>> refreshedResults) {
+      if (refreshedResults == null || !hasNoErrors(refreshedResults)) {
+        staleIndexes.forEach(i -> cachedResults[i].refreshing.set(false));
+        return;
+      }
+      for (int i = 0; i < staleIndexes.size(); i++) {
+        store(staleIndexes.get(i), refreshedResults.get(i));
+      }
+    }
+
+    /**
+     * Caches the results of the {@link #getMissingKeys() missing keys} and merges them with the cached results.
+     *
+     * @param loadedResults the results of the missing keys
+     * @return the results of all keys, in batch order
+     */
+    public List<DataFetcherResult<Object>> complete(List<DataFetcherResult<Object>> loadedResults) {
+      boolean cacheable = hasNoErrors(loadedResults);
+      List<DataFetcherResult<Object>> batchResult = new ArrayList<>(keys.size());
+      int loadedIndex = 0;
+      for (int i = 0; i < keys.size(); i++) {
+        if (cachedResults[i] != null) {
+          batchResult.add(newResult().data(deepCopy(cachedResults[i].data)).build());
+          continue;
+        }
+        DataFetcherResult<Object> loadedResult = loadedResults.get(loadedIndex++);
+        if (cacheable) {
+          store(i, loadedResult);
+        }
+        batchResult.add(loadedResult);
+      }
+      return batchResult;
+    }
+
+    private void store(int index, DataFetcherResult<Object> result) {
+      if (resultKeys[index] != null) {
+        schemaResults.put(resultKeys[index],
+            new CachedResult(deepCopy(result.getData()), ticker.read() + maxAges[index]));
+      }
+    }
+
+    private boolean hasNoErrors(List<DataFetcherResult<Object>> batchResults) {
+      return batchResults.stream().allMatch(result -> result.getErrors().isEmpty());
+    }
+  }
+
+  private static class CachedResult {
+
+    private final Object data;
+    private final long expiresAt;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private CachedResult(Object data, long expiresAt) {
+      this.data = data;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+  private static class ResultKey {
+
+    private final String namespace;
+    private final String fieldName;
+    private final Map<String, Object> arguments;
+    private final List<List<Object>> selectionSet;
+    private final Object partition;
+    private final int hash;
+
+    private ResultKey(String namespace, String fieldName, Map<String, Object> arguments, List<List<Object>> selectionSet,
+        Object partition) {
+      this.namespace = namespace;
+      this.fieldName = fieldName;
+      this.arguments = arguments;
+      this.selectionSet = selectionSet;
+      this.partition = partition;
+      this.hash = Objects.hash(namespace, fieldName, arguments, selectionSet, partition);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof ResultKey)) {
+        return false;
+      }
+      ResultKey that = (ResultKey) o;
+      return hash == that.hash
+          && Objects.equals(namespace, that.namespace)
+          && Objects.equals(fieldName, that.fieldName)
+          && Objects.equals(partition, that.partition)
+          && Objects.equals(arguments, that.arguments)
+          && Objects.equals(selectionSet, that.selectionSet);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  public static final class Builder {
+
+    private long maximumSize = DEFAULT_MAXIMUM_SIZE;
+    private Duration staleWhileRevalidate = Duration.ZERO;
+    private Function<GraphQLContext, Object> scopeKey = context -> null;
+    private Ticker ticker = Ticker.systemTicker();
+
+    private Builder() {
+    }
+
+    /**
+     * @param maximumSize the maximum number of cached results; 0 disables the cache
+     * @return this builder
+     */
+    public Builder maximumSize(final long maximumSize) {
+      this.maximumSize = maximumSize;
+      return this;
+    }
+
+    /**
+     * @param staleWhileRevalidate how long an expired result is still served while it is refreshed
+     * @return this builder
+     */
+    public Builder staleWhileRevalidate(final Duration staleWhileRevalidate) {
+      this.staleWhileRevalidate = requireNonNull(staleWhileRevalidate);
+      return this;
+    }
+
+    /**
+     * @param scopeKey extracts the key that partitions results of {@link Scope#PRIVATE PRIVATE} fields, e.g. the
+     * user id, from the request context
+     * @return this builder
+     */
+    public Builder scopeKey(final Function<GraphQLContext, Object> scopeKey) {
+      this.scopeKey = requireNonNull(scopeKey);
+      return this;
+    }
+
+    public Builder ticker(final Ticker ticker) {
+      this.ticker = requireNonNull(ticker);
+      return this;
+    }
+
+    public RootFieldResultCache build() {
+      return new RootFieldResultCache(this);
+    }
+  }
+}
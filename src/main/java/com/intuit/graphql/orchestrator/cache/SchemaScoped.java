@@ -0,0 +1,55 @@
+package com.intuit.graphql.orchestrator.cache;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import graphql.schema.GraphQLSchema;
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Holds one value, e.g. a cache of results, per schema that requests are executed against.
+ *
+ * <p>Schemas are compared by identity, so a value is never shared by the runtime graphs of two stitches, even if a
+ * cache outlives a stitch or the runtime graph of an orchestrator is swapped. The value of a schema is dropped once the
+ * schema is no longer referenced. Environments without a schema, e.g. ones built by hand, share one value.
+ *
+ * @param <V> the type of the values
+ */
+public final class SchemaScoped<V> {
+
+  private static final Object NO_SCHEMA = new Object();
+
+  // weak keys compare schemas by identity and let values of replaced runtime graphs be collected
+  private final Cache<Object, V> values = CacheBuilder.newBuilder()
+      .weakKeys()
+      .build();
+
+  private final Supplier<V> valueFactory;
+
+  public SchemaScoped(Supplier<V> valueFactory) {
+    this.valueFactory = requireNonNull(valueFactory);
+  }
+
+  /**
+   * @param schema the schema, or {@code null}
+   * @return the value of the schema, created on first use
+   */
+  public V get(GraphQLSchema schema) {
+    Object key = schema == null ? NO_SCHEMA : schema;
+    V value = values.getIfPresent(key);
+    return value != null ? value : values.asMap().computeIfAbsent(key, ignored -> valueFactory.get());
+  }
+
+  /**
+   * @return the values of all schemas that are still referenced
+   */
+  public Collection<V> values() {
+    return values.asMap().values();
+  }
+
+  public void clear() {
+    values.invalidateAll();
+  }
+}
@@ -0,0 +1,72 @@
+package com.intuit.graphql.orchestrator.coalescing;
+
+import com.intuit.graphql.orchestrator.ServiceProvider;
+import graphql.ExecutionInput;
+import graphql.GraphQLContext;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A {@link ServiceProvider} whose queries pass through a {@link QueryCoalescer}. All other methods delegate.
+ */
+class CoalescingServiceProvider implements ServiceProvider {
+
+  private final ServiceProvider delegate;
+  private final QueryCoalescer queryCoalescer;
+
+  CoalescingServiceProvider(ServiceProvider delegate, QueryCoalescer queryCoalescer) {
+    this.delegate = delegate;
+    this.queryCoalescer = queryCoalescer;
+  }
+
+  @Override
+  public CompletableFuture<Map<String, Object>> query(ExecutionInput executionInput, GraphQLContext context) {
+    return queryCoalescer.query(delegate.getNameSpace(), delegate, executionInput, context);
+  }
+
+  @Override
+  public String getNameSpace() {
+    return delegate.getNameSpace();
+  }
+
+  @Override
+  public Map<String, String> sdlFiles() {
+    return delegate.sdlFiles();
+  }
+
+  @Override
+  public Set<String> domainTypes() {
+    return delegate.domainTypes();
+  }
+
+  @Override
+  public ServiceType getSeviceType() {
+    return delegate.getSeviceType();
+  }
+
+  @Override
+  public boolean isFederationProvider() {
+    return delegate.isFederationProvider();
+  }
+
+  @Override
+  public int maxEntityBatchSize() {
+    return delegate.maxEntityBatchSize();
+  }
+
+  @Override
+  public int maxConcurrentEntityBatches() {
+    return delegate.maxConcurrentEntityBatches();
+  }
+
+  @Override
+  public long timeoutMillis() {
+    return delegate.timeoutMillis();
+  }
+
+  @Override
+  public String toString() {
+    return delegate.toString();
+  }
+}
@@ -0,0 +1,335 @@
+package com.intuit.graphql.orchestrator.coalescing;
+
+import static com.intuit.graphql.orchestrator.utils.GraphQLUtil.deepCopy;
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.intuit.graphql.orchestrator.ServiceProvider;
+import com.intuit.graphql.orchestrator.VirtualOrchestratorProvider;
+import com.intuit.graphql.orchestrator.batch.QueryExecutor;
+import com.intuit.graphql.orchestrator.batch.StreamingQueryExecutor;
+import com.intuit.graphql.orchestrator.deadline.Deadline;
+import graphql.ExecutionInput;
+import graphql.GraphQLContext;
+import graphql.language.Document;
+import graphql.language.OperationDefinition;
+import graphql.language.OperationDefinition.Operation;
+import graphql.parser.InvalidSyntaxException;
+import graphql.parser.Parser;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Lets concurrent, identical downstream queries share one call.
+ *
+ * <p>Two calls are identical if they go to the same namespace with the same query, operation name and variables, and
+ * the {@code partitionKey} function derives the same key from their {@link GraphQLContext}. The partition key keeps
+ * responses that depend on the caller (for example the user or tenant) apart. A call that arrives while an identical
+ * call is in flight waits for it instead of calling the service. Only documents that contain nothing but query
+ * operations are coalesced; mutations and subscriptions always reach the service.
+ *
+ * <p>The shared call is made with the {@link ExecutionInput} and {@link GraphQLContext} of the caller that started it,
+ * so the partition key has to cover whatever the service provider reads from the context. A caller only waits for a
+ * call in flight whose request {@link Deadline} is not earlier than its own; otherwise it makes its own call, which
+ * later callers join instead.
+ *
+ * <p>Each caller gets its own copy of the response maps and lists, so batch loaders can modify their response without
+ * affecting other callers. Streaming service providers are not coalesced.
+ */
+public class QueryCoalescer {
+
+  /**
+   * Coalesces nothing; service providers are not decorated.
+   */
+  public static final QueryCoalescer NONE = new QueryCoalescer();
+
+  private static final int OPERATION_CACHE_SIZE = 1000;
+
+  private final boolean enabled;
+  private final Function<GraphQLContext, Object> partitionKey;
+  private final Set<String> namespaces;
+
+  private final ConcurrentMap<CallKey, Flight> flights = new ConcurrentHashMap<>();
+  private final Cache<String, Boolean> queryOnlyDocuments = CacheBuilder.newBuilder()
+      .maximumSize(OPERATION_CACHE_SIZE)
+      .build();
+
+  private final LongAdder executedCount = new LongAdder();
+  private final LongAdder coalescedCount = new LongAdder();
+
+  private QueryCoalescer() {
+    this.enabled = false;
+    this.partitionKey = context -> null;
+    this.namespaces = Collections.emptySet();
+  }
+
+  private QueryCoalescer(Builder builder) {
+    this.enabled = true;
+    this.partitionKey = requireNonNull(builder.partitionKey, "partitionKey is required");
+    this.namespaces = new HashSet<>(builder.namespaces);
+  }
+
+  public static Builder newBuilder() {
+    return new Builder();
+  }
+
+  /**
+   * @param serviceProvider a service provider
+   * @return a service provider whose queries are coalesced, or {@code serviceProvider} itself if it is not coalesced
+   */
+  public ServiceProvider decorate(ServiceProvider serviceProvider) {
+    if (!enabled
+        || serviceProvider instanceof StreamingQueryExecutor
+        || serviceProvider instanceof CoalescingServiceProvider
+        || VirtualOrchestratorProvider.ORCHESTRATOR.equals(serviceProvider.getNameSpace())
+        || !namespaces.isEmpty() && !namespaces.contains(serviceProvider.getNameSpace())) {
+      return serviceProvider;
+    }
+    return new CoalescingServiceProvider(serviceProvider, this);
+  }
+
+  CompletableFuture<Map<String, Object>> query(String namespace, QueryExecutor queryExecutor,
+      ExecutionInput executionInput, GraphQLContext context) {
+    if (!isQueryOnly(executionInput)) {
+      executedCount.increment();
+      return queryExecutor.query(executionInput, context);
+    }
+
+    CallKey key = new CallKey(namespace, executionInput, partitionKey.apply(context));
+    Deadline deadline = Deadline.from(context).orElse(null);
+    while (true) {
+      Flight flight = flights.get(key);
+      if (flight != null && flight.covers(deadline)) {
+        CompletableFuture<Map<String, Object>> response = flight.join();
+        if (response != null) {
+          coalescedCount.increment();
+          return response;
+        }
+        // the flight completed in between, it is removed from the map before it completes
+        continue;
+      }
+
+      Flight created = new Flight(deadline);
+      if (flight != null ? !flights.replace(key, flight, created) : flights.putIfAbsent(key, created) != null) {
+        continue;
+      }
+      CompletableFuture<Map<String, Object>> response = created.join();
+      executedCount.increment();
+      execute(queryExecutor, executionInput, context).whenComplete((result, error) -> {
+        flights.remove(key, created);
+        created.complete(result, error);
+      });
+      return response;
+    }
+  }
+
+  private static CompletableFuture<Map<String, Object>> execute(QueryExecutor queryExecutor,
+      ExecutionInput executionInput, GraphQLContext context) {
+    try {
+      return queryExecutor.query(executionInput, context);
+    } catch (RuntimeException e) {
+      CompletableFuture<Map<String, Object>> failed = new CompletableFuture<>();
+      failed.completeExceptionally(e);
+      return failed;
+    }
+  }
+
+  private boolean isQueryOnly(ExecutionInput executionInput) {
+    Object root = executionInput.getRoot();
+    if (root instanceof OperationDefinition) {
+      return ((OperationDefinition) root).getOperation() == Operation.QUERY;
+    }
+    if (root instanceof Document) {
+      return isQueryOnly((Document) root);
+    }
+    return isQueryOnly(executionInput.getQuery());
+  }
+
+  private static boolean isQueryOnly(Document document) {
+    return document.getDefinitionsOfType(OperationDefinition.class).stream()
+        .allMatch(operation -> operation.getOperation() == Operation.QUERY);
+  }
+
+  /**
+   * Parses queries whose execution input does not carry the document, e.g. ones not built by the orchestrator.
+   */
+  private boolean isQueryOnly(String query) {
+    if (query == null) {
+      return false;
+    }
+    try {
+      return queryOnlyDocuments.get(query, () -> {
+        try {
+          return isQueryOnly(new Parser().parseDocument(query));
+        } catch (InvalidSyntaxException e) {
+          return false;
+        }
+      });
+    } catch (ExecutionException e) {
+      return false;
+    }
+  }
+
+  /**
+   * @return the number of calls that reached a service provider
+   */
+  public long getExecutedCount() {
+    return executedCount.sum();
+  }
+
+  /**
+   * @return the number of calls that were served by an identical call in flight
+   */
+  public long getCoalescedCount() {
+    return coalescedCount.sum();
+  }
+
+  /**
+   * @return the number of distinct calls in flight
+   */
+  public int getInFlightCount() {
+    return flights.size();
+  }
+
+  /**
+   * One call to a service provider and the callers waiting for it.
+   */
+  private static final class Flight {
+
+    private final Deadline deadline;
+    private final List<CompletableFuture<Map<String, Object>>> waiters = new ArrayList<>();
+    private boolean completed;
+
+    private Flight(Deadline deadline) {
+      this.deadline = deadline;
+    }
+
+    /**
+     * @param deadline the deadline of a caller, or {@code null} for none
+     * @return whether this call runs at least until the deadline of the caller
+     */
+    private boolean covers(Deadline deadline) {
+      return this.deadline == null || deadline != null && !deadline.isAfter(this.deadline);
+    }
+
+    /**
+     * @return the response of this caller, or {@code null} if the call has already completed
+     */
+    private synchronized CompletableFuture<Map<String, Object>> join() {
+      if (completed) {
+        return null;
+      }
+      CompletableFuture<Map<String, Object>> response = new CompletableFuture<>();
+      waiters.add(response);
+      return response;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void complete(Map<String, Object> result, Throwable error) {
+      synchronized (this) {
+        completed = true;
+      }
+      if (error != null) {
+        waiters.forEach(waiter -> waiter.completeExceptionally(error));
+        return;
+      }
+      // copies are made before any caller sees the response, so no caller modifies it while it is copied
+      List<Map<String, Object>> responses = new ArrayList<>(waiters.size());
+      responses.add(result);
+      for (int i = 1; i < waiters.size(); i++) {
+        responses.add(result == null ? null : (Map<String, Object>) deepCopy(result));
+      }
+      for (int i = 0; i < waiters.size(); i++) {
+        waiters.get(i).complete(responses.get(i));
+      }
+    }
+  }
+
+  private static final class CallKey {
+
+    private final String namespace;
+    private final String query;
+    private final String operationName;
+    private final Map<String, Object> variables;
+    private final Object partitionKey;
+    private final int hashCode;
+
+    private CallKey(String namespace, ExecutionInput executionInput, Object partitionKey) {
+      this.namespace = namespace;
+      this.query = executionInput.getQuery();
+      this.operationName = executionInput.getOperationName();
+      this.variables = executionInput.getVariables();
+      this.partitionKey = partitionKey;
+      this.hashCode = Objects.hash(namespace, query, operationName, variables, partitionKey);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof CallKey)) {
+        return false;
+      }
+      CallKey that = (CallKey) o;
+      return hashCode == that.hashCode
+          && namespace.equals(that.namespace)
+          && query.equals(that.query)
+          && Objects.equals(operationName, that.operationName)
+          && Objects.equals(variables, that.variables)
+          && Objects.equals(partitionKey, that.partitionKey);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  public static final class Builder {
+
+    private Function<GraphQLContext, Object> partitionKey;
+    private final Set<String> namespaces = new HashSet<>();
+
+    private Builder() {
+    }
+
+    /**
+     * Required. Calls are only coalesced with calls of the same partition.
+     *
+     * @param partitionKey derives the partition, for example the user or tenant, from the request context
+     * @return this builder
+     */
+    public Builder partitionKey(final Function<GraphQLContext, Object> partitionKey) {
+      this.partitionKey = requireNonNull(partitionKey);
+      return this;
+    }
+
+    /**
+     * Restricts coalescing to the given namespace. If no namespace is added, all service providers are coalesced.
+     *
+     * @param namespace the namespace of a service provider
+     * @return this builder
+     */
+    public Builder namespace(final String namespace) {
+      this.namespaces.add(requireNonNull(namespace));
+      return this;
+    }
+
+    public QueryCoalescer build() {
+      return new QueryCoalescer(this);
+    }
+  }
+}
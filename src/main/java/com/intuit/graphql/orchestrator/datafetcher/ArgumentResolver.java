@@ -2,21 +2,22 @@ package com.intuit.graphql.orchestrator.datafetcher;
 
 import static com.intuit.graphql.orchestrator.GraphQLOrchestrator.DATA_LOADER_REGISTRY_CONTEXT_KEY;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.intuit.graphql.orchestrator.cache.PreparsedDocumentCache;
 import com.intuit.graphql.orchestrator.resolverdirective.ResolverArgumentDirective;
 import graphql.ExecutionInput;
 import graphql.ExecutionResult;
 import graphql.GraphQL;
 import graphql.GraphQLContext;
 import graphql.execution.AsyncExecutionStrategy;
-import graphql.language.AstPrinter;
-import graphql.language.Document;
-import graphql.language.OperationDefinition;
 import graphql.schema.DataFetchingEnvironment;
 import graphql.schema.GraphQLSchema;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import org.dataloader.DataLoaderRegistry;
 
@@ -26,25 +27,52 @@ import org.dataloader.DataLoaderRegistry;
  */
 public class ArgumentResolver {
 
+  // resolver queries are fixed at stitch time, so their parsed and validated documents are cached for good
   private static final Function<GraphQLSchema, GraphQL> DEFAULT_GRAPHQL_BUILDER = schema -> GraphQL.newGraphQL(schema)
       .queryExecutionStrategy(new AsyncExecutionStrategy())
+      .preparsedDocumentProvider(PreparsedDocumentCache.newBuilder().build().forSchema(schema))
       .build();
 
-  private Function<GraphQLSchema, GraphQL> graphQLBuilder;
+  private static final ArgumentResolver DEFAULT_INSTANCE = newBuilder().build();
+
+  static final String RESULTS_CONTEXT_KEY = ArgumentResolver.class.getName() + ".results";
+
+  /*
+  An engine references its schema, so engines of replaced schemas are only dropped by evicting them. A few are kept
+  for orchestrators of different runtime graphs running side by side.
+   */
+  private static final int MAXIMUM_ENGINES = 4;
+
+  private final Function<GraphQLSchema, GraphQL> graphQLBuilder;
+
+  private final Cache<GraphQLSchema, GraphQL> enginesBySchema = CacheBuilder.newBuilder()
+      .weakKeys()
+      .maximumSize(MAXIMUM_ENGINES)
+      .build();
 
   private ArgumentResolver(final Builder builder) {
     graphQLBuilder = builder.graphQLBuilder;
   }
 
+  /**
+   * The instance shared by all resolver argument data fetchers that are not configured with their own resolver.
+   *
+   * @return the shared argument resolver
+   */
+  public static ArgumentResolver defaultInstance() {
+    return DEFAULT_INSTANCE;
+  }
+
   /**
    * Returns an ExecutionResult for each resolver argument query.
    * <p>
-   * A new GraphQL is created and the queries are executed against the new GraphQL instance, using the
-   * DataLoaderRegistry of the previous GraphQL instance (passed along through the GraphQLContext with key {@link
-   * com.intuit.graphql.orchestrator.GraphQLOrchestrator#DATA_LOADER_REGISTRY_CONTEXT_KEY}).
+   * The queries are executed against a GraphQL instance of the schema, using the DataLoaderRegistry of the
+   * request (passed along through the GraphQLContext with key {@link
+   * com.intuit.graphql.orchestrator.GraphQLOrchestrator#DATA_LOADER_REGISTRY_CONTEXT_KEY}). The GraphQL instance is
+   * built once per schema and shared by all fields and requests; it parses and validates each resolver query once.
    *
    * <p>
-   * This method of "recursively" calling a new GraphQL instance within a GraphQL instance is a DRY principle
+   * This method of "recursively" calling a GraphQL instance within a GraphQL instance is a DRY principle
    * opportunity used to drastically reduce coding effort required to solve for problems that arise with the resolver
    * argument feature. Since query execution is already achieved by {@link GraphQL#execute(String)}, it does not make
    * sense to re-code query execution for resolver arguments. Since the GraphQL is a query executor and has all the
@@ -61,37 +89,77 @@ public class ArgumentResolver {
    *  <li>Optimal parallelization of service calls (already handled by the DataLoaderRegistry)</li>
    * </ul>
    *
+   * <p>
+   * Resolver queries do not depend on the field instance, so a query is executed at most once per request: all items
+   * of a list, and all fields with the same resolver query, share its result.
+   *
    * @param env             the DataFetchingEnvironment for the field that requires resolver arguments
    * @param resolverQueries the queries used to call downstream services
    * @return A map of resolved arguments as CompletableFutures, mapped to the ResolverArgumentDirective.
    */
   public Map<ResolverArgumentDirective, CompletableFuture<ExecutionResult>> resolveArguments(
-      DataFetchingEnvironment env, Map<ResolverArgumentDirective, OperationDefinition> resolverQueries) {
+      DataFetchingEnvironment env, Map<ResolverArgumentDirective, ResolverQuery> resolverQueries) {
     GraphQLContext graphQLContext = env.getContext();
     final DataLoaderRegistry originalDataLoaderRegistry = graphQLContext.get(DATA_LOADER_REGISTRY_CONTEXT_KEY);
+    final Map<String, CompletableFuture<ExecutionResult>> resultsByQuery = getRequestResults(graphQLContext);
 
-    GraphQL graphQL = graphQLBuilder.apply(env.getGraphQLSchema());
+    GraphQL graphQL = getEngine(env.getGraphQLSchema());
 
     Map<ResolverArgumentDirective, CompletableFuture<ExecutionResult>> resolverServiceFuturesByArgument = new HashMap<>();
 
-    for (final Entry<ResolverArgumentDirective, OperationDefinition> entry : resolverQueries.entrySet()) {
-      OperationDefinition query = entry.getValue();
+    for (final Entry<ResolverArgumentDirective, ResolverQuery> entry : resolverQueries.entrySet()) {
+      ResolverQuery resolverQuery = entry.getValue();
 
-      Document queryDocument = Document.newDocument().definition(query).build();
+      CompletableFuture<ExecutionResult> result = new CompletableFuture<>();
+      CompletableFuture<ExecutionResult> sharedResult = resultsByQuery.putIfAbsent(resolverQuery.getQuery(), result);
+      if (sharedResult != null) {
+        resolverServiceFuturesByArgument.put(entry.getKey(), sharedResult);
+        continue;
+      }
 
       ExecutionInput executionInput = ExecutionInput.newExecutionInput()
           .dataLoaderRegistry(originalDataLoaderRegistry)
           .context(graphQLContext)
-          .query(AstPrinter.printAstCompact(queryDocument))
-          .root(queryDocument)
+          .query(resolverQuery.getQuery())
+          .root(resolverQuery.getDocument())
           .build();
 
-      resolverServiceFuturesByArgument.put(entry.getKey(), graphQL.executeAsync(executionInput));
+      graphQL.executeAsync(executionInput).whenComplete((executionResult, throwable) -> {
+        if (throwable != null) {
+          result.completeExceptionally(throwable);
+        } else {
+          result.complete(executionResult);
+        }
+      });
+      resolverServiceFuturesByArgument.put(entry.getKey(), result);
     }
 
     return resolverServiceFuturesByArgument;
   }
 
+  private GraphQL getEngine(GraphQLSchema schema) {
+    GraphQL graphQL = enginesBySchema.getIfPresent(schema);
+    if (graphQL == null) {
+      graphQL = graphQLBuilder.apply(schema);
+      enginesBySchema.put(schema, graphQL);
+    }
+    return graphQL;
+  }
+
+  private static Map<String, CompletableFuture<ExecutionResult>> getRequestResults(GraphQLContext context) {
+    Map<String, CompletableFuture<ExecutionResult>> results = context.get(RESULTS_CONTEXT_KEY);
+    if (results == null) {
+      synchronized (context) {
+        results = context.get(RESULTS_CONTEXT_KEY);
+        if (results == null) {
+          results = new ConcurrentHashMap<>();
+          context.put(RESULTS_CONTEXT_KEY, results);
+        }
+      }
+    }
+    return results;
+  }
+
   public static Builder newBuilder() {
     return new Builder();
   }
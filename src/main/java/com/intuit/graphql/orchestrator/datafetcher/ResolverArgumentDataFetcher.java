@@ -1,6 +1,7 @@
 package com.intuit.graphql.orchestrator.datafetcher;
 
 import com.intuit.graphql.orchestrator.ServiceProvider.ServiceType;
+import com.intuit.graphql.orchestrator.dispatch.DispatchTracker;
 import com.intuit.graphql.orchestrator.resolverdirective.ResolverArgumentDirective;
 import com.intuit.graphql.orchestrator.xtext.DataFetcherContext.DataFetcherType;
 import graphql.ExecutionResult;
@@ -15,8 +16,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.Getter;
 
@@ -29,7 +32,7 @@ import lombok.Getter;
 public class ResolverArgumentDataFetcher implements ServiceAwareDataFetcher<CompletableFuture<DataFetcherResult<Object>>> {
 
   private final String namespace;
-  private final Map<ResolverArgumentDirective, OperationDefinition> resolverQueryByDirective;
+  private final Map<ResolverArgumentDirective, ResolverQuery> resolverQueryByDirective;
   private final ServiceType serviceType;
 
   @VisibleForTesting
@@ -39,11 +42,13 @@ public class ResolverArgumentDataFetcher implements ServiceAwareDataFetcher<Comp
   ArgumentResolver argumentResolver;
 
   private ResolverArgumentDataFetcher(final Builder builder) {
-    resolverQueryByDirective = builder.resolverQueryByDirective;
+    resolverQueryByDirective = new HashMap<>(builder.resolverQueryByDirective.size());
+    builder.resolverQueryByDirective.forEach((directive, query) ->
+        resolverQueryByDirective.put(directive, ResolverQuery.compile(query)));
     namespace = builder.namespace;
     serviceType = builder.serviceType;
     this.helper = new ResolverArgumentDataFetcherHelper(namespace);
-    this.argumentResolver = ArgumentResolver.newBuilder().build();
+    this.argumentResolver = ArgumentResolver.defaultInstance();
   }
 
   public static Builder newBuilder() {
@@ -52,17 +57,35 @@ public class ResolverArgumentDataFetcher implements ServiceAwareDataFetcher<Comp
 
   @Override
   public CompletableFuture<DataFetcherResult<Object>> get(final DataFetchingEnvironment environment) {
-
-    Map<ResolverArgumentDirective, CompletableFuture<ExecutionResult>> serviceFuturesByArgument = argumentResolver
-        .resolveArguments(environment, resolverQueryByDirective);
+    Optional<DispatchTracker> dispatchTracker = DispatchTracker.from(environment.getGraphQlContext());
+    dispatchTracker.ifPresent(DispatchTracker::beginAsyncPhase);
+
+    Map<ResolverArgumentDirective, CompletableFuture<ExecutionResult>> serviceFuturesByArgument;
+    try {
+      serviceFuturesByArgument = argumentResolver.resolveArguments(environment, resolverQueryByDirective);
+    } catch (RuntimeException e) {
+      dispatchTracker.ifPresent(DispatchTracker::endAsyncPhase);
+      throw e;
+    }
 
     return Async.each(new ArrayList<>(serviceFuturesByArgument.values()))
-        .thenCompose(results -> handleResolverArguments(environment, results, serviceFuturesByArgument));
+        .handle((results, throwable) -> {
+          try {
+            return throwable != null
+                ? Async.<DataFetcherResult<Object>>exceptionallyCompletedFuture(throwable)
+                : handleResolverArguments(environment, results, serviceFuturesByArgument, dispatchTracker);
+          } finally {
+            // the load is dispatched once no other resolver argument phase of the request is in flight
+            dispatchTracker.ifPresent(DispatchTracker::endAsyncPhase);
+          }
+        })
+        .thenCompose(Function.identity());
   }
 
   private CompletionStage<DataFetcherResult<Object>> handleResolverArguments(DataFetchingEnvironment env,
       List<ExecutionResult> results,
-      Map<ResolverArgumentDirective, CompletableFuture<ExecutionResult>> completedResults) {
+      Map<ResolverArgumentDirective, CompletableFuture<ExecutionResult>> completedResults,
+      Optional<DispatchTracker> dispatchTracker) {
     List<GraphQLError> aggregatedErrors = results.stream()
         .flatMap(result -> result.getErrors().stream())
         .collect(Collectors.toList());
@@ -79,11 +102,14 @@ public class ResolverArgumentDataFetcher implements ServiceAwareDataFetcher<Comp
         .callBatchLoaderWithArguments(env, extractArguments(completedResults));
 
     /*
-    n.b. this additional dispatch is necessary as the dispatch that is performed by GraphQL java has already been initiated
-    due to the nature of this data fetcher initially getting argument info before retrieving data. If we don't
-    call dispatch, the DataLoader will never call to the downstream service to fetch data.
+    n.b. the dispatch that is performed by GraphQL java has already been initiated due to the nature of this data
+    fetcher initially getting argument info before retrieving data. The DispatchTracker dispatches once all resolver
+    argument phases have ended; without it, the DataLoader has to be dispatched here or it will never call the
+    downstream service to fetch data.
      */
-    env.getDataLoader(namespace).dispatch();
+    if (!dispatchTracker.isPresent()) {
+      env.getDataLoader(namespace).dispatch();
+    }
 
     return batchLoaderFuture;
   }
@@ -0,0 +1,32 @@
+package com.intuit.graphql.orchestrator.datafetcher;
+
+import com.intuit.graphql.orchestrator.cache.PrintedQueryCache;
+import graphql.language.Document;
+import graphql.language.OperationDefinition;
+import java.util.Objects;
+import lombok.Getter;
+
+/**
+ * A resolver argument query compiled at stitch time: the query document and its printed form. The printed query is
+ * the key under which {@link ArgumentResolver} shares the parsed document and the results of a request.
+ */
+@Getter
+public final class ResolverQuery {
+
+  private final Document document;
+  private final String query;
+
+  private ResolverQuery(Document document) {
+    this.document = document;
+    this.query = PrintedQueryCache.defaultInstance().print(document);
+  }
+
+  public static ResolverQuery compile(OperationDefinition operationDefinition) {
+    return new ResolverQuery(Document.newDocument().definition(Objects.requireNonNull(operationDefinition)).build());
+  }
+
+  @Override
+  public String toString() {
+    return query;
+  }
+}
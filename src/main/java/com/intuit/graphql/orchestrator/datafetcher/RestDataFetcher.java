@@ -1,11 +1,14 @@
 package com.intuit.graphql.orchestrator.datafetcher;
 
 import static com.intuit.graphql.orchestrator.batch.DefaultBatchResultTransformer.toSingleResult;
-import static graphql.language.AstPrinter.printAstCompact;
 
+import com.intuit.graphql.orchestrator.ServiceProvider;
 import com.intuit.graphql.orchestrator.ServiceProvider.ServiceType;
 import com.intuit.graphql.orchestrator.batch.DefaultQueryResponseModifier;
 import com.intuit.graphql.orchestrator.batch.QueryResponseModifier;
+import com.intuit.graphql.orchestrator.cache.PrintedQueryCache;
+import com.intuit.graphql.orchestrator.deadline.Deadline;
+import com.intuit.graphql.orchestrator.deadline.DownstreamTimeouts;
 import com.intuit.graphql.orchestrator.schema.ServiceMetadata;
 import com.intuit.graphql.orchestrator.xtext.DataFetcherContext.DataFetcherType;
 import graphql.ExecutionInput;
@@ -24,6 +27,7 @@ public class RestDataFetcher implements ServiceAwareDataFetcher<Object> {
 
   private final ServiceMetadata serviceMetadata;
   private final QueryResponseModifier queryResponseModifier = new DefaultQueryResponseModifier();
+  private final PrintedQueryCache printedQueryCache = PrintedQueryCache.defaultInstance();
 
   public RestDataFetcher(final ServiceMetadata serviceMetadata) {
     this.serviceMetadata = serviceMetadata;
@@ -55,10 +59,13 @@ public class RestDataFetcher implements ServiceAwareDataFetcher<Object> {
         .definition(query)
         .build();
 
+    ServiceProvider serviceProvider = this.serviceMetadata.getServiceProvider();
+    Deadline deadline = DownstreamTimeouts.deadlineFor(context, serviceProvider);
+
     ExecutionInput i = ExecutionInput.newExecutionInput()
         .context(context)
         .root(document)
-        .query(printAstCompact(document)) // No need to stringify query for REST
+        .query(printedQueryCache.print(document))
         .operationName(query.getName())
         .variables(dataFetchingEnvironment.getVariables())
         .build();
@@ -67,10 +74,10 @@ public class RestDataFetcher implements ServiceAwareDataFetcher<Object> {
     context.put(Document.class, document);
     context.put(DataFetchingEnvironment.class, dataFetchingEnvironment);
 
-    return this.serviceMetadata.getServiceProvider()
-        .query(i, context)
+    return DownstreamTimeouts.recover(DownstreamTimeouts.within(deadline, serviceProvider.getNameSpace(),
+            () -> serviceProvider.query(i, context))
         .thenApply(queryResponseModifier::modify)
-        .thenApply(queryResponse -> toSingleResult(queryResponse, dataFetchingEnvironment));
+        .thenApply(queryResponse -> toSingleResult(queryResponse, dataFetchingEnvironment)), dataFetchingEnvironment);
   }
 
   @Override
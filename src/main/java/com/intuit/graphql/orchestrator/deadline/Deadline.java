@@ -0,0 +1,90 @@
+package com.intuit.graphql.orchestrator.deadline;
+
+import static java.util.Objects.requireNonNull;
+
+import graphql.GraphQLContext;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * A point in time by which a request, or a downstream call made for it, has to complete.
+ *
+ * <p>The deadline of a request is {@link #attach(GraphQLContext) attached} to its {@link GraphQLContext}, either by
+ * the caller or by {@code GraphQLOrchestrator} from its default timeout. It is the only place the deadline is kept;
+ * the downstream {@code ExecutionInput} and its local context are left to the service providers. Batch loaders and
+ * data fetchers derive the deadline of each downstream call from it and the timeout of the service provider with
+ * {@link DownstreamTimeouts#deadlineFor(GraphQLContext, com.intuit.graphql.orchestrator.ServiceProvider)}, which
+ * service providers can call with the context they are passed to set transport timeouts.
+ */
+public final class Deadline {
+
+  private final long deadlineNanos;
+
+  private Deadline(long deadlineNanos) {
+    this.deadlineNanos = deadlineNanos;
+  }
+
+  /**
+   * @param timeout the time from now
+   * @return a deadline {@code timeout} from now
+   */
+  public static Deadline after(Duration timeout) {
+    return new Deadline(System.nanoTime() + requireNonNull(timeout).toNanos());
+  }
+
+  /**
+   * @return the request deadline attached to the context, if any
+   */
+  public static Optional<Deadline> from(GraphQLContext context) {
+    return context == null ? Optional.empty() : Optional.ofNullable(context.get(Deadline.class));
+  }
+
+  /**
+   * Makes this the deadline of the request the context belongs to.
+   *
+   * @param context the request context
+   */
+  public void attach(GraphQLContext context) {
+    context.put(Deadline.class, this);
+  }
+
+  /**
+   * @param timeout the time from now
+   * @return this deadline or the one {@code timeout} from now, whichever is earlier
+   */
+  public Deadline min(Duration timeout) {
+    Deadline other = after(timeout);
+    return other.deadlineNanos - deadlineNanos < 0 ? other : this;
+  }
+
+  /**
+   * @param other another deadline
+   * @return whether this deadline is later than the other one
+   */
+  public boolean isAfter(Deadline other) {
+    return deadlineNanos - other.deadlineNanos > 0;
+  }
+
+  /**
+   * @return the nanoseconds left, zero or negative once the deadline has passed
+   */
+  public long remainingNanos() {
+    return deadlineNanos - System.nanoTime();
+  }
+
+  /**
+   * @return the time left, {@link Duration#ZERO} once the deadline has passed
+   */
+  public Duration remaining() {
+    return Duration.ofNanos(Math.max(0, remainingNanos()));
+  }
+
+  public boolean isExpired() {
+    return remainingNanos() <= 0;
+  }
+
+  @Override
+  public String toString() {
+    return "Deadline{remaining=" + remaining() + "}";
+  }
+}
@@ -0,0 +1,19 @@
+package com.intuit.graphql.orchestrator.deadline;
+
+import lombok.Getter;
+
+/**
+ * Fails a downstream call that did not complete before its {@link Deadline}.
+ */
+@Getter
+public class DeadlineExceededException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String namespace;
+
+  public DeadlineExceededException(String namespace) {
+    super(String.format("Call to %s did not complete before the deadline", namespace));
+    this.namespace = namespace;
+  }
+}
@@ -0,0 +1,157 @@
+package com.intuit.graphql.orchestrator.deadline;
+
+import com.intuit.graphql.orchestrator.ServiceProvider;
+import graphql.ErrorType;
+import graphql.GraphQLContext;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorException;
+import graphql.execution.DataFetcherResult;
+import graphql.schema.DataFetchingEnvironment;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Applies {@link Deadline}s to downstream calls of batch loaders and data fetchers.
+ */
+public final class DownstreamTimeouts {
+
+  private DownstreamTimeouts() {
+  }
+
+  /**
+   * @param context the request context
+   * @param serviceProvider the service provider called
+   * @return the earlier of the request deadline and the timeout of the service provider, or {@code null} if there is
+   * neither
+   */
+  public static Deadline deadlineFor(GraphQLContext context, ServiceProvider serviceProvider) {
+    Deadline requestDeadline = Deadline.from(context).orElse(null);
+    long timeoutMillis = serviceProvider.timeoutMillis();
+    if (timeoutMillis <= 0) {
+      return requestDeadline;
+    }
+    Duration timeout = Duration.ofMillis(timeoutMillis);
+    return requestDeadline == null ? Deadline.after(timeout) : requestDeadline.min(timeout);
+  }
+
+  /**
+   * Starts the call unless the deadline has passed, and fails it with a {@link DeadlineExceededException} if it does
+   * not complete in time. The future of a call that times out is cancelled, so that implementations that support it
+   * can release their resources.
+   *
+   * @param deadline the deadline of the call, or {@code null} for none
+   * @param namespace the namespace of the service provider called
+   * @param call starts the call
+   * @param <T> the result type
+   * @return the result of the call
+   */
+  public static <T> CompletableFuture<T> within(Deadline deadline, String namespace,
+      Supplier<CompletableFuture<T>> call) {
+    if (deadline == null) {
+      return call.get();
+    }
+    long remainingNanos = deadline.remainingNanos();
+    if (remainingNanos <= 0) {
+      return failed(new DeadlineExceededException(namespace));
+    }
+
+    CompletableFuture<T> downstream = call.get();
+    CompletableFuture<T> result = new CompletableFuture<>();
+    downstream.copy()
+        .orTimeout(remainingNanos, TimeUnit.NANOSECONDS)
+        .whenComplete((value, error) -> {
+          if (error == null) {
+            result.complete(value);
+          } else if (unwrap(error) instanceof TimeoutException) {
+            downstream.cancel(false);
+            result.completeExceptionally(new DeadlineExceededException(namespace));
+          } else {
+            result.completeExceptionally(error);
+          }
+        });
+    return result;
+  }
+
+  /**
+   * Completes the keys of a batch that ran out of time with {@code null} data and a timeout error each. Other failures
+   * are passed on.
+   *
+   * @param batchResult the result of the batch
+   * @param keys the keys of the batch
+   * @param <T> the data type
+   * @return the batch result, or timeout results for all keys
+   */
+  public static <T> CompletableFuture<List<DataFetcherResult<T>>> recoverBatch(
+      CompletableFuture<List<DataFetcherResult<T>>> batchResult, List<DataFetchingEnvironment> keys) {
+    return recover(batchResult, exceeded -> keys.stream()
+        .map(key -> DataFetcherResult.<T>newResult().error(timeoutError(key, exceeded)).build())
+        .collect(Collectors.toList()));
+  }
+
+  /**
+   * Like {@link #recoverBatch(CompletableFuture, List)} for a single key.
+   *
+   * @param result the result of the key
+   * @param key the key
+   * @param <T> the data type
+   * @return the result, or a timeout result
+   */
+  public static <T> CompletableFuture<DataFetcherResult<T>> recover(CompletableFuture<DataFetcherResult<T>> result,
+      DataFetchingEnvironment key) {
+    return recover(result, exceeded -> DataFetcherResult.<T>newResult().error(timeoutError(key, exceeded)).build());
+  }
+
+  private static <R> CompletableFuture<R> recover(CompletableFuture<R> result,
+      Function<DeadlineExceededException, R> onTimeout) {
+    return result.handle((value, error) -> {
+      if (error == null) {
+        return CompletableFuture.completedFuture(value);
+      }
+      Throwable cause = unwrap(error);
+      if (cause instanceof DeadlineExceededException) {
+        return CompletableFuture.completedFuture(onTimeout.apply((DeadlineExceededException) cause));
+      }
+      return DownstreamTimeouts.<R>failed(error);
+    }).thenCompose(Function.identity());
+  }
+
+  static GraphQLError timeoutError(DataFetchingEnvironment key, DeadlineExceededException exceeded) {
+    Map<String, Object> extensions = new HashMap<>();
+    extensions.put("serviceNamespace", exceeded.getNamespace());
+    extensions.put("timeout", true);
+
+    GraphqlErrorException.Builder error = GraphqlErrorException.newErrorException()
+        .message(exceeded.getMessage())
+        .path(key.getExecutionStepInfo().getPath().toList())
+        .errorClassification(ErrorType.DataFetchingException)
+        .extensions(extensions);
+    if (key.getMergedField() != null && key.getField().getSourceLocation() != null) {
+      error.sourceLocation(key.getField().getSourceLocation());
+    }
+    return error.build();
+  }
+
+  private static Throwable unwrap(Throwable error) {
+    Throwable cause = error;
+    while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    return cause;
+  }
+
+  private static <T> CompletableFuture<T> failed(Throwable error) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    future.completeExceptionally(error);
+    return future;
+  }
+}
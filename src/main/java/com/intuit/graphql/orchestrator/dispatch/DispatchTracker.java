@@ -0,0 +1,165 @@
+package com.intuit.graphql.orchestrator.dispatch;
+
+import graphql.GraphQLContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.dataloader.DataLoaderRegistry;
+
+/**
+ * Tracks the outstanding data loader work of a single request and dispatches its {@link DataLoaderRegistry} once no
+ * more loads can be expected.
+ *
+ * <p>Loads are expected per execution level: a level is ready once every field of the level has been fetched, which
+ * in turn requires the values of the previous level to be complete. Data fetchers that load only after an async phase,
+ * e.g. after the arguments of a {@code @resolver} field have been resolved, register the phase with {@link
+ * #beginAsyncPhase()}. The registry is dispatched once all phases that are in flight have ended, so that the loads of
+ * all items of a list are sent in one batch.
+ *
+ * <p>The tracker of a request is {@link #attach(GraphQLContext) attached} to its {@link GraphQLContext} by the
+ * {@link LevelAwareDispatchInstrumentation}.
+ */
+public final class DispatchTracker implements InstrumentationState {
+
+  private static final String CONTEXT_KEY = DispatchTracker.class.getName() + ".context.key";
+
+  private final DataLoaderRegistry dataLoaderRegistry;
+  private final AtomicInteger dispatchRounds = new AtomicInteger();
+
+  private final Map<Integer, Integer> expectedFetchesByLevel = new HashMap<>();
+  private final Map<Integer, Integer> fetchesByLevel = new HashMap<>();
+  private final Map<Integer, Integer> expectedStrategyCallsByLevel = new HashMap<>();
+  private final Map<Integer, Integer> strategyCallsByLevel = new HashMap<>();
+  private final Map<Integer, Integer> fieldValuesCallsByLevel = new HashMap<>();
+  private final Set<Integer> dispatchedLevels = new HashSet<>();
+  private int pendingAsyncPhases = 0;
+  private boolean levelTracking = true;
+
+  DispatchTracker(DataLoaderRegistry dataLoaderRegistry) {
+    this.dataLoaderRegistry = dataLoaderRegistry;
+    this.expectedStrategyCallsByLevel.put(1, 1);
+  }
+
+  public static Optional<DispatchTracker> from(GraphQLContext context) {
+    return Optional.ofNullable(context).map(ctx -> ctx.get(CONTEXT_KEY));
+  }
+
+  void attach(GraphQLContext context) {
+    context.put(CONTEXT_KEY, this);
+  }
+
+  /**
+   * Registers an async phase after which the caller will load from a data loader. The phase must be {@link
+   * #endAsyncPhase() ended} whether it succeeds or not.
+   */
+  public void beginAsyncPhase() {
+    synchronized (this) {
+      pendingAsyncPhases++;
+    }
+  }
+
+  /**
+   * Ends an async phase once the caller has loaded. The registry is dispatched if no other phase is in flight.
+   */
+  public void endAsyncPhase() {
+    boolean dispatchNeeded;
+    synchronized (this) {
+      pendingAsyncPhases--;
+      dispatchNeeded = pendingAsyncPhases == 0;
+    }
+    if (dispatchNeeded) {
+      dispatch();
+    }
+  }
+
+  /**
+   * @return the number of times the registry was dispatched with loads pending, i.e. the number of downstream round
+   * trips made for the request
+   */
+  public int getDispatchRounds() {
+    return dispatchRounds.get();
+  }
+
+  void disableLevelTracking() {
+    synchronized (this) {
+      levelTracking = false;
+    }
+  }
+
+  synchronized boolean isLevelTracking() {
+    return levelTracking;
+  }
+
+  void onExecutionStrategy(int level, int fieldCount) {
+    synchronized (this) {
+      increment(expectedFetchesByLevel, level, fieldCount);
+      increment(strategyCallsByLevel, level, 1);
+    }
+  }
+
+  void onFieldValues(int level, int objectCount) {
+    boolean dispatchNeeded;
+    synchronized (this) {
+      increment(fieldValuesCallsByLevel, level, 1);
+      increment(expectedStrategyCallsByLevel, level + 1, objectCount);
+      dispatchNeeded = markDispatchedIfReady(level + 1);
+    }
+    if (dispatchNeeded) {
+      dispatch();
+    }
+  }
+
+  void onFieldValuesException(int level) {
+    synchronized (this) {
+      increment(fieldValuesCallsByLevel, level, 1);
+    }
+  }
+
+  void onFieldFetched(int level) {
+    boolean dispatchNeeded;
+    synchronized (this) {
+      increment(fetchesByLevel, level, 1);
+      dispatchNeeded = !levelTracking || markDispatchedIfReady(level);
+    }
+    if (dispatchNeeded) {
+      dispatch();
+    }
+  }
+
+  private boolean markDispatchedIfReady(int level) {
+    return levelTracking && isLevelReady(level) && dispatchedLevels.add(level);
+  }
+
+  private boolean isLevelReady(int level) {
+    if (level == 1) {
+      return allFetched(1);
+    }
+    return isLevelReady(level - 1)
+        && get(fieldValuesCallsByLevel, level - 1) == get(expectedStrategyCallsByLevel, level - 1)
+        && get(strategyCallsByLevel, level) == get(expectedStrategyCallsByLevel, level)
+        && allFetched(level);
+  }
+
+  private boolean allFetched(int level) {
+    return get(fetchesByLevel, level) == get(expectedFetchesByLevel, level);
+  }
+
+  private void dispatch() {
+    if (dataLoaderRegistry.dispatchDepth() > 0) {
+      dispatchRounds.incrementAndGet();
+      dataLoaderRegistry.dispatchAll();
+    }
+  }
+
+  private static void increment(Map<Integer, Integer> countsByLevel, int level, int count) {
+    countsByLevel.merge(level, count, Integer::sum);
+  }
+
+  private static int get(Map<Integer, Integer> countsByLevel, int level) {
+    return countsByLevel.getOrDefault(level, 0);
+  }
+}
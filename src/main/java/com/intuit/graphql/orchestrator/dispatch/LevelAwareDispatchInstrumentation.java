@@ -0,0 +1,137 @@
+package com.intuit.graphql.orchestrator.dispatch;
+
+import graphql.ExecutionResult;
+import graphql.ExecutionResultImpl;
+import graphql.GraphQLContext;
+import graphql.execution.AsyncExecutionStrategy;
+import graphql.execution.ExecutionContext;
+import graphql.execution.FieldValueInfo;
+import graphql.execution.instrumentation.ExecutionStrategyInstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentation;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionStrategyParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.language.OperationDefinition.Operation;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Dispatches the data loaders of a request once per execution level and once per round of async resolver argument
+ * phases, see {@link DispatchTracker}. Replaces graphql-java's {@code DataLoaderDispatcherInstrumentation}, which
+ * knows nothing about loads made after an async phase.
+ *
+ * <p>Operations that are not executed level by level, e.g. mutations executed serially, are dispatched after every
+ * field fetch.
+ *
+ * <p>The number of dispatch rounds of a request is logged at debug level, available from {@link
+ * DispatchTracker#from(GraphQLContext)} for the {@link graphql.ExecutionInput#getGraphQLContext() graphql context} of
+ * the request and, with {@code includeStatistics}, added to the {@code dispatchRounds} extension of the result.
+ */
+@Slf4j
+public class LevelAwareDispatchInstrumentation extends SimpleInstrumentation {
+
+  public static final String DISPATCH_ROUNDS_EXTENSION = "dispatchRounds";
+
+  private final boolean includeStatistics;
+
+  public LevelAwareDispatchInstrumentation() {
+    this(false);
+  }
+
+  /**
+   * @param includeStatistics whether to add the number of dispatch rounds to the extensions of the result
+   */
+  public LevelAwareDispatchInstrumentation(boolean includeStatistics) {
+    this.includeStatistics = includeStatistics;
+  }
+
+  @Override
+  public InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
+    DispatchTracker tracker = new DispatchTracker(parameters.getExecutionInput().getDataLoaderRegistry());
+    tracker.attach(parameters.getExecutionInput().getGraphQLContext());
+    return tracker;
+  }
+
+  @Override
+  public InstrumentationContext<ExecutionResult> beginExecuteOperation(
+      InstrumentationExecuteOperationParameters parameters) {
+    ExecutionContext executionContext = parameters.getExecutionContext();
+    boolean levelByLevel = executionContext.getOperationDefinition().getOperation() == Operation.QUERY
+        && executionContext.getQueryStrategy() instanceof AsyncExecutionStrategy;
+    if (!levelByLevel) {
+      parameters.<DispatchTracker>getInstrumentationState().disableLevelTracking();
+    }
+    return SimpleInstrumentationContext.noOp();
+  }
+
+  @Override
+  public ExecutionStrategyInstrumentationContext beginExecutionStrategy(
+      InstrumentationExecutionStrategyParameters parameters) {
+    DispatchTracker tracker = parameters.getInstrumentationState();
+    int level = parameters.getExecutionStrategyParameters().getPath().getLevel() + 1;
+    tracker.onExecutionStrategy(level, parameters.getExecutionStrategyParameters().getFields().size());
+
+    return new ExecutionStrategyInstrumentationContext() {
+      @Override
+      public void onDispatched(CompletableFuture<ExecutionResult> result) {
+      }
+
+      @Override
+      public void onCompleted(ExecutionResult result, Throwable t) {
+      }
+
+      @Override
+      public void onFieldValuesInfo(List<FieldValueInfo> fieldValueInfoList) {
+        tracker.onFieldValues(level, countObjects(fieldValueInfoList));
+      }
+
+      @Override
+      public void onFieldValuesException() {
+        tracker.onFieldValuesException(level);
+      }
+    };
+  }
+
+  @Override
+  public InstrumentationContext<Object> beginFieldFetch(InstrumentationFieldFetchParameters parameters) {
+    DispatchTracker tracker = parameters.getInstrumentationState();
+    int level = parameters.getEnvironment().getExecutionStepInfo().getPath().getLevel();
+    return SimpleInstrumentationContext.whenDispatched(result -> tracker.onFieldFetched(level));
+  }
+
+  @Override
+  public CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult,
+      InstrumentationExecutionParameters parameters) {
+    int dispatchRounds = parameters.<DispatchTracker>getInstrumentationState().getDispatchRounds();
+    log.debug("Request completed in {} dispatch rounds", dispatchRounds);
+    if (!includeStatistics) {
+      return CompletableFuture.completedFuture(executionResult);
+    }
+    return CompletableFuture.completedFuture(ExecutionResultImpl.newExecutionResult()
+        .from(executionResult)
+        .addExtension(DISPATCH_ROUNDS_EXTENSION, dispatchRounds)
+        .build());
+  }
+
+  /**
+   * Counts the object values, including the objects nested in lists, each of which is completed by one execution
+   * strategy call on the next level.
+   */
+  private static int countObjects(List<FieldValueInfo> fieldValueInfos) {
+    int count = 0;
+    for (FieldValueInfo fieldValueInfo : fieldValueInfos) {
+      if (fieldValueInfo.getCompleteValueType() == FieldValueInfo.CompleteValueType.OBJECT) {
+        count++;
+      } else if (fieldValueInfo.getCompleteValueType() == FieldValueInfo.CompleteValueType.LIST) {
+        count += countObjects(fieldValueInfo.getFieldValueInfos());
+      }
+    }
+    return count;
+  }
+}
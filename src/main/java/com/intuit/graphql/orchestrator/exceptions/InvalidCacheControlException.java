@@ -0,0 +1,12 @@
+package com.intuit.graphql.orchestrator.exceptions;
+
+import com.intuit.graphql.orchestrator.stitching.StitchingException;
+
+public class InvalidCacheControlException extends StitchingException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidCacheControlException(final String message) {
+        super(message);
+    }
+}
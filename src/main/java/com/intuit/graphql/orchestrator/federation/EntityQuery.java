@@ -4,8 +4,8 @@ import static com.intuit.graphql.orchestrator.utils.FederationConstants.REPRESEN
 import static com.intuit.graphql.orchestrator.utils.FederationConstants.REPRESENTATIONS_VAR_NAME;
 import static com.intuit.graphql.orchestrator.utils.FederationConstants.VARIABLE_DEFINITION;
 import static com.intuit.graphql.orchestrator.utils.FederationConstants._ENTITIES_FIELD_NAME;
-import static graphql.language.AstPrinter.printAstCompact;
 
+import com.intuit.graphql.orchestrator.cache.PrintedQueryCache;
 import graphql.ExecutionInput;
 import graphql.GraphQLContext;
 import graphql.language.Document;
@@ -31,6 +31,7 @@ public class EntityQuery {
   @NonNull private final GraphQLContext graphQLContext;
   @NonNull private final List<InlineFragment> inlineFragments;
   @NonNull private final List<Map<String, Object>> variables;
+  @Builder.Default private final PrintedQueryCache printedQueryCache = PrintedQueryCache.defaultInstance();
 
   public ExecutionInput createExecutionInput() {
     if (CollectionUtils.isEmpty(inlineFragments)) {
@@ -67,7 +68,7 @@ public class EntityQuery {
     return ExecutionInput.newExecutionInput()
         .context(graphQLContext)
         .root(document)
-        .query(printAstCompact(document))
+        .query(printedQueryCache.print(document))
         .variables(representations) // TODO if not empty or throw exception
         .build();
   }
@@ -10,6 +10,8 @@ import static graphql.schema.GraphQLTypeUtil.unwrapAll;
 import static graphql.schema.InputValueWithState.newExternalValue;
 
 import com.intuit.graphql.orchestrator.batch.DownstreamQueryModifier;
+import com.intuit.graphql.orchestrator.batch.FieldResolverQueryMode;
+import com.intuit.graphql.orchestrator.metadata.RenamedMetadata;
 import com.intuit.graphql.orchestrator.resolverdirective.FieldResolverDirectiveUtil;
 import com.intuit.graphql.orchestrator.resolverdirective.ResolverArgumentDefinition;
 import com.intuit.graphql.orchestrator.resolverdirective.ResolverDirectiveDefinition;
@@ -18,51 +20,160 @@ import com.intuit.graphql.orchestrator.schema.transform.FieldResolverContext;
 import graphql.Scalars;
 import graphql.execution.ValuesResolver;
 import graphql.language.Argument;
+import graphql.language.ArrayValue;
+import graphql.language.BooleanValue;
+import graphql.language.Directive;
+import graphql.language.EnumValue;
 import graphql.language.Field;
+import graphql.language.FloatValue;
 import graphql.language.FragmentDefinition;
+import graphql.language.IntValue;
+import graphql.language.ListType;
+import graphql.language.NonNullType;
+import graphql.language.ObjectValue;
 import graphql.language.SelectionSet;
+import graphql.language.StringValue;
+import graphql.language.Type;
+import graphql.language.TypeName;
 import graphql.language.Value;
-import graphql.parser.Parser;
+import graphql.language.VariableDefinition;
+import graphql.language.VariableReference;
 import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLArgument;
+import graphql.schema.GraphQLFieldDefinition;
 import graphql.schema.GraphQLFieldsContainer;
+import graphql.schema.GraphQLList;
+import graphql.schema.GraphQLNamedType;
+import graphql.schema.GraphQLNonNull;
 import graphql.schema.GraphQLObjectType;
 import graphql.schema.GraphQLSchema;
 import graphql.schema.GraphQLType;
 import graphql.schema.GraphQLTypeUtil;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.function.Supplier;
-import lombok.AllArgsConstructor;
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.lang3.StringUtils;
 
-@AllArgsConstructor
 public class FieldResolverBatchSelectionSetSupplier implements Supplier<SelectionSet> {
 
     private final String[] resolverSelectedFields;
     private final List<DataFetchingEnvironment> dataFetchingEnvironments;
     private final FieldResolverContext fieldResolverContext;
     private final ServiceMetadata serviceMetadata;
+    private final Map<String, ValueTemplate> valueTemplates;
+    private final FieldResolverQueryMode queryMode;
+    private static final String SKIP_VARIABLE_PREFIX = "skip_";
+
+    private final List<VariableDefinition> variableDefinitions = new ArrayList<>();
+    private final Map<String, Object> variables = new LinkedHashMap<>();
+
+    public FieldResolverBatchSelectionSetSupplier(String[] resolverSelectedFields,
+        List<DataFetchingEnvironment> dataFetchingEnvironments, FieldResolverContext fieldResolverContext,
+        ServiceMetadata serviceMetadata) {
+        this(resolverSelectedFields, dataFetchingEnvironments, fieldResolverContext, serviceMetadata,
+            new HashMap<>());
+    }
+
+    /**
+     * @param valueTemplates the value templates by resolver argument name, precompiled by the caller. Templates of
+     * arguments that are missing are compiled on demand.
+     */
+    public FieldResolverBatchSelectionSetSupplier(String[] resolverSelectedFields,
+        List<DataFetchingEnvironment> dataFetchingEnvironments, FieldResolverContext fieldResolverContext,
+        ServiceMetadata serviceMetadata, Map<String, ValueTemplate> valueTemplates) {
+        this(resolverSelectedFields, dataFetchingEnvironments, fieldResolverContext, serviceMetadata, valueTemplates,
+            false);
+    }
+
+    /**
+     * @param argumentsAsVariables whether to pass the argument values as variables instead of inlining them, so that
+     * the query text of a batch depends only on its size. The variables are available from {@link #getVariables()}
+     * once the selection set has been created.
+     */
+    public FieldResolverBatchSelectionSetSupplier(String[] resolverSelectedFields,
+        List<DataFetchingEnvironment> dataFetchingEnvironments, FieldResolverContext fieldResolverContext,
+        ServiceMetadata serviceMetadata, Map<String, ValueTemplate> valueTemplates, boolean argumentsAsVariables) {
+        this(resolverSelectedFields, dataFetchingEnvironments, fieldResolverContext, serviceMetadata, valueTemplates,
+            argumentsAsVariables ? FieldResolverQueryMode.VARIABLES : FieldResolverQueryMode.INLINE);
+    }
+
+    /**
+     * @param queryMode how to pass the argument values. With {@link FieldResolverQueryMode#BUCKETED_VARIABLES} the
+     * batch is padded to the next power of two by repeating the field of its last environment. Every field that can be
+     * padding for the size of the batch, i.e. every field after the first half, is marked with {@code @skip(if:
+     * $skip_n)}, so the query text only depends on the size of the bucket. The skip variables are true for the
+     * padding fields, which the target service therefore never resolves.
+     */
+    public FieldResolverBatchSelectionSetSupplier(String[] resolverSelectedFields,
+        List<DataFetchingEnvironment> dataFetchingEnvironments, FieldResolverContext fieldResolverContext,
+        ServiceMetadata serviceMetadata, Map<String, ValueTemplate> valueTemplates, FieldResolverQueryMode queryMode) {
+        this.resolverSelectedFields = resolverSelectedFields;
+        this.dataFetchingEnvironments = dataFetchingEnvironments;
+        this.fieldResolverContext = fieldResolverContext;
+        this.serviceMetadata = serviceMetadata;
+        this.valueTemplates = valueTemplates;
+        this.queryMode = Objects.requireNonNull(queryMode);
+    }
 
     @Override
     public SelectionSet get() {
         return createBatchSelectionSet();
     }
 
+    /**
+     * @return the definitions of the argument variables referenced by the selection set
+     */
+    public List<VariableDefinition> getVariableDefinitions() {
+        return variableDefinitions;
+    }
+
+    /**
+     * @return the values of the argument variables referenced by the selection set
+     */
+    public Map<String, Object> getVariables() {
+        return variables;
+    }
+
     private SelectionSet createBatchSelectionSet() {
         ResolverDirectiveDefinition resolverDirectiveDefinition = fieldResolverContext.getResolverDirectiveDefinition();
-        SelectionSet.Builder parentSelectionSetBuilder = SelectionSet.newSelectionSet();
+        variableDefinitions.clear();
+        variables.clear();
 
-        for (int batchCounter = 0; batchCounter < dataFetchingEnvironments.size(); batchCounter++) {
+        int fieldCount = dataFetchingEnvironments.size();
+        int bucketSize = queryMode == FieldResolverQueryMode.BUCKETED_VARIABLES ? bucketSize(fieldCount) : fieldCount;
+        List<Field> leafFields = new ArrayList<>(bucketSize);
+        for (int batchCounter = 0; batchCounter < bucketSize; batchCounter++) {
 
-            DataFetchingEnvironment dataFetchingEnvironment = dataFetchingEnvironments.get(batchCounter);
+            DataFetchingEnvironment dataFetchingEnvironment =
+                dataFetchingEnvironments.get(Math.min(batchCounter, fieldCount - 1));
 
             List<Argument> queryFieldArguments = createFieldArguments(resolverDirectiveDefinition, dataFetchingEnvironment);
-            Field rootField = createSelectionSetFor(dataFetchingEnvironment, batchCounter, queryFieldArguments);
-            GraphQLSchema graphQLSchema = dataFetchingEnvironment.getGraphQLSchema();
-            GraphQLObjectType rootFieldParentType = graphQLSchema.getQueryType();
+            if (queryMode != FieldResolverQueryMode.INLINE) {
+                queryFieldArguments = toVariableArguments(queryFieldArguments, batchCounter,
+                    dataFetchingEnvironment.getGraphQLSchema());
+            }
+            Field leafField = createLeafField(dataFetchingEnvironment, batchCounter, queryFieldArguments);
+            if (batchCounter > bucketSize / 2 && queryMode == FieldResolverQueryMode.BUCKETED_VARIABLES) {
+                leafField = skipUnlessRequested(leafField, batchCounter, batchCounter < fieldCount);
+            }
+            leafFields.add(leafField);
+        }
+
+        SelectionSet.Builder parentSelectionSetBuilder = SelectionSet.newSelectionSet();
+        if (leafFields.isEmpty()) {
+            return parentSelectionSetBuilder.build();
+        }
+
+        // all environments of a batch share the schema and the fragments of the request
+        DataFetchingEnvironment dataFetchingEnvironment = dataFetchingEnvironments.get(0);
+        GraphQLSchema graphQLSchema = dataFetchingEnvironment.getGraphQLSchema();
+        GraphQLObjectType rootFieldParentType = graphQLSchema.getQueryType();
+        for (Field rootField : createRootFields(leafFields)) {
             GraphQLType rootFieldType = getFieldType(rootField, rootFieldParentType).get();
             rootField = removeFieldsWithExternalTypes(rootField, rootFieldType, dataFetchingEnvironment
                 .getFragmentsByName(), graphQLSchema);
@@ -72,6 +183,27 @@ public class FieldResolverBatchSelectionSetSupplier implements Supplier<Selectio
         return parentSelectionSetBuilder.build();
     }
 
+    /**
+     * @return the next power of two that is at least the given size
+     */
+    private static int bucketSize(int size) {
+        return size <= 1 ? size : Integer.highestOneBit(size - 1) << 1;
+    }
+
+    private Field skipUnlessRequested(Field leafField, int dfeBatchPosition, boolean requested) {
+        String variableName = SKIP_VARIABLE_PREFIX + dfeBatchPosition;
+        variableDefinitions.add(VariableDefinition.newVariableDefinition()
+            .name(variableName)
+            .type(NonNullType.newNonNullType(TypeName.newTypeName(Scalars.GraphQLBoolean.getName()).build()).build())
+            .build());
+        variables.put(variableName, !requested);
+        return leafField.transform(builder -> builder.directive(Directive.newDirective()
+            .name("skip")
+            .argument(Argument.newArgument("if", VariableReference.newVariableReference().name(variableName).build())
+                .build())
+            .build()));
+    }
+
     private Field removeFieldsWithExternalTypes(final Field field,
         GraphQLType parentType, Map<String, FragmentDefinition> fragmentsByName, GraphQLSchema graphQLSchema) {
         // call serviceMetadata.hasFieldResolverDirective() before calling this method
@@ -120,25 +252,17 @@ public class FieldResolverBatchSelectionSetSupplier implements Supplier<Selectio
                 }
                 return ValuesResolver.valueToLiteral(newExternalValue(valueFromSource), fieldReferenceType);
 
-            } else {
-                String typename = com.intuit.graphql.utils.XtextTypeUtils.typeName(resolverArgumentDefinition.getNamedType());
-                String stringLiteralAstValue = compileTemplate(fieldResolverContext, resolverArgumentDefinition.getValue(), parentSource);
-                if (StringUtils.equals(typename, Scalars.GraphQLString.getName()) ||
-                    StringUtils.equals(typename, Scalars.GraphQLID.getName())) {
-                    stringLiteralAstValue = String.format("\"%s\"", stringLiteralAstValue);
-                }
-                return Parser.parseValue(stringLiteralAstValue);
-
             }
-        } else {
-            String stringLiteralAstValue = compileTemplate(fieldResolverContext, resolverArgumentDefinition.getValue(), parentSource);
-            return Parser.parseValue(stringLiteralAstValue);
         }
+        return valueTemplates
+            .computeIfAbsent(resolverArgumentDefinition.getName(),
+                name -> ValueTemplate.forArgument(fieldResolverContext, resolverArgumentDefinition))
+            .bind(parentSource);
     }
 
-    private Field createSelectionSetFor(final DataFetchingEnvironment dataFetchingEnvironment,
-                                        final int dfeBatchPosition,
-                                        final List<Argument> queryFieldArguments) {
+    private Field createLeafField(final DataFetchingEnvironment dataFetchingEnvironment,
+                                  final int dfeBatchPosition,
+                                  final List<Argument> queryFieldArguments) {
 
         final int lastIndex = resolverSelectedFields.length - 1;
 
@@ -152,27 +276,140 @@ public class FieldResolverBatchSelectionSetSupplier implements Supplier<Selectio
 
         String aliasName = FieldResolverDirectiveUtil.createAlias(leafFieldName,dfeBatchPosition);
         fieldBuilder.alias(aliasName);
-        Field leafField = fieldBuilder.build();
+        return fieldBuilder.build();
+    }
 
-        // build selection set starting from leaf to root
-        Field currField = leafField;
-        SelectionSet currectSelectionSet;
+    /**
+     * Builds the selection set starting from the leaves to the root. The aliased leaf fields share a single chain of
+     * parent fields.
+     */
+    private List<Field> createRootFields(List<Field> leafFields) {
+        int lastIndex = resolverSelectedFields.length - 1;
+        if (lastIndex == 0) {
+            return leafFields;
+        }
+
+        Field currField = Field.newField(resolverSelectedFields[lastIndex - 1])
+            .selectionSet(SelectionSet.newSelectionSet().selections(leafFields).build())
+            .build();
 
-        int currIdx = lastIndex;
-        while( currIdx > 0) {
-            currectSelectionSet = SelectionSet.newSelectionSet().selection(currField).build(); //**
+        int currIdx = lastIndex - 1;
+        while (currIdx > 0) {
+            SelectionSet currentSelectionSet = SelectionSet.newSelectionSet().selection(currField).build();
             currField = Field.newField(resolverSelectedFields[currIdx - 1])
-                    .selectionSet(currectSelectionSet)
+                    .selectionSet(currentSelectionSet)
                     .build();
             currIdx--;
         }
 
-        return currField;
+        return Collections.singletonList(currField);
+    }
+
+    /**
+     * Replaces the argument values with references to variables named after the argument and the batch position. The
+     * variables are typed from the arguments of the target field, with the names the target service declares for the
+     * types. Arguments missing from the target field keep their value.
+     */
+    private List<Argument> toVariableArguments(List<Argument> arguments, int dfeBatchPosition,
+        GraphQLSchema graphQLSchema) {
+        GraphQLFieldDefinition targetFieldDefinition = getTargetFieldDefinition(graphQLSchema);
+        List<Argument> variableArguments = new ArrayList<>(arguments.size());
+        for (Argument argument : arguments) {
+            GraphQLArgument targetArgument = targetFieldDefinition == null ? null
+                : targetFieldDefinition.getArgument(argument.getName());
+            if (targetArgument == null) {
+                variableArguments.add(argument);
+                continue;
+            }
+
+            String variableName = argument.getName() + "_" + dfeBatchPosition;
+            variableDefinitions.add(VariableDefinition.newVariableDefinition()
+                .name(variableName)
+                .type(createDownstreamType(targetArgument.getType()))
+                .build());
+            variables.put(variableName, toVariableValue(argument.getValue()));
+            variableArguments.add(Argument.newArgument(argument.getName(),
+                VariableReference.newVariableReference().name(variableName).build()).build());
+        }
+        return variableArguments;
+    }
+
+    private GraphQLFieldDefinition getTargetFieldDefinition(GraphQLSchema graphQLSchema) {
+        GraphQLFieldsContainer fieldsContainer = graphQLSchema.getQueryType();
+        GraphQLFieldDefinition fieldDefinition = null;
+        for (String selectedField : resolverSelectedFields) {
+            if (fieldsContainer == null) {
+                return null;
+            }
+            fieldDefinition = fieldsContainer.getFieldDefinition(selectedField);
+            if (fieldDefinition == null) {
+                return null;
+            }
+            GraphQLType fieldType = unwrapAll(fieldDefinition.getType());
+            fieldsContainer = fieldType instanceof GraphQLFieldsContainer ? (GraphQLFieldsContainer) fieldType : null;
+        }
+        return fieldDefinition;
+    }
+
+    private Type<?> createDownstreamType(GraphQLType graphQLType) {
+        if (graphQLType instanceof GraphQLNonNull) {
+            return NonNullType.newNonNullType(createDownstreamType(((GraphQLNonNull) graphQLType).getWrappedType()))
+                .build();
+        }
+        if (graphQLType instanceof GraphQLList) {
+            return ListType.newListType(createDownstreamType(((GraphQLList) graphQLType).getWrappedType())).build();
+        }
+        return TypeName.newTypeName(getDownstreamTypeName(((GraphQLNamedType) graphQLType).getName())).build();
     }
 
-    private String compileTemplate(FieldResolverContext fieldResolverContext, String stringTemplate, Map<String, Object> dataSource) {
-        ValueTemplate valueTemplate = new ValueTemplate(fieldResolverContext, stringTemplate);
-        return valueTemplate.compile(dataSource);
+    /**
+     * Returns the name the target service declares for a type of the stitched schema, which differs for types
+     * renamed with {@code @rename}.
+     */
+    private String getDownstreamTypeName(String typeName) {
+        RenamedMetadata renamedMetadata = serviceMetadata.getRenamedMetadata();
+        if (renamedMetadata == null) {
+            return typeName;
+        }
+        // keyed by the name the service declares, despite the name of the map
+        return renamedMetadata.getOriginalTypeNamesByRenamedName().entrySet().stream()
+            .filter(entry -> typeName.equals(entry.getValue()))
+            .map(Map.Entry::getKey)
+            .findFirst()
+            .orElse(typeName);
+    }
+
+    /**
+     * Converts an argument value literal to its variable value.
+     */
+    private static Object toVariableValue(Value<?> value) {
+        if (value instanceof StringValue) {
+            return ((StringValue) value).getValue();
+        }
+        if (value instanceof IntValue) {
+            return ((IntValue) value).getValue();
+        }
+        if (value instanceof FloatValue) {
+            return ((FloatValue) value).getValue();
+        }
+        if (value instanceof BooleanValue) {
+            return ((BooleanValue) value).isValue();
+        }
+        if (value instanceof EnumValue) {
+            return ((EnumValue) value).getName();
+        }
+        if (value instanceof ArrayValue) {
+            List<Object> values = new ArrayList<>();
+            ((ArrayValue) value).getValues().forEach(element -> values.add(toVariableValue(element)));
+            return values;
+        }
+        if (value instanceof ObjectValue) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            ((ObjectValue) value).getObjectFields()
+                .forEach(objectField -> values.put(objectField.getName(), toVariableValue(objectField.getValue())));
+            return values;
+        }
+        return null;
     }
 
 }
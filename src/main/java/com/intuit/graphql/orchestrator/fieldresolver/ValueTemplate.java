@@ -1,22 +1,89 @@
 package com.intuit.graphql.orchestrator.fieldresolver;
 
+import static com.intuit.graphql.orchestrator.utils.XtextTypeUtils.isPrimitiveType;
+
+import com.intuit.graphql.orchestrator.resolverdirective.ResolverArgumentDefinition;
 import com.intuit.graphql.orchestrator.schema.transform.FieldResolverContext;
+import com.intuit.graphql.utils.XtextTypeUtils;
+import graphql.Scalars;
+import graphql.language.ArrayValue;
+import graphql.language.BooleanValue;
+import graphql.language.EnumValue;
+import graphql.language.FloatValue;
+import graphql.language.IntValue;
+import graphql.language.NullValue;
+import graphql.language.ObjectField;
+import graphql.language.ObjectValue;
+import graphql.language.StringValue;
+import graphql.language.Value;
+import graphql.parser.InvalidSyntaxException;
+import graphql.parser.Parser;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 
-import java.util.Map;
-
+/**
+ * The value of a {@code @resolver} argument, with {@code $field} references to required fields of the parent.
+ *
+ * <p>{@link #bind(Map)} returns the argument value for a parent source as a graphql {@link Value}. The template is
+ * parsed once, when it is created, into a tree of constant values and slots for the references, so binding neither formats
+ * nor parses strings. A reference outside a string literal, or a string literal that is exactly a reference, is a
+ * slot replaced by the literal of the parent value. References within a longer string literal are interpolated.
+ * Templates that are not valid value literals are bound by {@link #compile(Map) substituting} the references and
+ * parsing the result, which reports the syntax error.
+ */
 public class ValueTemplate {
 
+    private static final Pattern NAME = Pattern.compile("[_A-Za-z][_0-9A-Za-z]*");
+    private static final Pattern INT = Pattern.compile("-?(0|[1-9][0-9]*)");
+    private static final Pattern FLOAT = Pattern.compile("-?(0|[1-9][0-9]*)(\\.[0-9]+)?([eE][+-]?[0-9]+)?");
+
     private FieldResolverContext fieldResolverContext;
     private String template;
     private boolean formatStringRef;
+    private boolean stringValue;
+
+    private final Function<Map<String, Object>, Value<?>> binder;
 
     public ValueTemplate(FieldResolverContext fieldResolverContext, String template) {
+        this(fieldResolverContext, template, false);
+    }
+
+    /**
+     * @param fieldResolverContext the context of the field with the resolver directive
+     * @param template the argument value template
+     * @param stringValue whether the argument is a {@code String} or {@code ID}, whose template is the content of a
+     * string literal
+     */
+    public ValueTemplate(FieldResolverContext fieldResolverContext, String template, boolean stringValue) {
         this.fieldResolverContext = fieldResolverContext;
         this.template = template;
         this.formatStringRef = StringUtils.containsAny(template, "[", "{");
+        this.stringValue = stringValue;
+        this.binder = compileBinder();
     }
+
+    /**
+     * Creates the value template of a resolver argument. The templates of {@code String} and {@code ID} arguments are
+     * the content of a string literal.
+     */
+    public static ValueTemplate forArgument(FieldResolverContext fieldResolverContext,
+        ResolverArgumentDefinition resolverArgumentDefinition) {
+        String typename = XtextTypeUtils.typeName(resolverArgumentDefinition.getNamedType());
+        boolean stringValue = isPrimitiveType(resolverArgumentDefinition.getNamedType())
+            && (StringUtils.equals(typename, Scalars.GraphQLString.getName())
+            || StringUtils.equals(typename, Scalars.GraphQLID.getName()));
+        return new ValueTemplate(fieldResolverContext, resolverArgumentDefinition.getValue(), stringValue);
+    }
+
     public String compile(Map<String, Object> dataSource) {
         String resolverReferenceTemplate1 = "\"$%s\"";
         String resolverReferenceTemplate2 = "$%s";
@@ -41,5 +108,217 @@ public class ValueTemplate {
         }) : template;
     }
 
-}
+    /**
+     * @param dataSource the parent source
+     * @return the argument value with the references replaced by the values of the parent source
+     */
+    public Value<?> bind(Map<String, Object> dataSource) {
+        return binder.apply(dataSource);
+    }
+
+    private Function<Map<String, Object>, Value<?>> compileBinder() {
+        Set<String> requiredFields = fieldResolverContext.getRequiredFields() == null
+            ? Collections.emptySet() : fieldResolverContext.getRequiredFields();
+
+        if (stringValue) {
+            return interpolate(template, requiredFields);
+        }
+
+        Value<?> parsedTemplate;
+        try {
+            parsedTemplate = Parser.parseValue(toSlots(template, requiredFields));
+        } catch (InvalidSyntaxException e) {
+            return dataSource -> Parser.parseValue(compile(dataSource));
+        }
+        return compileValue(parsedTemplate, requiredFields);
+    }
+
+    private Function<Map<String, Object>, Value<?>> compileValue(Value<?> value, Set<String> requiredFields) {
+        if (value instanceof StringValue) {
+            String string = ((StringValue) value).getValue();
+            if (string.startsWith("$") && requiredFields.contains(string.substring(1))) {
+                String reference = string.substring(1);
+                return dataSource -> toLiteral(dataSource.get(reference), formatStringRef);
+            }
+            return string.indexOf('$') >= 0 ? interpolate(string, requiredFields) : dataSource -> value;
+        }
+
+        if (value instanceof ObjectValue) {
+            List<ObjectField> objectFields = ((ObjectValue) value).getObjectFields();
+            List<Function<Map<String, Object>, Value<?>>> fieldBinders = new ArrayList<>(objectFields.size());
+            for (ObjectField objectField : objectFields) {
+                fieldBinders.add(compileValue(objectField.getValue(), requiredFields));
+            }
+            return dataSource -> {
+                List<ObjectField> boundFields = new ArrayList<>(objectFields.size());
+                for (int i = 0; i < objectFields.size(); i++) {
+                    boundFields.add(ObjectField.newObjectField()
+                        .name(objectFields.get(i).getName())
+                        .value(fieldBinders.get(i).apply(dataSource))
+                        .build());
+                }
+                return ObjectValue.newObjectValue().objectFields(boundFields).build();
+            };
+        }
+
+        if (value instanceof ArrayValue) {
+            List<Function<Map<String, Object>, Value<?>>> valueBinders = new ArrayList<>();
+            for (Value<?> element : ((ArrayValue) value).getValues()) {
+                valueBinders.add(compileValue(element, requiredFields));
+            }
+            return dataSource -> {
+                ArrayValue.Builder boundValues = ArrayValue.newArrayValue();
+                for (Function<Map<String, Object>, Value<?>> valueBinder : valueBinders) {
+                    boundValues.value(valueBinder.apply(dataSource));
+                }
+                return boundValues.build();
+            };
+        }
+
+        return dataSource -> value;
+    }
+
+    /**
+     * The literal of a parent value in place of a reference, as the parsed form of its substituted text. Strings,
+     * numbers, booleans, maps and lists are built directly; only strings that are not a name or a number, and values of
+     * other types, are parsed. As in the substituted text, only a top level string is quoted.
+     */
+    private static Value<?> toLiteral(Object resolverValue, boolean quoteString) {
+        if (resolverValue == null) {
+            return NullValue.newNullValue().build();
+        }
+        if (resolverValue instanceof String) {
+            return quoteString ? StringValue.newStringValue((String) resolverValue).build()
+                : toScalarLiteral((String) resolverValue);
+        }
+        if (resolverValue instanceof Map) {
+            ObjectValue.Builder objectValue = ObjectValue.newObjectValue();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) resolverValue).entrySet()) {
+                objectValue.objectField(new ObjectField(String.valueOf(entry.getKey()), toLiteral(entry.getValue(), false)));
+            }
+            return objectValue.build();
+        }
+        if (resolverValue instanceof List) {
+            ArrayValue.Builder arrayValue = ArrayValue.newArrayValue();
+            for (Object element : (List<?>) resolverValue) {
+                arrayValue.value(toLiteral(element, false));
+            }
+            return arrayValue.build();
+        }
+        if (resolverValue instanceof Boolean) {
+            return BooleanValue.newBooleanValue((Boolean) resolverValue).build();
+        }
+        if (resolverValue instanceof Integer || resolverValue instanceof Long || resolverValue instanceof Short
+            || resolverValue instanceof Byte) {
+            return IntValue.newIntValue(BigInteger.valueOf(((Number) resolverValue).longValue())).build();
+        }
+        if (resolverValue instanceof BigInteger) {
+            return IntValue.newIntValue((BigInteger) resolverValue).build();
+        }
+        if (resolverValue instanceof BigDecimal) {
+            return FloatValue.newFloatValue((BigDecimal) resolverValue).build();
+        }
+        if ((resolverValue instanceof Double || resolverValue instanceof Float)
+            && Double.isFinite(((Number) resolverValue).doubleValue())) {
+            return FloatValue.newFloatValue(new BigDecimal(resolverValue.toString())).build();
+        }
+        return Parser.parseValue(resolverValue.toString());
+    }
+
+    /**
+     * The literal of a string parent value that is substituted unquoted: a boolean, null, enum, int or float literal.
+     */
+    private static Value<?> toScalarLiteral(String resolverValue) {
+        if (NAME.matcher(resolverValue).matches()) {
+            switch (resolverValue) {
+                case "true":
+                case "false":
+                    return BooleanValue.newBooleanValue(Boolean.parseBoolean(resolverValue)).build();
+                case "null":
+                    return NullValue.newNullValue().build();
+                default:
+                    return EnumValue.newEnumValue(resolverValue).build();
+            }
+        }
+        if (INT.matcher(resolverValue).matches()) {
+            return IntValue.newIntValue(new BigInteger(resolverValue)).build();
+        }
+        if (FLOAT.matcher(resolverValue).matches()) {
+            return FloatValue.newFloatValue(new BigDecimal(resolverValue)).build();
+        }
+        return Parser.parseValue(resolverValue);
+    }
+
+    /**
+     * Compiles a string with references into the segments of the bound string: literal text and references.
+     */
+    private static Function<Map<String, Object>, Value<?>> interpolate(String string, Set<String> requiredFields) {
+        List<String> literals = new ArrayList<>();
+        List<String> references = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < string.length()) {
+            String reference = string.charAt(i) == '$' ? findReference(string, i + 1, requiredFields) : null;
+            if (reference == null) {
+                literal.append(string.charAt(i++));
+                continue;
+            }
+            literals.add(literal.toString());
+            references.add(reference);
+            literal.setLength(0);
+            i += reference.length() + 1;
+        }
+        literals.add(literal.toString());
+
+        if (references.isEmpty()) {
+            StringValue constant = StringValue.newStringValue(string).build();
+            return dataSource -> constant;
+        }
+        return dataSource -> {
+            StringBuilder bound = new StringBuilder(literals.get(0));
+            for (int r = 0; r < references.size(); r++) {
+                bound.append(dataSource.get(references.get(r))).append(literals.get(r + 1));
+            }
+            return StringValue.newStringValue(bound.toString()).build();
+        };
+    }
 
+    /**
+     * Quotes the references outside of string literals, so that the template parses as a value literal in which every
+     * such reference is a string value of its own.
+     */
+    private static String toSlots(String template, Set<String> requiredFields) {
+        StringBuilder slotted = new StringBuilder(template.length() + 8);
+        boolean inString = false;
+        int i = 0;
+        while (i < template.length()) {
+            char c = template.charAt(i);
+            if (c == '"' && (i == 0 || template.charAt(i - 1) != '\\')) {
+                inString = !inString;
+            }
+            String reference = !inString && c == '$' ? findReference(template, i + 1, requiredFields) : null;
+            if (reference == null) {
+                slotted.append(c);
+                i++;
+                continue;
+            }
+            slotted.append("\"$").append(reference).append('"');
+            i += reference.length() + 1;
+        }
+        return slotted.toString();
+    }
+
+    /**
+     * @return the longest required field name at the position, or {@code null}
+     */
+    private static String findReference(String string, int position, Set<String> requiredFields) {
+        String reference = null;
+        for (String requiredField : requiredFields) {
+            if (string.startsWith(requiredField, position)
+                && (reference == null || requiredField.length() > reference.length())) {
+                reference = requiredField;
+            }
+        }
+        return reference;
+    }
+}
@@ -0,0 +1,31 @@
+package com.intuit.graphql.orchestrator.metadata;
+
+import com.intuit.graphql.orchestrator.ServiceProvider;
+import com.intuit.graphql.orchestrator.cache.CacheControl;
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@link CacheControl} of the root query fields of a service, keyed by field name.
+ */
+@Getter
+public class CacheControlMetadata {
+
+    private final ServiceProvider serviceProvider;
+    private final Map<String, CacheControl> cacheControlByRootFieldName;
+
+    public CacheControlMetadata(ServiceProvider serviceProvider) {
+        this.serviceProvider = serviceProvider;
+        this.cacheControlByRootFieldName = new HashMap<>();
+    }
+
+    public CacheControl getCacheControl(String rootFieldName) {
+        return this.cacheControlByRootFieldName.get(rootFieldName);
+    }
+
+    public boolean containsCacheableFields() {
+        return !this.cacheControlByRootFieldName.isEmpty();
+    }
+}
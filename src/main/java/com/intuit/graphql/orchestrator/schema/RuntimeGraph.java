@@ -178,6 +178,18 @@ public class RuntimeGraph {
       return this;
     }
 
+    /**
+     * Batch loader builder.
+     *
+     * @param key the data loader key
+     * @param batchLoader the batchloader
+     * @return the builder
+     */
+    public Builder batchLoader(String key, BatchLoader<?, ?> batchLoader) {
+      this.batchLoaderMap.put(key, batchLoader);
+      return this;
+    }
+
     /**
      * Build runtime graph.
      *
@@ -1,6 +1,7 @@
 package com.intuit.graphql.orchestrator.schema;
 
 import com.intuit.graphql.orchestrator.ServiceProvider;
+import com.intuit.graphql.orchestrator.cache.CacheControl;
 import com.intuit.graphql.orchestrator.federation.metadata.FederationMetadata;
 import com.intuit.graphql.orchestrator.metadata.RenamedMetadata;
 import com.intuit.graphql.orchestrator.schema.transform.FieldResolverContext;
@@ -41,4 +42,14 @@ public interface ServiceMetadata {
   boolean shouldModifyDownStreamQuery();
 
   RenamedMetadata getRenamedMetadata();
+
+  /**
+   * Get the cache policy of a root query field, declared with {@code @cacheControl} in the provider's schema.
+   *
+   * @param fieldName name of the root query field
+   * @return the cache policy, or null if results of the field are not cached
+   */
+  default CacheControl getRootFieldCacheControl(String fieldName) {
+    return null;
+  }
 }
@@ -1,7 +1,9 @@
 package com.intuit.graphql.orchestrator.schema;
 
 import com.intuit.graphql.orchestrator.ServiceProvider;
+import com.intuit.graphql.orchestrator.cache.CacheControl;
 import com.intuit.graphql.orchestrator.federation.metadata.FederationMetadata;
+import com.intuit.graphql.orchestrator.metadata.CacheControlMetadata;
 import com.intuit.graphql.orchestrator.metadata.RenamedMetadata;
 import com.intuit.graphql.orchestrator.schema.transform.FieldResolverContext;
 import graphql.schema.FieldCoordinates;
@@ -10,6 +12,7 @@ import lombok.Getter;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static java.util.Objects.requireNonNull;
 
@@ -17,19 +20,23 @@ import static java.util.Objects.requireNonNull;
 public class ServiceMetadataImpl implements ServiceMetadata {
 
   private final Map<String, TypeMetadata> typeMetadataMap;
+  private final Set<String> typeNames;
   private final ServiceProvider serviceProvider;
   private final FederationMetadata federationMetadata;
   private final RenamedMetadata renamedMetadata;
+  private final CacheControlMetadata cacheControlMetadata;
   private final boolean hasInterfaceOrUnion;
   private final boolean hasFieldResolverDefinition;
 
   private ServiceMetadataImpl(Builder builder) {
     typeMetadataMap = builder.typeMetadataMap;
+    typeNames = builder.typeNames != null ? builder.typeNames : typeMetadataMap.keySet();
     serviceProvider = requireNonNull(builder.serviceProvider);
     federationMetadata = builder.federationMetadata;
     hasInterfaceOrUnion = builder.hasInterfaceOrUnion;
     hasFieldResolverDefinition = builder.hasFieldResolverDefinition;
     renamedMetadata = builder.renamedMetadata;
+    cacheControlMetadata = builder.cacheControlMetadata;
   }
 
   public static Builder newBuilder() {
@@ -39,17 +46,19 @@ public class ServiceMetadataImpl implements ServiceMetadata {
   public static Builder newBuilder(ServiceMetadataImpl copy) {
     Builder builder = new Builder();
     builder.typeMetadataMap = copy.getTypeMetadataMap();
+    builder.typeNames = copy.getTypeNames();
     builder.serviceProvider = copy.getServiceProvider();
     builder.federationMetadata = copy.getFederationMetadata();
     builder.hasInterfaceOrUnion = copy.isHasInterfaceOrUnion();
     builder.hasFieldResolverDefinition = copy.isHasFieldResolverDefinition();
     builder.renamedMetadata = copy.getRenamedMetadata();
+    builder.cacheControlMetadata = copy.getCacheControlMetadata();
     return builder;
   }
 
   @Override
   public boolean hasType(String typeName) {
-    return this.typeMetadataMap.containsKey(typeName);
+    return this.typeNames.contains(typeName);
   }
 
   @Override
@@ -105,12 +114,19 @@ public class ServiceMetadataImpl implements ServiceMetadata {
     return this.renamedMetadata;
   }
 
+  @Override
+  public CacheControl getRootFieldCacheControl(String fieldName) {
+    return this.cacheControlMetadata == null ? null : this.cacheControlMetadata.getCacheControl(fieldName);
+  }
+
   public static final class Builder {
 
     private Map<String, TypeMetadata> typeMetadataMap = new HashMap<>();
+    private Set<String> typeNames;
     private ServiceProvider serviceProvider;
     private FederationMetadata federationMetadata;
     private RenamedMetadata renamedMetadata;
+    private CacheControlMetadata cacheControlMetadata;
     private boolean hasInterfaceOrUnion;
     private boolean hasFieldResolverDefinition;
 
@@ -122,6 +138,15 @@ public class ServiceMetadataImpl implements ServiceMetadata {
       return this;
     }
 
+    /**
+     * The names of the types of the provider, for metadata without type metadata. Defaults to the keys of the type
+     * metadata map.
+     */
+    public Builder typeNames(Set<String> val) {
+      typeNames = val;
+      return this;
+    }
+
     public Builder serviceProvider(ServiceProvider val) {
       serviceProvider = val;
       return this;
@@ -136,6 +161,11 @@ public class ServiceMetadataImpl implements ServiceMetadata {
       return this;
     }
 
+    public Builder cacheControlMetadata(CacheControlMetadata val) {
+      this.cacheControlMetadata = val;
+      return this;
+    }
+
     public Builder hasInterfaceOrUnion(boolean val) {
       hasInterfaceOrUnion = val;
       return this;
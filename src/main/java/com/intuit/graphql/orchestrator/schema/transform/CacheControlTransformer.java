@@ -0,0 +1,94 @@
+package com.intuit.graphql.orchestrator.schema.transform;
+
+import static com.intuit.graphql.orchestrator.utils.XtextUtils.CACHE_CONTROL_DIRECTIVE;
+import static com.intuit.graphql.orchestrator.utils.XtextUtils.getDirectiveWithNameFromDefinition;
+
+import com.intuit.graphql.graphQL.Argument;
+import com.intuit.graphql.graphQL.Directive;
+import com.intuit.graphql.graphQL.FieldDefinition;
+import com.intuit.graphql.graphQL.ObjectTypeDefinition;
+import com.intuit.graphql.graphQL.ValueWithVariable;
+import com.intuit.graphql.orchestrator.cache.CacheControl;
+import com.intuit.graphql.orchestrator.cache.CacheControl.Scope;
+import com.intuit.graphql.orchestrator.exceptions.InvalidCacheControlException;
+import com.intuit.graphql.orchestrator.metadata.CacheControlMetadata;
+import com.intuit.graphql.orchestrator.schema.Operation;
+import com.intuit.graphql.orchestrator.utils.XtextUtils;
+import com.intuit.graphql.orchestrator.xtext.XtextGraph;
+import java.time.Duration;
+import java.util.Optional;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Collects the {@code @cacheControl(maxAge:, scope:)} directives on the root query fields of a service into its
+ * {@link CacheControlMetadata}. Fields without the directive or with a {@code maxAge} of 0 are not cached.
+ *
+ * <p>Runs after the {@link RenameTransformer}, so fields are keyed by the name they have in the stitched schema.
+ */
+public class CacheControlTransformer implements Transformer<XtextGraph, XtextGraph> {
+
+  static final String MAX_AGE_ARGUMENT_NAME = "maxAge";
+  static final String SCOPE_ARGUMENT_NAME = "scope";
+
+  @Override
+  public XtextGraph transform(XtextGraph xtextGraph) {
+    ObjectTypeDefinition queryType = xtextGraph.getOperationType(Operation.QUERY);
+    if (queryType == null) {
+      return xtextGraph;
+    }
+
+    CacheControlMetadata metadata = new CacheControlMetadata(xtextGraph.getServiceProvider());
+    for (FieldDefinition fieldDefinition : queryType.getFieldDefinition()) {
+      getDirectiveWithNameFromDefinition(fieldDefinition, CACHE_CONTROL_DIRECTIVE)
+          .map(directive -> toCacheControl(fieldDefinition, directive))
+          .ifPresent(cacheControl -> metadata.getCacheControlByRootFieldName()
+              .put(fieldDefinition.getName(), cacheControl));
+    }
+
+    return xtextGraph.transform(builder -> builder.cacheControlMetadata(metadata));
+  }
+
+  private CacheControl toCacheControl(FieldDefinition fieldDefinition, Directive directive) {
+    long maxAge = findArgument(directive, MAX_AGE_ARGUMENT_NAME)
+        .map(value -> parseMaxAge(fieldDefinition, value))
+        .orElse(0L);
+
+    Scope scope = findArgument(directive, SCOPE_ARGUMENT_NAME)
+        .map(value -> parseScope(fieldDefinition, value))
+        .orElse(Scope.PUBLIC);
+
+    return maxAge > 0 ? new CacheControl(Duration.ofSeconds(maxAge), scope) : null;
+  }
+
+  private Optional<ValueWithVariable> findArgument(Directive directive, String argumentName) {
+    return directive.getArguments().stream()
+        .filter(argument -> argument.getName().equals(argumentName))
+        .findFirst()
+        .map(Argument::getValueWithVariable);
+  }
+
+  private long parseMaxAge(FieldDefinition fieldDefinition, ValueWithVariable value) {
+    try {
+      long maxAge = Long.parseLong(value.getIntValue());
+      if (maxAge >= 0) {
+        return maxAge;
+      }
+    } catch (NumberFormatException e) {
+      // reported below
+    }
+    throw new InvalidCacheControlException(String.format(
+        "Invalid cacheControl directive for %s: maxAge must be a non-negative Int", fieldDefinition.getName()));
+  }
+
+  private Scope parseScope(FieldDefinition fieldDefinition, ValueWithVariable value) {
+    String scope = value.getEnumValue() != null ? value.getEnumValue()
+        : value.getStringValue() != null ? XtextUtils.parseString(value) : null;
+    for (Scope candidate : Scope.values()) {
+      if (StringUtils.equals(candidate.name(), scope)) {
+        return candidate;
+      }
+    }
+    throw new InvalidCacheControlException(String.format(
+        "Invalid cacheControl directive for %s: scope must be PUBLIC or PRIVATE", fieldDefinition.getName()));
+  }
+}
@@ -112,6 +112,16 @@ public class FieldResolverContext {
       return this;
     }
 
+    /**
+     * Replaces the fields of the parent type, which {@link #parentTypeDefinition(TypeDefinition)} otherwise takes
+     * from the parent type definition.
+     */
+    public FieldResolverContext.Builder parentTypeFields(Map<String, FieldDefinition> parentTypeFields) {
+      this.parentTypeFields.clear();
+      this.parentTypeFields.putAll(parentTypeFields);
+      return this;
+    }
+
     public FieldResolverContext.Builder requiresTypeNameInjection(boolean requiresTypeNameInjection) {
       this.requiresTypeNameInjection = requiresTypeNameInjection;
       return this;
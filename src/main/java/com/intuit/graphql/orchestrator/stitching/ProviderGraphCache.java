@@ -0,0 +1,148 @@
+package com.intuit.graphql.orchestrator.stitching;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.intuit.graphql.orchestrator.ServiceProvider;
+import com.intuit.graphql.orchestrator.xtext.XtextGraph;
+import com.intuit.graphql.orchestrator.xtext.XtextGraphCopier;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Caches the parsed and pre-merge transformed graphs of service providers across stitches, so that a re-stitch only
+ * parses and transforms the providers whose schema changed.
+ *
+ * <p>A graph is cached per namespace together with a fingerprint of everything the graph is built from: the namespace,
+ * the service type, the domain types and the content of the SDL files. A stitch is given a {@link XtextGraphCopier
+ * copy} of the cached graph, because merging a graph and the post-merge transformations modify it. The merge, the
+ * post-merge transformations and the runtime graph are built on every stitch.
+ *
+ * <p>Share a cache between the stitchers of successive versions of the same set of providers. Graphs of namespaces
+ * that are not part of a stitch are removed from the cache.
+ */
+@Slf4j
+public class ProviderGraphCache {
+
+  /**
+   * A disabled cache. Every graph is built on demand.
+   */
+  public static final ProviderGraphCache NONE = new ProviderGraphCache(false);
+
+  private final boolean enabled;
+  private final Map<String, CachedGraph> graphsByNamespace = new ConcurrentHashMap<>();
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+
+  public ProviderGraphCache() {
+    this(true);
+  }
+
+  private ProviderGraphCache(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Returns a copy of the cached graph of the provider if its schema did not change, or builds, caches and returns a
+   * copy of a new graph otherwise.
+   *
+   * @param serviceProvider the service provider
+   * @param decoratedProvider the service provider of the returned graph
+   * @param graphBuilder parses and transforms the graph of a provider
+   * @return the graph of the provider
+   */
+  XtextGraph get(ServiceProvider serviceProvider, ServiceProvider decoratedProvider,
+      Function<ServiceProvider, XtextGraph> graphBuilder) {
+    if (!enabled) {
+      return graphBuilder.apply(decoratedProvider);
+    }
+
+    String namespace = serviceProvider.getNameSpace();
+    String fingerprint = fingerprint(serviceProvider);
+    CachedGraph cachedGraph = graphsByNamespace.get(namespace);
+    if (cachedGraph != null && cachedGraph.fingerprint.equals(fingerprint)) {
+      hitCount.increment();
+      log.debug("Reusing graph of provider {}", namespace);
+    } else {
+      missCount.increment();
+      cachedGraph = new CachedGraph(fingerprint, graphBuilder.apply(decoratedProvider));
+      graphsByNamespace.put(namespace, cachedGraph);
+    }
+    return XtextGraphCopier.copy(cachedGraph.xtextGraph, decoratedProvider);
+  }
+
+  /**
+   * Removes the graphs of namespaces that are not in {@code namespaces}.
+   *
+   * @param namespaces the namespaces of the providers of a stitch
+   */
+  void retainAll(Collection<String> namespaces) {
+    graphsByNamespace.keySet().retainAll(namespaces);
+  }
+
+  /**
+   * @return the number of graphs served from the cache
+   */
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  /**
+   * @return the number of graphs built because the cache held no graph of the provider or the schema changed
+   */
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  public int size() {
+    return graphsByNamespace.size();
+  }
+
+  public void invalidateAll() {
+    graphsByNamespace.clear();
+  }
+
+  /**
+   * @return a hash of the namespace, service type, domain types and SDL files of the provider
+   */
+  static String fingerprint(ServiceProvider serviceProvider) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    putString(hasher, serviceProvider.getNameSpace());
+    putString(hasher, serviceProvider.getSeviceType().name());
+    hasher.putBoolean(serviceProvider.isFederationProvider());
+    for (String domainType : new TreeSet<>(serviceProvider.domainTypes())) {
+      putString(hasher, domainType);
+    }
+    for (Map.Entry<String, String> sdlFile : new TreeMap<>(serviceProvider.sdlFiles()).entrySet()) {
+      putString(hasher, sdlFile.getKey());
+      putString(hasher, sdlFile.getValue());
+    }
+    return hasher.hash().toString();
+  }
+
+  // length-prefixed, so that adjacent strings cannot run into each other
+  private static void putString(Hasher hasher, String value) {
+    hasher.putInt(value.length()).putString(value, StandardCharsets.UTF_8);
+  }
+
+  private static class CachedGraph {
+
+    private final String fingerprint;
+    private final XtextGraph xtextGraph;
+
+    CachedGraph(String fingerprint, XtextGraph xtextGraph) {
+      this.fingerprint = fingerprint;
+      this.xtextGraph = xtextGraph;
+    }
+  }
+}
@@ -0,0 +1,677 @@
+package com.intuit.graphql.orchestrator.stitching;
+
+import static com.intuit.graphql.orchestrator.batch.DataLoaderKeyUtil.createDataLoaderKey;
+import static com.intuit.graphql.orchestrator.federation.FieldSetUtils.toFieldSet;
+import static com.intuit.graphql.orchestrator.utils.GraphQLUtil.parser;
+import static com.intuit.graphql.orchestrator.xtext.DataFetcherContext.DataFetcherType.ENTITY_FETCHER;
+import static com.intuit.graphql.orchestrator.xtext.DataFetcherContext.DataFetcherType.RESOLVER_ARGUMENT;
+import static com.intuit.graphql.orchestrator.xtext.DataFetcherContext.DataFetcherType.RESOLVER_ON_FIELD_DEFINITION;
+import static com.intuit.graphql.orchestrator.xtext.DataFetcherContext.DataFetcherType.SERVICE;
+import static com.intuit.graphql.orchestrator.xtext.DataFetcherContext.DataFetcherType.STATIC;
+
+import com.intuit.graphql.orchestrator.ServiceProvider;
+import com.intuit.graphql.orchestrator.ServiceProvider.ServiceType;
+import com.intuit.graphql.orchestrator.cache.CacheControl;
+import com.intuit.graphql.orchestrator.datafetcher.AliasablePropertyDataFetcher;
+import com.intuit.graphql.orchestrator.federation.metadata.FederationMetadata;
+import com.intuit.graphql.orchestrator.federation.metadata.FederationMetadata.EntityExtensionMetadata;
+import com.intuit.graphql.orchestrator.federation.metadata.FederationMetadata.EntityMetadata;
+import com.intuit.graphql.orchestrator.federation.metadata.KeyDirectiveMetadata;
+import com.intuit.graphql.orchestrator.metadata.CacheControlMetadata;
+import com.intuit.graphql.orchestrator.metadata.RenamedMetadata;
+import com.intuit.graphql.orchestrator.schema.ServiceMetadata;
+import com.intuit.graphql.orchestrator.schema.ServiceMetadataImpl;
+import com.intuit.graphql.orchestrator.schema.transform.ExplicitTypeResolver;
+import com.intuit.graphql.orchestrator.utils.XtextToGraphQLJavaVisitor;
+import com.intuit.graphql.orchestrator.xtext.DataFetcherContext;
+import com.intuit.graphql.orchestrator.xtext.DataFetcherContext.DataFetcherType;
+import com.intuit.graphql.orchestrator.xtext.UnifiedXtextGraph;
+import com.intuit.graphql.orchestrator.xtext.XtextGraph;
+import graphql.language.AstPrinter;
+import graphql.language.DirectiveDefinition;
+import graphql.language.Document;
+import graphql.language.Field;
+import graphql.schema.DataFetcher;
+import graphql.schema.FieldCoordinates;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.TypeResolver;
+import graphql.schema.idl.DirectiveInfo;
+import graphql.schema.idl.FieldWiringEnvironment;
+import graphql.schema.idl.InterfaceWiringEnvironment;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.ScalarInfo;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import graphql.schema.idl.SchemaPrinter;
+import graphql.schema.idl.TypeDefinitionRegistry;
+import graphql.schema.idl.UnionWiringEnvironment;
+import graphql.schema.idl.WiringFactory;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A stitched {@link com.intuit.graphql.orchestrator.schema.RuntimeGraph} in a form that is written to a file and
+ * loaded on a later start, without parsing, validating and transforming the provider schemas again.
+ *
+ * <p>A snapshot holds the unified schema as SDL, the wiring of the code registry, the batch loaders and the {@link
+ * ServiceMetadata} of every provider. Data fetchers and batch loaders are described by the namespace and the types
+ * they resolve, and are created again by the stitcher that loads the snapshot. Each provider is recorded with the
+ * {@link ProviderGraphCache#fingerprint(ServiceProvider) fingerprint} of its schema; a snapshot is only {@link
+ * #isCurrent current} for providers with the same fingerprints.
+ *
+ * <p>The data fetchers and batch loaders of {@code @resolver} fields and arguments hold the Xtext definitions of the
+ * fields, so graphs using {@code @resolver} are not {@link #isSupported supported}.
+ */
+@Getter
+class RuntimeGraphSnapshot {
+
+  private static final int MAGIC = 0x47514c53;
+  static final int FORMAT_VERSION = 1;
+
+  private static final WiringFactory STITCHED_WIRING = new WiringFactory() {
+    @Override
+    public boolean providesTypeResolver(InterfaceWiringEnvironment environment) {
+      return true;
+    }
+
+    @Override
+    public TypeResolver getTypeResolver(InterfaceWiringEnvironment environment) {
+      return new ExplicitTypeResolver();
+    }
+
+    @Override
+    public boolean providesTypeResolver(UnionWiringEnvironment environment) {
+      return true;
+    }
+
+    @Override
+    public TypeResolver getTypeResolver(UnionWiringEnvironment environment) {
+      return new ExplicitTypeResolver();
+    }
+
+    @Override
+    public DataFetcher<?> getDefaultDataFetcher(FieldWiringEnvironment environment) {
+      return new AliasablePropertyDataFetcher(environment.getFieldDefinition().getName());
+    }
+  };
+
+  private final String configuration;
+  private final Map<String, String> fingerprintsByNamespace;
+  private final String schema;
+  private final List<DataFetcherDescriptor> dataFetchers;
+  private final List<BatchLoaderDescriptor> batchLoaders;
+  private final List<ServiceDescriptor> services;
+
+  private RuntimeGraphSnapshot(String configuration, Map<String, String> fingerprintsByNamespace, String schema,
+      List<DataFetcherDescriptor> dataFetchers, List<BatchLoaderDescriptor> batchLoaders,
+      List<ServiceDescriptor> services) {
+    this.configuration = configuration;
+    this.fingerprintsByNamespace = fingerprintsByNamespace;
+    this.schema = schema;
+    this.dataFetchers = dataFetchers;
+    this.batchLoaders = batchLoaders;
+    this.services = services;
+  }
+
+  /**
+   * @param mergedGraph the post-merged and post-transformed graph
+   * @return true if the data fetchers and batch loaders of the graph can be described by a snapshot
+   */
+  static boolean isSupported(UnifiedXtextGraph mergedGraph) {
+    return mergedGraph.getFieldResolverContexts().isEmpty()
+        && mergedGraph.getCodeRegistry().values().stream()
+        .map(DataFetcherContext::getDataFetcherType)
+        .noneMatch(type -> type == RESOLVER_ARGUMENT || type == RESOLVER_ON_FIELD_DEFINITION);
+  }
+
+  /**
+   * Describes a stitched graph.
+   *
+   * @param configuration identifies the transformations the graph was stitched with
+   * @param serviceProviders the service providers, as given to the stitcher
+   * @param providerGraphs the transformed graphs of the providers
+   * @param mergedGraph the post-merged and post-transformed graph, which must be {@link #isSupported supported}
+   * @param schema the executable schema of the graph
+   * @return the snapshot
+   */
+  static RuntimeGraphSnapshot of(String configuration, List<ServiceProvider> serviceProviders,
+      Collection<XtextGraph> providerGraphs, UnifiedXtextGraph mergedGraph, GraphQLSchema schema) {
+    Map<String, String> fingerprints = new TreeMap<>();
+    serviceProviders.forEach(serviceProvider ->
+        fingerprints.put(serviceProvider.getNameSpace(), ProviderGraphCache.fingerprint(serviceProvider)));
+
+    List<DataFetcherDescriptor> dataFetchers = new ArrayList<>();
+    mergedGraph.getCodeRegistry().forEach((fieldContext, dataFetcherContext) -> {
+      DataFetcherType type = dataFetcherContext.getDataFetcherType();
+      if (type == STATIC || type == SERVICE) {
+        dataFetchers.add(new DataFetcherDescriptor(fieldContext.getParentType(), fieldContext.getFieldName(), type,
+            dataFetcherContext.getNamespace(), dataFetcherContext.getServiceType(), null));
+      } else if (type == ENTITY_FETCHER && mergedGraph.getType(fieldContext.getParentType()) != null) {
+        dataFetchers.add(new DataFetcherDescriptor(fieldContext.getParentType(), fieldContext.getFieldName(), type,
+            dataFetcherContext.getNamespace(), dataFetcherContext.getServiceType(),
+            dataFetcherContext.getEntityExtensionMetadata().getTypeName()));
+      }
+    });
+
+    List<BatchLoaderDescriptor> batchLoaders = new ArrayList<>();
+    providerGraphs.stream()
+        .map(XtextGraph::getServiceProvider)
+        .filter(provider -> provider.getSeviceType() == ServiceType.GRAPHQL || provider.isFederationProvider())
+        .forEach(provider -> batchLoaders.add(
+            new BatchLoaderDescriptor(provider.getNameSpace(), provider.getNameSpace(), null, null)));
+    mergedGraph.getEntityExtensionMetadatas().forEach(metadata ->
+        metadata.getRequiredFieldsByFieldName().keySet().forEach(fieldName -> batchLoaders.add(
+            new BatchLoaderDescriptor(createDataLoaderKey(metadata.getTypeName(), fieldName),
+                metadata.getServiceProvider().getNameSpace(), metadata.getTypeName(), fieldName))));
+
+    List<ServiceDescriptor> services = providerGraphs.stream()
+        .map(ServiceDescriptor::from)
+        .collect(Collectors.toList());
+
+    return new RuntimeGraphSnapshot(configuration, fingerprints, printSchema(schema), dataFetchers, batchLoaders,
+        services);
+  }
+
+  /**
+   * @param configuration identifies the transformations of the stitcher
+   * @param serviceProviders the service providers, as given to the stitcher
+   * @return true if the snapshot was stitched with the same transformations from providers with the same schemas
+   */
+  boolean isCurrent(String configuration, List<ServiceProvider> serviceProviders) {
+    if (!this.configuration.equals(configuration) || fingerprintsByNamespace.size() != serviceProviders.size()) {
+      return false;
+    }
+    return serviceProviders.stream().allMatch(serviceProvider -> ProviderGraphCache.fingerprint(serviceProvider)
+        .equals(fingerprintsByNamespace.get(serviceProvider.getNameSpace())));
+  }
+
+  /**
+   * Builds the schema of the snapshot the way the stitcher builds the stitched schema: interfaces and unions resolve
+   * types by {@code __typename}, fields are fetched by {@link AliasablePropertyDataFetcher}, and scalars are mapped by
+   * {@link XtextToGraphQLJavaVisitor#getScalarType(String)}.
+   *
+   * @return a schema without the data fetchers of services
+   */
+  GraphQLSchema buildSchema() {
+    TypeDefinitionRegistry registry = new SchemaParser().parse(schema);
+    RuntimeWiring.Builder wiring = RuntimeWiring.newRuntimeWiring().wiringFactory(STITCHED_WIRING);
+    registry.scalars().keySet().stream()
+        .filter(name -> !ScalarInfo.isGraphqlSpecifiedScalar(name))
+        .map(XtextToGraphQLJavaVisitor::getScalarType)
+        .forEach(wiring::scalar);
+    return new SchemaGenerator().makeExecutableSchema(registry, wiring.build());
+  }
+
+  /**
+   * Prints a schema without the directive definitions of the specification, which the stitched schema may define more
+   * than once and which every parsed schema defines.
+   */
+  private static String printSchema(GraphQLSchema schema) {
+    String sdl = new SchemaPrinter(SchemaPrinter.Options.defaultOptions().includeSchemaDefinition(true)).print(schema);
+    Document document = parser.parseDocument(sdl);
+    Document.Builder printed = Document.newDocument();
+    document.getDefinitions().stream()
+        .filter(definition -> !(definition instanceof DirectiveDefinition
+            && DirectiveInfo.isGraphqlSpecifiedDirective(((DirectiveDefinition) definition).getName())))
+        .forEach(printed::definition);
+    return AstPrinter.printAst(printed.build());
+  }
+
+  /**
+   * Creates the metadata of the providers of the snapshot.
+   *
+   * @param serviceProvidersByNamespace the service providers, decorated as for a stitch
+   * @return the metadata by namespace
+   */
+  Map<String, ServiceMetadata> createServiceMetadata(Map<String, ServiceProvider> serviceProvidersByNamespace) {
+    Map<String, FederationMetadata> federationMetadataByNamespace = new HashMap<>();
+    Map<String, ServiceMetadata> serviceMetadataByNamespace = new HashMap<>();
+    for (ServiceDescriptor service : services) {
+      ServiceProvider serviceProvider = serviceProvidersByNamespace.get(service.namespace);
+      FederationMetadata federationMetadata = service.createFederationMetadata(serviceProvider);
+      if (federationMetadata != null) {
+        federationMetadataByNamespace.put(service.namespace, federationMetadata);
+      }
+      serviceMetadataByNamespace.put(service.namespace, ServiceMetadataImpl.newBuilder()
+          .serviceProvider(serviceProvider)
+          .typeNames(service.typeNames)
+          .federationMetadata(federationMetadata)
+          .hasInterfaceOrUnion(service.hasInterfaceOrUnion)
+          .renamedMetadata(service.createRenamedMetadata(serviceProvider))
+          .cacheControlMetadata(service.createCacheControlMetadata(serviceProvider))
+          .build());
+    }
+
+    // link the extensions to the entities they extend, like the federation post-merge transformation
+    for (ServiceDescriptor service : services) {
+      service.extensions.forEach(extension -> {
+        EntityExtensionMetadata extensionMetadata = federationMetadataByNamespace.get(service.namespace)
+            .getExtensionsByTypename().get(extension.typeName);
+        extensionMetadata.setBaseEntityMetadata(federationMetadataByNamespace.get(extension.baseNamespace)
+            .getEntityMetadataByName(extension.typeName));
+      });
+    }
+    return serviceMetadataByNamespace;
+  }
+
+  /**
+   * Writes the snapshot to a file. The file is replaced atomically, so a concurrent reader sees either the previous
+   * or the new snapshot.
+   *
+   * @param file the file
+   * @throws IOException if the file cannot be written
+   */
+  void writeTo(Path file) throws IOException {
+    Path directory = file.toAbsolutePath().getParent();
+    Files.createDirectories(directory);
+    Path tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+    try {
+      try (OutputStream outputStream = Files.newOutputStream(tempFile)) {
+        writeTo(outputStream);
+      }
+      Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  void writeTo(OutputStream outputStream) throws IOException {
+    GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream);
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(gzipOutputStream));
+    out.writeInt(MAGIC);
+    out.writeInt(FORMAT_VERSION);
+    writeString(out, configuration);
+    writeMap(out, fingerprintsByNamespace);
+    writeString(out, schema);
+    out.writeInt(dataFetchers.size());
+    for (DataFetcherDescriptor dataFetcher : dataFetchers) {
+      dataFetcher.writeTo(out);
+    }
+    out.writeInt(batchLoaders.size());
+    for (BatchLoaderDescriptor batchLoader : batchLoaders) {
+      batchLoader.writeTo(out);
+    }
+    out.writeInt(services.size());
+    for (ServiceDescriptor service : services) {
+      service.writeTo(out);
+    }
+    out.flush();
+    gzipOutputStream.finish();
+  }
+
+  /**
+   * Reads a snapshot from a file.
+   *
+   * @param file the file
+   * @return the snapshot
+   * @throws IOException if the file cannot be read or was written in another format
+   */
+  static RuntimeGraphSnapshot readFrom(Path file) throws IOException {
+    try (InputStream inputStream = Files.newInputStream(file)) {
+      return readFrom(inputStream);
+    }
+  }
+
+  static RuntimeGraphSnapshot readFrom(InputStream inputStream) throws IOException {
+    DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(inputStream)));
+    if (in.readInt() != MAGIC) {
+      throw new IOException("Not a runtime graph snapshot");
+    }
+    int formatVersion = in.readInt();
+    if (formatVersion != FORMAT_VERSION) {
+      throw new IOException("Unsupported runtime graph snapshot format " + formatVersion);
+    }
+    String configuration = readString(in);
+    Map<String, String> fingerprints = readMap(in, new TreeMap<>());
+    String schema = readString(in);
+    List<DataFetcherDescriptor> dataFetchers = readList(in, DataFetcherDescriptor::readFrom);
+    List<BatchLoaderDescriptor> batchLoaders = readList(in, BatchLoaderDescriptor::readFrom);
+    List<ServiceDescriptor> services = readList(in, ServiceDescriptor::readFrom);
+    return new RuntimeGraphSnapshot(configuration, fingerprints, schema, dataFetchers, batchLoaders, services);
+  }
+
+  /**
+   * A data fetcher of the code registry.
+   */
+  @Getter
+  @RequiredArgsConstructor
+  static class DataFetcherDescriptor {
+
+    private final String parentType;
+    private final String fieldName;
+    private final DataFetcherType dataFetcherType;
+    private final String namespace;
+    private final ServiceType serviceType;
+    private final String entityTypeName;
+
+    private void writeTo(DataOutputStream out) throws IOException {
+      writeString(out, parentType);
+      writeString(out, fieldName);
+      writeString(out, dataFetcherType.name());
+      writeString(out, namespace);
+      writeString(out, serviceType == null ? null : serviceType.name());
+      writeString(out, entityTypeName);
+    }
+
+    private static DataFetcherDescriptor readFrom(DataInputStream in) throws IOException {
+      String parentType = readString(in);
+      String fieldName = readString(in);
+      DataFetcherType dataFetcherType = DataFetcherType.valueOf(readString(in));
+      String namespace = readString(in);
+      String serviceType = readString(in);
+      return new DataFetcherDescriptor(parentType, fieldName, dataFetcherType, namespace,
+          serviceType == null ? null : ServiceType.valueOf(serviceType), readString(in));
+    }
+  }
+
+  /**
+   * A batch loader of a provider, or, with an entity type, the batch loader of a field of an entity extension.
+   */
+  @Getter
+  @RequiredArgsConstructor
+  static class BatchLoaderDescriptor {
+
+    private final String key;
+    private final String namespace;
+    private final String entityTypeName;
+    private final String fieldName;
+
+    boolean isEntityFetcher() {
+      return entityTypeName != null;
+    }
+
+    private void writeTo(DataOutputStream out) throws IOException {
+      writeString(out, key);
+      writeString(out, namespace);
+      writeString(out, entityTypeName);
+      writeString(out, fieldName);
+    }
+
+    private static BatchLoaderDescriptor readFrom(DataInputStream in) throws IOException {
+      return new BatchLoaderDescriptor(readString(in), readString(in), readString(in), readString(in));
+    }
+  }
+
+  /**
+   * The metadata of a provider.
+   */
+  @RequiredArgsConstructor
+  private static class ServiceDescriptor {
+
+    private final String namespace;
+    private final Set<String> typeNames;
+    private final boolean hasInterfaceOrUnion;
+    private final Map<String, String> originalTypeNamesByRenamedName;
+    private final Map<String, String> originalFieldNamesByRenamedName;
+    private final Map<String, CacheControl> cacheControlByRootFieldName;
+    private final boolean federation;
+    private final List<EntityDescriptor> entities;
+    private final List<EntityExtensionDescriptor> extensions;
+    private final Map<FieldCoordinates, String> requiresFieldSetByCoordinate;
+
+    private static ServiceDescriptor from(XtextGraph xtextGraph) {
+      RenamedMetadata renamedMetadata = xtextGraph.getRenamedMetadata();
+      CacheControlMetadata cacheControlMetadata = xtextGraph.getCacheControlMetadata();
+      FederationMetadata federationMetadata = xtextGraph.getFederationServiceMetadata();
+
+      List<EntityDescriptor> entities = new ArrayList<>();
+      List<EntityExtensionDescriptor> extensions = new ArrayList<>();
+      Map<FieldCoordinates, String> requiresFieldSets = new HashMap<>();
+      if (federationMetadata != null) {
+        federationMetadata.getEntitiesByTypename().values().forEach(entity -> entities.add(new EntityDescriptor(
+            entity.getTypeName(), printKeyDirectives(entity.getKeyDirectives()), new TreeSet<>(entity.getFields()))));
+        federationMetadata.getExtensionsByTypename().values().forEach(extension -> extensions.add(
+            new EntityExtensionDescriptor(extension.getTypeName(), printKeyDirectives(extension.getKeyDirectives()),
+                printFieldSets(extension.getRequiredFieldsByFieldName()),
+                extension.getBaseEntityMetadata().getFederationMetadata().getServiceProvider().getNameSpace())));
+        federationMetadata.getRequiresFieldSetByCoordinate()
+            .forEach((coordinates, fields) -> requiresFieldSets.put(coordinates, printFieldSet(fields)));
+      }
+
+      return new ServiceDescriptor(xtextGraph.getServiceProvider().getNameSpace(),
+          new TreeSet<>(xtextGraph.getTypeMetadatas().keySet()),
+          xtextGraph.isHasInterfaceOrUnion(),
+          renamedMetadata == null ? null : new TreeMap<>(renamedMetadata.getOriginalTypeNamesByRenamedName()),
+          renamedMetadata == null ? null : new TreeMap<>(renamedMetadata.getOriginalFieldNamesByRenamedName()),
+          new TreeMap<>(cacheControlMetadata.getCacheControlByRootFieldName()),
+          federationMetadata != null, entities, extensions, requiresFieldSets);
+    }
+
+    private RenamedMetadata createRenamedMetadata(ServiceProvider serviceProvider) {
+      if (originalTypeNamesByRenamedName == null) {
+        return null;
+      }
+      RenamedMetadata renamedMetadata = new RenamedMetadata(serviceProvider);
+      renamedMetadata.getOriginalTypeNamesByRenamedName().putAll(originalTypeNamesByRenamedName);
+      renamedMetadata.getOriginalFieldNamesByRenamedName().putAll(originalFieldNamesByRenamedName);
+      return renamedMetadata;
+    }
+
+    private CacheControlMetadata createCacheControlMetadata(ServiceProvider serviceProvider) {
+      CacheControlMetadata cacheControlMetadata = new CacheControlMetadata(serviceProvider);
+      cacheControlMetadata.getCacheControlByRootFieldName().putAll(cacheControlByRootFieldName);
+      return cacheControlMetadata;
+    }
+
+    private FederationMetadata createFederationMetadata(ServiceProvider serviceProvider) {
+      if (!federation) {
+        return null;
+      }
+      FederationMetadata federationMetadata = new FederationMetadata(serviceProvider);
+      entities.forEach(entity -> federationMetadata.addEntity(EntityMetadata.builder()
+          .typeName(entity.typeName)
+          .keyDirectives(parseKeyDirectives(entity.keyFieldSets))
+          .fields(new HashSet<>(entity.fields))
+          .federationMetadata(federationMetadata)
+          .build()));
+      extensions.forEach(extension -> federationMetadata.addEntityExtension(EntityExtensionMetadata.builder()
+          .typeName(extension.typeName)
+          .keyDirectives(parseKeyDirectives(extension.keyFieldSets))
+          .requiredFieldsByFieldName(parseFieldSets(extension.requiredFieldSetsByFieldName))
+          .federationMetadata(federationMetadata)
+          .build()));
+      requiresFieldSetByCoordinate.forEach((coordinates, fieldSet) ->
+          federationMetadata.getRequiresFieldSetByCoordinate().put(coordinates, toFieldSet(fieldSet)));
+      return federationMetadata;
+    }
+
+    private void writeTo(DataOutputStream out) throws IOException {
+      writeString(out, namespace);
+      writeStrings(out, typeNames);
+      out.writeBoolean(hasInterfaceOrUnion);
+      out.writeBoolean(originalTypeNamesByRenamedName != null);
+      if (originalTypeNamesByRenamedName != null) {
+        writeMap(out, originalTypeNamesByRenamedName);
+        writeMap(out, originalFieldNamesByRenamedName);
+      }
+      out.writeInt(cacheControlByRootFieldName.size());
+      for (Map.Entry<String, CacheControl> entry : cacheControlByRootFieldName.entrySet()) {
+        writeString(out, entry.getKey());
+        out.writeLong(entry.getValue().getMaxAge().getSeconds());
+        writeString(out, entry.getValue().getScope().name());
+      }
+      out.writeBoolean(federation);
+      out.writeInt(entities.size());
+      for (EntityDescriptor entity : entities) {
+        writeString(out, entity.typeName);
+        writeStrings(out, entity.keyFieldSets);
+        writeStrings(out, entity.fields);
+      }
+      out.writeInt(extensions.size());
+      for (EntityExtensionDescriptor extension : extensions) {
+        writeString(out, extension.typeName);
+        writeStrings(out, extension.keyFieldSets);
+        writeMap(out, extension.requiredFieldSetsByFieldName);
+        writeString(out, extension.baseNamespace);
+      }
+      out.writeInt(requiresFieldSetByCoordinate.size());
+      for (Map.Entry<FieldCoordinates, String> entry : requiresFieldSetByCoordinate.entrySet()) {
+        writeString(out, entry.getKey().getTypeName());
+        writeString(out, entry.getKey().getFieldName());
+        writeString(out, entry.getValue());
+      }
+    }
+
+    private static ServiceDescriptor readFrom(DataInputStream in) throws IOException {
+      String namespace = readString(in);
+      Set<String> typeNames = readStrings(in, new TreeSet<>());
+      boolean hasInterfaceOrUnion = in.readBoolean();
+      Map<String, String> originalTypeNames = null;
+      Map<String, String> originalFieldNames = null;
+      if (in.readBoolean()) {
+        originalTypeNames = readMap(in, new TreeMap<>());
+        originalFieldNames = readMap(in, new TreeMap<>());
+      }
+      Map<String, CacheControl> cacheControls = new TreeMap<>();
+      for (int i = in.readInt(); i > 0; i--) {
+        cacheControls.put(readString(in),
+            new CacheControl(Duration.ofSeconds(in.readLong()), CacheControl.Scope.valueOf(readString(in))));
+      }
+      boolean federation = in.readBoolean();
+      List<EntityDescriptor> entities = readList(in, input -> new EntityDescriptor(readString(input),
+          readStrings(input, new ArrayList<>()), readStrings(input, new TreeSet<>())));
+      List<EntityExtensionDescriptor> extensions = readList(in, input -> new EntityExtensionDescriptor(
+          readString(input), readStrings(input, new ArrayList<>()), readMap(input, new TreeMap<>()), readString(input)));
+      Map<FieldCoordinates, String> requiresFieldSets = new HashMap<>();
+      for (int i = in.readInt(); i > 0; i--) {
+        requiresFieldSets.put(FieldCoordinates.coordinates(readString(in), readString(in)), readString(in));
+      }
+      return new ServiceDescriptor(namespace, typeNames, hasInterfaceOrUnion, originalTypeNames, originalFieldNames,
+          cacheControls, federation, entities, extensions, requiresFieldSets);
+    }
+  }
+
+  @RequiredArgsConstructor
+  private static class EntityDescriptor {
+
+    private final String typeName;
+    private final List<String> keyFieldSets;
+    private final Set<String> fields;
+  }
+
+  @RequiredArgsConstructor
+  private static class EntityExtensionDescriptor {
+
+    private final String typeName;
+    private final List<String> keyFieldSets;
+    private final Map<String, String> requiredFieldSetsByFieldName;
+    private final String baseNamespace;
+  }
+
+  private static String printFieldSet(Set<Field> fields) {
+    return fields.stream().map(AstPrinter::printAstCompact).collect(Collectors.joining(" "));
+  }
+
+  private static Map<String, String> printFieldSets(Map<String, Set<Field>> fieldSetsByFieldName) {
+    Map<String, String> printed = new TreeMap<>();
+    fieldSetsByFieldName.forEach((fieldName, fields) -> printed.put(fieldName, printFieldSet(fields)));
+    return printed;
+  }
+
+  private static Map<String, Set<Field>> parseFieldSets(Map<String, String> fieldSetsByFieldName) {
+    Map<String, Set<Field>> parsed = new HashMap<>();
+    fieldSetsByFieldName.forEach((fieldName, fieldSet) -> parsed.put(fieldName, toFieldSet(fieldSet)));
+    return parsed;
+  }
+
+  private static List<String> printKeyDirectives(List<KeyDirectiveMetadata> keyDirectives) {
+    return keyDirectives.stream()
+        .map(KeyDirectiveMetadata::getFieldSet)
+        .map(RuntimeGraphSnapshot::printFieldSet)
+        .collect(Collectors.toList());
+  }
+
+  private static List<KeyDirectiveMetadata> parseKeyDirectives(List<String> keyFieldSets) {
+    return keyFieldSets.stream()
+        .map(fieldSet -> new KeyDirectiveMetadata(toFieldSet(fieldSet)))
+        .collect(Collectors.toList());
+  }
+
+  private interface Reader<T> {
+
+    T read(DataInputStream in) throws IOException;
+  }
+
+  private static <T> List<T> readList(DataInputStream in, Reader<T> reader) throws IOException {
+    int size = in.readInt();
+    List<T> list = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      list.add(reader.read(in));
+    }
+    return list;
+  }
+
+  private static void writeStrings(DataOutputStream out, Collection<String> strings) throws IOException {
+    out.writeInt(strings.size());
+    for (String string : strings) {
+      writeString(out, string);
+    }
+  }
+
+  private static <C extends Collection<String>> C readStrings(DataInputStream in, C strings) throws IOException {
+    for (int i = in.readInt(); i > 0; i--) {
+      strings.add(readString(in));
+    }
+    return strings;
+  }
+
+  private static void writeMap(DataOutputStream out, Map<String, String> map) throws IOException {
+    out.writeInt(map.size());
+    for (Map.Entry<String, String> entry : map.entrySet()) {
+      writeString(out, entry.getKey());
+      writeString(out, entry.getValue());
+    }
+  }
+
+  private static Map<String, String> readMap(DataInputStream in, Map<String, String> map) throws IOException {
+    for (int i = in.readInt(); i > 0; i--) {
+      map.put(readString(in), readString(in));
+    }
+    return map;
+  }
+
+  // length-prefixed UTF-8, since DataOutput#writeUTF is limited to 64 KB; -1 is null
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -5,10 +5,17 @@ import static java.util.Objects.requireNonNull;
 import com.intuit.graphql.orchestrator.ServiceProvider;
 import com.intuit.graphql.orchestrator.VirtualOrchestratorProvider;
 import com.intuit.graphql.orchestrator.batch.BatchLoaderExecutionHooks;
+import com.intuit.graphql.orchestrator.batch.DownstreamQueryPlanCache;
+import com.intuit.graphql.orchestrator.batch.FieldResolverQueryMode;
+import com.intuit.graphql.orchestrator.bulkhead.Bulkheads;
+import com.intuit.graphql.orchestrator.cache.EntityResultCache;
+import com.intuit.graphql.orchestrator.cache.RootFieldResultCache;
+import com.intuit.graphql.orchestrator.coalescing.QueryCoalescer;
 import com.intuit.graphql.orchestrator.schema.RuntimeGraph;
 import graphql.VisibleForTesting;
 import graphql.execution.DataFetcherResult;
 import graphql.schema.DataFetchingEnvironment;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -19,6 +26,15 @@ public class SchemaStitcher {
 
   private final List<ServiceProvider> serviceProviders;
   private final BatchLoaderExecutionHooks<DataFetchingEnvironment, DataFetcherResult<Object>> batchLoaderHooks;
+  private final DownstreamQueryPlanCache queryPlanCache;
+  private final Bulkheads bulkheads;
+  private final QueryCoalescer queryCoalescer;
+  private final RootFieldResultCache resultCache;
+  private final EntityResultCache entityCache;
+  private final FieldResolverQueryMode fieldResolverQueryMode;
+  private final int stitchingParallelism;
+  private final ProviderGraphCache providerGraphCache;
+  private final Path snapshotFile;
 
   @VisibleForTesting
   Stitcher stitcher;
@@ -42,9 +58,29 @@ public class SchemaStitcher {
   private SchemaStitcher(Builder builder) {
     this.serviceProviders = requireNonNull(builder.serviceProviders);
     this.batchLoaderHooks = builder.batchLoaderHooks;
-    this.stitcher = XtextStitcher.newBuilder()
+    this.queryPlanCache = builder.queryPlanCache;
+    this.bulkheads = builder.bulkheads;
+    this.queryCoalescer = builder.queryCoalescer;
+    this.resultCache = builder.resultCache;
+    this.entityCache = builder.entityCache;
+    this.fieldResolverQueryMode = builder.fieldResolverQueryMode;
+    this.stitchingParallelism = builder.stitchingParallelism;
+    this.providerGraphCache = builder.providerGraphCache;
+    this.snapshotFile = builder.snapshotFile;
+    XtextStitcher.Builder stitcherBuilder = XtextStitcher.newBuilder()
         .batchLoaderHooks(batchLoaderHooks)
-        .build();
+        .queryPlanCache(queryPlanCache)
+        .bulkheads(bulkheads)
+        .queryCoalescer(queryCoalescer)
+        .resultCache(resultCache)
+        .entityCache(entityCache)
+        .fieldResolverQueryMode(fieldResolverQueryMode)
+        .stitchingParallelism(stitchingParallelism)
+        .providerGraphCache(providerGraphCache);
+    if (snapshotFile != null) {
+      stitcherBuilder.snapshotFile(snapshotFile);
+    }
+    this.stitcher = stitcherBuilder.build();
   }
 
   public static Builder newBuilder() {
@@ -55,6 +91,15 @@ public class SchemaStitcher {
 
     private BatchLoaderExecutionHooks<DataFetchingEnvironment, DataFetcherResult<Object>> batchLoaderHooks = BatchLoaderExecutionHooks.DEFAULT_HOOKS;
     private List<ServiceProvider> serviceProviders = new ArrayList<>(Arrays.asList(VirtualOrchestratorProvider.INSTANCE));
+    private DownstreamQueryPlanCache queryPlanCache = DownstreamQueryPlanCache.NONE;
+    private Bulkheads bulkheads = Bulkheads.NONE;
+    private QueryCoalescer queryCoalescer = QueryCoalescer.NONE;
+    private RootFieldResultCache resultCache = RootFieldResultCache.NONE;
+    private EntityResultCache entityCache = EntityResultCache.NONE;
+    private FieldResolverQueryMode fieldResolverQueryMode = FieldResolverQueryMode.INLINE;
+    private int stitchingParallelism = 1;
+    private ProviderGraphCache providerGraphCache = ProviderGraphCache.NONE;
+    private Path snapshotFile;
 
     private Builder() {
     }
@@ -75,6 +120,119 @@ public class SchemaStitcher {
       return this;
     }
 
+    /**
+     * Caches the downstream queries built by the GraphQL batch loaders. Disabled by default. Plans are kept per
+     * stitched schema, so the same cache may be passed to the stitchers of later runtime graphs.
+     *
+     * @param queryPlanCache the cache shared by all GraphQL batch loaders
+     * @return this builder
+     */
+    public Builder queryPlanCache(final DownstreamQueryPlanCache queryPlanCache) {
+      this.queryPlanCache = requireNonNull(queryPlanCache);
+      return this;
+    }
+
+    /**
+     * Limits the number of concurrent downstream calls per service provider namespace. Disabled by default.
+     *
+     * @param bulkheads the bulkheads of the service providers
+     * @return this builder
+     */
+    public Builder bulkheads(final Bulkheads bulkheads) {
+      this.bulkheads = requireNonNull(bulkheads);
+      return this;
+    }
+
+    /**
+     * Lets concurrent, identical downstream queries share one call. Disabled by default.
+     *
+     * @param queryCoalescer the coalescer shared by all service providers
+     * @return this builder
+     */
+    public Builder queryCoalescer(final QueryCoalescer queryCoalescer) {
+      this.queryCoalescer = requireNonNull(queryCoalescer);
+      return this;
+    }
+
+    /**
+     * Serves results of root query fields declaring {@code @cacheControl} from a cache. Disabled by default. Results
+     * are kept per stitched schema, like the {@link #queryPlanCache(DownstreamQueryPlanCache) query plans}.
+     *
+     * @param resultCache the cache shared by all GraphQL batch loaders
+     * @return this builder
+     */
+    public Builder resultCache(final RootFieldResultCache resultCache) {
+      this.resultCache = requireNonNull(resultCache);
+      return this;
+    }
+
+    /**
+     * Serves fields of federated entity extensions from a cache. Disabled by default. Entities are kept per stitched
+     * schema, like the {@link #queryPlanCache(DownstreamQueryPlanCache) query plans}.
+     *
+     * @param entityCache the cache of the configured entity extension fields
+     * @return this builder
+     */
+    public Builder entityCache(final EntityResultCache entityCache) {
+      this.entityCache = requireNonNull(entityCache);
+      return this;
+    }
+
+    /**
+     * Sets how the arguments of {@code @resolver} fields are passed to the target services. Defaults to {@link
+     * FieldResolverQueryMode#INLINE}.
+     *
+     * @param fieldResolverQueryMode the field resolver query mode
+     * @return this builder
+     */
+    public Builder fieldResolverQueryMode(final FieldResolverQueryMode fieldResolverQueryMode) {
+      this.fieldResolverQueryMode = requireNonNull(fieldResolverQueryMode);
+      return this;
+    }
+
+    /**
+     * Parses and transforms the graphs of the service providers on up to the given number of threads. The graphs are
+     * independent until they are merged, which happens in the order of the providers either way. Defaults to 1, i.e.
+     * one provider at a time on the calling thread.
+     *
+     * @param stitchingParallelism the maximum number of providers processed concurrently
+     * @return this builder
+     */
+    public Builder stitchingParallelism(final int stitchingParallelism) {
+      if (stitchingParallelism < 1) {
+        throw new IllegalArgumentException("stitchingParallelism must be at least 1");
+      }
+      this.stitchingParallelism = stitchingParallelism;
+      return this;
+    }
+
+    /**
+     * Reuses the parsed and transformed graphs of the providers whose schema did not change since an earlier stitch
+     * with the same cache. A schema stitcher stitches once, so share the cache with the stitcher of the next version of
+     * the providers to re-stitch only what changed. Disabled by default.
+     *
+     * @param providerGraphCache the cache of provider graphs
+     * @return this builder
+     */
+    public Builder providerGraphCache(final ProviderGraphCache providerGraphCache) {
+      this.providerGraphCache = requireNonNull(providerGraphCache);
+      return this;
+    }
+
+    /**
+     * Loads the runtime graph from a snapshot file written by an earlier stitch of the same provider schemas, instead
+     * of parsing, validating and transforming the schemas. If the file does not exist, cannot be read or was written
+     * for other schemas, the providers are stitched and the file is replaced by a snapshot of the new graph. Graphs
+     * with {@code @resolver} fields or arguments are always stitched. Disabled by default.
+     *
+     * @param snapshotFile the snapshot file
+     * @return this builder
+     */
+    public Builder snapshotFile(final Path snapshotFile) {
+      this.snapshotFile = requireNonNull(snapshotFile);
+      return this;
+    }
+
     public SchemaStitcher build() {
       return new SchemaStitcher(this);
     }
@@ -8,12 +8,19 @@ import com.intuit.graphql.orchestrator.batch.BatchLoaderExecutionHooks;
 import com.intuit.graphql.orchestrator.batch.DataLoaderKeyUtil;
 import com.intuit.graphql.orchestrator.batch.EntityFetcherBatchLoader;
 import com.intuit.graphql.orchestrator.batch.FieldResolverBatchLoader;
+import com.intuit.graphql.orchestrator.batch.FieldResolverQueryMode;
+import com.intuit.graphql.orchestrator.batch.DownstreamQueryPlanCache;
 import com.intuit.graphql.orchestrator.batch.GraphQLServiceBatchLoader;
+import com.intuit.graphql.orchestrator.bulkhead.Bulkheads;
+import com.intuit.graphql.orchestrator.cache.EntityResultCache;
+import com.intuit.graphql.orchestrator.cache.RootFieldResultCache;
+import com.intuit.graphql.orchestrator.coalescing.QueryCoalescer;
 import com.intuit.graphql.orchestrator.datafetcher.FieldResolverDirectiveDataFetcher;
 import com.intuit.graphql.orchestrator.datafetcher.ResolverArgumentDataFetcher;
 import com.intuit.graphql.orchestrator.datafetcher.RestDataFetcher;
 import com.intuit.graphql.orchestrator.datafetcher.ServiceDataFetcher;
 import com.intuit.graphql.orchestrator.federation.EntityDataFetcher;
+import com.intuit.graphql.orchestrator.federation.metadata.FederationMetadata.EntityExtensionMetadata;
 import com.intuit.graphql.orchestrator.resolverdirective.ResolverArgumentDirective;
 import com.intuit.graphql.orchestrator.resolverdirective.ResolverArgumentQueryBuilder;
 import com.intuit.graphql.orchestrator.schema.Operation;
@@ -22,6 +29,7 @@ import com.intuit.graphql.orchestrator.schema.ServiceMetadata;
 import com.intuit.graphql.orchestrator.schema.ServiceMetadataImpl;
 import com.intuit.graphql.orchestrator.schema.fold.UnifiedXtextGraphFolder;
 import com.intuit.graphql.orchestrator.schema.transform.AllTypesTransformer;
+import com.intuit.graphql.orchestrator.schema.transform.CacheControlTransformer;
 import com.intuit.graphql.orchestrator.schema.transform.DirectivesTransformer;
 import com.intuit.graphql.orchestrator.schema.transform.DomainTypesTransformer;
 import com.intuit.graphql.orchestrator.schema.transform.FederationTransformerPostMerge;
@@ -39,27 +47,45 @@ import com.intuit.graphql.orchestrator.xtext.DataFetcherContext.DataFetcherType;
 import com.intuit.graphql.orchestrator.xtext.UnifiedXtextGraph;
 import com.intuit.graphql.orchestrator.xtext.XtextGraph;
 import com.intuit.graphql.orchestrator.xtext.XtextGraphBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import graphql.execution.DataFetcherResult;
 import graphql.language.OperationDefinition;
+import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
 import graphql.schema.FieldCoordinates;
 import graphql.schema.GraphQLArgument;
 import graphql.schema.GraphQLCodeRegistry;
 import graphql.schema.GraphQLDirective;
+import graphql.schema.GraphQLNamedType;
 import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLSchema;
 import graphql.schema.GraphQLType;
 import graphql.schema.StaticDataFetcher;
+import graphql.schema.idl.DirectiveInfo;
+import lombok.extern.slf4j.Slf4j;
 import org.dataloader.BatchLoader;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.intuit.graphql.orchestrator.batch.DataLoaderKeyUtil.createDataLoaderKey;
 import static com.intuit.graphql.orchestrator.resolverdirective.FieldResolverDirectiveUtil.RESOLVER_ARGUMENT_INPUT_NAME;
@@ -76,18 +102,42 @@ import static java.util.Objects.requireNonNull;
 /**
  * The type Xtext stitcher.
  */
+@Slf4j
 public class XtextStitcher implements Stitcher {
 
   private static final ResolverArgumentQueryBuilder queryBuilder = new ResolverArgumentQueryBuilder();
 
+  private static final ThreadFactory STITCHING_THREAD_FACTORY = new ThreadFactoryBuilder()
+      .setNameFormat("graphql-orchestrator-stitching-%d")
+      .setDaemon(true)
+      .build();
+
   private final List<Transformer<XtextGraph, XtextGraph>> preMergeTransformers;
   private final List<Transformer<UnifiedXtextGraph, UnifiedXtextGraph>> postMergeTransformers;
   private final BatchLoaderExecutionHooks<DataFetchingEnvironment, DataFetcherResult<Object>> batchLoaderHooks;
+  private final DownstreamQueryPlanCache queryPlanCache;
+  private final Bulkheads bulkheads;
+  private final QueryCoalescer queryCoalescer;
+  private final RootFieldResultCache resultCache;
+  private final EntityResultCache entityCache;
+  private final FieldResolverQueryMode fieldResolverQueryMode;
+  private final int stitchingParallelism;
+  private final ProviderGraphCache providerGraphCache;
+  private final Path snapshotFile;
 
   private XtextStitcher(final Builder builder) {
     preMergeTransformers = builder.preMergeTransformers;
     postMergeTransformers = builder.postMergeTransformers;
     batchLoaderHooks = builder.batchLoaderHooks;
+    queryPlanCache = builder.queryPlanCache;
+    bulkheads = builder.bulkheads;
+    queryCoalescer = builder.queryCoalescer;
+    resultCache = builder.resultCache;
+    entityCache = builder.entityCache;
+    fieldResolverQueryMode = builder.fieldResolverQueryMode;
+    stitchingParallelism = builder.stitchingParallelism;
+    providerGraphCache = builder.providerGraphCache;
+    snapshotFile = builder.snapshotFile;
   }
 
   public static Builder newBuilder() {
@@ -98,17 +148,24 @@ public class XtextStitcher implements Stitcher {
    * Uses Graph Transformers to transform and enrich provider schemas. These transformed graphs are stitched into a
    * single graph, which is then used to create an executable RuntimeGraph.
    *
+   * <p>With a snapshot file, the runtime graph is loaded from the snapshot if it was written for the same provider
+   * schemas, and a stitched runtime graph is written to the snapshot otherwise.
+   *
    * @param serviceProviders the service contexts
    * @return runtime graph
    */
   @Override
   public RuntimeGraph stitch(List<ServiceProvider> serviceProviders) {
 
+    if (snapshotFile != null) {
+      RuntimeGraph snapshotGraph = loadSnapshot(serviceProviders);
+      if (snapshotGraph != null) {
+        return snapshotGraph;
+      }
+    }
+
     //Transform Graphs
-    Map<String, XtextGraph> xtextGraphMap = serviceProviders.stream()
-        .map(XtextGraphBuilder::build)
-        .map(xtextGraph -> transform(xtextGraph, preMergeTransformers))
-        .peek(this::validateGraph)
+    Map<String, XtextGraph> xtextGraphMap = buildProviderGraphs(serviceProviders).stream()
         .collect(Collectors.toMap(graph -> graph.getServiceProvider().getNameSpace(), Function.identity(),
             (g1, g2) -> {
               throw new StitchingException(
@@ -134,6 +191,7 @@ public class XtextStitcher implements Stitcher {
           .builder()
           .fieldResolverContext(fieldResolverContext)
           .serviceMetadata(serviceMetadataMap.get(fieldResolverContext.getTargetServiceNamespace()))
+          .queryMode(fieldResolverQueryMode)
           .build();
 
       String batchLoaderKey = DataLoaderKeyUtil.createDataLoaderKeyFrom(fieldResolverContext);
@@ -143,11 +201,8 @@ public class XtextStitcher implements Stitcher {
 
     stitchedGraph.getEntityExtensionMetadatas().forEach(metadata ->
       metadata.getRequiredFieldsByFieldName().forEach((fieldName, fields) -> {
-        EntityFetcherBatchLoader entityFetcherBatchLoader = new EntityFetcherBatchLoader(
-                metadata,
-                serviceMetadataMap.get(metadata.getServiceProvider().getNameSpace()),
-                fieldName
-        );
+        EntityFetcherBatchLoader entityFetcherBatchLoader = createEntityFetcherBatchLoader(metadata,
+            serviceMetadataMap.get(metadata.getServiceProvider().getNameSpace()), fieldName);
 
         String batchLoaderKey = createDataLoaderKey(metadata.getTypeName(), fieldName);
         batchLoaders.put(batchLoaderKey, entityFetcherBatchLoader);
@@ -166,9 +221,189 @@ public class XtextStitcher implements Stitcher {
 
     runtimeGraph.getExecutableSchema();
 
+    if (snapshotFile != null) {
+      writeSnapshot(serviceProviders, xtextGraphMap.values(), stitchedTransformedGraph, runtimeGraph);
+    }
+
+    return runtimeGraph;
+  }
+
+  /**
+   * Loads the runtime graph from the snapshot file.
+   *
+   * @return the runtime graph, or null if there is no snapshot, it was written for other provider schemas or cannot be
+   *     loaded
+   */
+  private RuntimeGraph loadSnapshot(List<ServiceProvider> serviceProviders) {
+    if (!Files.exists(snapshotFile)) {
+      return null;
+    }
+    long start = System.nanoTime();
+    try {
+      RuntimeGraphSnapshot snapshot = RuntimeGraphSnapshot.readFrom(snapshotFile);
+      if (!snapshot.isCurrent(snapshotConfiguration(), serviceProviders)) {
+        log.info("Runtime graph snapshot {} is stale, stitching the provider schemas", snapshotFile);
+        return null;
+      }
+      RuntimeGraph runtimeGraph = restore(snapshot, serviceProviders);
+      log.info("Loaded runtime graph snapshot {} in {} ms", snapshotFile,
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+      return runtimeGraph;
+    } catch (IOException | RuntimeException e) {
+      log.warn("Failed to load runtime graph snapshot {}, stitching the provider schemas", snapshotFile, e);
+      return null;
+    }
+  }
+
+  private RuntimeGraph restore(RuntimeGraphSnapshot snapshot, List<ServiceProvider> serviceProviders) {
+    Map<String, ServiceProvider> decoratedProviders = serviceProviders.stream()
+        .collect(Collectors.toMap(ServiceProvider::getNameSpace, this::decorate));
+    Map<String, ServiceMetadata> serviceMetadataMap = snapshot.createServiceMetadata(decoratedProviders);
+
+    RuntimeGraph.Builder runtimeGraphBuilder = RuntimeGraph.newBuilder();
+    snapshot.getBatchLoaders().forEach(descriptor -> {
+      ServiceMetadata serviceMetadata = serviceMetadataMap.get(descriptor.getNamespace());
+      runtimeGraphBuilder.batchLoader(descriptor.getKey(), descriptor.isEntityFetcher()
+          ? createEntityFetcherBatchLoader(serviceMetadata.getFederationServiceMetadata().getExtensionsByTypename()
+          .get(descriptor.getEntityTypeName()), serviceMetadata, descriptor.getFieldName())
+          : createServiceBatchLoader(serviceMetadata));
+    });
+
+    GraphQLSchema schema = snapshot.buildSchema();
+    GraphQLCodeRegistry.Builder codeRegistryBuilder = GraphQLCodeRegistry.newCodeRegistry(schema.getCodeRegistry());
+    snapshot.getDataFetchers().forEach(descriptor -> {
+      FieldCoordinates coordinates = coordinates(descriptor.getParentType(), descriptor.getFieldName());
+      if (descriptor.getDataFetcherType() == STATIC) {
+        codeRegistryBuilder.dataFetcher(coordinates, new StaticDataFetcher(Collections.emptyMap()));
+      } else if (descriptor.getDataFetcherType() == SERVICE) {
+        codeRegistryBuilder.dataFetcher(coordinates, createServiceDataFetcher(descriptor.getServiceType(),
+            serviceMetadataMap.get(descriptor.getNamespace())));
+      } else if (descriptor.getDataFetcherType() == ENTITY_FETCHER) {
+        codeRegistryBuilder.dataFetcher(coordinates, new EntityDataFetcher(descriptor.getEntityTypeName(),
+            descriptor.getNamespace(), descriptor.getServiceType()));
+      }
+    });
+
+    final Map<Operation, GraphQLObjectType> operationMap = new EnumMap<>(Operation.class);
+    operationMap.put(Operation.QUERY, schema.getQueryType());
+    if (schema.getMutationType() != null) {
+      operationMap.put(Operation.MUTATION, schema.getMutationType());
+    }
+    if (schema.getSubscriptionType() != null) {
+      operationMap.put(Operation.SUBSCRIPTION, schema.getSubscriptionType());
+    }
+    Map<String, GraphQLType> types = schema.getAllTypesAsList().stream()
+        .filter(type -> !type.getName().startsWith("__"))
+        .collect(Collectors.toMap(GraphQLNamedType::getName, Function.identity()));
+
+    RuntimeGraph runtimeGraph = runtimeGraphBuilder
+        .operationMap(operationMap)
+        .objectTypes(types)
+        .additionalTypes(types)
+        .additionalDirectives(schema.getDirectives().stream()
+            .filter(directive -> !DirectiveInfo.isGraphqlSpecifiedDirective(directive))
+            .collect(Collectors.toSet()))
+        .codeRegistry(codeRegistryBuilder)
+        .build();
+
+    runtimeGraph.getExecutableSchema();
+
     return runtimeGraph;
   }
 
+  private void writeSnapshot(List<ServiceProvider> serviceProviders, Collection<XtextGraph> providerGraphs,
+      UnifiedXtextGraph mergedGraph, RuntimeGraph runtimeGraph) {
+    if (!RuntimeGraphSnapshot.isSupported(mergedGraph)) {
+      log.info("Not writing runtime graph snapshot {}, graphs with @resolver fields or arguments are not supported",
+          snapshotFile);
+      return;
+    }
+    try {
+      RuntimeGraphSnapshot.of(snapshotConfiguration(), serviceProviders, providerGraphs, mergedGraph,
+          runtimeGraph.getExecutableSchema()).writeTo(snapshotFile);
+      log.info("Wrote runtime graph snapshot {}", snapshotFile);
+    } catch (IOException | RuntimeException e) {
+      log.warn("Failed to write runtime graph snapshot {}", snapshotFile, e);
+    }
+  }
+
+  /**
+   * Identifies the transformations of this stitcher; a snapshot stitched with other transformations is stale.
+   */
+  private String snapshotConfiguration() {
+    return Stream.concat(preMergeTransformers.stream(), postMergeTransformers.stream())
+        .map(transformer -> transformer.getClass().getName())
+        .collect(Collectors.joining(","));
+  }
+
+  /**
+   * Parses and transforms the graph of each provider. With a {@code stitchingParallelism} above one, the providers are
+   * processed on a bounded pool of threads. The graphs are returned in the order of the providers either way.
+   */
+  private List<XtextGraph> buildProviderGraphs(List<ServiceProvider> serviceProviders) {
+    long start = System.nanoTime();
+    int threads = Math.min(stitchingParallelism, serviceProviders.size());
+    List<XtextGraph> xtextGraphs;
+    if (threads <= 1) {
+      xtextGraphs = serviceProviders.stream().map(this::buildProviderGraph).collect(Collectors.toList());
+    } else {
+      ExecutorService executor = Executors.newFixedThreadPool(threads, STITCHING_THREAD_FACTORY);
+      try {
+        List<Future<XtextGraph>> futures = serviceProviders.stream()
+            .map(serviceProvider -> executor.submit(() -> buildProviderGraph(serviceProvider)))
+            .collect(Collectors.toList());
+        xtextGraphs = new ArrayList<>(futures.size());
+        for (Future<XtextGraph> future : futures) {
+          xtextGraphs.add(getProviderGraph(future));
+        }
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+    if (providerGraphCache.isEnabled()) {
+      providerGraphCache.retainAll(serviceProviders.stream().map(ServiceProvider::getNameSpace)
+          .collect(Collectors.toSet()));
+    }
+    log.info("Built {} provider graphs in {} ms using {} threads", serviceProviders.size(),
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), Math.max(threads, 1));
+    return xtextGraphs;
+  }
+
+  private XtextGraph buildProviderGraph(ServiceProvider serviceProvider) {
+    return providerGraphCache.get(serviceProvider, decorate(serviceProvider), this::parseAndTransform);
+  }
+
+  private ServiceProvider decorate(ServiceProvider serviceProvider) {
+    return queryCoalescer.decorate(bulkheads.decorate(serviceProvider));
+  }
+
+  private XtextGraph parseAndTransform(ServiceProvider decoratedProvider) {
+    long start = System.nanoTime();
+    XtextGraph xtextGraph = XtextGraphBuilder.build(decoratedProvider);
+    long parsed = System.nanoTime();
+    xtextGraph = transform(xtextGraph, preMergeTransformers);
+    validateGraph(xtextGraph);
+    long transformed = System.nanoTime();
+    log.info("Built graph of provider {} in {} ms (parse {} ms, transform {} ms)", decoratedProvider.getNameSpace(),
+        TimeUnit.NANOSECONDS.toMillis(transformed - start), TimeUnit.NANOSECONDS.toMillis(parsed - start),
+        TimeUnit.NANOSECONDS.toMillis(transformed - parsed));
+    return xtextGraph;
+  }
+
+  private static XtextGraph getProviderGraph(Future<XtextGraph> future) {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new StitchingException("Failed to build provider graph", e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new StitchingException("Interrupted while building provider graphs", e);
+    }
+  }
+
   private void validateGraph(XtextGraph xtextGraph) {
     boolean emptyGraph = xtextGraph.getOperationMap().values()
             .stream()
@@ -200,18 +435,28 @@ public class XtextStitcher implements Stitcher {
       if (serviceMetadata.getServiceProvider().getSeviceType() == ServiceType.GRAPHQL || serviceMetadata
           .getServiceProvider()
           .isFederationProvider()) {
-        batchLoaderMap.put(namespace,
-            GraphQLServiceBatchLoader
-                .newQueryExecutorBatchLoader()
-                .queryExecutor(serviceMetadata.getServiceProvider())
-                .serviceMetadata(serviceMetadata)
-                .batchLoaderExecutionHooks(batchLoaderHooks)
-                .build());
+        batchLoaderMap.put(namespace, createServiceBatchLoader(serviceMetadata));
       }
     });
     return batchLoaderMap;
   }
 
+  private GraphQLServiceBatchLoader createServiceBatchLoader(ServiceMetadata serviceMetadata) {
+    return GraphQLServiceBatchLoader
+        .newQueryExecutorBatchLoader()
+        .queryExecutor(serviceMetadata.getServiceProvider())
+        .serviceMetadata(serviceMetadata)
+        .batchLoaderExecutionHooks(batchLoaderHooks)
+        .queryPlanCache(queryPlanCache)
+        .resultCache(resultCache)
+        .build();
+  }
+
+  private EntityFetcherBatchLoader createEntityFetcherBatchLoader(EntityExtensionMetadata metadata,
+      ServiceMetadata serviceMetadata, String fieldName) {
+    return new EntityFetcherBatchLoader(metadata, serviceMetadata, fieldName, entityCache);
+  }
+
   private ServiceMetadata buildServiceMetadata(XtextGraph xtextGraph) {
     return ServiceMetadataImpl.newBuilder()
         .serviceProvider(xtextGraph.getServiceProvider())
@@ -220,6 +465,7 @@ public class XtextStitcher implements Stitcher {
         .hasFieldResolverDefinition(xtextGraph.isHasFieldResolverDefinition())
         .hasInterfaceOrUnion(xtextGraph.isHasInterfaceOrUnion())
         .renamedMetadata(xtextGraph.getRenamedMetadata())
+        .cacheControlMetadata(xtextGraph.getCacheControlMetadata())
         .build();
   }
 
@@ -244,11 +490,7 @@ public class XtextStitcher implements Stitcher {
       } else if (type == SERVICE) {
         final ServiceMetadata serviceMetadata = serviceMetadataMap.get(dataFetcherContext.getNamespace());
 
-        builder.dataFetcher(coordinates,
-            dataFetcherContext.getServiceType() == ServiceType.REST
-                ? new RestDataFetcher(serviceMetadata)
-                : new ServiceDataFetcher(serviceMetadata)
-        );
+        builder.dataFetcher(coordinates, createServiceDataFetcher(dataFetcherContext.getServiceType(), serviceMetadata));
       } else if (type == RESOLVER_ARGUMENT) {
         final XtextToGraphQLJavaVisitor visitor = XtextToGraphQLJavaVisitor.newBuilder().build();
 
@@ -278,6 +520,12 @@ public class XtextStitcher implements Stitcher {
     return builder;
   }
 
+  private static DataFetcher<?> createServiceDataFetcher(ServiceType serviceType, ServiceMetadata serviceMetadata) {
+    return serviceType == ServiceType.REST
+        ? new RestDataFetcher(serviceMetadata)
+        : new ServiceDataFetcher(serviceMetadata);
+  }
+
   /**
    * Creates a {@link RuntimeGraph} from an {@link XtextGraph} by converting xtext AST to GraphQL Java AST
    *
@@ -347,6 +595,15 @@ public class XtextStitcher implements Stitcher {
     private List<Transformer<XtextGraph, XtextGraph>> preMergeTransformers = defaultPreMergeTransformers();
     private List<Transformer<UnifiedXtextGraph, UnifiedXtextGraph>> postMergeTransformers = defaultPostMergeTransformers();
     private BatchLoaderExecutionHooks<DataFetchingEnvironment, DataFetcherResult<Object>> batchLoaderHooks = BatchLoaderExecutionHooks.DEFAULT_HOOKS;
+    private DownstreamQueryPlanCache queryPlanCache = DownstreamQueryPlanCache.NONE;
+    private Bulkheads bulkheads = Bulkheads.NONE;
+    private QueryCoalescer queryCoalescer = QueryCoalescer.NONE;
+    private RootFieldResultCache resultCache = RootFieldResultCache.NONE;
+    private EntityResultCache entityCache = EntityResultCache.NONE;
+    private FieldResolverQueryMode fieldResolverQueryMode = FieldResolverQueryMode.INLINE;
+    private int stitchingParallelism = 1;
+    private ProviderGraphCache providerGraphCache = ProviderGraphCache.NONE;
+    private Path snapshotFile;
 
     /**
      * Provides the default pre-merge transformers that each operate on the individual provider graphs.
@@ -354,6 +611,7 @@ public class XtextStitcher implements Stitcher {
     private List<Transformer<XtextGraph, XtextGraph>> defaultPreMergeTransformers() {
       return Arrays.asList(
           new RenameTransformer(),
+          new CacheControlTransformer(),
           new TypeExtensionTransformer(),
           new DomainTypesTransformer(),
           new AllTypesTransformer(),
@@ -395,6 +653,54 @@ public class XtextStitcher implements Stitcher {
       return this;
     }
 
+    public Builder queryPlanCache(final DownstreamQueryPlanCache val) {
+      queryPlanCache = requireNonNull(val);
+      return this;
+    }
+
+    public Builder bulkheads(final Bulkheads val) {
+      bulkheads = requireNonNull(val);
+      return this;
+    }
+
+    public Builder queryCoalescer(final QueryCoalescer val) {
+      queryCoalescer = requireNonNull(val);
+      return this;
+    }
+
+    public Builder resultCache(final RootFieldResultCache val) {
+      resultCache = requireNonNull(val);
+      return this;
+    }
+
+    public Builder entityCache(final EntityResultCache val) {
+      entityCache = requireNonNull(val);
+      return this;
+    }
+
+    public Builder fieldResolverQueryMode(final FieldResolverQueryMode val) {
+      fieldResolverQueryMode = requireNonNull(val);
+      return this;
+    }
+
+    public Builder stitchingParallelism(final int val) {
+      if (val < 1) {
+        throw new IllegalArgumentException("stitchingParallelism must be at least 1");
+      }
+      stitchingParallelism = val;
+      return this;
+    }
+
+    public Builder providerGraphCache(final ProviderGraphCache val) {
+      providerGraphCache = requireNonNull(val);
+      return this;
+    }
+
+    public Builder snapshotFile(final Path val) {
+      snapshotFile = requireNonNull(val);
+      return this;
+    }
+
     public XtextStitcher build() {
       return new XtextStitcher(this);
     }
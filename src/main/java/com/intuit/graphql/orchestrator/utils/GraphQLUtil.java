@@ -19,6 +19,8 @@ import graphql.schema.GraphQLType;
 import graphql.schema.GraphQLTypeUtil;
 import graphql.schema.GraphQLUnionType;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -76,6 +78,25 @@ public class GraphQLUtil {
             .collect(Collectors.toList());
   }
 
+  /**
+   * Copies the maps and lists of a response. Scalars are immutable and shared.
+   */
+  public static Object deepCopy(Object value) {
+    if (value instanceof Map) {
+      Map<?, ?> map = (Map<?, ?>) value;
+      Map<Object, Object> copy = new LinkedHashMap<>(map.size() * 4 / 3 + 1);
+      map.forEach((k, v) -> copy.put(k, deepCopy(v)));
+      return copy;
+    }
+    if (value instanceof List) {
+      List<?> list = (List<?>) value;
+      List<Object> copy = new ArrayList<>(list.size());
+      list.forEach(element -> copy.add(deepCopy(element)));
+      return copy;
+    }
+    return value;
+  }
+
   public static Type createTypeBasedOnGraphQLType(GraphQLType graphQLType) {
 
     if (graphQLType instanceof GraphQLNamedType) {
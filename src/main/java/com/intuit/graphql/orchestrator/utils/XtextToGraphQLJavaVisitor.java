@@ -134,6 +134,18 @@ public class XtextToGraphQLJavaVisitor extends GraphQLSwitch<GraphQLSchemaElemen
     return new Builder();
   }
 
+  /**
+   * Returns the scalar of graphql-java that the visitor creates for a scalar declared with the given name, without
+   * the description and directives of its definition.
+   *
+   * @param name the name of the scalar
+   * @return the built-in or extended scalar, or a scalar that echoes its values if the scalar is specific to a provider
+   */
+  public static GraphQLScalarType getScalarType(String name) {
+    GraphQLScalarType standardScalarType = STANDARD_SCALAR_TYPES.get(name);
+    return standardScalarType != null ? standardScalarType : EchoingWiringFactory.fakeScalar(name);
+  }
+
   @Override
   public GraphQLSchemaElement caseFieldDefinition(final FieldDefinition object) {
     GraphQLFieldDefinition.Builder builder = GraphQLFieldDefinition.newFieldDefinition()
@@ -285,7 +297,7 @@ public class XtextToGraphQLJavaVisitor extends GraphQLSwitch<GraphQLSchemaElemen
       return graphQLType;
     }
 
-    graphQLType = EchoingWiringFactory.fakeScalar(me).transform(builder -> {
+    graphQLType = getScalarType(me).transform(builder -> {
 
       createGraphqlDirectives(object.getDirectives()).forEach(builder::withDirective);
 
@@ -14,6 +14,7 @@ import com.intuit.graphql.graphQL.TypeSystemDefinition;
 import com.intuit.graphql.graphQL.Value;
 import com.intuit.graphql.graphQL.ValueWithVariable;
 import com.intuit.graphql.orchestrator.schema.Operation;
+import com.intuit.graphql.orchestrator.xtext.XtextTypeIndex;
 import com.intuit.graphql.utils.XtextTypeUtils;
 import lombok.NonNull;
 import org.apache.commons.lang3.StringUtils;
@@ -35,6 +36,7 @@ public class XtextUtils {
 
   public static final String XTEXT_TYPE_FORMAT = "[name:%s, type:%s, description:%s]";
   public static final String RENAME_DIRECTIVE = "rename";
+  public static final String CACHE_CONTROL_DIRECTIVE = "cacheControl";
 
   private XtextUtils() {
   }
@@ -93,9 +95,7 @@ public class XtextUtils {
     todo find a more suitable solution for findObject that considers strict types e.g. Query, Mutation, Subscription
     vs non strict types (types with namespaces)
      */
-    return getAllContentsOfType(ObjectTypeDefinition.class, set)
-        .filter(objectTypeDefinition -> objectTypeDefinition.getName().equals(name))
-        .findFirst();
+    return XtextTypeIndex.of(set).findTypeStrict(name, ObjectTypeDefinition.class);
   }
 
   /**
@@ -118,9 +118,7 @@ public class XtextUtils {
    * @return the optional
    */
   public static Optional<ObjectTypeDefinition> findObjectType(String name, @NonNull XtextResourceSet set) {
-    return getAllContentsOfType(ObjectTypeDefinition.class, set)
-        .filter(objectTypeDefinition -> StringUtils.endsWith(objectTypeDefinition.getName(), name))
-        .findFirst();
+    return XtextTypeIndex.of(set).findType(name, ObjectTypeDefinition.class);
   }
 
   /**
@@ -143,9 +141,7 @@ public class XtextUtils {
    * @return a TypeDefinition that matches the name as an Optional
    */
   public static Optional<TypeDefinition> findType(String name, @NonNull XtextResourceSet set) {
-    return getAllContentsOfType(TypeDefinition.class, set)
-        .filter(typeDefinition -> StringUtils.endsWith(typeDefinition.getName(), name))
-        .findFirst();
+    return XtextTypeIndex.of(set).findType(name, TypeDefinition.class);
   }
 
   /**
@@ -171,8 +167,7 @@ public class XtextUtils {
    */
   public static <T extends TypeExtensionDefinition> Stream<T> getAllTypeExtensionForName(
       String name, Class<T> type, @NonNull XtextResourceSet set) {
-    return getAllContentsOfType(type, set) //TODO: check this method (domain-types edge case) & getAllTypes.
-        .filter(extensionDefinition -> StringUtils.endsWith(extensionDefinition.getName(), name));
+    return XtextTypeIndex.of(set).getTypeExtensions(name, type); //TODO: check this method (domain-types edge case)
   }
 
   /**
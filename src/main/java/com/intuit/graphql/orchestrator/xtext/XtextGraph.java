@@ -8,6 +8,7 @@ import com.intuit.graphql.graphQL.TypeSystemDefinition;
 import com.intuit.graphql.orchestrator.ServiceProvider;
 import com.intuit.graphql.orchestrator.federation.metadata.FederationMetadata;
 import com.intuit.graphql.orchestrator.federation.metadata.FederationMetadata.EntityExtensionMetadata;
+import com.intuit.graphql.orchestrator.metadata.CacheControlMetadata;
 import com.intuit.graphql.orchestrator.metadata.RenamedMetadata;
 import com.intuit.graphql.orchestrator.schema.Operation;
 import com.intuit.graphql.orchestrator.schema.TypeMetadata;
@@ -54,6 +55,7 @@ public class XtextGraph {
   private final List<EntityExtensionMetadata> entityExtensionMetadatas;
   private final Map<String, FederationMetadata> federationMetadataByNamespace;
   private final Map<String, RenamedMetadata> renamedMetadataByNamespace;
+  private final CacheControlMetadata cacheControlMetadata;
 
   private XtextGraph(Builder builder) {
     serviceProvider = builder.serviceProvider;
@@ -73,6 +75,8 @@ public class XtextGraph {
     entityExtensionMetadatas = builder.entityExtensionMetadatas;
     federationMetadataByNamespace = builder.federationMetadataByNamespace;
     renamedMetadataByNamespace = builder.renamedMetadataByNamespace;
+    cacheControlMetadata = builder.cacheControlMetadata != null
+        ? builder.cacheControlMetadata : new CacheControlMetadata(serviceProvider);
   }
 
   /**
@@ -108,6 +112,7 @@ public class XtextGraph {
     builder.entityExtensionMetadatas = copy.entityExtensionMetadatas;
     builder.federationMetadataByNamespace = copy.federationMetadataByNamespace;
     builder.renamedMetadataByNamespace = copy.renamedMetadataByNamespace;
+    builder.cacheControlMetadata = copy.cacheControlMetadata;
     return builder;
   }
 
@@ -219,6 +224,7 @@ public class XtextGraph {
     private List<FieldResolverContext> fieldResolverContexts = new ArrayList<>();
     private Map<String, FederationMetadata> federationMetadataByNamespace = new HashMap<>();
     private Map<String, RenamedMetadata> renamedMetadataByNamespace = new HashMap<>();
+    private CacheControlMetadata cacheControlMetadata;
     private boolean hasInterfaceOrUnion = false;
     private boolean hasFieldResolverDefinition = false;
 
@@ -398,6 +404,11 @@ public class XtextGraph {
       return this;
     }
 
+    public Builder cacheControlMetadata(CacheControlMetadata cacheControlMetadata) {
+      this.cacheControlMetadata = requireNonNull(cacheControlMetadata);
+      return this;
+    }
+
     /**
      * Build runtime graph.
      *
@@ -0,0 +1,188 @@
+package com.intuit.graphql.orchestrator.xtext;
+
+import com.intuit.graphql.orchestrator.ServiceProvider;
+import com.intuit.graphql.orchestrator.federation.metadata.FederationMetadata;
+import com.intuit.graphql.orchestrator.federation.metadata.FederationMetadata.EntityExtensionMetadata;
+import com.intuit.graphql.orchestrator.federation.metadata.FederationMetadata.EntityMetadata;
+import com.intuit.graphql.orchestrator.metadata.CacheControlMetadata;
+import com.intuit.graphql.orchestrator.metadata.RenamedMetadata;
+import com.intuit.graphql.orchestrator.schema.TypeMetadata;
+import com.intuit.graphql.orchestrator.schema.transform.FieldResolverContext;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.util.EcoreUtil.Copier;
+
+/**
+ * Copies a provider {@link XtextGraph}: its resource set, and the metadata referencing the definitions of the resource
+ * set. Merging a provider graph into the unified graph and the post-merge transformers modify the definitions and the
+ * metadata of the graph, so a transformed provider graph can only be stitched again as a copy.
+ *
+ * <p>Copying does not parse, link or validate the schema, and does not repeat the pre-merge transformations.
+ */
+public class XtextGraphCopier {
+
+  private final Copier copier = new Copier();
+  private final ServiceProvider serviceProvider;
+
+  private final Map<FieldResolverContext, FieldResolverContext> fieldResolverContexts = new IdentityHashMap<>();
+  private final Map<FederationMetadata, FederationMetadata> federationMetadatas = new IdentityHashMap<>();
+  private final Map<EntityMetadata, EntityMetadata> entityMetadatas = new IdentityHashMap<>();
+  private final Map<EntityExtensionMetadata, EntityExtensionMetadata> entityExtensionMetadatas = new IdentityHashMap<>();
+
+  private XtextGraphCopier(ServiceProvider serviceProvider) {
+    this.serviceProvider = serviceProvider;
+  }
+
+  /**
+   * Copies a provider graph.
+   *
+   * @param xtextGraph the provider graph
+   * @param serviceProvider the service provider of the copy
+   * @return a graph that shares no definitions or mutable metadata with {@code xtextGraph}
+   */
+  public static XtextGraph copy(XtextGraph xtextGraph, ServiceProvider serviceProvider) {
+    return new XtextGraphCopier(serviceProvider).copyGraph(xtextGraph);
+  }
+
+  private XtextGraph copyGraph(XtextGraph source) {
+    XtextGraph.Builder builder = XtextGraph.newBuilder()
+        .serviceProvider(serviceProvider)
+        .xtextResourceSet(XtextResourceSetBuilder.copyOf(source.getXtextResourceSet(), copier))
+        .operationMap(copyValues(source.getOperationMap(), this::copyOf))
+        .directives(source.getDirectives().stream().map(this::copyOf).collect(Collectors.toSet()))
+        .types(copyValues(source.getTypes(), this::copyOf))
+        .typeMetadatas(copyValues(source.getTypeMetadatas(), this::copyTypeMetadata))
+        .hasInterfaceOrUnion(source.isHasInterfaceOrUnion())
+        .hasFieldResolverDefinition(source.isHasFieldResolverDefinition())
+        .fieldResolverContexts(source.getFieldResolverContexts().stream()
+            .map(this::copyFieldResolverContext)
+            .collect(Collectors.toList()))
+        .entitiesByTypeName(copyValues(source.getEntitiesByTypeName(), this::copyOf))
+        .entityExtensionsByNamespace(copyValues(source.getEntityExtensionsByNamespace(),
+            extensions -> copyValues(extensions, this::copyOf)))
+        .federationMetadataByNamespace(copyValues(source.getFederationMetadataByNamespace(),
+            this::copyFederationMetadata))
+        .entityExtensionMetadatas(source.getEntityExtensionMetadatas().stream()
+            .map(this::copyEntityExtensionMetadata)
+            .collect(Collectors.toList()))
+        .renamedMetadataByNamespace(copyValues(source.getRenamedMetadataByNamespace(), this::copyRenamedMetadata))
+        .cacheControlMetadata(copyCacheControlMetadata(source.getCacheControlMetadata()))
+        .codeRegistry(copyValues(source.getCodeRegistry(), this::copyDataFetcherContext));
+
+    if (source.getValueTypesByName() != null) {
+      builder.valueTypesByName(copyValues(source.getValueTypesByName(), this::copyOf));
+    }
+
+    // definitions outside the resource set have been copied on demand; references are resolved once all are copied
+    XtextGraph copy = builder.build();
+    copier.copyReferences();
+    return copy;
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T extends EObject> T copyOf(T eObject) {
+    if (eObject == null) {
+      return null;
+    }
+    T copy = (T) copier.get(eObject);
+    if (copy == null) {
+      copier.copy(EcoreUtil.getRootContainer(eObject));
+      copy = (T) copier.get(eObject);
+    }
+    return copy;
+  }
+
+  private TypeMetadata copyTypeMetadata(TypeMetadata typeMetadata) {
+    TypeMetadata copy = new TypeMetadata(copyOf(typeMetadata.getTypeDefinition()));
+    typeMetadata.getFieldResolverContextsByFieldName().values()
+        .forEach(fieldResolverContext -> copy.addFieldResolverContext(copyFieldResolverContext(fieldResolverContext)));
+    return copy;
+  }
+
+  private FieldResolverContext copyFieldResolverContext(FieldResolverContext fieldResolverContext) {
+    return fieldResolverContexts.computeIfAbsent(fieldResolverContext, source -> source.transform(builder -> builder
+        .fieldDefinition(copyOf(source.getFieldDefinition()))
+        .parentTypeDefinition(copyOf(source.getParentTypeDefinition()))
+        .parentTypeFields(copyValues(source.getParentTypeFields(), this::copyOf))
+        .targetFieldDefinition(copyOf(source.getTargetFieldDefinition()))
+    ));
+  }
+
+  private FederationMetadata copyFederationMetadata(FederationMetadata federationMetadata) {
+    FederationMetadata copy = federationMetadatas.get(federationMetadata);
+    if (copy == null) {
+      FederationMetadata federationMetadataCopy = new FederationMetadata(serviceProvider);
+      federationMetadatas.put(federationMetadata, federationMetadataCopy);
+      federationMetadata.getEntitiesByTypename().values().forEach(entityMetadata -> federationMetadataCopy.addEntity(
+          entityMetadatas.computeIfAbsent(entityMetadata, source -> EntityMetadata.builder()
+              .typeName(source.getTypeName())
+              .keyDirectives(source.getKeyDirectives())
+              .fields(new HashSet<>(source.getFields()))
+              .federationMetadata(federationMetadataCopy)
+              .build())));
+      federationMetadata.getExtensionsByTypename().values().forEach(extensionMetadata ->
+          federationMetadataCopy.addEntityExtension(copyEntityExtensionMetadata(extensionMetadata,
+              federationMetadataCopy)));
+      federationMetadataCopy.getRequiresFieldSetByCoordinate()
+          .putAll(federationMetadata.getRequiresFieldSetByCoordinate());
+      copy = federationMetadataCopy;
+    }
+    return copy;
+  }
+
+  private EntityExtensionMetadata copyEntityExtensionMetadata(EntityExtensionMetadata extensionMetadata) {
+    // copying the federation metadata copies the extensions it holds
+    FederationMetadata federationMetadataCopy = copyFederationMetadata(extensionMetadata.getFederationMetadata());
+    return copyEntityExtensionMetadata(extensionMetadata, federationMetadataCopy);
+  }
+
+  private EntityExtensionMetadata copyEntityExtensionMetadata(EntityExtensionMetadata extensionMetadata,
+      FederationMetadata federationMetadataCopy) {
+    return entityExtensionMetadatas.computeIfAbsent(extensionMetadata, source -> EntityExtensionMetadata.builder()
+        .typeName(source.getTypeName())
+        .keyDirectives(source.getKeyDirectives())
+        .requiredFieldsByFieldName(new HashMap<>(source.getRequiredFieldsByFieldName()))
+        .federationMetadata(federationMetadataCopy)
+        .build());
+  }
+
+  private RenamedMetadata copyRenamedMetadata(RenamedMetadata renamedMetadata) {
+    RenamedMetadata copy = new RenamedMetadata(serviceProvider);
+    copy.getOriginalTypeNamesByRenamedName().putAll(renamedMetadata.getOriginalTypeNamesByRenamedName());
+    copy.getOriginalFieldNamesByRenamedName().putAll(renamedMetadata.getOriginalFieldNamesByRenamedName());
+    return copy;
+  }
+
+  private CacheControlMetadata copyCacheControlMetadata(CacheControlMetadata cacheControlMetadata) {
+    CacheControlMetadata copy = new CacheControlMetadata(serviceProvider);
+    copy.getCacheControlByRootFieldName().putAll(cacheControlMetadata.getCacheControlByRootFieldName());
+    return copy;
+  }
+
+  private DataFetcherContext copyDataFetcherContext(DataFetcherContext dataFetcherContext) {
+    DataFetcherContext.Builder builder = DataFetcherContext.newBuilder();
+    if (dataFetcherContext.getNamespace() != null) {
+      builder.namespace(dataFetcherContext.getNamespace());
+    }
+    return builder
+        .dataFetcherType(dataFetcherContext.getDataFetcherType())
+        .serviceType(dataFetcherContext.getServiceType())
+        .fieldResolverContext(dataFetcherContext.getFieldResolverContext() == null ? null
+            : copyFieldResolverContext(dataFetcherContext.getFieldResolverContext()))
+        .entityExtensionMetadata(dataFetcherContext.getEntityExtensionMetadata() == null ? null
+            : copyEntityExtensionMetadata(dataFetcherContext.getEntityExtensionMetadata()))
+        .build();
+  }
+
+  private static <K, V> Map<K, V> copyValues(Map<K, V> map, Function<V, V> copyFunction) {
+    Map<K, V> copy = new HashMap<>();
+    map.forEach((key, value) -> copy.put(key, copyFunction.apply(value)));
+    return copy;
+  }
+}
@@ -16,6 +16,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil.Copier;
 import org.eclipse.xtext.EcoreUtil2;
 import org.eclipse.xtext.resource.IResourceFactory;
 import org.eclipse.xtext.resource.XtextResource;
@@ -32,7 +34,9 @@ import org.eclipse.xtext.validation.Issue;
 public class XtextResourceSetBuilder {
 
   private XtextResourceSet graphqlResourceSet;
-  private static Injector GRAPHQL_INJECTOR = new GraphQLStandaloneSetupGenerated().createInjectorAndDoEMFRegistration();
+  // Guice and the Xtext services are thread safe; every build gets its own resource set, so graphs of different
+  // providers can be built concurrently
+  private static final Injector GRAPHQL_INJECTOR = new GraphQLStandaloneSetupGenerated().createInjectorAndDoEMFRegistration();
   private Map<String, String> files = new ConcurrentHashMap<>();
   private boolean isFederatedResourceSet = false;
 
@@ -154,6 +158,24 @@ public class XtextResourceSetBuilder {
     return new XtextResourceSetBuilder();
   }
 
+  /**
+   * Copies the contents of the resources of a resource set into a new resource set, without parsing.
+   *
+   * @param resourceSet the resource set to copy
+   * @param copier the copier, whose references are copied by the caller
+   * @return the new resource set
+   */
+  static XtextResourceSet copyOf(XtextResourceSet resourceSet, Copier copier) {
+    XtextResourceSet copy = GRAPHQL_INJECTOR.getInstance(XtextResourceSet.class);
+    IResourceFactory resourceFactory = GRAPHQL_INJECTOR.getInstance(IResourceFactory.class);
+    for (Resource resource : resourceSet.getResources()) {
+      Resource resourceCopy = resourceFactory.createResource(resource.getURI());
+      resourceCopy.getContents().addAll(copier.copyAll(resource.getContents()));
+      copy.getResources().add(resourceCopy);
+    }
+    return copy;
+  }
+
   public static XtextResourceSet singletonSet(String fileName, String file) {
     return newBuilder()
             .file(fileName, file)
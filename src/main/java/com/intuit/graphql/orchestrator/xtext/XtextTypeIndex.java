@@ -0,0 +1,280 @@
+package com.intuit.graphql.orchestrator.xtext;
+
+import static com.intuit.graphql.graphQL.GraphQLPackage.Literals.TYPE_DEFINITION__NAME;
+import static com.intuit.graphql.graphQL.GraphQLPackage.Literals.TYPE_EXTENSION_DEFINITION__NAME;
+import static com.intuit.graphql.graphQL.GraphQLPackage.Literals.TYPE_SYSTEM_DEFINITION__TYPE;
+import static com.intuit.graphql.graphQL.GraphQLPackage.Literals.TYPE_SYSTEM_DEFINITION__TYPE_EXTENSION;
+import static com.intuit.graphql.graphQL.GraphQLPackage.Literals.TYPE_SYSTEM__TYPE_SYSTEM_DEFINITION;
+
+import com.intuit.graphql.graphQL.TypeDefinition;
+import com.intuit.graphql.graphQL.TypeExtensionDefinition;
+import com.intuit.graphql.graphQL.TypeSystem;
+import com.intuit.graphql.graphQL.TypeSystemDefinition;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import lombok.NonNull;
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.resource.XtextResourceSet;
+
+/**
+ * A name-keyed index of the type definitions and type extension definitions of an {@link XtextResourceSet}, so that
+ * looking up a type does not walk every resource of the set.
+ *
+ * <p>The index is attached to the resource set as an EMF adapter by {@link #of(XtextResourceSet)} and is built on the
+ * first lookup. Renaming an indexed definition updates the index in place. Adding or removing resources, type system
+ * definitions, types or type extensions marks the index stale, and it is rebuilt on the next lookup. Like the resource
+ * set itself, the index is not thread safe.
+ *
+ * <p>Names are matched by suffix, the same way {@link com.intuit.graphql.orchestrator.utils.XtextUtils} matched them
+ * when it scanned the resource set, and matches are returned in the order they appear in the resource set. The index
+ * is keyed by reversed names, which turns a suffix match into a range of the sorted keys.
+ */
+public class XtextTypeIndex implements Adapter {
+
+  private static final char MAX_CHAR = Character.MAX_VALUE;
+
+  private static final Comparator<Entry<?>> DOCUMENT_ORDER = Comparator.comparingInt(entry -> entry.position);
+
+  private final XtextResourceSet resourceSet;
+
+  private final NavigableMap<String, List<Entry<TypeDefinition>>> typesByReversedName = new TreeMap<>();
+
+  private final NavigableMap<String, List<Entry<TypeExtensionDefinition>>> typeExtensionsByReversedName =
+      new TreeMap<>();
+
+  private final List<Notifier> adaptedNotifiers = new ArrayList<>();
+
+  private boolean stale = true;
+
+  private int buildCount;
+
+  private XtextTypeIndex(XtextResourceSet resourceSet) {
+    this.resourceSet = resourceSet;
+  }
+
+  /**
+   * Returns the index attached to the given resource set, attaching a new one if the set does not have one yet.
+   *
+   * @param set the resource set to index
+   * @return the index of the resource set
+   */
+  public static XtextTypeIndex of(@NonNull XtextResourceSet set) {
+    XtextTypeIndex index = (XtextTypeIndex) EcoreUtil.getExistingAdapter(set, XtextTypeIndex.class);
+    if (Objects.isNull(index)) {
+      index = new XtextTypeIndex(set);
+      set.eAdapters().add(index);
+    }
+    return index;
+  }
+
+  /**
+   * Finds the first type definition of the given class whose name ends with the given name.
+   *
+   * @param name the name, or suffix of the name, of the type
+   * @param type the class of the type definition
+   * @param <T> the type definition type
+   * @return the first matching type definition as an Optional
+   */
+  public <T extends TypeDefinition> Optional<T> findType(String name, Class<T> type) {
+    return suffixMatches(typesByReversedName, name, type).min(DOCUMENT_ORDER).map(entry -> entry.definition);
+  }
+
+  /**
+   * Finds the first type definition of the given class whose name is equal to the given name.
+   *
+   * @param name the name of the type
+   * @param type the class of the type definition
+   * @param <T> the type definition type
+   * @return the first matching type definition as an Optional
+   */
+  public <T extends TypeDefinition> Optional<T> findTypeStrict(String name, Class<T> type) {
+    return exactMatches(typesByReversedName, name, type).min(DOCUMENT_ORDER).map(entry -> entry.definition);
+  }
+
+  /**
+   * Gets all type extension definitions of the given class whose name ends with the given name.
+   *
+   * @param name the name, or suffix of the name, of the extended type
+   * @param type the class of the type extension definition
+   * @param <T> the type extension definition type
+   * @return the matching type extension definitions in the order of the resource set
+   */
+  public <T extends TypeExtensionDefinition> Stream<T> getTypeExtensions(String name, Class<T> type) {
+    return suffixMatches(typeExtensionsByReversedName, name, type).sorted(DOCUMENT_ORDER)
+        .map(entry -> entry.definition);
+  }
+
+  /**
+   * The number of times the index has been built, including the first build.
+   *
+   * @return the build count
+   */
+  public int getBuildCount() {
+    return buildCount;
+  }
+
+  private <D, T extends D> Stream<Entry<T>> suffixMatches(NavigableMap<String, List<Entry<D>>> index, String name,
+      Class<T> type) {
+    if (Objects.isNull(name)) {
+      return Stream.empty();
+    }
+    String reversedName = reverse(name);
+    return ensureBuilt(index).subMap(reversedName, true, reversedName + MAX_CHAR, true).values().stream()
+        .flatMap(List::stream)
+        .filter(entry -> type.isInstance(entry.definition))
+        .map(entry -> cast(entry, type));
+  }
+
+  private <D, T extends D> Stream<Entry<T>> exactMatches(NavigableMap<String, List<Entry<D>>> index, String name,
+      Class<T> type) {
+    if (Objects.isNull(name)) {
+      return Stream.empty();
+    }
+    return ensureBuilt(index).getOrDefault(reverse(name), new ArrayList<>()).stream()
+        .filter(entry -> type.isInstance(entry.definition))
+        .map(entry -> cast(entry, type));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <D, T extends D> Entry<T> cast(Entry<D> entry, Class<T> type) {
+    return (Entry<T>) entry;
+  }
+
+  private <V> V ensureBuilt(V index) {
+    if (stale) {
+      build();
+    }
+    return index;
+  }
+
+  private void build() {
+    adaptedNotifiers.forEach(notifier -> notifier.eAdapters().remove(this));
+    adaptedNotifiers.clear();
+    typesByReversedName.clear();
+    typeExtensionsByReversedName.clear();
+
+    int position = 0;
+    for (Resource resource : resourceSet.getResources()) {
+      adapt(resource);
+      for (EObject content : resource.getContents()) {
+        if (!(content instanceof TypeSystem)) {
+          continue;
+        }
+        adapt(content);
+        for (TypeSystemDefinition typeSystemDefinition : ((TypeSystem) content).getTypeSystemDefinition()) {
+          adapt(typeSystemDefinition);
+          TypeDefinition typeDefinition = typeSystemDefinition.getType();
+          if (Objects.nonNull(typeDefinition)) {
+            adapt(typeDefinition);
+            add(typesByReversedName, typeDefinition.getName(), new Entry<>(typeDefinition, position++));
+          }
+          TypeExtensionDefinition typeExtension = typeSystemDefinition.getTypeExtension();
+          if (Objects.nonNull(typeExtension)) {
+            adapt(typeExtension);
+            add(typeExtensionsByReversedName, typeExtension.getName(), new Entry<>(typeExtension, position++));
+          }
+        }
+      }
+    }
+    stale = false;
+    buildCount++;
+  }
+
+  private void adapt(Notifier notifier) {
+    notifier.eAdapters().add(this);
+    adaptedNotifiers.add(notifier);
+  }
+
+  private static <D> void add(NavigableMap<String, List<Entry<D>>> index, String name, Entry<D> entry) {
+    if (Objects.nonNull(name)) {
+      index.computeIfAbsent(reverse(name), key -> new ArrayList<>()).add(entry);
+    }
+  }
+
+  private static <D> void rename(NavigableMap<String, List<Entry<D>>> index, Object definition, String oldName,
+      String newName) {
+    if (Objects.isNull(oldName)) {
+      return;
+    }
+    List<Entry<D>> entries = index.get(reverse(oldName));
+    if (Objects.isNull(entries)) {
+      return;
+    }
+    for (int i = 0; i < entries.size(); i++) {
+      Entry<D> entry = entries.get(i);
+      if (entry.definition == definition) {
+        entries.remove(i);
+        if (entries.isEmpty()) {
+          index.remove(reverse(oldName));
+        }
+        add(index, newName, entry);
+        return;
+      }
+    }
+  }
+
+  private static String reverse(String name) {
+    return new StringBuilder(name).reverse().toString();
+  }
+
+  @Override
+  public void notifyChanged(Notification notification) {
+    if (stale || notification.isTouch() || notification.getEventType() == Notification.REMOVING_ADAPTER) {
+      return;
+    }
+    Object feature = notification.getFeature();
+    Object notifier = notification.getNotifier();
+    if (feature == TYPE_DEFINITION__NAME) {
+      rename(typesByReversedName, notifier, notification.getOldStringValue(), notification.getNewStringValue());
+    } else if (feature == TYPE_EXTENSION_DEFINITION__NAME) {
+      rename(typeExtensionsByReversedName, notifier, notification.getOldStringValue(),
+          notification.getNewStringValue());
+    } else if (feature == TYPE_SYSTEM__TYPE_SYSTEM_DEFINITION
+        || feature == TYPE_SYSTEM_DEFINITION__TYPE
+        || feature == TYPE_SYSTEM_DEFINITION__TYPE_EXTENSION
+        || (notifier instanceof ResourceSet
+        && notification.getFeatureID(ResourceSet.class) == ResourceSet.RESOURCE_SET__RESOURCES)
+        || (notifier instanceof Resource
+        && notification.getFeatureID(Resource.class) == Resource.RESOURCE__CONTENTS)) {
+      stale = true;
+    }
+  }
+
+  @Override
+  public Notifier getTarget() {
+    return resourceSet;
+  }
+
+  @Override
+  public void setTarget(Notifier newTarget) {
+    // a single index is attached to every notifier it follows
+  }
+
+  @Override
+  public boolean isAdapterForType(Object type) {
+    return type == XtextTypeIndex.class;
+  }
+
+  private static class Entry<D> {
+
+    private final D definition;
+    private final int position;
+
+    private Entry(D definition, int position) {
+      this.definition = definition;
+      this.position = position;
+    }
+  }
+}
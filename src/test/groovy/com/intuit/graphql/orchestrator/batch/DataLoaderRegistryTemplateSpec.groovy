@@ -0,0 +1,80 @@
+package com.intuit.graphql.orchestrator.batch
+
+import org.dataloader.BatchLoader
+import org.dataloader.DataLoader
+import org.dataloader.DataLoaderRegistry
+import spock.lang.Specification
+
+import java.util.concurrent.CompletableFuture
+
+class DataLoaderRegistryTemplateSpec extends Specification {
+
+    BatchLoader<String, String> serviceBatchLoader = { keys -> CompletableFuture.completedFuture(keys) }
+    BatchLoader<String, String> entityBatchLoader = { keys -> CompletableFuture.completedFuture(keys) }
+
+    DataLoaderRegistryTemplate template
+
+    def setup() {
+        Map<String, BatchLoader> batchLoaderMap = new HashMap<>()
+        batchLoaderMap.put("SVC", serviceBatchLoader)
+        batchLoaderMap.put("SVC:Type:field", serviceBatchLoader)
+        batchLoaderMap.put("Entity:field", entityBatchLoader)
+        template = new DataLoaderRegistryTemplate(batchLoaderMap)
+    }
+
+    def "creates data loaders only on first use"() {
+        when:
+        DataLoaderRegistry registry = template.newDataLoaderRegistry()
+
+        then:
+        registry.getDataLoaders().isEmpty()
+        registry.getKeys() == ["SVC", "SVC:Type:field", "Entity:field"] as Set
+
+        when:
+        DataLoader dataLoader = registry.getDataLoader("Entity:field")
+
+        then:
+        dataLoader != null
+        registry.getDataLoaders() == [dataLoader]
+    }
+
+    def "keys sharing a batch loader share a data loader"() {
+        given:
+        DataLoaderRegistry registry = template.newDataLoaderRegistry()
+
+        expect:
+        registry.getDataLoader("SVC").is(registry.getDataLoader("SVC:Type:field"))
+        !registry.getDataLoader("SVC").is(registry.getDataLoader("Entity:field"))
+    }
+
+    def "each registry gets its own data loaders"() {
+        expect:
+        !template.newDataLoaderRegistry().getDataLoader("SVC")
+                .is(template.newDataLoaderRegistry().getDataLoader("SVC"))
+    }
+
+    def "unknown keys return null and registered data loaders take precedence"() {
+        given:
+        DataLoaderRegistry registry = template.newDataLoaderRegistry()
+        DataLoader registered = new DataLoader(serviceBatchLoader)
+
+        when:
+        registry.register("SVC", registered)
+
+        then:
+        registry.getDataLoader("UNKNOWN") == null
+        registry.getDataLoader("SVC").is(registered)
+    }
+
+    def "dispatches loads made through a lazily created data loader"() {
+        given:
+        DataLoaderRegistry registry = template.newDataLoaderRegistry()
+        CompletableFuture<String> future = registry.getDataLoader("SVC").load("key")
+
+        when:
+        registry.dispatchAll()
+
+        then:
+        future.join() == "key"
+    }
+}
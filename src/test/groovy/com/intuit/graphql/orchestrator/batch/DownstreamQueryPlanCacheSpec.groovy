@@ -0,0 +1,145 @@
+package com.intuit.graphql.orchestrator.batch
+
+import com.intuit.graphql.orchestrator.cache.PrintedQueryCache
+import graphql.execution.ExecutionStepInfo
+import graphql.execution.ResultPath
+import graphql.language.Document
+import graphql.language.FragmentDefinition
+import graphql.language.OperationDefinition
+import graphql.parser.Parser
+import graphql.schema.DataFetchingEnvironment
+import graphql.schema.GraphQLFieldDefinition
+import graphql.schema.GraphQLObjectType
+import graphql.schema.GraphQLSchema
+import spock.lang.Specification
+
+import static graphql.Scalars.GraphQLString
+import static graphql.schema.DataFetchingEnvironmentImpl.newDataFetchingEnvironment
+
+class DownstreamQueryPlanCacheSpec extends Specification {
+
+    static final GraphQLObjectType QUERY_TYPE = GraphQLObjectType.newObject().name("Query")
+            .field(GraphQLFieldDefinition.newFieldDefinition().name("a").type(GraphQLString))
+            .build()
+
+    static final GraphQLSchema SCHEMA = newSchema()
+
+    DownstreamQueryPlanCache cache = new DownstreamQueryPlanCache(10)
+
+    PrintedQueryCache printedQueryCache = new PrintedQueryCache(PrintedQueryCache.DEFAULT_MAXIMUM_WEIGHT)
+
+    int created
+
+    def planSupplier = {
+        created++
+        new DownstreamQueryPlan(OperationDefinition.newOperationDefinition().name("q").build(), [], null)
+    }
+
+    def "reuses plan for an equal document and path"() {
+        when:
+        def first = cache.get([env('query q { a }', "/a")], "SVC", "q", planSupplier)
+        def second = cache.get([env('query q { a }', "/a")], "SVC", "q", planSupplier)
+
+        then:
+        first.is(second)
+        created == 1
+        cache.stats().hitCount() == 1
+    }
+
+    def "creates a plan per namespace, operation name and path"() {
+        when:
+        cache.get([env('query q { a }', "/a")], "SVC", "q", planSupplier)
+        cache.get([env('query q { a }', "/a")], "OTHER", "q", planSupplier)
+        cache.get([env('query q { a }', "/a")], "SVC", "QUERY", planSupplier)
+        cache.get([env('query q { a }', "/b")], "SVC", "q", planSupplier)
+        cache.get([env('query q { a b }', "/a")], "SVC", "q", planSupplier)
+
+        then:
+        created == 5
+        cache.size() == 5
+    }
+
+    def "keys plans by values of @skip and @include variables only"() {
+        given:
+        String query = 'query q($s: Boolean, $id: String) { a(id: $id) @skip(if: $s) }'
+
+        when:
+        cache.get([env(query, "/a", [s: true, id: "1"])], "SVC", "q", planSupplier)
+        cache.get([env(query, "/a", [s: true, id: "2"])], "SVC", "q", planSupplier)
+        cache.get([env(query, "/a", [s: false, id: "1"])], "SVC", "q", planSupplier)
+
+        then:
+        created == 2
+    }
+
+    def "keeps plans per schema"() {
+        given:
+        GraphQLSchema restitched = newSchema()
+
+        when:
+        def first = cache.get([env('query q { a }', "/a")], "SVC", "q", planSupplier)
+        def second = cache.get([env('query q { a }', "/a", [:], restitched)], "SVC", "q", planSupplier)
+        def third = cache.get([env('query q { a }', "/a", [:], restitched)], "SVC", "q", planSupplier)
+
+        then:
+        !first.is(second)
+        second.is(third)
+        created == 2
+        cache.size() == 2
+    }
+
+    def "disabled cache always creates a plan"() {
+        when:
+        DownstreamQueryPlanCache.NONE.get([env('query q { a }', "/a")], "SVC", "q", planSupplier)
+        DownstreamQueryPlanCache.NONE.get([env('query q { a }', "/a")], "SVC", "q", planSupplier)
+
+        then:
+        !DownstreamQueryPlanCache.NONE.isEnabled()
+        created == 2
+        DownstreamQueryPlanCache.NONE.size() == 0
+    }
+
+    def "plan filters variables by declared names"() {
+        given:
+        def plan = new DownstreamQueryPlan(OperationDefinition.newOperationDefinition().build(), [], ["a"] as Set)
+        def passThrough = new DownstreamQueryPlan(OperationDefinition.newOperationDefinition().build(), [], null)
+
+        expect:
+        plan.filterVariables([a: 1, b: 2]) == [a: 1]
+        passThrough.filterVariables([a: 1, b: 2]) == [a: 1, b: 2]
+        !plan.isEmpty()
+        DownstreamQueryPlan.EMPTY.isEmpty()
+    }
+
+    def "plan prints its document once"() {
+        given:
+        Document document = new Parser().parseDocument('query q($v: Int) { a(x: $v) { ...F } } fragment F on A { b }')
+        def plan = new DownstreamQueryPlan(document.getOperationDefinition("q").get(),
+                document.getDefinitionsOfType(FragmentDefinition.class), ["v"] as Set)
+
+        expect:
+        plan.getQuery(printedQueryCache) == 'fragment F on A {b} query q($v:Int) {a(x:$v) {...F}}'
+        plan.getQuery(printedQueryCache).is(plan.getQuery(printedQueryCache))
+        printedQueryCache.stats().requestCount() == 1
+        plan.getDocument().is(plan.getDocument())
+    }
+
+    private static GraphQLSchema newSchema() {
+        return GraphQLSchema.newSchema().query(QUERY_TYPE).build()
+    }
+
+    private static DataFetchingEnvironment env(String query, String path, Map<String, Object> variables = [:],
+            GraphQLSchema schema = SCHEMA) {
+        Document document = new Parser().parseDocument(query)
+        return newDataFetchingEnvironment()
+                .graphQLSchema(schema)
+                .document(document)
+                .variables(variables)
+                .parentType(QUERY_TYPE)
+                .executionStepInfo(ExecutionStepInfo.newExecutionStepInfo()
+                        .path(ResultPath.parse(path))
+                        .type(GraphQLString)
+                        .build())
+                .build()
+    }
+}
@@ -0,0 +1,74 @@
+package com.intuit.graphql.orchestrator.batch
+
+import graphql.GraphqlErrorException
+import graphql.execution.DataFetcherResult
+import spock.lang.Specification
+
+class EntityRepresentationsSpec extends Specification {
+
+    def "collapses identical representations and fans results out by index"() {
+        given:
+        List<Map<String, Object>> raw = [
+                [__typename: "Customer", id: "1"],
+                [__typename: "Customer", id: "2"],
+                [__typename: "Customer", id: "1"],
+                [__typename: "Customer", id: "3", region: [code: "US"]],
+                [__typename: "Customer", id: "3", region: [code: "US"]]
+        ]
+
+        when:
+        EntityRepresentations representations = EntityRepresentations.of(raw)
+
+        then:
+        representations.getRawCount() == 5
+        representations.getUniqueCount() == 3
+        representations.getUniqueRepresentations() == [raw[0], raw[1], raw[3]]
+        representations.uniqueKeys(["k0", "k1", "k2", "k3", "k4"]) == ["k0", "k1", "k3"]
+        representations.fanOut([result("r1"), result("r2"), result("r3")])*.getData() == ["r1", "r2", "r1", "r3", "r3"]
+    }
+
+    def "reports errors of a result with the first key of its representation only"() {
+        given:
+        EntityRepresentations representations = EntityRepresentations.of([[id: "1"], [id: "1"]])
+        DataFetcherResult<Object> failed = DataFetcherResult.newResult().data("r1")
+                .error(GraphqlErrorException.newErrorException().message("boom").build())
+                .build()
+
+        when:
+        List<DataFetcherResult<Object>> results = representations.fanOut([failed])
+
+        then:
+        results[0].is(failed)
+        results[1].getData() == "r1"
+        results[1].getErrors().isEmpty()
+    }
+
+    def "fails if a unique representation has no result"() {
+        given:
+        EntityRepresentations representations = EntityRepresentations.of([[id: "1"], [id: "2"], [id: "1"]])
+
+        when:
+        representations.fanOut([result("r1")])
+
+        then:
+        thrown(IllegalStateException)
+    }
+
+    def "keeps keys and results as is without duplicates"() {
+        given:
+        List<String> keys = ["k0", "k1"]
+        List<DataFetcherResult<Object>> results = [result("r0"), result("r1")]
+
+        when:
+        EntityRepresentations representations = EntityRepresentations.of([[id: "1"], [id: "2"]])
+
+        then:
+        representations.getUniqueCount() == 2
+        representations.uniqueKeys(keys).is(keys)
+        representations.fanOut(results).is(results)
+    }
+
+    private static DataFetcherResult<Object> result(Object data) {
+        return DataFetcherResult.newResult().data(data).build()
+    }
+}
@@ -0,0 +1,53 @@
+package com.intuit.graphql.orchestrator.batch
+
+import com.intuit.graphql.orchestrator.schema.transform.FieldResolverContext
+import graphql.language.Field
+import graphql.schema.DataFetchingEnvironment
+import spock.lang.Specification
+
+class FieldResolverBatchGroupsSpec extends Specification {
+
+    Field petField = Field.newField("pet").build()
+
+    FieldResolverContext fieldResolverContext = FieldResolverContext.builder()
+            .requiredFields(["petId"] as Set)
+            .build()
+
+    DataFetchingEnvironment dfe(Field field, Map<String, Object> source) {
+        DataFetchingEnvironment dataFetchingEnvironment = Mock(DataFetchingEnvironment)
+        dataFetchingEnvironment.getField() >> field
+        dataFetchingEnvironment.getSource() >> source
+        return dataFetchingEnvironment
+    }
+
+    def "groups environments of the same field with identical required field values"() {
+        given:
+        List<DataFetchingEnvironment> dfes = [
+                dfe(petField, [petId: "p1", name: "a"]),
+                dfe(petField, [petId: "p2", name: "b"]),
+                dfe(petField, [petId: "p1", name: "c"]),
+                dfe(Field.newField("pet").build(), [petId: "p1"])
+        ]
+
+        when:
+        FieldResolverBatchGroups groups = FieldResolverBatchGroups.of(dfes, fieldResolverContext)
+
+        then:
+        groups.getRawCount() == 4
+        groups.getUniqueCount() == 3
+        groups.getAliasIndexes() == [0, 1, 0, 2] as int[]
+        groups.uniqueEnvironments(dfes) == [dfes[0], dfes[1], dfes[3]]
+    }
+
+    def "keeps environments as is without required fields"() {
+        given:
+        List<DataFetchingEnvironment> dfes = [dfe(petField, [petId: "p1"]), dfe(petField, [petId: "p1"])]
+
+        when:
+        FieldResolverBatchGroups groups = FieldResolverBatchGroups.of(dfes, FieldResolverContext.builder().build())
+
+        then:
+        groups.getUniqueCount() == 2
+        groups.uniqueEnvironments(dfes).is(dfes)
+    }
+}
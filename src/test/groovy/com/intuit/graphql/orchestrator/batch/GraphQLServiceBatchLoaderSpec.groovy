@@ -1,9 +1,12 @@
 package com.intuit.graphql.orchestrator.batch
 
+import com.google.common.base.Ticker
 import com.google.common.collect.ImmutableMap
 import com.intuit.graphql.orchestrator.ServiceProvider
 import com.intuit.graphql.orchestrator.authorization.FieldAuthorization
 import com.intuit.graphql.orchestrator.batch.GraphQLTestUtil.PassthroughQueryModifier
+import com.intuit.graphql.orchestrator.cache.CacheControl
+import com.intuit.graphql.orchestrator.cache.RootFieldResultCache
 import com.intuit.graphql.orchestrator.schema.ServiceMetadataImpl
 import graphql.GraphQLContext
 import graphql.Scalars
@@ -18,6 +21,7 @@ import graphql.schema.GraphQLObjectType
 import graphql.schema.GraphQLSchema
 import spock.lang.Specification
 
+import java.time.Duration
 import java.util.concurrent.CompletableFuture
 
 import static com.intuit.graphql.orchestrator.batch.GraphQLServiceBatchLoader.newQueryExecutorBatchLoader
@@ -102,7 +106,7 @@ class GraphQLServiceBatchLoaderSpec extends Specification {
         DataFetchingEnvironment dfe1 = newDataFetchingEnvironment()
                 .variables(ImmutableMap.of("1", "3"))
                 .graphQLSchema(graphQLSchema)
-                .context(GraphQLContext.newContext().build())
+                .graphQLContext(GraphQLContext.newContext().build())
                 .mergedField(mergedField1)
                 .parentType(queryType)
                 .executionStepInfo(ExecutionStepInfo.newExecutionStepInfo()
@@ -114,7 +118,7 @@ class GraphQLServiceBatchLoaderSpec extends Specification {
 
         DataFetchingEnvironment dfe2 = newDataFetchingEnvironment()
                 .variables(ImmutableMap.of("2", "4"))
-                .context(GraphQLContext.newContext().build())
+                .graphQLContext(GraphQLContext.newContext().build())
                 .graphQLSchema(graphQLSchema)
                 .mergedField(mergedField2)
                 .parentType(queryType)
@@ -173,7 +177,7 @@ class GraphQLServiceBatchLoaderSpec extends Specification {
         DataFetchingEnvironment dfe1 = newDataFetchingEnvironment()
                 .variables(ImmutableMap.of("1", "3"))
                 .graphQLSchema(graphQLSchema)
-                .context(graphQLContext)
+                .graphQLContext(graphQLContext)
                 .mergedField(mergedField1)
                 .parentType(queryType)
                 .executionStepInfo(ExecutionStepInfo.newExecutionStepInfo()
@@ -185,7 +189,7 @@ class GraphQLServiceBatchLoaderSpec extends Specification {
 
         DataFetchingEnvironment dfe2 = newDataFetchingEnvironment()
                 .variables(ImmutableMap.of("2", "4"))
-                .context(GraphQLContext.newContext().build())
+                .graphQLContext(GraphQLContext.newContext().build())
                 .graphQLSchema(graphQLSchema)
                 .mergedField(mergedField2)
                 .parentType(queryType)
@@ -236,7 +240,7 @@ class GraphQLServiceBatchLoaderSpec extends Specification {
         DataFetchingEnvironment dfe1 = newDataFetchingEnvironment()
                 .variables(ImmutableMap.of("1", "3"))
                 .graphQLSchema(graphQLSchema)
-                .context(GraphQLContext.newContext().build())
+                .graphQLContext(GraphQLContext.newContext().build())
                 .mergedField(mergedField)
                 .parentType(mutationType)
                 .executionStepInfo(ExecutionStepInfo.newExecutionStepInfo()
@@ -290,7 +294,7 @@ class GraphQLServiceBatchLoaderSpec extends Specification {
         DataFetchingEnvironment dfe1 = newDataFetchingEnvironment()
                 .variables(ImmutableMap.of("1", "3"))
                 .graphQLSchema(graphQLSchema)
-                .context(graphQLContext)
+                .graphQLContext(graphQLContext)
                 .mergedField(mergedField)
                 .parentType(mutationType)
                 .executionStepInfo(ExecutionStepInfo.newExecutionStepInfo()
@@ -336,7 +340,7 @@ class GraphQLServiceBatchLoaderSpec extends Specification {
                 .variables(ImmutableMap.of("1", "3"))
                 .graphQLSchema(graphQLSchema)
                 .mergedField(mergedField)
-                .context(GraphQLContext.newContext().build())
+                .graphQLContext(GraphQLContext.newContext().build())
                 .parentType(GraphQLObjectType.newObject().name("somerandomtype").build())
                 .executionStepInfo(ExecutionStepInfo.newExecutionStepInfo()
                         .path(ResultPath.parse("/first"))
@@ -384,7 +388,7 @@ class GraphQLServiceBatchLoaderSpec extends Specification {
                 .variables(ImmutableMap.of("1", "3"))
                 .graphQLSchema(graphQLSchema)
                 .mergedField(mergedField)
-                .context(GraphQLContext.newContext().build())
+                .graphQLContext(GraphQLContext.newContext().build())
                 .parentType(GraphQLObjectType.newObject().name("somerandomtype").build())
                 .executionStepInfo(ExecutionStepInfo.newExecutionStepInfo()
                         .path(ResultPath.parse("/first"))
@@ -440,7 +444,7 @@ class GraphQLServiceBatchLoaderSpec extends Specification {
         DataFetchingEnvironment dfe1 = newDataFetchingEnvironment()
                 .variables(map)
                 .graphQLSchema(graphQLSchema)
-                .context(GraphQLContext.newContext().build())
+                .graphQLContext(GraphQLContext.newContext().build())
                 .mergedField(mergedField)
                 .parentType(mutationType)
                 .executionStepInfo(ExecutionStepInfo.newExecutionStepInfo()
@@ -513,7 +517,7 @@ class GraphQLServiceBatchLoaderSpec extends Specification {
                 .variables(emptyMap())
                 .graphQLSchema(graphQLSchema)
                 .operationDefinition(operationWithVariableDefinitions)
-                .context(GraphQLContext.newContext().build())
+                .graphQLContext(GraphQLContext.newContext().build())
                 .mergedField(mergedFieldWithArgument)
                 .executionStepInfo(ExecutionStepInfo.newExecutionStepInfo()
                         .path(ResultPath.parse("/fieldWithArgument"))
@@ -645,7 +649,7 @@ class GraphQLServiceBatchLoaderSpec extends Specification {
                 .variables(emptyMap())
                 .graphQLSchema(graphQLSchema)
                 .operationDefinition(operationWithVariableDefinitions)
-                .context(GraphQLContext.newContext().build())
+                .graphQLContext(GraphQLContext.newContext().build())
                 .mergedField(mergedField)
                 .executionStepInfo(ExecutionStepInfo.newExecutionStepInfo()
                         .path(ResultPath.parse("/field"))
@@ -696,7 +700,7 @@ class GraphQLServiceBatchLoaderSpec extends Specification {
         DataFetchingEnvironment dfe1 = newDataFetchingEnvironment()
                 .variables(ImmutableMap.of("1", "3"))
                 .graphQLSchema(graphQLSchema)
-                .context(GraphQLContext.newContext().build())
+                .graphQLContext(GraphQLContext.newContext().build())
                 .mergedField(mergedField)
                 .parentType(queryType)
                 .operationDefinition(operationDefinition)
@@ -740,7 +744,7 @@ class GraphQLServiceBatchLoaderSpec extends Specification {
         DataFetchingEnvironment dfe1 = newDataFetchingEnvironment()
                 .variables(ImmutableMap.of("1", "3"))
                 .graphQLSchema(graphQLSchema)
-                .context(GraphQLContext.newContext().build())
+                .graphQLContext(GraphQLContext.newContext().build())
                 .mergedField(mergedField1)
                 .parentType(queryType)
                 .executionStepInfo(ExecutionStepInfo.newExecutionStepInfo()
@@ -752,7 +756,7 @@ class GraphQLServiceBatchLoaderSpec extends Specification {
 
         DataFetchingEnvironment dfe2 = newDataFetchingEnvironment()
                 .variables(ImmutableMap.of("2", "4"))
-                .context(GraphQLContext.newContext().build())
+                .graphQLContext(GraphQLContext.newContext().build())
                 .graphQLSchema(graphQLSchema)
                 .mergedField(mergedField2)
                 .parentType(queryType)
@@ -802,7 +806,7 @@ class GraphQLServiceBatchLoaderSpec extends Specification {
         DataFetchingEnvironment dfe = newDataFetchingEnvironment()
                 .variables(ImmutableMap.of("1", "3"))
                 .graphQLSchema(graphQLSchema)
-                .context(GraphQLContext.newContext().build())
+                .graphQLContext(GraphQLContext.newContext().build())
                 .mergedField(mergedField1)
                 .parentType(queryType)
                 .executionStepInfo(ExecutionStepInfo.newExecutionStepInfo()
@@ -822,6 +826,106 @@ class GraphQLServiceBatchLoaderSpec extends Specification {
         1 * mockHooks.onBatchLoadEnd(_, _)
     }
 
+    def "calls onQueryResult hook with the response of a streaming query executor"() {
+        given:
+        StreamingQueryExecutor streamingExecutor = { input, context ->
+            CompletableFuture.completedFuture(new ByteArrayInputStream('{"data":{"first":{"s1":"a"}}}'.getBytes("UTF-8")))
+        } as StreamingQueryExecutor
+
+        final BatchLoaderExecutionHooks mockHooks = Mock(BatchLoaderExecutionHooks.class)
+
+        GraphQLServiceBatchLoader loader = newQueryExecutorBatchLoader()
+                .queryExecutor(streamingExecutor)
+                .serviceMetadata(mockServiceMetadata)
+                .batchLoaderExecutionHooks(mockHooks)
+                .build()
+
+        GraphQLObjectType queryType = GraphQLObjectType.newObject().name("query")
+                .field({ builder -> builder.name("first").type(FIRST_TYPE) })
+                .build()
+
+        MergedField mergedField1 = newMergedField(newField("first").build()).build()
+
+        DataFetchingEnvironment dfe = newDataFetchingEnvironment()
+                .graphQLSchema(newSchema().query(queryType).build())
+                .graphQLContext(GraphQLContext.newContext().build())
+                .mergedField(mergedField1)
+                .parentType(queryType)
+                .executionStepInfo(ExecutionStepInfo.newExecutionStepInfo()
+                        .path(ResultPath.parse("/first"))
+                        .field(mergedField1)
+                        .type(FIRST_TYPE)
+                        .build())
+                .build()
+
+        when:
+        def results = loader.load(singletonList(dfe)).toCompletableFuture().join()
+
+        then:
+        results*.getData() == [[s1: "a"]]
+        1 * mockHooks.onQueryResult(_, [data: [first: [s1: "a"]]])
+    }
+
+    def "refreshes stale cached results without calling hooks"() {
+        given:
+        long nanos = 0
+        RootFieldResultCache resultCache = RootFieldResultCache.newBuilder()
+                .staleWhileRevalidate(Duration.ofSeconds(5))
+                .ticker({ nanos } as Ticker)
+                .build()
+        mockServiceMetadata.getRootFieldCacheControl("first") >>
+                new CacheControl(Duration.ofSeconds(10), CacheControl.Scope.PUBLIC)
+
+        int queries = 0
+        QueryExecutor queryExecutor = { input, context ->
+            queries++
+            CompletableFuture.completedFuture([data: [first: [s1: "v" + queries]]] as Map<String, Object>)
+        }
+        final BatchLoaderExecutionHooks mockHooks = Mock(BatchLoaderExecutionHooks.class)
+
+        GraphQLServiceBatchLoader loader = newQueryExecutorBatchLoader()
+                .queryExecutor(queryExecutor)
+                .serviceMetadata(mockServiceMetadata)
+                .batchLoaderExecutionHooks(mockHooks)
+                .resultCache(resultCache)
+                .build()
+
+        GraphQLObjectType queryType = GraphQLObjectType.newObject().name("query")
+                .field({ builder -> builder.name("first").type(FIRST_TYPE) })
+                .build()
+        MergedField mergedField = newMergedField(newField("first")
+                .selectionSet(SelectionSet.newSelectionSet().selection(newField("s1").build()).build())
+                .build()).build()
+
+        DataFetchingEnvironment dfe = newDataFetchingEnvironment()
+                .graphQLSchema(newSchema().query(queryType).build())
+                .graphQLContext(GraphQLContext.newContext().build())
+                .mergedField(mergedField)
+                .parentType(queryType)
+                .fieldDefinition(queryType.getFieldDefinition("first"))
+                .executionStepInfo(ExecutionStepInfo.newExecutionStepInfo()
+                        .path(ResultPath.parse("/first"))
+                        .field(mergedField)
+                        .type(FIRST_TYPE)
+                        .build())
+                .build()
+
+        when:
+        loader.load(singletonList(dfe)).toCompletableFuture().join()
+        nanos = Duration.ofSeconds(12).toNanos()
+        def stale = loader.load(singletonList(dfe)).toCompletableFuture().join()
+        def refreshed = loader.load(singletonList(dfe)).toCompletableFuture().join()
+
+        then:
+        queries == 2
+        stale*.getData() == [[s1: "v1"]]
+        refreshed*.getData() == [[s1: "v2"]]
+        1 * mockHooks.onBatchLoadStart(_, _)
+        1 * mockHooks.onExecutionInput(_, _)
+        1 * mockHooks.onQueryResult(_, _)
+        1 * mockHooks.onBatchLoadEnd(_, _)
+    }
+
     def "fragment Definition Call Test"() {
         given:
         QueryExecutor emptyFn = { input, context -> CompletableFuture.completedFuture(new HashMap<>()) }
@@ -874,7 +978,7 @@ class GraphQLServiceBatchLoaderSpec extends Specification {
         DataFetchingEnvironment dfe1 = newDataFetchingEnvironment()
                 .variables(ImmutableMap.of("1", "3"))
                 .graphQLSchema(graphQLSchema)
-                .context(GraphQLContext.newContext().build())
+                .graphQLContext(GraphQLContext.newContext().build())
                 .parentType(queryType)
                 .fragmentsByName(m)
                 .mergedField(mergedField2)
@@ -893,7 +997,7 @@ class GraphQLServiceBatchLoaderSpec extends Specification {
         DataFetchingEnvironment dfe2 = newDataFetchingEnvironment()
                 .variables(ImmutableMap.of("1", "3"))
                 .graphQLSchema(graphQLSchema)
-                .context(GraphQLContext.newContext().build())
+                .graphQLContext(GraphQLContext.newContext().build())
                 .parentType(queryType)
                 .fragmentsByName(m)
                 .mergedField(mergedField2)
@@ -0,0 +1,128 @@
+package com.intuit.graphql.orchestrator.batch
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import graphql.execution.DataFetcherResult
+import spock.lang.Specification
+
+class LazyJsonMapSpec extends Specification {
+
+    private static final String RESPONSE = '''
+        {
+          "data": {
+            "consumer": {
+              "__typename": "Consumer",
+              "id": 12345678901234,
+              "score": 1.5,
+              "active": true,
+              "nickname": null,
+              "name": "J\\u00e9r\\u00f4me",
+              "accounts": [{ "id": 1 }, { "id": 2, "tags": ["a", "b"] }, []]
+            }
+          },
+          "errors": [{ "message": "boom", "path": ["consumer", "accounts"] }]
+        }
+    '''
+
+    def "equals fully decoded map"() {
+        when:
+        Map<String, Object> lazy = LazyJsonMap.parse(RESPONSE)
+        Map<String, Object> eager = new ObjectMapper().readValue(RESPONSE, Map)
+
+        then:
+        lazy == eager
+        eager == lazy
+        lazy.hashCode() == eager.hashCode()
+        lazy.keySet() == eager.keySet()
+    }
+
+    def "decodes nested values on read"() {
+        when:
+        Map<String, Object> consumer = LazyJsonMap.parse(RESPONSE).get("data").get("consumer")
+
+        then:
+        consumer instanceof LazyJsonMap
+        consumer.get("name") == "Jérôme"
+        consumer.get("id") == 12345678901234L
+        consumer.get("score") == 1.5d
+        consumer.get("active") == true
+        consumer.containsKey("nickname")
+        consumer.get("nickname") == null
+        !consumer.containsKey("missing")
+        consumer.get("accounts")[1].get("tags") == ["a", "b"]
+        consumer.get("accounts")[2] == []
+        consumer.size() == 7
+    }
+
+    def "indexes wide objects"() {
+        given:
+        String json = "{" + (0..<50).collect { "\"f$it\": $it" }.join(",") + "}"
+
+        when:
+        Map<String, Object> map = LazyJsonMap.parse(json)
+
+        then:
+        map.size() == 50
+        map.get("f0") == 0
+        map.get("f49") == 49
+        map.get("f50") == null
+    }
+
+    def "last duplicate field wins"() {
+        expect:
+        LazyJsonMap.parse('{"a": 1, "b": 2, "a": "x"}') == [a: "x", b: 2]
+    }
+
+    def "supports modification"() {
+        given:
+        Map<String, Object> map = LazyJsonMap.parse('{"a": {"b": 1}, "c": [1]}')
+
+        when:
+        map.put("errors", [])
+        map.remove("c")
+        map.get("a").put("d", 2)
+
+        then:
+        map == [a: [b: 1, d: 2], errors: []]
+    }
+
+    def "parses a slice of a buffer"() {
+        given:
+        byte[] buffer = ('[' + RESPONSE + ', {"a": 1}]').getBytes("UTF-8")
+
+        when:
+        Map<String, Object> lazy = LazyJsonMap.parse(buffer, 1, RESPONSE.getBytes("UTF-8").length)
+
+        then:
+        lazy == new ObjectMapper().readValue(RESPONSE, Map)
+    }
+
+    def "returns the same instance for every read of a nested value"() {
+        when:
+        Map<String, Object> lazy = LazyJsonMap.parse(RESPONSE)
+
+        then:
+        lazy.get("data").is(lazy.get("data"))
+        lazy.get("data").get("consumer").get("accounts").is(lazy.get("data").get("consumer").get("accounts"))
+        lazy.get("data").get("consumer").get("name").is(lazy.get("data").get("consumer").get("name"))
+    }
+
+    def "rejects non object"() {
+        when:
+        LazyJsonMap.parse('[1, 2]')
+
+        then:
+        thrown(UncheckedIOException)
+    }
+
+    def "is readable by the default query response modifier"() {
+        when:
+        DataFetcherResult<Map<String, Object>> result = new DefaultQueryResponseModifier()
+                .modify(LazyJsonMap.parse(RESPONSE))
+
+        then:
+        result.getData().get("consumer").get("__typename") == "Consumer"
+        result.getErrors().size() == 1
+        result.getErrors()[0].getMessage() == "boom"
+        result.getErrors()[0].getPath() == ["consumer", "accounts"]
+    }
+}
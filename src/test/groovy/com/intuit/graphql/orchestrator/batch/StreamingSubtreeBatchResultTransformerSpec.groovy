@@ -0,0 +1,116 @@
+package com.intuit.graphql.orchestrator.batch
+
+import com.fasterxml.jackson.core.JsonParser
+import com.fasterxml.jackson.databind.ObjectMapper
+import graphql.execution.DataFetcherResult
+import graphql.execution.ExecutionStepInfo
+import graphql.language.Document
+import graphql.schema.DataFetchingEnvironment
+import spock.lang.Specification
+
+import static com.intuit.graphql.orchestrator.TestHelper.document
+import static com.intuit.graphql.orchestrator.batch.GraphQLTestUtil.buildCompleteExecutionStepInfo
+import static graphql.schema.DataFetchingEnvironmentImpl.newDataFetchingEnvironment
+
+class StreamingSubtreeBatchResultTransformerSpec extends Specification {
+
+    private String query = '''
+        query {
+            consumer {
+                finance {
+                    tax {
+                        returns {
+                            taxYr
+                        }
+                    }
+                }
+                experiences {
+                    test_values
+                }
+                financialProfile {
+                    health {
+                        creditScore
+                    }
+                }
+            }
+        }
+    '''
+
+    private Document document
+
+    def setup() {
+        document = document(query)
+    }
+
+    def "produces partitioned result and skips unrequested subtrees"() {
+        given:
+        String response = '''
+            {
+              "data": {
+                "consumer": {
+                  "shouldBeIgnored": { "a": [1, 2, { "b": 3 }] },
+                  "finance": { "tax": { "returns": [{ "taxYr": 2020 }] } },
+                  "experiences": { "test_values": ["a", "b"] }
+                }
+              },
+              "extensions": { "cost": 1 }
+            }
+        '''
+
+        when:
+        List<DataFetcherResult<Object>> results = new StreamingSubtreeBatchResultTransformer()
+                .toBatchResult(parser(response), [key("finance"), key("experiences"), key("financialProfile")])
+
+        then:
+        results.size() == 3
+        results[0].getData() == [tax: [returns: [[taxYr: 2020]]]]
+        results[1].getData() == [test_values: ["a", "b"]]
+        results[2].getData() == null
+        results.every { !it.hasErrors() }
+    }
+
+    def "null and array data paths return null"() {
+        expect:
+        new StreamingSubtreeBatchResultTransformer().toBatchResult(parser(response), [key("finance")])[0].getData() == null
+
+        where:
+        response << [
+                '{"data": null}',
+                '{"data": {"consumer": null}}',
+                '{"data": {"consumer": ["finance"]}}',
+                '{"data": {"consumer": {"finance": null}}}'
+        ]
+    }
+
+    def "adds errors to first partitioned result only"() {
+        given:
+        String response = '''
+            {
+              "errors": [{ "message": "boom", "path": ["consumer", "shouldBeIgnored"] }],
+              "data": { "consumer": { "finance": "test", "experiences": "test" } }
+            }
+        '''
+
+        when:
+        List<DataFetcherResult<Object>> results = new StreamingSubtreeBatchResultTransformer()
+                .toBatchResult(parser(response), [key("finance"), key("experiences")])
+
+        then:
+        results[0].getData() == "test"
+        results[0].getErrors().size() == 1
+        results[0].getErrors()[0].getMessage() == "boom"
+        results[1].getData() == "test"
+        results[1].getErrors().isEmpty()
+    }
+
+    private DataFetchingEnvironment key(String field) {
+        final ExecutionStepInfo executionStepInfo = buildCompleteExecutionStepInfo(document, "consumer", field)
+        return newDataFetchingEnvironment()
+                .mergedField(executionStepInfo.getField())
+                .executionStepInfo(executionStepInfo).build()
+    }
+
+    private static JsonParser parser(String response) {
+        return new ObjectMapper().getFactory().createParser(response)
+    }
+}
@@ -4,7 +4,9 @@ import graphql.GraphQLError
 import graphql.GraphqlErrorBuilder
 import graphql.execution.DataFetcherResult
 import graphql.execution.ExecutionStepInfo
+import graphql.execution.ResultPath
 import graphql.language.Document
+import graphql.language.Field
 import graphql.schema.DataFetchingEnvironment
 import spock.lang.Specification
 
@@ -12,6 +14,10 @@ import java.util.stream.Collectors
 
 import static com.intuit.graphql.orchestrator.TestHelper.document
 import static com.intuit.graphql.orchestrator.batch.GraphQLTestUtil.buildCompleteExecutionStepInfo
+import static graphql.Scalars.GraphQLString
+import static graphql.execution.ExecutionStepInfo.newExecutionStepInfo
+import static graphql.execution.MergedField.newMergedField
+import static graphql.language.Field.newField
 import static graphql.schema.DataFetchingEnvironmentImpl.newDataFetchingEnvironment
 
 class SubtreeBatchResultTransformerSpec extends Specification {
@@ -209,4 +215,41 @@ class SubtreeBatchResultTransformerSpec extends Specification {
                 .collect(Collectors.toList()).size() == 1
     }
 
+    def "resolves list segments and aliases"() {
+        given:
+        ExecutionStepInfo root = newExecutionStepInfo().type(GraphQLString).path(ResultPath.rootPath()).build()
+        ExecutionStepInfo consumer = stepInfo(root, newField("consumer").alias("me").build(), ResultPath.parse("/me"))
+        ExecutionStepInfo accounts = stepInfo(consumer, newField("accounts").build(), ResultPath.parse("/me/accounts"))
+        ExecutionStepInfo account = stepInfo(accounts, accounts.getField().getSingleField(), ResultPath.parse("/me/accounts[1]"))
+        ExecutionStepInfo id = stepInfo(account, newField("id").build(), ResultPath.parse("/me/accounts[1]/id"))
+        ExecutionStepInfo missing = stepInfo(accounts, accounts.getField().getSingleField(), ResultPath.parse("/me/accounts[5]"))
+
+        Map<String, Object> data = [me: [accounts: [[id: "a0"], [id: "a1"]]]]
+
+        DataFetcherResult<Map<String, Object>> dataFetcherResult = DataFetcherResult.<Map<String, Object>>newResult()
+                .data(data)
+                .build()
+
+        when:
+        final List<DataFetcherResult<Object>> results = new SubtreeBatchResultTransformer()
+                .toBatchResult(dataFetcherResult, [id, account, missing, consumer].collect { key(it) })
+
+        then:
+        results.collect { it.getData() } == ["a1", [id: "a1"], null, data.me]
+    }
+
+    private static ExecutionStepInfo stepInfo(ExecutionStepInfo parent, Field field, ResultPath path) {
+        return newExecutionStepInfo()
+                .parentInfo(parent)
+                .field(newMergedField(field).build())
+                .type(GraphQLString)
+                .path(path)
+                .build()
+    }
+
+    private static DataFetchingEnvironment key(ExecutionStepInfo executionStepInfo) {
+        return newDataFetchingEnvironment()
+                .mergedField(executionStepInfo.getField())
+                .executionStepInfo(executionStepInfo).build()
+    }
 }
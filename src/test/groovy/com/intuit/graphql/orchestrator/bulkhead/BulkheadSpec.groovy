@@ -0,0 +1,186 @@
+package com.intuit.graphql.orchestrator.bulkhead
+
+import com.intuit.graphql.orchestrator.ServiceProvider
+import com.intuit.graphql.orchestrator.VirtualOrchestratorProvider
+import com.intuit.graphql.orchestrator.batch.StreamingQueryExecutor
+import graphql.ExecutionInput
+import graphql.GraphQLContext
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutionException
+
+class BulkheadSpec extends Specification {
+
+    BulkheadListener listener = Mock(BulkheadListener)
+
+    def "queues calls beyond the limit and rejects calls beyond the queue"() {
+        given:
+        Bulkhead bulkhead = new Bulkhead("SVC", BulkheadConfig.builder().maxConcurrentCalls(2).maxQueueSize(1).build(), listener)
+        List<CompletableFuture<String>> calls = (0..3).collect { new CompletableFuture<String>() }
+        int started = 0
+
+        when:
+        List<CompletableFuture<String>> results = calls.collect { call -> bulkhead.execute({ started++; call }) }
+
+        then:
+        1 * listener.onQueued("SVC", 1)
+        1 * listener.onRejected("SVC", 2, 1)
+        started == 2
+        bulkhead.getInFlight() == 2
+        bulkhead.getQueueDepth() == 1
+
+        when:
+        results.get(3).get()
+
+        then:
+        def exception = thrown(ExecutionException)
+        exception.getCause() instanceof BulkheadFullException
+
+        when:
+        calls.get(0).complete("first")
+
+        then:
+        results.get(0).get() == "first"
+        started == 3
+        bulkhead.getInFlight() == 2
+        bulkhead.getQueueDepth() == 0
+    }
+
+    def "releases the slot when the call fails"() {
+        given:
+        Bulkhead bulkhead = new Bulkhead("SVC", BulkheadConfig.builder().maxConcurrentCalls(1).maxQueueSize(0).build(), listener)
+
+        when:
+        CompletableFuture<String> thrownResult = bulkhead.execute({ throw new IllegalStateException("boom") })
+        CompletableFuture<String> failedResult = bulkhead.execute({ failed(new IllegalStateException("boom")) })
+
+        then:
+        thrownResult.isCompletedExceptionally()
+        failedResult.isCompletedExceptionally()
+        bulkhead.getInFlight() == 0
+        0 * listener.onRejected(_, _, _)
+    }
+
+    def "drops queued calls that completed while waiting"() {
+        given:
+        Bulkhead bulkhead = new Bulkhead("SVC", BulkheadConfig.builder().maxConcurrentCalls(1).maxQueueSize(2).build(), listener)
+        CompletableFuture<String> first = new CompletableFuture<>()
+        int started = 0
+
+        when:
+        bulkhead.execute({ first })
+        CompletableFuture<String> cancelled = bulkhead.execute({ started++; new CompletableFuture<String>() })
+        CompletableFuture<String> waiting = bulkhead.execute({ started++; CompletableFuture.completedFuture("waiting") })
+        cancelled.cancel(false)
+        first.complete("first")
+
+        then:
+        started == 1
+        waiting.get() == "waiting"
+        bulkhead.getInFlight() == 0
+        bulkhead.getQueueDepth() == 0
+    }
+
+    def "starts queued calls that complete synchronously without nesting"() {
+        given:
+        Bulkhead bulkhead = new Bulkhead("SVC", BulkheadConfig.builder().maxConcurrentCalls(1).maxQueueSize(10000).build(), listener)
+        CompletableFuture<String> first = new CompletableFuture<>()
+        bulkhead.execute({ first })
+        List<CompletableFuture<String>> results = (1..10000).collect { i ->
+            bulkhead.execute({ CompletableFuture.completedFuture("call" + i) })
+        }
+
+        when:
+        first.complete("first")
+
+        then:
+        results*.getNow(null) == (1..10000).collect { "call" + it }
+        bulkhead.getInFlight() == 0
+    }
+
+    def "adaptive limit backs off on failure and grows while in use"() {
+        given:
+        AimdLimit aimd = AimdLimit.builder().initialLimit(10).backoffRatio(0.5).latencyThreshold(Duration.ofSeconds(1)).build()
+        Bulkhead bulkhead = new Bulkhead("SVC", BulkheadConfig.builder().limitAlgorithm(aimd).build(), listener)
+
+        when:
+        bulkhead.execute({ failed(new IllegalStateException("boom")) })
+
+        then:
+        1 * listener.onLimitChanged("SVC", 10, 5)
+        bulkhead.getLimit() == 5
+        aimd.update(5, 3, 0, false) == 6
+        aimd.update(5, 1, 0, false) == 5
+        aimd.update(5, 3, Duration.ofSeconds(2).toNanos(), false) == 2
+        aimd.update(1, 1, 0, true) == 1
+    }
+
+    def "decorates service providers of configured namespaces"() {
+        given:
+        ServiceProvider configured = Mock(ServiceProvider) { getNameSpace() >> "SVC" }
+        ServiceProvider other = Mock(ServiceProvider) { getNameSpace() >> "OTHER" }
+        Bulkheads bulkheads = Bulkheads.newBuilder()
+                .config("SVC", BulkheadConfig.builder().build())
+                .build()
+
+        expect:
+        bulkheads.decorate(configured) instanceof BulkheadServiceProvider
+        bulkheads.decorate(other).is(other)
+        bulkheads.decorate(VirtualOrchestratorProvider.INSTANCE).is(VirtualOrchestratorProvider.INSTANCE)
+        bulkheads.get("SVC").is(bulkheads.get("SVC"))
+        Bulkheads.NONE.decorate(configured).is(configured)
+    }
+
+    def "decorated provider delegates queries through the bulkhead"() {
+        given:
+        ServiceProvider provider = Mock(ServiceProvider)
+        provider.getNameSpace() >> "SVC"
+        provider.maxEntityBatchSize() >> 5
+        Bulkheads bulkheads = Bulkheads.newBuilder().defaultConfig(BulkheadConfig.builder().build()).build()
+        ServiceProvider decorated = bulkheads.decorate(provider)
+        CompletableFuture<Map<String, Object>> response = new CompletableFuture<>()
+
+        when:
+        def result = decorated.query(ExecutionInput.newExecutionInput().query("{ a }").build(), GraphQLContext.newContext().build())
+
+        then:
+        1 * provider.query(_, _) >> response
+        bulkheads.get("SVC").getInFlight() == 1
+        decorated.getNameSpace() == "SVC"
+        decorated.maxEntityBatchSize() == 5
+
+        when:
+        response.complete([data: [a: "a"]])
+
+        then:
+        result.get() == [data: [a: "a"]]
+        bulkheads.get("SVC").getInFlight() == 0
+    }
+
+    def "decorated streaming provider stays a streaming query executor"() {
+        given:
+        ServiceProvider provider = Mock(StreamingServiceProvider) { getNameSpace() >> "SVC" }
+        Bulkheads bulkheads = Bulkheads.newBuilder().defaultConfig(BulkheadConfig.builder().build()).build()
+
+        when:
+        ServiceProvider decorated = bulkheads.decorate(provider)
+        ((StreamingQueryExecutor) decorated).queryForStream(ExecutionInput.newExecutionInput().query("{ a }").build(),
+                GraphQLContext.newContext().build())
+
+        then:
+        decorated instanceof StreamingQueryExecutor
+        1 * provider.queryForStream(_, _) >> new CompletableFuture<InputStream>()
+        bulkheads.get("SVC").getInFlight() == 1
+    }
+
+    private static <T> CompletableFuture<T> failed(Throwable throwable) {
+        CompletableFuture<T> future = new CompletableFuture<>()
+        future.completeExceptionally(throwable)
+        return future
+    }
+
+    interface StreamingServiceProvider extends ServiceProvider, StreamingQueryExecutor {
+    }
+}
@@ -0,0 +1,20 @@
+package com.intuit.graphql.orchestrator.cache
+
+import spock.lang.Specification
+
+import static com.intuit.graphql.orchestrator.TestHelper.document
+
+class DocumentFingerprintSpec extends Specification {
+
+    def "fingerprint ignores source locations"() {
+        expect:
+        DocumentFingerprint.of(document('{ a { b } }')) == DocumentFingerprint.of(document('{\n  a {\n    b\n  }\n}'))
+        DocumentFingerprint.of(document('{ a { b } }')) != DocumentFingerprint.of(document('{ a { c } }'))
+    }
+
+    def "documents that differ in aliases or literal values have different fingerprints"() {
+        expect:
+        DocumentFingerprint.of(document('{ a(id: "1") { b } }')) != DocumentFingerprint.of(document('{ a(id: "2") { b } }'))
+        DocumentFingerprint.of(document('{ a(id: "1") { b } }')) != DocumentFingerprint.of(document('{ x: a(id: "1") { b } }'))
+    }
+}
@@ -0,0 +1,112 @@
+package com.intuit.graphql.orchestrator.cache
+
+import com.google.common.hash.Hashing
+import graphql.ExecutionInput
+import graphql.execution.preparsed.PreparsedDocumentEntry
+import graphql.execution.preparsed.PreparsedDocumentProvider
+import graphql.parser.Parser
+import graphql.schema.GraphQLSchema
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+import java.util.function.Function
+
+import static graphql.Scalars.GraphQLString
+import static graphql.schema.GraphQLFieldDefinition.newFieldDefinition
+import static graphql.schema.GraphQLObjectType.newObject
+
+class PreparsedDocumentCacheSpec extends Specification {
+
+    static final String QUERY = "{ a }"
+    static final String HASH = Hashing.sha256().hashString(QUERY, StandardCharsets.UTF_8).toString()
+
+    int parseCount = 0
+
+    Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate = { ExecutionInput input ->
+        parseCount++
+        return new PreparsedDocumentEntry(new Parser().parseDocument(input.getQuery()))
+    }
+
+    InMemoryPersistedQueryStore store = new InMemoryPersistedQueryStore()
+
+    PreparsedDocumentCache cache = PreparsedDocumentCache.newBuilder().persistedQueryStore(store).build()
+
+    def "documents are parsed and validated once per query"() {
+        given:
+        PreparsedDocumentProvider provider = cache.forSchema(schema())
+
+        when:
+        provider.getDocument(input(QUERY), parseAndValidate)
+        PreparsedDocumentEntry entry = provider.getDocument(input(QUERY), parseAndValidate)
+        provider.getDocument(input("{ b }"), parseAndValidate)
+
+        then:
+        !entry.hasErrors()
+        parseCount == 2
+        cache.stats().hitCount() == 1
+        cache.stats().missCount() == 2
+    }
+
+    def "documents of a previous schema are dropped"() {
+        given:
+        cache.forSchema(schema()).getDocument(input(QUERY), parseAndValidate)
+
+        when:
+        PreparsedDocumentProvider provider = cache.forSchema(schema())
+
+        then:
+        cache.size() == 0
+
+        when:
+        provider.getDocument(input(QUERY), parseAndValidate)
+
+        then:
+        parseCount == 2
+    }
+
+    def "unknown persisted query is not found until it is sent with its query"() {
+        given:
+        PreparsedDocumentProvider provider = cache.forSchema(schema())
+
+        when:
+        PreparsedDocumentEntry notFound = provider.getDocument(persisted("", HASH), parseAndValidate)
+        PreparsedDocumentEntry registered = provider.getDocument(persisted(QUERY, HASH), parseAndValidate)
+        PreparsedDocumentEntry found = provider.getDocument(persisted("", HASH), parseAndValidate)
+
+        then:
+        notFound.getErrors()[0].getMessage() == "PersistedQueryNotFound"
+        !registered.hasErrors()
+        !found.hasErrors()
+        store.getQuery(HASH) == QUERY
+        parseCount == 1
+    }
+
+    def "persisted query that does not match its hash is rejected"() {
+        given:
+        PreparsedDocumentProvider provider = cache.forSchema(schema())
+
+        when:
+        PreparsedDocumentEntry entry = provider.getDocument(persisted("{ b }", HASH), parseAndValidate)
+
+        then:
+        entry.getErrors()[0].getMessage() == "PersistedQueryIdInvalid"
+        store.size() == 0
+        parseCount == 0
+    }
+
+    private static ExecutionInput input(String query) {
+        return ExecutionInput.newExecutionInput().query(query).build()
+    }
+
+    private static ExecutionInput persisted(String query, String hash) {
+        return ExecutionInput.newExecutionInput().query(query)
+                .extensions([persistedQuery: [version: 1, sha256Hash: hash]])
+                .build()
+    }
+
+    private static GraphQLSchema schema() {
+        return GraphQLSchema.newSchema()
+                .query(newObject().name("Query").field(newFieldDefinition().name("a").type(GraphQLString)))
+                .build()
+    }
+}
@@ -0,0 +1,57 @@
+package com.intuit.graphql.orchestrator.cache
+
+import graphql.language.AstPrinter
+import graphql.language.Document
+import spock.lang.Specification
+
+import static com.intuit.graphql.orchestrator.TestHelper.document
+
+class PrintedQueryCacheSpec extends Specification {
+
+    PrintedQueryCache specUnderTest = new PrintedQueryCache(PrintedQueryCache.DEFAULT_MAXIMUM_WEIGHT)
+
+    def "prints a document once and serves structurally identical documents from the cache"() {
+        given:
+        Document first = document('query Q($id: String) { a(id: $id) { b } ...F } fragment F on Query { c }')
+        Document second = document('''
+            query Q($id: String) {
+                a(id: $id) { b }
+                ...F
+            }
+            fragment F on Query { c }
+        ''')
+
+        when:
+        String firstPrinted = specUnderTest.print(first)
+        String secondPrinted = specUnderTest.print(second)
+
+        then:
+        firstPrinted == AstPrinter.printAstCompact(first)
+        secondPrinted.is(firstPrinted)
+        specUnderTest.stats().missCount() == 1
+        specUnderTest.stats().hitCount() == 1
+    }
+
+    def "documents that differ in aliases or literal values are cached separately"() {
+        when:
+        String printed1 = specUnderTest.print(document('{ a(id: "1") { b } }'))
+        String printed2 = specUnderTest.print(document('{ a(id: "2") { b } }'))
+        String printed3 = specUnderTest.print(document('{ x: a(id: "1") { b } }'))
+
+        then:
+        [printed1, printed2, printed3].toSet().size() == 3
+        specUnderTest.stats().missCount() == 3
+        specUnderTest.size() == 3
+    }
+
+    def "bounded by weight"() {
+        given:
+        PrintedQueryCache smallCache = new PrintedQueryCache(10)
+
+        when:
+        smallCache.print(document('{ aVeryLongFieldName { anotherVeryLongFieldName } }'))
+
+        then:
+        smallCache.size() == 0
+    }
+}
@@ -0,0 +1,176 @@
+package com.intuit.graphql.orchestrator.cache
+
+import com.google.common.base.Ticker
+import com.intuit.graphql.orchestrator.ServiceProvider
+import com.intuit.graphql.orchestrator.schema.ServiceMetadata
+import graphql.GraphQLContext
+import graphql.GraphqlErrorException
+import graphql.execution.DataFetcherResult
+import graphql.execution.ExecutionStepInfo
+import graphql.execution.ResultPath
+import graphql.language.OperationDefinition
+import graphql.schema.DataFetchingEnvironment
+import spock.lang.Specification
+
+import java.time.Duration
+
+import static graphql.Scalars.GraphQLString
+import static graphql.schema.DataFetchingEnvironmentImpl.newDataFetchingEnvironment
+import static graphql.schema.GraphQLFieldDefinition.newFieldDefinition
+
+class RootFieldResultCacheSpec extends Specification {
+
+    long nanos = 0
+
+    Ticker ticker = new Ticker() {
+        @Override
+        long read() {
+            return nanos
+        }
+    }
+
+    ServiceMetadata serviceMetadata = Mock(ServiceMetadata) {
+        getServiceProvider() >> Mock(ServiceProvider) { getNameSpace() >> "SVC" }
+        getRootFieldCacheControl("cached") >> new CacheControl(Duration.ofSeconds(10), CacheControl.Scope.PUBLIC)
+        getRootFieldCacheControl("private") >> new CacheControl(Duration.ofSeconds(10), CacheControl.Scope.PRIVATE)
+    }
+
+    RootFieldResultCache cache = RootFieldResultCache.newBuilder()
+            .staleWhileRevalidate(Duration.ofSeconds(5))
+            .scopeKey({ GraphQLContext context -> context.get("user") })
+            .ticker(ticker)
+            .build()
+
+    GraphQLContext user1 = GraphQLContext.newContext().of("user", "1").build()
+    GraphQLContext user2 = GraphQLContext.newContext().of("user", "2").build()
+
+    def "cached root fields are served from the cache and not fetched"() {
+        given:
+        List<DataFetchingEnvironment> keys = [key("cached", [id: 1]), key("other", [:])]
+        RootFieldResultCache.Batch first = cache.lookup(serviceMetadata, user1, keys)
+        first.complete([result([a: "a"]), result([b: "b"])])
+
+        when:
+        RootFieldResultCache.Batch second = cache.lookup(serviceMetadata, user1, keys)
+        List<DataFetcherResult<Object>> results = second.complete([result([b: "b2"])])
+
+        then:
+        second.getMissingKeys() == [keys[1]]
+        results*.getData() == [[a: "a"], [b: "b2"]]
+        cache.size() == 1
+    }
+
+    def "results are keyed by arguments and partitioned by scope key"() {
+        given:
+        cache.lookup(serviceMetadata, user1, [key("cached", [id: 1]), key("private", [:])])
+                .complete([result("public"), result("user1")])
+
+        expect:
+        cache.lookup(serviceMetadata, user2, [key("cached", [id: 1])]).hasCachedResults()
+        !cache.lookup(serviceMetadata, user1, [key("cached", [id: 2])]).hasCachedResults()
+        cache.lookup(serviceMetadata, user1, [key("private", [:])]).hasCachedResults()
+        !cache.lookup(serviceMetadata, user2, [key("private", [:])]).hasCachedResults()
+        !cache.lookup(serviceMetadata, GraphQLContext.newContext().build(), [key("private", [:])]).hasCachedResults()
+    }
+
+    def "stale results are served while one request refreshes them"() {
+        given:
+        List<DataFetchingEnvironment> keys = [key("cached", [:])]
+        cache.lookup(serviceMetadata, user1, keys).complete([result("v1")])
+        nanos = Duration.ofSeconds(12).toNanos()
+
+        when:
+        RootFieldResultCache.Batch stale = cache.lookup(serviceMetadata, user1, keys)
+        List<DataFetchingEnvironment> staleKeys = stale.getStaleKeys()
+
+        then:
+        staleKeys == keys
+        stale.getMissingKeys().isEmpty()
+        stale.complete([])*.getData() == ["v1"]
+        cache.lookup(serviceMetadata, user1, keys).getStaleKeys().isEmpty()
+
+        when:
+        stale.refresh([result("v2")])
+
+        then:
+        cache.lookup(serviceMetadata, user1, keys).complete([])*.getData() == ["v2"]
+    }
+
+    def "expired results beyond the stale window are fetched again"() {
+        given:
+        List<DataFetchingEnvironment> keys = [key("cached", [:])]
+        cache.lookup(serviceMetadata, user1, keys).complete([result("v1")])
+        nanos = Duration.ofSeconds(16).toNanos()
+
+        expect:
+        cache.lookup(serviceMetadata, user1, keys).getMissingKeys() == keys
+    }
+
+    def "failed refresh lets a later request retry"() {
+        given:
+        List<DataFetchingEnvironment> keys = [key("cached", [:])]
+        cache.lookup(serviceMetadata, user1, keys).complete([result("v1")])
+        nanos = Duration.ofSeconds(12).toNanos()
+        RootFieldResultCache.Batch stale = cache.lookup(serviceMetadata, user1, keys)
+        stale.getStaleKeys()
+
+        when:
+        stale.refresh(null)
+
+        then:
+        cache.lookup(serviceMetadata, user1, keys).getStaleKeys() == keys
+    }
+
+    def "results of batches with errors or of mutations are not cached"() {
+        given:
+        DataFetcherResult<Object> failed = DataFetcherResult.newResult().data("a")
+                .error(GraphqlErrorException.newErrorException().message("boom").build()).build()
+
+        when:
+        cache.lookup(serviceMetadata, user1, [key("cached", [:])]).complete([failed])
+        cache.lookup(serviceMetadata, user1, [key("cached", [:], OperationDefinition.Operation.MUTATION)])
+                .complete([result("a")])
+
+        then:
+        cache.size() == 0
+    }
+
+    def "cached results are copied for every request"() {
+        given:
+        List<DataFetchingEnvironment> keys = [key("cached", [:])]
+        Map<String, Object> data = [a: [b: "b"]]
+        cache.lookup(serviceMetadata, user1, keys).complete([result(data)])
+        data.a.b = "changed"
+
+        when:
+        Object first = cache.lookup(serviceMetadata, user1, keys).complete([])[0].getData()
+        Object second = cache.lookup(serviceMetadata, user1, keys).complete([])[0].getData()
+
+        then:
+        first == [a: [b: "b"]]
+        !first.is(second)
+    }
+
+    def "disabled cache is not enabled"() {
+        expect:
+        !RootFieldResultCache.NONE.isEnabled()
+        cache.isEnabled()
+    }
+
+    private static DataFetchingEnvironment key(String fieldName, Map<String, Object> arguments,
+            OperationDefinition.Operation operation = OperationDefinition.Operation.QUERY) {
+        return newDataFetchingEnvironment()
+                .executionStepInfo(ExecutionStepInfo.newExecutionStepInfo()
+                        .path(ResultPath.parse("/" + fieldName))
+                        .type(GraphQLString)
+                        .build())
+                .fieldDefinition(newFieldDefinition().name(fieldName).type(GraphQLString).build())
+                .operationDefinition(OperationDefinition.newOperationDefinition().operation(operation).build())
+                .arguments(arguments)
+                .build()
+    }
+
+    private static DataFetcherResult<Object> result(Object data) {
+        return DataFetcherResult.newResult().data(data).build()
+    }
+}
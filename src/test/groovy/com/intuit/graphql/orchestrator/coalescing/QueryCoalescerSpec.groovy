@@ -0,0 +1,173 @@
+package com.intuit.graphql.orchestrator.coalescing
+
+import com.intuit.graphql.orchestrator.ServiceProvider
+import com.intuit.graphql.orchestrator.batch.StreamingQueryExecutor
+import com.intuit.graphql.orchestrator.deadline.Deadline
+import graphql.ExecutionInput
+import graphql.GraphQLContext
+import graphql.parser.Parser
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+
+class QueryCoalescerSpec extends Specification {
+
+    ServiceProvider serviceProvider = Mock(ServiceProvider) { getNameSpace() >> "SVC" }
+
+    QueryCoalescer queryCoalescer = QueryCoalescer.newBuilder()
+            .partitionKey({ GraphQLContext context -> context.get("user") })
+            .build()
+
+    GraphQLContext user1 = GraphQLContext.newContext().of("user", "1").build()
+    GraphQLContext user2 = GraphQLContext.newContext().of("user", "2").build()
+
+    def "concurrent identical queries share one call"() {
+        given:
+        ServiceProvider decorated = queryCoalescer.decorate(serviceProvider)
+        CompletableFuture<Map<String, Object>> response = new CompletableFuture<>()
+
+        when:
+        def first = decorated.query(input('query { a }', [id: 1]), user1)
+        def second = decorated.query(input('query { a }', [id: 1]), user1)
+
+        then:
+        1 * serviceProvider.query(_, _) >> response
+        queryCoalescer.getExecutedCount() == 1
+        queryCoalescer.getCoalescedCount() == 1
+        queryCoalescer.getInFlightCount() == 1
+
+        when:
+        response.complete([data: [a: [b: "b"]]])
+
+        then:
+        first.get() == [data: [a: [b: "b"]]]
+        second.get() == [data: [a: [b: "b"]]]
+        !first.get().is(second.get())
+        !first.get().data.is(second.get().data)
+        queryCoalescer.getInFlightCount() == 0
+    }
+
+    def "queries with different variables, partitions or namespaces are not coalesced"() {
+        given:
+        ServiceProvider other = Mock(ServiceProvider) { getNameSpace() >> "OTHER" }
+        ServiceProvider decorated = queryCoalescer.decorate(serviceProvider)
+        ServiceProvider otherDecorated = queryCoalescer.decorate(other)
+
+        when:
+        decorated.query(input('query { a }', [id: 1]), user1)
+        decorated.query(input('query { a }', [id: 2]), user1)
+        decorated.query(input('query { a }', [id: 1]), user2)
+        otherDecorated.query(input('query { a }', [id: 1]), user1)
+
+        then:
+        3 * serviceProvider.query(_, _) >> new CompletableFuture()
+        1 * other.query(_, _) >> new CompletableFuture()
+        queryCoalescer.getCoalescedCount() == 0
+    }
+
+    def "mutations are never coalesced"() {
+        given:
+        ServiceProvider decorated = queryCoalescer.decorate(serviceProvider)
+
+        when:
+        decorated.query(input('mutation { a }', [:]), user1)
+        decorated.query(input('mutation { a }', [:]), user1)
+
+        then:
+        2 * serviceProvider.query(_, _) >> new CompletableFuture()
+        queryCoalescer.getCoalescedCount() == 0
+    }
+
+    def "the operation is read from the document of the execution input"() {
+        given:
+        ServiceProvider decorated = queryCoalescer.decorate(serviceProvider)
+        def mutation = new Parser().parseDocument('mutation { a }')
+
+        when:
+        decorated.query(ExecutionInput.newExecutionInput().query('mutation { a }').root(mutation).build(), user1)
+        decorated.query(ExecutionInput.newExecutionInput().query('mutation { a }').root(mutation).build(), user1)
+        decorated.query(ExecutionInput.newExecutionInput().query('{ a }')
+                .root(mutation.getDefinitions().get(0)).build(), user1)
+
+        then:
+        3 * serviceProvider.query(_, _) >> new CompletableFuture()
+        queryCoalescer.getCoalescedCount() == 0
+    }
+
+    def "calls only wait for a call in flight that runs until their deadline"() {
+        given:
+        ServiceProvider decorated = queryCoalescer.decorate(serviceProvider)
+        GraphQLContext early = user1WithDeadline(Duration.ofSeconds(10))
+        GraphQLContext late = user1WithDeadline(Duration.ofSeconds(20))
+
+        when:
+        decorated.query(input('query { a }', [:]), early)
+        decorated.query(input('query { a }', [:]), late)
+        decorated.query(input('query { a }', [:]), early)
+        decorated.query(input('query { a }', [:]), late)
+        decorated.query(input('query { a }', [:]), user1)
+
+        then:
+        3 * serviceProvider.query(_, _) >> new CompletableFuture()
+        queryCoalescer.getCoalescedCount() == 2
+        queryCoalescer.getInFlightCount() == 1
+    }
+
+    def "a completed call is not shared with later calls"() {
+        given:
+        ServiceProvider decorated = queryCoalescer.decorate(serviceProvider)
+
+        when:
+        decorated.query(input('query { a }', [:]), user1).get()
+        decorated.query(input('query { a }', [:]), user1).get()
+
+        then:
+        2 * serviceProvider.query(_, _) >> CompletableFuture.completedFuture([data: [a: "a"]])
+    }
+
+    def "failures are shared by all waiting callers"() {
+        given:
+        ServiceProvider decorated = queryCoalescer.decorate(serviceProvider)
+        CompletableFuture<Map<String, Object>> response = new CompletableFuture<>()
+        serviceProvider.query(_, _) >> response
+
+        when:
+        def first = decorated.query(input('query { a }', [:]), user1)
+        def second = decorated.query(input('query { a }', [:]), user1)
+        response.completeExceptionally(new IllegalStateException("boom"))
+
+        then:
+        first.isCompletedExceptionally()
+        second.isCompletedExceptionally()
+    }
+
+    def "decorates only non-streaming providers of the configured namespaces"() {
+        given:
+        ServiceProvider streaming = Mock(StreamingServiceProvider) { getNameSpace() >> "SVC" }
+        ServiceProvider other = Mock(ServiceProvider) { getNameSpace() >> "OTHER" }
+        QueryCoalescer restricted = QueryCoalescer.newBuilder()
+                .partitionKey({ GraphQLContext context -> null })
+                .namespace("SVC")
+                .build()
+
+        expect:
+        restricted.decorate(serviceProvider) instanceof CoalescingServiceProvider
+        restricted.decorate(other).is(other)
+        restricted.decorate(streaming).is(streaming)
+        QueryCoalescer.NONE.decorate(serviceProvider).is(serviceProvider)
+    }
+
+    private static ExecutionInput input(String query, Map<String, Object> variables) {
+        return ExecutionInput.newExecutionInput().query(query).variables(variables).build()
+    }
+
+    private static GraphQLContext user1WithDeadline(Duration timeout) {
+        GraphQLContext context = GraphQLContext.newContext().of("user", "1").build()
+        Deadline.after(timeout).attach(context)
+        return context
+    }
+
+    interface StreamingServiceProvider extends ServiceProvider, StreamingQueryExecutor {
+    }
+}
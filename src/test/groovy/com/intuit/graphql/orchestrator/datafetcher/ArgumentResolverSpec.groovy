@@ -2,7 +2,6 @@ package com.intuit.graphql.orchestrator.datafetcher
 
 import com.intuit.graphql.orchestrator.resolverdirective.ResolverArgumentDirective
 import graphql.*
-import graphql.language.OperationDefinition
 import graphql.schema.DataFetchingEnvironment
 import graphql.schema.DataFetchingEnvironmentImpl
 import graphql.schema.GraphQLSchema
@@ -36,10 +35,10 @@ class ArgumentResolverSpec extends Specification {
 
         mockedGraphQL.executeAsync(_ as ExecutionInput) >> CompletableFuture.completedFuture(aResult)
 
-        OperationDefinition aQuery = query("{ a }")
-        OperationDefinition bQuery = query("{ b }")
+        ResolverQuery aQuery = ResolverQuery.compile(query("{ a }"))
+        ResolverQuery bQuery = ResolverQuery.compile(query("{ b }"))
 
-        Map<ResolverArgumentDirective, OperationDefinition> resolverQueries = new HashMap<>()
+        Map<ResolverArgumentDirective, ResolverQuery> resolverQueries = new HashMap<>()
 
         resolverQueries.put(mock(ResolverArgumentDirective.class), aQuery)
         resolverQueries.put(mock(ResolverArgumentDirective.class), bQuery)
@@ -60,4 +59,41 @@ class ArgumentResolverSpec extends Specification {
         then:
         results.size() == 2
     }
+
+    def "identical resolver queries are executed once per request"() {
+        given:
+        int builds = 0
+        argumentResolver = ArgumentResolver.newBuilder()
+                .graphQLBuilder({ schema -> builds++; mockedGraphQL })
+                .build()
+
+        GraphQLSchema schema = mock(GraphQLSchema.class)
+        Map<ResolverArgumentDirective, ResolverQuery> resolverQueries = [
+                (mock(ResolverArgumentDirective.class)): ResolverQuery.compile(query("{ a }")),
+                (mock(ResolverArgumentDirective.class)): ResolverQuery.compile(query("{ a }"))
+        ]
+
+        DataFetchingEnvironment firstRequest = environment(schema)
+        DataFetchingEnvironment secondRequest = environment(schema)
+
+        when:
+        argumentResolver.resolveArguments(firstRequest, resolverQueries)
+        argumentResolver.resolveArguments(firstRequest, resolverQueries)
+        argumentResolver.resolveArguments(secondRequest, resolverQueries)
+
+        then:
+        2 * mockedGraphQL.executeAsync(_ as ExecutionInput) >> new CompletableFuture<ExecutionResult>()
+        builds == 1
+    }
+
+    private DataFetchingEnvironment environment(GraphQLSchema schema) {
+        GraphQLContext graphQLContext = GraphQLContext.newContext()
+                .of(DATA_LOADER_REGISTRY_CONTEXT_KEY, Mock(DataLoaderRegistry.class)).build()
+
+        return DataFetchingEnvironmentImpl
+                .newDataFetchingEnvironment()
+                .context(graphQLContext)
+                .graphQLSchema(schema)
+                .build()
+    }
 }
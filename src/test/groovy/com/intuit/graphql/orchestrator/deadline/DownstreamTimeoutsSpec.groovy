@@ -0,0 +1,126 @@
+package com.intuit.graphql.orchestrator.deadline
+
+import com.intuit.graphql.orchestrator.ServiceProvider
+import graphql.GraphQLContext
+import graphql.execution.DataFetcherResult
+import graphql.execution.ExecutionStepInfo
+import graphql.execution.ResultPath
+import graphql.schema.DataFetchingEnvironment
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutionException
+
+import static graphql.Scalars.GraphQLString
+import static graphql.schema.DataFetchingEnvironmentImpl.newDataFetchingEnvironment
+
+class DownstreamTimeoutsSpec extends Specification {
+
+    ServiceProvider serviceProvider = Mock(ServiceProvider) { getNameSpace() >> "SVC" }
+
+    def "call deadline is the earlier of the request deadline and the provider timeout"() {
+        given:
+        GraphQLContext context = GraphQLContext.newContext().build()
+        ServiceProvider withTimeout = Mock(ServiceProvider) { timeoutMillis() >> 1000 }
+
+        expect:
+        DownstreamTimeouts.deadlineFor(context, serviceProvider) == null
+        DownstreamTimeouts.deadlineFor(context, withTimeout).remaining() <= Duration.ofSeconds(1)
+
+        when:
+        Deadline.after(Duration.ofMinutes(1)).attach(context)
+
+        then:
+        DownstreamTimeouts.deadlineFor(context, serviceProvider).remaining() > Duration.ofSeconds(50)
+        DownstreamTimeouts.deadlineFor(context, withTimeout).remaining() <= Duration.ofSeconds(1)
+    }
+
+    def "call that does not complete in time fails and is cancelled"() {
+        given:
+        CompletableFuture<Map<String, Object>> downstream = new CompletableFuture<>()
+
+        when:
+        DownstreamTimeouts.within(Deadline.after(Duration.ofMillis(50)), "SVC", { downstream }).get()
+
+        then:
+        def exception = thrown(ExecutionException)
+        exception.getCause() instanceof DeadlineExceededException
+        downstream.isCancelled()
+    }
+
+    def "expired deadline does not start the call"() {
+        given:
+        int calls = 0
+
+        when:
+        def result = DownstreamTimeouts.within(Deadline.after(Duration.ZERO), "SVC",
+                { calls++; new CompletableFuture() })
+
+        then:
+        calls == 0
+        result.isCompletedExceptionally()
+    }
+
+    def "call without deadline is passed through"() {
+        given:
+        CompletableFuture<String> downstream = CompletableFuture.completedFuture("result")
+
+        expect:
+        DownstreamTimeouts.within(null, "SVC", { downstream }).is(downstream)
+    }
+
+    def "timed out batch completes every key with null data and a timeout error"() {
+        given:
+        List<DataFetchingEnvironment> keys = [key("/a"), key("/b")]
+        CompletableFuture<List<DataFetcherResult<Object>>> batch = new CompletableFuture<>()
+        batch.completeExceptionally(new DeadlineExceededException("SVC"))
+
+        when:
+        List<DataFetcherResult<Object>> results = DownstreamTimeouts.recoverBatch(batch, keys).get()
+
+        then:
+        results.size() == 2
+        results*.getData() == [null, null]
+        results[0].getErrors()[0].getPath() == ["a"]
+        results[1].getErrors()[0].getPath() == ["b"]
+        results[0].getErrors()[0].getExtensions().get("serviceNamespace") == "SVC"
+        results[0].getErrors()[0].getExtensions().get("timeout") == true
+    }
+
+    def "other failures are passed on"() {
+        given:
+        CompletableFuture<List<DataFetcherResult<Object>>> batch = new CompletableFuture<>()
+        batch.completeExceptionally(new IllegalStateException("boom"))
+
+        when:
+        DownstreamTimeouts.recoverBatch(batch, [key("/a")]).get()
+
+        then:
+        def exception = thrown(ExecutionException)
+        exception.getCause() instanceof IllegalStateException
+    }
+
+    def "request deadline is kept in the context"() {
+        given:
+        GraphQLContext context = GraphQLContext.newContext().build()
+        Deadline deadline = Deadline.after(Duration.ofSeconds(1))
+
+        when:
+        deadline.attach(context)
+
+        then:
+        Deadline.from(context).get().is(deadline)
+        !Deadline.from(GraphQLContext.newContext().build()).isPresent()
+        !Deadline.from((GraphQLContext) null).isPresent()
+    }
+
+    private static DataFetchingEnvironment key(String path) {
+        return newDataFetchingEnvironment()
+                .executionStepInfo(ExecutionStepInfo.newExecutionStepInfo()
+                        .path(ResultPath.parse(path))
+                        .type(GraphQLString)
+                        .build())
+                .build()
+    }
+}
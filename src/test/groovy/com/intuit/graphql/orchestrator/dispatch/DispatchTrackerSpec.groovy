@@ -0,0 +1,125 @@
+package com.intuit.graphql.orchestrator.dispatch
+
+import graphql.GraphQLContext
+import org.dataloader.BatchLoader
+import org.dataloader.DataLoader
+import org.dataloader.DataLoaderRegistry
+import spock.lang.Specification
+
+import java.util.concurrent.CompletableFuture
+
+class DispatchTrackerSpec extends Specification {
+
+    List<List<String>> batches = []
+
+    DataLoader<String, String> dataLoader = DataLoader.newDataLoader({ List<String> keys ->
+        batches.add(keys)
+        return CompletableFuture.completedFuture(keys)
+    } as BatchLoader<String, String>)
+
+    DataLoaderRegistry registry = new DataLoaderRegistry().register("SVC", dataLoader)
+
+    DispatchTracker tracker = new DispatchTracker(registry)
+
+    def "level is dispatched once all of its fields have been fetched"() {
+        given:
+        tracker.onExecutionStrategy(1, 2)
+
+        when:
+        dataLoader.load("a")
+        tracker.onFieldFetched(1)
+
+        then:
+        batches.isEmpty()
+
+        when:
+        dataLoader.load("b")
+        tracker.onFieldFetched(1)
+
+        then:
+        batches == [["a", "b"]]
+        tracker.getDispatchRounds() == 1
+    }
+
+    def "next level is dispatched once all objects of the previous level have been fetched"() {
+        given:
+        tracker.onExecutionStrategy(1, 1)
+        tracker.onFieldFetched(1)
+        tracker.onFieldValues(1, 2)
+
+        when:
+        tracker.onExecutionStrategy(2, 1)
+        dataLoader.load("a")
+        tracker.onFieldFetched(2)
+
+        then:
+        batches.isEmpty()
+
+        when:
+        tracker.onExecutionStrategy(2, 1)
+        dataLoader.load("b")
+        tracker.onFieldFetched(2)
+
+        then:
+        batches == [["a", "b"]]
+    }
+
+    def "loads of async phases are dispatched once the last phase ends"() {
+        given:
+        tracker.beginAsyncPhase()
+        tracker.beginAsyncPhase()
+
+        when:
+        dataLoader.load("a")
+        tracker.endAsyncPhase()
+
+        then:
+        batches.isEmpty()
+
+        when:
+        dataLoader.load("b")
+        tracker.endAsyncPhase()
+
+        then:
+        batches == [["a", "b"]]
+        tracker.getDispatchRounds() == 1
+    }
+
+    def "operations without level tracking are dispatched after every fetch"() {
+        given:
+        tracker.disableLevelTracking()
+        tracker.onExecutionStrategy(1, 2)
+
+        when:
+        dataLoader.load("a")
+        tracker.onFieldFetched(1)
+
+        then:
+        batches == [["a"]]
+    }
+
+    def "dispatches without pending loads are not counted"() {
+        given:
+        tracker.onExecutionStrategy(1, 1)
+
+        when:
+        tracker.onFieldFetched(1)
+        tracker.beginAsyncPhase()
+        tracker.endAsyncPhase()
+
+        then:
+        tracker.getDispatchRounds() == 0
+    }
+
+    def "tracker is attached to the context"() {
+        given:
+        GraphQLContext context = GraphQLContext.newContext().build()
+
+        when:
+        tracker.attach(context)
+
+        then:
+        DispatchTracker.from(context).get().is(tracker)
+        !DispatchTracker.from(GraphQLContext.newContext().build()).isPresent()
+    }
+}
@@ -0,0 +1,111 @@
+package com.intuit.graphql.orchestrator.dispatch
+
+import com.intuit.graphql.orchestrator.GraphQLOrchestrator
+import com.intuit.graphql.orchestrator.stitching.SchemaStitcher
+import graphql.ExecutionInput
+import graphql.ExecutionResult
+import graphql.execution.instrumentation.ChainedInstrumentation
+import graphql.execution.instrumentation.Instrumentation
+import graphql.execution.instrumentation.InstrumentationContext
+import graphql.execution.instrumentation.SimpleInstrumentation
+import graphql.execution.instrumentation.SimpleInstrumentationContext
+import graphql.execution.instrumentation.dataloader.DataLoaderDispatcherInstrumentation
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters
+import helpers.BaseIntegrationTestSpecification
+
+class LevelAwareDispatchInstrumentationSpec extends BaseIntegrationTestSpecification {
+
+    def schemaA = """
+        type Query {
+            aRootField(p1: String!): ARootType
+        }
+
+        type ARootType {
+            aObjectField: String
+        }
+    """
+
+    def DOWNSTREAM_RESOLVER_QUERY = "query Resolver_Directive_Query {" +
+            "aRootField_0:aRootField(p1:\"b1\") {aObjectField} aRootField_1:aRootField(p1:\"b2\") {aObjectField}}"
+    def mockServiceResponseA = [
+        (DOWNSTREAM_RESOLVER_QUERY): [
+            data: [
+                aRootField_0: [aObjectField: "a1"],
+                aRootField_1: [aObjectField: "a2"]
+            ]
+        ]
+    ]
+
+    def schemaB = """
+        type Query {
+            bTopField: [BObjectType]
+        }
+
+        type BObjectType {
+            bObjectField: String
+            aObject: ARootType @resolver(field: "aRootField" arguments: [{name : "p1", value: "\$bObjectField"}])
+        }
+
+        type ARootType
+
+        directive @resolver(field: String!, arguments: [B_ResolverArgument!]) on FIELD_DEFINITION
+        input B_ResolverArgument {
+            name : String!
+            value : String!
+        }
+    """
+
+    def DOWNSTREAM_QUERY = "query QUERY {bTopField {bObjectField}}"
+    def mockServiceResponseB = [
+        (DOWNSTREAM_QUERY): [
+            data: [
+                bTopField: [[bObjectField: "b1"], [bObjectField: "b2"]]
+            ]
+        ]
+    ]
+
+    List<Instrumentation> engineInstrumentations = []
+
+    Instrumentation engineInstrumentationRecorder = new SimpleInstrumentation() {
+        @Override
+        InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters) {
+            engineInstrumentations.addAll(((ChainedInstrumentation) parameters.getExecutionContext().getInstrumentation())
+                    .getInstrumentations())
+            return SimpleInstrumentationContext.noOp()
+        }
+    }
+
+    def "nested batched query is dispatched once per level by the level aware instrumentation only"() {
+        given:
+        def serviceA = createQueryMatchingService("ServiceA", schemaA, mockServiceResponseA)
+        def serviceB = createQueryMatchingService("ServiceB", schemaB, mockServiceResponseB)
+        GraphQLOrchestrator orchestrator = GraphQLOrchestrator.newOrchestrator()
+                .runtimeGraph(SchemaStitcher.newBuilder().services([serviceA, serviceB]).build().stitchGraph())
+                .instrumentation(engineInstrumentationRecorder)
+                .build()
+
+        ExecutionInput executionInput = createExecutionInput("""
+            {
+                bTopField {
+                    bObjectField
+                    aObject {
+                        aObjectField
+                    }
+                }
+            }
+        """)
+
+        when:
+        ExecutionResult executionResult = orchestrator.execute(executionInput).get()
+
+        then:
+        executionResult.getErrors().isEmpty()
+        executionResult.data.bTopField == [
+                [bObjectField: "b1", aObject: [aObjectField: "a1"]],
+                [bObjectField: "b2", aObject: [aObjectField: "a2"]]
+        ]
+        DispatchTracker.from(executionInput.getGraphQLContext()).get().getDispatchRounds() == 2
+        engineInstrumentations.any { it instanceof LevelAwareDispatchInstrumentation }
+        !engineInstrumentations.any { it instanceof DataLoaderDispatcherInstrumentation }
+    }
+}
@@ -9,6 +9,8 @@ import com.intuit.graphql.graphQL.ValueWithVariable
 import com.intuit.graphql.orchestrator.ServiceProvider
 import com.intuit.graphql.orchestrator.batch.BatchResultTransformer
 import com.intuit.graphql.orchestrator.batch.EntityFetcherBatchLoader
+import com.intuit.graphql.orchestrator.cache.EntityCacheConfig
+import com.intuit.graphql.orchestrator.cache.EntityResultCache
 import com.intuit.graphql.orchestrator.federation.metadata.FederationMetadata
 import com.intuit.graphql.orchestrator.federation.metadata.KeyDirectiveMetadata
 import com.intuit.graphql.orchestrator.schema.ServiceMetadata
@@ -442,6 +444,221 @@ class EntityFetcherBatchLoaderSpec extends Specification {
         representationVariables.get(2).get("keyField1") == "dfeKey3"
     }
 
+    def "batchloader splits representations into chunks of maxEntityBatchSize"() {
+        given:
+        List<KeyDirectiveMetadata> keyDirectives = Arrays.asList(KeyDirectiveMetadata.from(generateKeyDirective("keyField1")))
+        metadataMock.getKeyDirectives() >> keyDirectives
+        serviceProviderMock.maxEntityBatchSize() >> 2
+        serviceProviderMock.maxConcurrentEntityBatches() >> 1
+
+        specUnderTest = new EntityFetcherBatchLoader(metadataMock, serviceMetadata, extEntityFieldName)
+
+        List<DataFetchingEnvironment> dfes = (1..3).collect { int i ->
+            DataFetchingEnvironment dfeMock = Mock(DataFetchingEnvironment.class)
+            dfeMock.getSource() >> ["keyField1": "dfeKey" + i]
+            dfeMock.getField() >> Field.newField().name(extEntityFieldName).build()
+            dfeMock.getFieldType() >> Scalars.GraphQLString
+            dfeMock.getContext() >> GraphQLContext.newContext().build()
+            dfeMock.getExecutionStepInfo() >> createExecutionStepInfo(keyField, parentField)
+            return dfeMock
+        }
+
+        List<List<Map<String, Object>>> representationsPerQuery = []
+
+        serviceProviderMock.query(_, _) >> ({ invocationOnMock ->
+            ExecutionInput executionInput = (ExecutionInput) invocationOnMock.get(0)
+            List<Map<String, Object>> representations = (List<Map<String, Object>>) executionInput.getVariables().get("REPRESENTATIONS")
+            representationsPerQuery.add(representations)
+
+            List<Map<String, Object>> entities = representations.collect { representation ->
+                (Map<String, Object>) ImmutableMap.of(extEntityFieldName, "ENTITY_" + representation.get("keyField1"))
+            }
+            Map<String, Object> data = new HashMap<>()
+            data.put("data", ImmutableMap.of("_entities", entities))
+            return CompletableFuture.completedFuture(data)
+        })
+
+        when:
+        CompletionStage<List<DataFetcherResult<Object>>> resultsFuture = specUnderTest.load(dfes)
+
+        then:
+        List<DataFetcherResult<Object>> entityResults = resultsFuture.toCompletableFuture().get()
+
+        entityResults*.getData() == ["ENTITY_dfeKey1", "ENTITY_dfeKey2", "ENTITY_dfeKey3"]
+
+        representationsPerQuery.size() == 2
+        representationsPerQuery.get(0)*.get("keyField1") == ["dfeKey1", "dfeKey2"]
+        representationsPerQuery.get(1)*.get("keyField1") == ["dfeKey3"]
+    }
+
+    def "batchloader fetches chunks that complete synchronously without nesting"() {
+        given:
+        List<KeyDirectiveMetadata> keyDirectives = Arrays.asList(KeyDirectiveMetadata.from(generateKeyDirective("keyField1")))
+        metadataMock.getKeyDirectives() >> keyDirectives
+        serviceProviderMock.maxEntityBatchSize() >> 1
+        serviceProviderMock.maxConcurrentEntityBatches() >> 1
+
+        specUnderTest = new EntityFetcherBatchLoader(metadataMock, serviceMetadata, extEntityFieldName)
+
+        GraphQLContext context = GraphQLContext.newContext().build()
+        ExecutionStepInfo executionStepInfo = createExecutionStepInfo(keyField, parentField)
+        List<DataFetchingEnvironment> dfes = (1..5000).collect { int i ->
+            DataFetchingEnvironment dfeMock = Mock(DataFetchingEnvironment.class)
+            dfeMock.getSource() >> ["keyField1": "dfeKey" + i]
+            dfeMock.getField() >> entityField
+            dfeMock.getFieldType() >> Scalars.GraphQLString
+            dfeMock.getContext() >> context
+            dfeMock.getExecutionStepInfo() >> executionStepInfo
+            return dfeMock
+        }
+
+        serviceProviderMock.query(_, _) >> ({ invocationOnMock ->
+            ExecutionInput executionInput = (ExecutionInput) invocationOnMock.get(0)
+            Map<String, Object> representation = ((List<Map<String, Object>>) executionInput.getVariables().get("REPRESENTATIONS")).get(0)
+            Map<String, Object> data = new HashMap<>()
+            data.put("data", ImmutableMap.of("_entities", [ImmutableMap.of(extEntityFieldName, "ENTITY_" + representation.get("keyField1"))]))
+            return CompletableFuture.completedFuture(data)
+        })
+
+        when:
+        List<DataFetcherResult<Object>> entityResults = specUnderTest.load(dfes).toCompletableFuture().get()
+
+        then:
+        entityResults.size() == 5000
+        entityResults.get(4999).getData() == "ENTITY_dfeKey5000"
+    }
+
+    def "batchloader stops fetching chunks after a chunk fails"() {
+        given:
+        List<KeyDirectiveMetadata> keyDirectives = Arrays.asList(KeyDirectiveMetadata.from(generateKeyDirective("keyField1")))
+        metadataMock.getKeyDirectives() >> keyDirectives
+        serviceProviderMock.maxEntityBatchSize() >> 1
+        serviceProviderMock.maxConcurrentEntityBatches() >> 2
+
+        specUnderTest = new EntityFetcherBatchLoader(metadataMock, serviceMetadata, extEntityFieldName)
+
+        List<DataFetchingEnvironment> dfes = (1..4).collect { int i ->
+            DataFetchingEnvironment dfeMock = Mock(DataFetchingEnvironment.class)
+            dfeMock.getSource() >> ["keyField1": "dfeKey" + i]
+            dfeMock.getField() >> entityField
+            dfeMock.getFieldType() >> Scalars.GraphQLString
+            dfeMock.getContext() >> GraphQLContext.newContext().build()
+            dfeMock.getExecutionStepInfo() >> createExecutionStepInfo(keyField, parentField)
+            return dfeMock
+        }
+
+        List<CompletableFuture<Map<String, Object>>> pendingQueries = []
+
+        serviceProviderMock.query(_, _) >> ({ invocationOnMock ->
+            CompletableFuture<Map<String, Object>> pendingQuery = new CompletableFuture<>()
+            pendingQueries.add(pendingQuery)
+            return pendingQuery
+        })
+
+        when:
+        CompletableFuture<List<DataFetcherResult<Object>>> resultsFuture = specUnderTest.load(dfes).toCompletableFuture()
+        pendingQueries.get(0).completeExceptionally(new RuntimeException("chunk failed"))
+
+        then:
+        resultsFuture.isCompletedExceptionally()
+
+        when:
+        Map<String, Object> data = new HashMap<>()
+        data.put("data", ImmutableMap.of("_entities", [ImmutableMap.of(extEntityFieldName, "ENTITY_dfeKey2")]))
+        pendingQueries.get(1).complete(data)
+
+        then:
+        pendingQueries.size() == 2
+    }
+
+    def "batchloader fetches only entities that are not cached"() {
+        given:
+        List<KeyDirectiveMetadata> keyDirectives = Arrays.asList(KeyDirectiveMetadata.from(generateKeyDirective("keyField1")))
+        metadataMock.getKeyDirectives() >> keyDirectives
+
+        EntityResultCache entityCache = EntityResultCache.newBuilder()
+                .entityField("MOCK_ENTITY", extEntityFieldName, EntityCacheConfig.builder().build())
+                .build()
+        specUnderTest = new EntityFetcherBatchLoader(metadataMock, serviceMetadata, extEntityFieldName, entityCache)
+
+        List<List<DataFetchingEnvironment>> batches = [["dfeKey1", "dfeKey2"], ["dfeKey3", "dfeKey2", "dfeKey1"], ["dfeKey1"]].collect { List<String> keys ->
+            keys.collect { String key ->
+                DataFetchingEnvironment dfeMock = Mock(DataFetchingEnvironment.class)
+                dfeMock.getSource() >> ["keyField1": key]
+                dfeMock.getField() >> Field.newField().name(extEntityFieldName).build()
+                dfeMock.getFieldType() >> Scalars.GraphQLString
+                dfeMock.getContext() >> GraphQLContext.newContext().build()
+                dfeMock.getExecutionStepInfo() >> createExecutionStepInfo(keyField, parentField)
+                return dfeMock
+            }
+        }
+
+        List<List<Map<String, Object>>> representationsPerQuery = []
+
+        serviceProviderMock.query(_, _) >> ({ invocationOnMock ->
+            ExecutionInput executionInput = (ExecutionInput) invocationOnMock.get(0)
+            List<Map<String, Object>> representations = (List<Map<String, Object>>) executionInput.getVariables().get("REPRESENTATIONS")
+            representationsPerQuery.add(representations)
+
+            List<Map<String, Object>> entities = representations.collect { representation ->
+                (Map<String, Object>) ImmutableMap.of(extEntityFieldName, "ENTITY_" + representation.get("keyField1"))
+            }
+            Map<String, Object> data = new HashMap<>()
+            data.put("data", ImmutableMap.of("_entities", entities))
+            return CompletableFuture.completedFuture(data)
+        })
+
+        when:
+        specUnderTest.load(batches[0]).toCompletableFuture().get()
+        List<DataFetcherResult<Object>> entityResults = specUnderTest.load(batches[1]).toCompletableFuture().get()
+
+        then:
+        entityResults*.getData() == ["ENTITY_dfeKey3", "ENTITY_dfeKey2", "ENTITY_dfeKey1"]
+
+        representationsPerQuery.size() == 2
+        representationsPerQuery.get(0)*.get("keyField1") == ["dfeKey1", "dfeKey2"]
+        representationsPerQuery.get(1)*.get("keyField1") == ["dfeKey3"]
+        entityCache.stats("MOCK_ENTITY", extEntityFieldName).hitCount() == 2
+
+        when:
+        specUnderTest.load(batches[2]).toCompletableFuture().get()
+
+        then:
+        representationsPerQuery.size() == 2
+    }
+
+    def "batchloader builds the entity selection once per client field"() {
+        given:
+        List<KeyDirectiveMetadata> keyDirectives = Arrays.asList(KeyDirectiveMetadata.from(generateKeyDirective("keyField1")))
+        metadataMock.getKeyDirectives() >> keyDirectives
+
+        specUnderTest = new EntityFetcherBatchLoader(metadataMock, serviceMetadata, extEntityFieldName)
+
+        Field clientField = Field.newField().name(extEntityFieldName).build()
+        DataFetchingEnvironment dfeMock = Mock(DataFetchingEnvironment.class)
+        dfeMock.getSource() >> ["keyField1": "dfeKey1"]
+        dfeMock.getField() >> clientField
+        dfeMock.getContext() >> GraphQLContext.newContext().build()
+        dfeMock.getExecutionStepInfo() >> createExecutionStepInfo(keyField, parentField)
+
+        List<String> queries = []
+        serviceProviderMock.query(_, _) >> ({ invocationOnMock ->
+            queries.add(((ExecutionInput) invocationOnMock.get(0)).getQuery())
+            Map<String, Object> data = new HashMap<>()
+            data.put("data", ImmutableMap.of("_entities", [ImmutableMap.of(extEntityFieldName, "ENTITY")]))
+            return CompletableFuture.completedFuture(data)
+        })
+
+        when:
+        specUnderTest.load([dfeMock]).toCompletableFuture().get()
+        specUnderTest.load([dfeMock]).toCompletableFuture().get()
+
+        then:
+        1 * dfeMock.getFieldType() >> Scalars.GraphQLString
+        queries.size() == 2
+        queries[0] == queries[1]
+    }
+
     private Directive generateKeyDirective(String fieldSet) {
         ValueWithVariable fieldsInput = createValueWithVariable()
         fieldsInput.setStringValue(fieldSet)
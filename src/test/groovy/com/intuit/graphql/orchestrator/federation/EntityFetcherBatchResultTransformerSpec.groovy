@@ -297,4 +297,42 @@ class EntityFetcherBatchResultTransformerSpec extends Specification {
         batchResult.get(2).getData() == "entityFieldResult3"
         batchResult.get(2).getErrors().size() == 0
     }
+
+    def "chunk errors are mapped to the chunk entity and remapped to the batch index"() {
+        given:
+        HashMap<String, Object> entity1 = new HashMap<>()
+        entity1.put("ExtEntityField", "entityFieldResult1")
+        HashMap<String, Object> entity2 = new HashMap<>()
+        entity2.put("ExtEntityField", null)
+
+        Map<String, Object> providerResultData = ImmutableMap.of(
+                "_entities", Arrays.asList(entity1, entity2)
+        )
+
+        GraphQLError error = GraphqlErrorBuilder.newError()
+                .message("Provider Generated Error Message.")
+                .path(Arrays.asList("_entities", Integer.valueOf(1), "ExtEntityField"))
+                .extensions(new HashMap<String, Object>())
+                .build()
+
+        DataFetcherResult<Map<String, Object>> providerResult = DataFetcherResult.<Map<String, Object>>newResult()
+                .data(providerResultData)
+                .errors(Arrays.asList(error))
+                .build()
+
+        DataFetchingEnvironment keyFieldDFEMock = Mock(DataFetchingEnvironment.class)
+        keyFieldDFEMock.getField() >> Field.newField("ExtEntityField").build()
+
+        when:
+        List<DataFetcherResult<Object>> batchResult = specUnderTest
+                .toBatchResult(providerResult, Arrays.asList(keyFieldDFEMock, keyFieldDFEMock), 100)
+
+        then:
+        batchResult.size() == 2
+        batchResult.get(0).getErrors().isEmpty()
+        batchResult.get(1).getErrors().size() == 1
+        batchResult.get(1).getErrors().get(0).getPath() == ["_entities", 101, "ExtEntityField"]
+        batchResult.get(1).getErrors().get(0).extensions.get("downstreamErrors").get("path") == ["_entities", 101, "ExtEntityField"]
+        batchResult.get(1).getErrors().get(0).extensions.get("serviceNamespace") == "MockProvider"
+    }
 }
@@ -0,0 +1,85 @@
+package com.intuit.graphql.orchestrator.federation
+
+import com.fasterxml.jackson.core.JsonParser
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.intuit.graphql.orchestrator.batch.StreamingEntityFetcherBatchResultTransformer
+import graphql.execution.DataFetcherResult
+import graphql.language.Field
+import graphql.schema.DataFetchingEnvironment
+import spock.lang.Specification
+
+import static com.intuit.graphql.orchestrator.batch.EntityFetcherBatchResultTransformer.NO_ENTITY_FIELD
+
+class StreamingEntityFetcherBatchResultTransformerSpec extends Specification {
+    private String serviceProviderName = "MockProvider"
+    private String entityTypeName = "MockEntity"
+    private String requestedField = "ExtEntityField"
+    private StreamingEntityFetcherBatchResultTransformer specUnderTest
+
+    def setup() {
+        specUnderTest = new StreamingEntityFetcherBatchResultTransformer(serviceProviderName, entityTypeName, requestedField)
+    }
+
+    def "missing or empty entities field throws exception"() {
+        when:
+        specUnderTest.toBatchResult(parser(response), [Mock(DataFetchingEnvironment.class)])
+
+        then:
+        def exception = thrown(EntityFetchingException)
+        exception.getMessage().contains(NO_ENTITY_FIELD)
+
+        where:
+        response << ['{"data": {"_entities": null}}', '{"data": {"_entities": []}}', '{"data": null}', '{}']
+    }
+
+    def "reads requested field of each entity and maps errors by entity index"() {
+        given:
+        String response = '''
+            {
+              "data": {
+                "_entities": [
+                  { "__typename": "MockEntity", "ExtEntityField": { "id": 1 }, "other": [1, 2] },
+                  { "__typename": "MockEntity", "ExtEntityField": null }
+                ]
+              },
+              "errors": [
+                { "message": "second failed", "path": ["_entities", 1, "ExtEntityField"], "extensions": {} }
+              ]
+            }
+        '''
+
+        DataFetchingEnvironment dfe1 = Mock(DataFetchingEnvironment.class)
+        dfe1.getField() >> Field.newField(requestedField).build()
+        DataFetchingEnvironment dfe2 = Mock(DataFetchingEnvironment.class)
+        dfe2.getField() >> Field.newField(requestedField).build()
+
+        when:
+        List<DataFetcherResult<Object>> results = specUnderTest.toBatchResult(parser(response), [dfe1, dfe2])
+
+        then:
+        results.size() == 2
+        results[0].getData() == [id: 1]
+        results[0].getErrors().isEmpty()
+        results[1].getData() == null
+        results[1].getErrors().size() == 1
+        results[1].getErrors()[0].getExtensions().get("serviceNamespace") == serviceProviderName
+        results[1].getErrors()[0].getExtensions().get("parentTypename") == entityTypeName
+    }
+
+    def "uses field alias"() {
+        given:
+        DataFetchingEnvironment dfe = Mock(DataFetchingEnvironment.class)
+        dfe.getField() >> Field.newField(requestedField).alias("aliased").build()
+
+        when:
+        List<DataFetcherResult<Object>> results = specUnderTest.toBatchResult(
+                parser('{"data": {"_entities": [{"ExtEntityField": 1, "aliased": 2}]}}'), [dfe])
+
+        then:
+        results[0].getData() == 2
+    }
+
+    private static JsonParser parser(String response) {
+        return new ObjectMapper().getFactory().createParser(response)
+    }
+}
@@ -1,6 +1,7 @@
 package com.intuit.graphql.orchestrator.fieldresolver
 
 import com.intuit.graphql.graphQL.*
+import com.intuit.graphql.orchestrator.batch.FieldResolverQueryMode
 import com.intuit.graphql.orchestrator.metadata.RenamedMetadata
 import com.intuit.graphql.orchestrator.resolverdirective.ResolverArgumentDefinition
 import com.intuit.graphql.orchestrator.resolverdirective.ResolverDirectiveDefinition
@@ -10,7 +11,11 @@ import com.intuit.graphql.orchestrator.xtext.GraphQLFactoryDelegate
 import graphql.Scalars
 import graphql.language.*
 import graphql.schema.DataFetchingEnvironment
+import graphql.schema.GraphQLArgument
 import graphql.schema.GraphQLFieldDefinition
+import graphql.schema.GraphQLInputObjectField
+import graphql.schema.GraphQLInputObjectType
+import graphql.schema.GraphQLNonNull
 import graphql.schema.GraphQLObjectType
 import graphql.schema.GraphQLSchema
 import spock.lang.Specification
@@ -53,6 +58,7 @@ class FieldResolverBatchSelectionSetSupplierLiteralsSpec extends Specification {
         renamedMetadataMock = Mock(RenamedMetadata.class)
 
         renamedMetadataMock.getOriginalFieldNamesByRenamedName() >> Collections.emptyMap()
+        renamedMetadataMock.getOriginalTypeNamesByRenamedName() >> Collections.emptyMap()
         serviceMetadataMock.getRenamedMetadata() >> renamedMetadataMock
 
         graphQLSchemaMock.getQueryType() >> GraphQLObjectType.newObject()
@@ -131,6 +137,134 @@ class FieldResolverBatchSelectionSetSupplierLiteralsSpec extends Specification {
         actualStringValue.getValue() == "pet-901"
     }
 
+    def "arguments are passed as variables typed from the target field"() {
+        given:
+        List<DataFetchingEnvironment> batch = petByIdBatch(["pet-1", "pet-2"])
+
+        String[] resolverSelectedFields = [ "petById" ]
+
+        when:
+        subject = new FieldResolverBatchSelectionSetSupplier(resolverSelectedFields, batch,
+            testFieldResolverContext, serviceMetadataMock, new HashMap<>(), true)
+        graphql.language.SelectionSet actual = subject.get()
+
+        then:
+        AstPrinter.printAstCompact(actual) == '{petById_0:petById(id:$id_0) petById_1:petById(id:$id_1)}'
+        subject.getVariableDefinitions().collect { AstPrinter.printAstCompact(it) } == ['$id_0:ID!', '$id_1:ID!']
+        subject.getVariables() == [id_0: "pet-pet-1", id_1: "pet-pet-2"]
+    }
+
+    def "variables are typed with the name the target service declares for a renamed type"() {
+        given:
+        InputObjectTypeDefinition petFilterType = GraphQLFactoryDelegate.createInputObjectTypeDefinition()
+        petFilterType.setName("PetFilter")
+        ObjectType targetArgumentType = GraphQLFactoryDelegate.createObjectType()
+        targetArgumentType.setType(petFilterType)
+
+        GraphQLArgument filterArgument = GraphQLArgument.newArgument().name("filter")
+                .type(GraphQLNonNull.nonNull(GraphQLInputObjectType.newInputObject().name("RenamedPetFilter")
+                        .field(GraphQLInputObjectField.newInputObjectField().name("id").type(Scalars.GraphQLString))
+                        .build()))
+                .build()
+        List<DataFetchingEnvironment> batch = petByIdBatch(["pet-1"], filterArgument,
+                new ResolverArgumentDefinition("filter", '{ id : "$petId" }', targetArgumentType))
+
+        RenamedMetadata renamedMetadata = new RenamedMetadata(null)
+        renamedMetadata.getOriginalTypeNamesByRenamedName().put("PetFilter", "RenamedPetFilter")
+        ServiceMetadata renamingServiceMetadata = Mock(ServiceMetadata.class)
+        renamingServiceMetadata.getRenamedMetadata() >> renamedMetadata
+
+        String[] resolverSelectedFields = [ "petById" ]
+
+        when:
+        subject = new FieldResolverBatchSelectionSetSupplier(resolverSelectedFields, batch,
+            testFieldResolverContext, renamingServiceMetadata, new HashMap<>(), true)
+        graphql.language.SelectionSet actual = subject.get()
+
+        then:
+        AstPrinter.printAstCompact(actual) == '{petById_0:petById(filter:$filter_0)}'
+        subject.getVariableDefinitions().collect { AstPrinter.printAstCompact(it) } == ['$filter_0:PetFilter!']
+        subject.getVariables() == [filter_0: [id: "pet-1"]]
+    }
+
+    def "bucketed batch skips the fields that pad it to the next power of two"() {
+        given:
+        List<DataFetchingEnvironment> batch = petByIdBatch(["pet-1", "pet-2", "pet-3"])
+
+        String[] resolverSelectedFields = [ "petById" ]
+
+        when:
+        subject = new FieldResolverBatchSelectionSetSupplier(resolverSelectedFields, batch,
+            testFieldResolverContext, serviceMetadataMock, new HashMap<>(), FieldResolverQueryMode.BUCKETED_VARIABLES)
+        graphql.language.SelectionSet actual = subject.get()
+
+        then:
+        AstPrinter.printAstCompact(actual) == '{petById_0:petById(id:$id_0) petById_1:petById(id:$id_1) ' +
+                'petById_2:petById(id:$id_2) petById_3:petById(id:$id_3) @skip(if:$skip_3)}'
+        subject.getVariableDefinitions().collect { AstPrinter.printAstCompact(it) } ==
+                ['$id_0:ID!', '$id_1:ID!', '$id_2:ID!', '$id_3:ID!', '$skip_3:Boolean!']
+        subject.getVariables() == [id_0: "pet-pet-1", id_1: "pet-pet-2", id_2: "pet-pet-3", id_3: "pet-pet-3",
+                                   skip_3: true]
+    }
+
+    def "full bucket has the query text of a padded bucket of the same size"() {
+        given:
+        List<DataFetchingEnvironment> batch = petByIdBatch(["pet-1", "pet-2", "pet-3", "pet-4"])
+
+        String[] resolverSelectedFields = [ "petById" ]
+
+        when:
+        subject = new FieldResolverBatchSelectionSetSupplier(resolverSelectedFields, batch,
+            testFieldResolverContext, serviceMetadataMock, new HashMap<>(), FieldResolverQueryMode.BUCKETED_VARIABLES)
+        graphql.language.SelectionSet actual = subject.get()
+
+        then:
+        AstPrinter.printAstCompact(actual) == '{petById_0:petById(id:$id_0) petById_1:petById(id:$id_1) ' +
+                'petById_2:petById(id:$id_2) petById_3:petById(id:$id_3) @skip(if:$skip_3)}'
+        subject.getVariables().skip_3 == false
+    }
+
+    private List<DataFetchingEnvironment> petByIdBatch(List<String> petIds) {
+        PrimitiveType targetArgumentType = GraphQLFactoryDelegate.createPrimitiveType()
+        targetArgumentType.setType(Scalars.GraphQLID.getName())
+
+        return petByIdBatch(petIds,
+                GraphQLArgument.newArgument().name("id").type(GraphQLNonNull.nonNull(Scalars.GraphQLID)).build(),
+                new ResolverArgumentDefinition("id", 'pet-$petId', targetArgumentType))
+    }
+
+    private List<DataFetchingEnvironment> petByIdBatch(List<String> petIds, GraphQLArgument targetArgument,
+            ResolverArgumentDefinition resolverArgumentDefinition) {
+        GraphQLSchema schemaWithArguments = Mock(GraphQLSchema.class)
+        schemaWithArguments.getQueryType() >> GraphQLObjectType.newObject()
+                .name("Query")
+                .field(GraphQLFieldDefinition.newFieldDefinition()
+                        .name("petById")
+                        .argument(targetArgument)
+                        .type(GraphQLObjectType.newObject().name("Pet").build())
+                        .build())
+                .build()
+
+        resolverDirectiveDefinitionMock.getArguments() >> singletonList(resolverArgumentDefinition)
+
+        testFieldResolverContext = FieldResolverContext.builder()
+                .parentTypeDefinition(testFieldResolverContext.getParentTypeDefinition())
+                .fieldDefinition(fieldDefinitionWithResolver)
+                .serviceNamespace("TESTSVC")
+                .resolverDirectiveDefinition(resolverDirectiveDefinitionMock)
+                .requiredFields(["petId"] as Set)
+                .build()
+
+        return petIds.collect { String petId ->
+            DataFetchingEnvironment dataFetchingEnvironment = Mock(DataFetchingEnvironment.class)
+            dataFetchingEnvironment.getField() >> dfeFieldMock
+            dataFetchingEnvironment.getSource() >> [petId: petId]
+            dataFetchingEnvironment.getGraphQLSchema() >> schemaWithArguments
+            dataFetchingEnvironment.getFragmentsByName() >> Collections.emptyMap()
+            return dataFetchingEnvironment
+        }
+    }
+
     def "get argument Type is ID, Literal Is String"() {
         given:
         PrimitiveType targetArgumentType = GraphQLFactoryDelegate.createPrimitiveType()
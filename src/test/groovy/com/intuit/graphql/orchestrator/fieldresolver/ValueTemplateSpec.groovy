@@ -2,6 +2,9 @@ package com.intuit.graphql.orchestrator.fieldresolver
 
 import com.google.common.collect.Sets
 import com.intuit.graphql.orchestrator.schema.transform.FieldResolverContext
+import graphql.language.AstPrinter
+import graphql.language.StringValue
+import graphql.language.Value
 import spock.lang.Specification
 
 class ValueTemplateSpec extends Specification {
@@ -18,11 +21,11 @@ class ValueTemplateSpec extends Specification {
     def "compile SimpleVariable - success"() {
         given:
         String valueTemplateStr = '$someVar'
-        ValueTemplate subjectUnderTest = new ValueTemplate(fieldResolverContextMock, valueTemplateStr)
-
         Set<String> requiredFields = Sets.newHashSet("someVar")
         fieldResolverContextMock.getRequiredFields() >> requiredFields
 
+        ValueTemplate subjectUnderTest = new ValueTemplate(fieldResolverContextMock, valueTemplateStr)
+
         testDataSource.put("someVar", "TEST_VALUE")
 
         when:
@@ -35,12 +38,12 @@ class ValueTemplateSpec extends Specification {
     def "compile json String With Variable - success"() {
         given:
         String valueTemplateStr = '{ id : "$someVar" }'
-        ValueTemplate subjectUnderTest = new ValueTemplate(fieldResolverContextMock, valueTemplateStr)
-        testDataSource.put("someVar", "TEST_VALUE")
-
         Set<String> requiredFields = Sets.newHashSet("someVar")
         fieldResolverContextMock.getRequiredFields() >> requiredFields
 
+        ValueTemplate subjectUnderTest = new ValueTemplate(fieldResolverContextMock, valueTemplateStr)
+        testDataSource.put("someVar", "TEST_VALUE")
+
         when:
         String actual = subjectUnderTest.compile(testDataSource)
 
@@ -51,12 +54,12 @@ class ValueTemplateSpec extends Specification {
     def "compile json String With Null Variable - success"() {
         given:
         String valueTemplateStr = '{ id : "$someVar" }'
-        ValueTemplate subjectUnderTest = new ValueTemplate(fieldResolverContextMock, valueTemplateStr)
-        testDataSource.put("someVar", null)
-
         Set<String> requiredFields = Sets.newHashSet("someVar")
         fieldResolverContextMock.getRequiredFields() >> requiredFields
 
+        ValueTemplate subjectUnderTest = new ValueTemplate(fieldResolverContextMock, valueTemplateStr)
+        testDataSource.put("someVar", null)
+
         when:
         String actual = subjectUnderTest.compile(testDataSource)
 
@@ -67,13 +70,13 @@ class ValueTemplateSpec extends Specification {
     def "compile json String With Multiple Variables - success"() {
         given:
         String valueTemplateStr = '{ id : "$petId" name : "$petName" }'
+        Set<String> requiredFields = Sets.newHashSet("petId", "petName")
+        fieldResolverContextMock.getRequiredFields() >> requiredFields
+
         ValueTemplate subjectUnderTest = new ValueTemplate(fieldResolverContextMock, valueTemplateStr)
         testDataSource.put("petId", "pet-901")
         testDataSource.put("petName", null)
 
-        Set<String> requiredFields = Sets.newHashSet("petId", "petName")
-        fieldResolverContextMock.getRequiredFields() >> requiredFields
-
         when:
         String actual = subjectUnderTest.compile(testDataSource)
 
@@ -84,17 +87,93 @@ class ValueTemplateSpec extends Specification {
     def "compile json String With Multiple Variables Not String - success"() {
         given:
         String valueTemplateStr = '{ includeName : "$includeName" name : "$childCount" }'
+        Set<String> requiredFields = Sets.newHashSet("includeName", "childCount")
+        fieldResolverContextMock.getRequiredFields() >> requiredFields
+
         ValueTemplate subjectUnderTest = new ValueTemplate(fieldResolverContextMock, valueTemplateStr)
         testDataSource.put("includeName", true)
         testDataSource.put("childCount", 5)
 
-        Set<String> requiredFields = Sets.newHashSet("includeName", "childCount")
-        fieldResolverContextMock.getRequiredFields() >> requiredFields
-
         when:
         String actual = subjectUnderTest.compile(testDataSource)
 
         then:
         actual == '{ includeName : true name : 5 }'
     }
+
+    def "bind json String With Multiple Variables - success"() {
+        given:
+        String valueTemplateStr = '{ id : "$petId" includeName : $includeName list : [$childCount, "child-$petId"] }'
+        Set<String> requiredFields = Sets.newHashSet("petId", "includeName", "childCount")
+        fieldResolverContextMock.getRequiredFields() >> requiredFields
+
+        ValueTemplate subjectUnderTest = new ValueTemplate(fieldResolverContextMock, valueTemplateStr)
+        testDataSource.put("petId", "pet-901")
+        testDataSource.put("includeName", true)
+        testDataSource.put("childCount", 5)
+
+        when:
+        Value<?> actual = subjectUnderTest.bind(testDataSource)
+
+        then:
+        AstPrinter.printAst(actual) == '{id : "pet-901", includeName : true, list : [5, "child-pet-901"]}'
+    }
+
+    def "bind String Value With Variable - success"() {
+        given:
+        String valueTemplateStr = 'pet-$petId'
+        Set<String> requiredFields = Sets.newHashSet("petId")
+        fieldResolverContextMock.getRequiredFields() >> requiredFields
+
+        ValueTemplate subjectUnderTest = new ValueTemplate(fieldResolverContextMock, valueTemplateStr, true)
+        testDataSource.put("petId", 901)
+
+        when:
+        Value<?> actual = subjectUnderTest.bind(testDataSource)
+
+        then:
+        actual instanceof StringValue
+        ((StringValue) actual).getValue() == "pet-901"
+    }
+
+    def "bind Variable With Scalar, Map And List Values - success"() {
+        given:
+        String valueTemplateStr = '{ enumValue : $enumValue count : $count ratio : $ratio filter : $filter }'
+        Set<String> requiredFields = Sets.newHashSet("enumValue", "count", "ratio", "filter")
+        fieldResolverContextMock.getRequiredFields() >> requiredFields
+
+        ValueTemplate subjectUnderTest = new ValueTemplate(fieldResolverContextMock, valueTemplateStr)
+        testDataSource.put("enumValue", "DOG")
+        testDataSource.put("count", "5")
+        testDataSource.put("ratio", 0.5d)
+        testDataSource.put("filter", [ids: [1, 2], active: true, kind: "CAT"])
+
+        when:
+        Value<?> actual = subjectUnderTest.bind(testDataSource)
+
+        then:
+        AstPrinter.printAst(actual) ==
+                '{enumValue : "DOG", count : "5", ratio : 0.5, filter : {ids : [1, 2], active : true, kind : CAT}}'
+    }
+
+    def "bind Variable With String Values Outside An Object - success"() {
+        given:
+        Set<String> requiredFields = Sets.newHashSet("value")
+        fieldResolverContextMock.getRequiredFields() >> requiredFields
+
+        ValueTemplate subjectUnderTest = new ValueTemplate(fieldResolverContextMock, '$value')
+        testDataSource.put("value", value)
+
+        expect:
+        AstPrinter.printAst(subjectUnderTest.bind(testDataSource)) == literal
+
+        where:
+        value    | literal
+        "DOG"    | "DOG"
+        "true"   | "true"
+        "null"   | "null"
+        "-12"    | "-12"
+        "2.5e3"  | "2.5E+3"
+        ["A", 1] | "[A, 1]"
+    }
 }
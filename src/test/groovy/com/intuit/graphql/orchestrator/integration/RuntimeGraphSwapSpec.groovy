@@ -0,0 +1,154 @@
+package com.intuit.graphql.orchestrator.integration
+
+import com.intuit.graphql.orchestrator.GraphQLOrchestrator
+import com.intuit.graphql.orchestrator.ServiceProvider
+import com.intuit.graphql.orchestrator.batch.DownstreamQueryPlanCache
+import com.intuit.graphql.orchestrator.schema.RuntimeGraph
+import com.intuit.graphql.orchestrator.stitching.SchemaStitcher
+import graphql.ExecutionInput
+import graphql.ExecutionResult
+import graphql.GraphQLContext
+import helpers.BaseIntegrationTestSpecification
+
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executor
+import java.util.concurrent.TimeUnit
+
+class RuntimeGraphSwapSpec extends BaseIntegrationTestSpecification {
+
+    private static final Executor CALLER_RUNS = { Runnable runnable -> runnable.run() } as Executor
+
+    private static RuntimeGraph stitch(ServiceProvider service) {
+        return SchemaStitcher.newBuilder().service(service).build().stitchGraph()
+    }
+
+    private static RuntimeGraph stitch(ServiceProvider service, DownstreamQueryPlanCache queryPlanCache) {
+        return SchemaStitcher.newBuilder().service(service).queryPlanCache(queryPlanCache).build().stitchGraph()
+    }
+
+    private static ServiceProvider recordingService(String sdl, Map<String, Object> data, List<String> queries) {
+        return new ServiceProvider() {
+            String getNameSpace() { "A" }
+
+            Map<String, String> sdlFiles() { ["schema.graphqls": sdl] }
+
+            CompletableFuture<Map<String, Object>> query(ExecutionInput executionInput, GraphQLContext context) {
+                queries.add(executionInput.getQuery())
+                CompletableFuture.completedFuture([data: data])
+            }
+        }
+    }
+
+    private static ExecutionInput executionInput(String query, GraphQLContext context) {
+        return ExecutionInput.newExecutionInput().query(query).context(context).build()
+    }
+
+    def "requests after a swap are executed against the new graph"() {
+        given:
+        ServiceProvider oldService = createSimpleMockService("A", "type Query { a: String }", [data: [a: "old"]])
+        ServiceProvider newService = createSimpleMockService("A", "type Query { a: String b: String }",
+                [data: [a: "new", b: "bee"]])
+        GraphQLOrchestrator orchestrator = createGraphQLOrchestrator(oldService)
+        GraphQLContext context = GraphQLContext.newContext().build()
+
+        when:
+        long version = orchestrator.swapRuntimeGraph(stitch(newService))
+        ExecutionResult result = orchestrator.execute(executionInput("{ a b }", context)).get()
+
+        then:
+        version == 2
+        orchestrator.getRuntimeGraphVersion() == 2
+        orchestrator.getSchema().getQueryType().getFieldDefinition("b") != null
+        orchestrator.getLastSwapDuration() > Duration.ZERO
+        result.getErrors().isEmpty()
+        result.getData() == [a: "new", b: "bee"]
+        context.get(GraphQLOrchestrator.RUNTIME_GRAPH_VERSION_CONTEXT_KEY) == 2L
+    }
+
+    def "in-flight requests finish on the graph they started on"() {
+        given:
+        CompletableFuture<Map<String, Object>> pendingResponse = new CompletableFuture<>()
+        ServiceProvider oldService = new ServiceProvider() {
+            String getNameSpace() { "A" }
+
+            Map<String, String> sdlFiles() { ["schema.graphqls": "type Query { a: String }"] }
+
+            CompletableFuture<Map<String, Object>> query(ExecutionInput executionInput, GraphQLContext context) {
+                pendingResponse
+            }
+        }
+        ServiceProvider newService = createSimpleMockService("A", "type Query { a: String }", [data: [a: "new"]])
+        GraphQLOrchestrator orchestrator = createGraphQLOrchestrator(oldService)
+        GraphQLContext inFlightContext = GraphQLContext.newContext().build()
+
+        when:
+        CompletableFuture<ExecutionResult> inFlight = orchestrator.execute(executionInput("{ a }", inFlightContext))
+        orchestrator.swapRuntimeGraph(stitch(newService))
+        ExecutionResult afterSwap = orchestrator.execute(executionInput("{ a }", GraphQLContext.newContext().build()))
+                .get(5, TimeUnit.SECONDS)
+        pendingResponse.complete([data: [a: "old"]])
+
+        then:
+        afterSwap.getData() == [a: "new"]
+        inFlight.get(5, TimeUnit.SECONDS).getData() == [a: "old"]
+        inFlightContext.get(GraphQLOrchestrator.RUNTIME_GRAPH_VERSION_CONTEXT_KEY) == 1L
+    }
+
+    def "query plans cached for the previous graph are not used after a swap"() {
+        given:
+        List<String> downstreamQueries = []
+        DownstreamQueryPlanCache queryPlanCache = new DownstreamQueryPlanCache(100)
+        ServiceProvider oldService = recordingService("type Query { a: A } type A { x: String }",
+                [a: [x: "old"]], downstreamQueries)
+        ServiceProvider newService = recordingService(
+                "type Query { a: I } interface I { x: String } type A implements I { x: String }",
+                [a: [__typename: "A", x: "new"]], downstreamQueries)
+        GraphQLOrchestrator orchestrator = GraphQLOrchestrator.newOrchestrator()
+                .runtimeGraph(stitch(oldService, queryPlanCache))
+                .build()
+        orchestrator.execute(executionInput("{ a { x } }", GraphQLContext.newContext().build())).get()
+
+        when:
+        orchestrator.swapRuntimeGraph(stitch(newService, queryPlanCache))
+        ExecutionResult result = orchestrator
+                .execute(executionInput("{ a { x } }", GraphQLContext.newContext().build())).get()
+
+        then:
+        result.getErrors().isEmpty()
+        result.getData() == [a: [x: "new"]]
+        downstreamQueries[1].contains("__typename")
+        queryPlanCache.size() == 2
+    }
+
+    def "failed background stitch keeps the current graph"() {
+        given:
+        GraphQLOrchestrator orchestrator = createGraphQLOrchestrator(
+                createSimpleMockService("A", "type Query { a: String }", [data: [a: "old"]]))
+        RuntimeGraph current = orchestrator.getRuntimeGraph()
+
+        when:
+        orchestrator.swapRuntimeGraphAsync({ throw new IllegalStateException("stitch failed") }, CALLER_RUNS).get()
+
+        then:
+        def exception = thrown(ExecutionException)
+        exception.getCause() instanceof IllegalStateException
+        orchestrator.getRuntimeGraphVersion() == 1
+        orchestrator.getRuntimeGraph().is(current)
+    }
+
+    def "background stitch is published once built"() {
+        given:
+        GraphQLOrchestrator orchestrator = createGraphQLOrchestrator(
+                createSimpleMockService("A", "type Query { a: String }", [data: [a: "old"]]))
+        ServiceProvider newService = createSimpleMockService("A", "type Query { b: String }", [data: [b: "bee"]])
+
+        when:
+        long version = orchestrator.swapRuntimeGraphAsync({ stitch(newService) }, CALLER_RUNS).get()
+
+        then:
+        version == 2
+        orchestrator.getSchema().getQueryType().getFieldDefinition("b") != null
+    }
+}
@@ -0,0 +1,80 @@
+package com.intuit.graphql.orchestrator.schema.transform
+
+import com.google.common.collect.ImmutableMap
+import com.intuit.graphql.orchestrator.TestServiceProvider
+import com.intuit.graphql.orchestrator.cache.CacheControl
+import com.intuit.graphql.orchestrator.exceptions.InvalidCacheControlException
+import com.intuit.graphql.orchestrator.metadata.CacheControlMetadata
+import com.intuit.graphql.orchestrator.xtext.XtextGraph
+import com.intuit.graphql.orchestrator.xtext.XtextGraphBuilder
+import spock.lang.Specification
+
+import java.time.Duration
+
+class CacheControlTransformerSpec extends Specification {
+
+    static final String DIRECTIVE = '''
+            directive @cacheControl(maxAge: Int, scope: CacheControlScope) on FIELD_DEFINITION
+            directive @rename(to: String!) on FIELD_DEFINITION | OBJECT | INTERFACE
+            enum CacheControlScope { PUBLIC PRIVATE }
+        '''
+
+    def "collects cache control of root query fields"() {
+        given:
+        XtextGraph xtextGraph = build(DIRECTIVE + '''
+            schema { query: Query }
+            type Query {
+                a: A @cacheControl(maxAge: 30)
+                b: A @cacheControl(maxAge: 60, scope: PRIVATE)
+                c: A @cacheControl(maxAge: 0)
+                d: A @cacheControl(maxAge: 10) @rename(to: "renamedD")
+                e: A
+            }
+            type A { test: String @cacheControl(maxAge: 5) }
+        ''')
+
+        when:
+        XtextGraph transformed = new CacheControlTransformer().transform(new RenameTransformer().transform(xtextGraph))
+        CacheControlMetadata metadata = transformed.getCacheControlMetadata()
+
+        then:
+        metadata.getCacheControl("a").getMaxAge() == Duration.ofSeconds(30)
+        metadata.getCacheControl("a").getScope() == CacheControl.Scope.PUBLIC
+        metadata.getCacheControl("b").getMaxAge() == Duration.ofSeconds(60)
+        metadata.getCacheControl("b").getScope() == CacheControl.Scope.PRIVATE
+        metadata.getCacheControl("c") == null
+        metadata.getCacheControl("renamedD").getMaxAge() == Duration.ofSeconds(10)
+        metadata.getCacheControl("e") == null
+        metadata.getCacheControlByRootFieldName().size() == 3
+    }
+
+    def "graph without cache control has no cacheable fields"() {
+        given:
+        XtextGraph xtextGraph = build('''
+            schema { query: Query }
+            type Query { a: String }
+        ''')
+
+        expect:
+        !new CacheControlTransformer().transform(xtextGraph).getCacheControlMetadata().containsCacheableFields()
+    }
+
+    def "negative maxAge is rejected"() {
+        given:
+        XtextGraph xtextGraph = build(DIRECTIVE + '''
+            schema { query: Query }
+            type Query { a: String @cacheControl(maxAge: -1) }
+        ''')
+
+        when:
+        new CacheControlTransformer().transform(xtextGraph)
+
+        then:
+        thrown(InvalidCacheControlException)
+    }
+
+    private static XtextGraph build(String schema) {
+        return XtextGraphBuilder.build(TestServiceProvider.newBuilder().namespace("SVC")
+                .sdlFiles(ImmutableMap.of("schema.graphqls", schema)).build())
+    }
+}
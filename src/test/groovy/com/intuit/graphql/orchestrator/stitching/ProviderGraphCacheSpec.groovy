@@ -0,0 +1,125 @@
+package com.intuit.graphql.orchestrator.stitching
+
+import com.intuit.graphql.orchestrator.ServiceProvider
+import com.intuit.graphql.orchestrator.ServiceProvider.ServiceType
+import com.intuit.graphql.orchestrator.TestHelper
+import com.intuit.graphql.orchestrator.TestServiceProvider
+import com.intuit.graphql.orchestrator.schema.RuntimeGraph
+import graphql.schema.idl.SchemaPrinter
+import spock.lang.Specification
+
+class ProviderGraphCacheSpec extends Specification {
+
+    // directive definitions are printed in the order of a hash set
+    private static final SchemaPrinter printer = new SchemaPrinter(SchemaPrinter.Options.defaultOptions()
+            .includeDirectiveDefinitions(false))
+
+    ProviderGraphCache cache = new ProviderGraphCache()
+
+    private static ServiceProvider provider(String namespace, ServiceType serviceType, Map<String, String> sdlFiles) {
+        return TestServiceProvider.newBuilder()
+                .namespace(namespace)
+                .serviceType(serviceType)
+                .sdlFiles(sdlFiles)
+                .build()
+    }
+
+    private static List<ServiceProvider> providers(String personExtension = "") {
+        Map<String, String> personFiles = TestHelper.getFileMapFromList("nested/books-pets-person/schema-person.graphqls")
+        if (personExtension) {
+            personFiles.put("person-extension.graphqls", personExtension)
+        }
+        return [
+                provider("EMPLOYEE", ServiceType.FEDERATION_SUBGRAPH,
+                        TestHelper.getFileMapFromList("top_level/federation/employee.graphqls")),
+                provider("INVENTORY", ServiceType.FEDERATION_SUBGRAPH,
+                        TestHelper.getFileMapFromList("top_level/federation/inventory.graphqls")),
+                provider("REVIEW", ServiceType.FEDERATION_SUBGRAPH,
+                        TestHelper.getFileMapFromList("top_level/federation/review.graphqls")),
+                provider("PERSON", ServiceType.GRAPHQL, personFiles),
+                provider("BOOKS", ServiceType.GRAPHQL, TestHelper.getFileMapFromList(
+                        "nested/books-pets-person/schema-books.graphqls",
+                        "nested/books-pets-person/pet-author-link.graphqls")),
+                provider("PETS", ServiceType.GRAPHQL,
+                        TestHelper.getFileMapFromList("nested/books-pets-person/schema-pets.graphqls"))
+        ]
+    }
+
+    private RuntimeGraph stitch(List<ServiceProvider> serviceProviders, ProviderGraphCache providerGraphCache) {
+        return XtextStitcher.newBuilder().providerGraphCache(providerGraphCache).build().stitch(serviceProviders)
+    }
+
+    private static void assertSameGraph(RuntimeGraph actual, RuntimeGraph expected) {
+        assert printer.print(actual.getExecutableSchema()) == printer.print(expected.getExecutableSchema())
+        assert actual.getExecutableSchema().getDirectives()*.getName().toSet() ==
+                expected.getExecutableSchema().getDirectives()*.getName().toSet()
+        assert actual.getBatchLoaderMap().keySet() == expected.getBatchLoaderMap().keySet()
+    }
+
+    def "re-stitching with cached provider graphs builds the same graph"() {
+        given:
+        List<ServiceProvider> serviceProviders = providers()
+        RuntimeGraph expected = stitch(serviceProviders, ProviderGraphCache.NONE)
+
+        when:
+        RuntimeGraph first = stitch(serviceProviders, cache)
+        RuntimeGraph second = stitch(serviceProviders, cache)
+
+        then:
+        assertSameGraph(first, expected)
+        assertSameGraph(second, expected)
+        cache.getMissCount() == 6
+        cache.getHitCount() == 6
+        cache.size() == 6
+    }
+
+    def "only providers with a changed schema are rebuilt"() {
+        given:
+        stitch(providers(), cache)
+        List<ServiceProvider> changedProviders = providers("extend type Person { nickname: String }")
+
+        when:
+        RuntimeGraph restitched = stitch(changedProviders, cache)
+
+        then:
+        assertSameGraph(restitched, stitch(changedProviders, ProviderGraphCache.NONE))
+        restitched.getExecutableSchema().getObjectType("Person").getFieldDefinition("nickname") != null
+        cache.getMissCount() == 7
+        cache.getHitCount() == 5
+    }
+
+    def "graphs of providers that are no longer stitched are removed"() {
+        given:
+        stitch(providers(), cache)
+
+        when:
+        stitch(providers().findAll { it.getSeviceType() == ServiceType.GRAPHQL }, cache)
+
+        then:
+        cache.size() == 3
+    }
+
+    def "fingerprint depends on the content of the schema files"() {
+        given:
+        ServiceProvider provider = provider("A", ServiceType.GRAPHQL, ["a.graphqls": "type Query { a: Int }"])
+
+        expect:
+        ProviderGraphCache.fingerprint(provider) ==
+                ProviderGraphCache.fingerprint(provider("A", ServiceType.GRAPHQL, ["a.graphqls": "type Query { a: Int }"]))
+        ProviderGraphCache.fingerprint(provider) !=
+                ProviderGraphCache.fingerprint(provider("A", ServiceType.GRAPHQL, ["a.graphqls": "type Query { b: Int }"]))
+        ProviderGraphCache.fingerprint(provider) !=
+                ProviderGraphCache.fingerprint(provider("B", ServiceType.GRAPHQL, ["a.graphqls": "type Query { a: Int }"]))
+        ProviderGraphCache.fingerprint(provider) !=
+                ProviderGraphCache.fingerprint(provider("A", ServiceType.REST, ["a.graphqls": "type Query { a: Int }"]))
+    }
+
+    def "disabled cache builds every graph"() {
+        when:
+        stitch(providers(), ProviderGraphCache.NONE)
+
+        then:
+        ProviderGraphCache.NONE.size() == 0
+        ProviderGraphCache.NONE.getMissCount() == 0
+    }
+}
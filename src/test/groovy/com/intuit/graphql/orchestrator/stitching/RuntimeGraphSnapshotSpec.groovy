@@ -0,0 +1,240 @@
+package com.intuit.graphql.orchestrator.stitching
+
+import com.intuit.graphql.orchestrator.GraphQLOrchestrator
+import com.intuit.graphql.orchestrator.ServiceProvider
+import com.intuit.graphql.orchestrator.ServiceProvider.ServiceType
+import com.intuit.graphql.orchestrator.TestHelper
+import com.intuit.graphql.orchestrator.TestServiceProvider
+import com.intuit.graphql.orchestrator.batch.QueryExecutor
+import com.intuit.graphql.orchestrator.schema.RuntimeGraph
+import graphql.ExecutionInput
+import graphql.ExecutionResult
+import graphql.schema.GraphQLFieldDefinition
+import graphql.schema.GraphQLObjectType
+import graphql.schema.GraphQLScalarType
+import graphql.schema.GraphQLSchema
+import graphql.schema.idl.SchemaPrinter
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.CompletableFuture
+
+class RuntimeGraphSnapshotSpec extends Specification {
+
+    // directive definitions are printed in the order of a hash set
+    private static final SchemaPrinter printer = new SchemaPrinter(SchemaPrinter.Options.defaultOptions()
+            .includeDirectiveDefinitions(false))
+
+    @Rule
+    TemporaryFolder temporaryFolder = new TemporaryFolder()
+
+    Path snapshotFile
+
+    void setup() {
+        snapshotFile = temporaryFolder.getRoot().toPath().resolve("runtime-graph.snapshot")
+    }
+
+    private static ServiceProvider provider(String namespace, ServiceType serviceType, Map<String, String> sdlFiles,
+            Map<String, Object> response = null) {
+        return TestServiceProvider.newBuilder()
+                .namespace(namespace)
+                .serviceType(serviceType)
+                .sdlFiles(sdlFiles)
+                .queryFunction({ executionInput, context -> CompletableFuture.completedFuture(response) } as QueryExecutor)
+                .build()
+    }
+
+    private static List<ServiceProvider> providers(String personExtension = "") {
+        Map<String, String> personFiles = TestHelper.getFileMapFromList("nested/books-pets-person/schema-person.graphqls")
+        if (personExtension) {
+            personFiles.put("person-extension.graphqls", personExtension)
+        }
+        return [
+                provider("EMPLOYEE", ServiceType.FEDERATION_SUBGRAPH,
+                        TestHelper.getFileMapFromList("top_level/federation/employee.graphqls")),
+                provider("INVENTORY", ServiceType.FEDERATION_SUBGRAPH,
+                        TestHelper.getFileMapFromList("top_level/federation/inventory.graphqls")),
+                provider("REVIEW", ServiceType.FEDERATION_SUBGRAPH,
+                        TestHelper.getFileMapFromList("top_level/federation/review.graphqls")),
+                provider("PERSON", ServiceType.GRAPHQL, personFiles),
+                provider("PETS", ServiceType.GRAPHQL,
+                        TestHelper.getFileMapFromList("nested/books-pets-person/schema-pets.graphqls"))
+        ]
+    }
+
+    private RuntimeGraph stitch(List<ServiceProvider> serviceProviders, ProviderGraphCache providerGraphCache =
+            ProviderGraphCache.NONE) {
+        return XtextStitcher.newBuilder()
+                .providerGraphCache(providerGraphCache)
+                .snapshotFile(snapshotFile)
+                .build()
+                .stitch(serviceProviders)
+    }
+
+    private static Map<String, String> dataFetchers(GraphQLSchema schema) {
+        return schema.getAllTypesAsList()
+                .findAll { it instanceof GraphQLObjectType && !it.getName().startsWith("__") }
+                .collectEntries { GraphQLObjectType type ->
+                    type.getFieldDefinitions().collectEntries { GraphQLFieldDefinition field ->
+                        [(type.getName() + "." + field.getName()):
+                                 schema.getCodeRegistry().getDataFetcher(type, field).getClass().getSimpleName()]
+                    }
+                }
+    }
+
+    private static void assertSameGraph(RuntimeGraph actual, RuntimeGraph expected) {
+        assert printer.print(actual.getExecutableSchema()) == printer.print(expected.getExecutableSchema())
+        assert actual.getExecutableSchema().getDirectives()*.getName().toSet() ==
+                expected.getExecutableSchema().getDirectives()*.getName().toSet()
+        assert actual.getBatchLoaderMap().keySet() == expected.getBatchLoaderMap().keySet()
+        assert dataFetchers(actual.getExecutableSchema()) == dataFetchers(expected.getExecutableSchema())
+    }
+
+    def "stitching writes a snapshot that later stitches load"() {
+        given:
+        RuntimeGraph stitched = stitch(providers())
+        ProviderGraphCache providerGraphCache = new ProviderGraphCache()
+
+        when:
+        RuntimeGraph loaded = stitch(providers(), providerGraphCache)
+
+        then:
+        Files.exists(snapshotFile)
+        assertSameGraph(loaded, stitched)
+        providerGraphCache.getMissCount() == 0
+    }
+
+    def "graph loaded from a snapshot resolves entity extensions"() {
+        given:
+        def employeeResponse = [data: [employeeById: [id: "1", username: "user"]]]
+        def reviewResponse = [data: [_entities: [[__typename: "Employee", review: [rating: 5]]]]]
+        List<ServiceProvider> serviceProviders = [
+                provider("EMPLOYEE", ServiceType.FEDERATION_SUBGRAPH,
+                        TestHelper.getFileMapFromList("top_level/federation/employee.graphqls"), employeeResponse),
+                provider("INVENTORY", ServiceType.FEDERATION_SUBGRAPH,
+                        TestHelper.getFileMapFromList("top_level/federation/inventory.graphqls")),
+                provider("REVIEW", ServiceType.FEDERATION_SUBGRAPH,
+                        TestHelper.getFileMapFromList("top_level/federation/review.graphqls"), reviewResponse)
+        ]
+        stitch(serviceProviders)
+
+        when:
+        GraphQLOrchestrator orchestrator = GraphQLOrchestrator.newOrchestrator()
+                .runtimeGraph(stitch(serviceProviders))
+                .build()
+        ExecutionResult result = orchestrator.execute(ExecutionInput.newExecutionInput()
+                .query('{ employeeById(id: "1") { username review { rating } } }')
+                .build()).get()
+
+        then:
+        result.getErrors().isEmpty()
+        result.getData() == [employeeById: [username: "user", review: [rating: 5]]]
+    }
+
+    private static ExecutionResult execute(RuntimeGraph runtimeGraph, String query) {
+        return GraphQLOrchestrator.newOrchestrator()
+                .runtimeGraph(runtimeGraph)
+                .build()
+                .execute(ExecutionInput.newExecutionInput().query(query).build())
+                .get()
+    }
+
+    def "graph loaded from a snapshot answers aliased fields like the stitched graph"() {
+        given:
+        def personResponse = [data: [person: [n: "Ann", a: [c: "Mountain View"], born: "2000-01-01"]]]
+        List<ServiceProvider> serviceProviders = [
+                provider("PERSON", ServiceType.GRAPHQL, ["schema.graphqls": '''
+                    type Query { person: Person }
+                    type Person { name: String address: Address born: Date }
+                    type Address { city: String }
+                    scalar Date
+                '''], personResponse)
+        ]
+        String query = '{ person { n: name a: address { c: city } born } }'
+
+        when:
+        RuntimeGraph stitched = stitch(serviceProviders)
+        RuntimeGraph loaded = stitch(serviceProviders)
+        ExecutionResult stitchedResult = execute(stitched, query)
+        ExecutionResult loadedResult = execute(loaded, query)
+
+        then:
+        Files.exists(snapshotFile)
+        assertSameGraph(loaded, stitched)
+        ((GraphQLScalarType) loaded.getExecutableSchema().getType("Date")).getCoercing().getClass() ==
+                ((GraphQLScalarType) stitched.getExecutableSchema().getType("Date")).getCoercing().getClass()
+        stitchedResult.getErrors().isEmpty()
+        stitchedResult.getData() == [person: [n: "Ann", a: [c: "Mountain View"], born: "2000-01-01"]]
+        loadedResult.getErrors().isEmpty()
+        loadedResult.getData() == stitchedResult.getData()
+    }
+
+    def "stale snapshot is replaced by a snapshot of the new schemas"() {
+        given:
+        stitch(providers())
+        List<ServiceProvider> changedProviders = providers("extend type Person { nickname: String }")
+        ProviderGraphCache providerGraphCache = new ProviderGraphCache()
+
+        when:
+        RuntimeGraph restitched = stitch(changedProviders, providerGraphCache)
+        RuntimeGraph loaded = stitch(changedProviders)
+
+        then:
+        providerGraphCache.getMissCount() == 5
+        restitched.getExecutableSchema().getObjectType("Person").getFieldDefinition("nickname") != null
+        assertSameGraph(loaded, restitched)
+    }
+
+    def "unreadable snapshot is replaced"() {
+        given:
+        Files.write(snapshotFile, "not a snapshot".getBytes())
+        ProviderGraphCache providerGraphCache = new ProviderGraphCache()
+
+        when:
+        RuntimeGraph stitched = stitch(providers(), providerGraphCache)
+
+        then:
+        providerGraphCache.getMissCount() == 5
+        assertSameGraph(stitch(providers()), stitched)
+    }
+
+    def "graphs with resolver fields are not written"() {
+        given:
+        List<ServiceProvider> serviceProviders = [
+                provider("PETS", ServiceType.GRAPHQL,
+                        TestHelper.getFileMapFromList("nested/books-pets-person/schema-pets.graphqls")),
+                provider("BOOKS", ServiceType.GRAPHQL, TestHelper.getFileMapFromList(
+                        "nested/books-pets-person/schema-books.graphqls",
+                        "nested/books-pets-person/pet-author-link.graphqls"))
+        ]
+
+        when:
+        stitch(serviceProviders)
+
+        then:
+        !Files.exists(snapshotFile)
+    }
+
+    def "snapshots round-trip through a stream"() {
+        given:
+        stitch(providers())
+        RuntimeGraphSnapshot snapshot = RuntimeGraphSnapshot.readFrom(snapshotFile)
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream()
+
+        when:
+        snapshot.writeTo(outputStream)
+        RuntimeGraphSnapshot copy = RuntimeGraphSnapshot.readFrom(new ByteArrayInputStream(outputStream.toByteArray()))
+
+        then:
+        copy.getSchema() == snapshot.getSchema()
+        copy.getFingerprintsByNamespace() == snapshot.getFingerprintsByNamespace()
+        copy.getDataFetchers().size() == snapshot.getDataFetchers().size()
+        copy.getBatchLoaders()*.getKey() == snapshot.getBatchLoaders()*.getKey()
+        copy.isCurrent(snapshot.getConfiguration(), providers())
+        !copy.isCurrent(snapshot.getConfiguration(), providers("extend type Person { nickname: String }"))
+        !copy.isCurrent(snapshot.getConfiguration(), providers().subList(0, 4))
+    }
+}
@@ -22,6 +22,7 @@ import com.intuit.graphql.orchestrator.xtext.XtextResourceSetBuilder
 import graphql.schema.FieldCoordinates
 import graphql.schema.GraphQLFieldDefinition
 import graphql.schema.GraphQLObjectType
+import graphql.schema.idl.SchemaPrinter
 import org.eclipse.xtext.resource.XtextResourceSet
 import spock.lang.Specification
 
@@ -143,4 +144,51 @@ class XtextStitcherSpec extends Specification {
         def exception = thrown(StitchingException)
         exception.getMessage() ==~ /^.*Duplicate Namespace.*PERSON.*$/
     }
+
+    def "parallel stitching builds the same schema as sequential stitching"() {
+        given:
+        List<ServiceProvider> serviceProviders = [
+                TestServiceProvider.newBuilder()
+                        .serviceType(ServiceType.REST)
+                        .namespace("PERSON")
+                        .sdlFiles(TestHelper.getFileMapFromList("top_level/person/schema1.graphqls"))
+                        .build(),
+                TestServiceProvider.newBuilder()
+                        .serviceType(ServiceType.GRAPHQL)
+                        .namespace("EPS")
+                        .sdlFiles(TestHelper.getFileMapFromList("top_level/eps/schema2.graphqls"))
+                        .build()
+        ]
+
+        when:
+        RuntimeGraph sequential = XtextStitcher.newBuilder().build().stitch(serviceProviders)
+        RuntimeGraph parallel = XtextStitcher.newBuilder().stitchingParallelism(2).build().stitch(serviceProviders)
+
+        then:
+        new SchemaPrinter().print(parallel.getExecutableSchema()) ==
+                new SchemaPrinter().print(sequential.getExecutableSchema())
+        parallel.getBatchLoaderMap().keySet() == sequential.getBatchLoaderMap().keySet()
+    }
+
+    def "parallel stitching rethrows the failure of a provider"() {
+        given:
+        ServiceProvider sp1 = TestServiceProvider.newBuilder()
+                .serviceType(ServiceType.GRAPHQL)
+                .namespace("EMPTY")
+                .sdlFiles(["empty.graphqls": "type Query { }"])
+                .build()
+
+        ServiceProvider sp2 = TestServiceProvider.newBuilder()
+                .serviceType(ServiceType.GRAPHQL)
+                .namespace("EPS")
+                .sdlFiles(TestHelper.getFileMapFromList("top_level/eps/schema2.graphqls"))
+                .build()
+
+        when:
+        XtextStitcher.newBuilder().stitchingParallelism(2).build().stitch([sp1, sp2])
+
+        then:
+        def exception = thrown(StitchingException)
+        exception.getMessage() ==~ /^.*EMPTY graph is invalid.*$/
+    }
 }
@@ -0,0 +1,97 @@
+package com.intuit.graphql.orchestrator.xtext
+
+import com.intuit.graphql.graphQL.EnumTypeExtensionDefinition
+import com.intuit.graphql.graphQL.ObjectTypeDefinition
+import com.intuit.graphql.graphQL.ObjectTypeExtensionDefinition
+import com.intuit.graphql.graphQL.TypeDefinition
+import com.intuit.graphql.graphQL.TypeSystem
+import com.intuit.graphql.graphQL.TypeSystemDefinition
+import org.eclipse.xtext.resource.XtextResourceSet
+import spock.lang.Specification
+
+import java.util.stream.Collectors
+
+import static com.intuit.graphql.orchestrator.TestHelper.toXtextResourceSet
+
+class XtextTypeIndexSpec extends Specification {
+
+    XtextResourceSet set = toXtextResourceSet('''
+        type Query { a: A_Foo }
+        type A_Foo { id: ID }
+        enum Foo { ONE }
+        extend type Foo { name: String }
+        extend enum Foo { TWO }
+        extend type A_Foo { age: Int }
+    ''')
+
+    XtextTypeIndex index = XtextTypeIndex.of(set)
+
+    def "types are matched by suffix in the order of the resource set"() {
+        expect:
+        index.findType("Foo", TypeDefinition.class).get().getName() == "A_Foo"
+        index.findType("Foo", ObjectTypeDefinition.class).get().getName() == "A_Foo"
+        index.findTypeStrict("Foo", TypeDefinition.class).get().getName() == "Foo"
+        !index.findTypeStrict("Foo", ObjectTypeDefinition.class).isPresent()
+        !index.findType("Bar", TypeDefinition.class).isPresent()
+        !index.findType(null, TypeDefinition.class).isPresent()
+    }
+
+    def "type extensions are matched by suffix and class in the order of the resource set"() {
+        when:
+        List<ObjectTypeExtensionDefinition> extensions = index.getTypeExtensions("Foo",
+                ObjectTypeExtensionDefinition.class).collect(Collectors.toList())
+
+        then:
+        extensions*.getName() == ["Foo", "A_Foo"]
+        extensions.collect { it.getFieldDefinition()*.getName() } == [["name"], ["age"]]
+        index.getTypeExtensions("Foo", EnumTypeExtensionDefinition.class).count() == 1
+    }
+
+    def "index is attached to the resource set once"() {
+        expect:
+        XtextTypeIndex.of(set).is(index)
+    }
+
+    def "renamed types are found by their new name without rebuilding the index"() {
+        given:
+        ObjectTypeDefinition type = index.findTypeStrict("A_Foo", ObjectTypeDefinition.class).get()
+
+        when:
+        type.setName("Bar")
+
+        then:
+        index.findTypeStrict("Bar", ObjectTypeDefinition.class).get().is(type)
+        !index.findTypeStrict("A_Foo", ObjectTypeDefinition.class).isPresent()
+        index.findType("Foo", TypeDefinition.class).get().getName() == "Foo"
+        index.getBuildCount() == 1
+    }
+
+    def "added types are found after the index is rebuilt"() {
+        given:
+        index.findType("Query", TypeDefinition.class)
+        ObjectTypeDefinition type = GraphQLFactoryDelegate.createObjectTypeDefinition()
+        type.setName("Added")
+        TypeSystemDefinition typeSystemDefinition = GraphQLFactoryDelegate.createTypeSystemDefinition()
+        typeSystemDefinition.setType(type)
+
+        when:
+        ((TypeSystem) set.getResources().get(0).getContents().get(0)).getTypeSystemDefinition()
+                .add(typeSystemDefinition)
+
+        then:
+        index.findTypeStrict("Added", ObjectTypeDefinition.class).get().is(type)
+        index.getBuildCount() == 2
+    }
+
+    def "removed types are not found"() {
+        given:
+        TypeDefinition type = index.findTypeStrict("A_Foo", TypeDefinition.class).get()
+
+        when:
+        ((TypeSystemDefinition) type.eContainer()).setType(null)
+
+        then:
+        !index.findTypeStrict("A_Foo", TypeDefinition.class).isPresent()
+        index.findType("Foo", TypeDefinition.class).get().getName() == "Foo"
+    }
+}
@@ -0,0 +1,40 @@
+package com.intuit.graphql.orchestrator.benchmark;
+
+import com.intuit.graphql.orchestrator.ServiceProvider;
+import graphql.ExecutionInput;
+import graphql.GraphQLContext;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An in-memory service provider for benchmarks. Every query is answered with the same canned response so that the
+ * measurements only include orchestrator overhead.
+ */
+public class BenchmarkServiceProvider implements ServiceProvider {
+
+  private final String namespace;
+  private final String sdl;
+  private final Map<String, Object> response;
+
+  public BenchmarkServiceProvider(String namespace, String sdl, Map<String, Object> data) {
+    this.namespace = namespace;
+    this.sdl = sdl;
+    this.response = Collections.singletonMap("data", data);
+  }
+
+  @Override
+  public String getNameSpace() {
+    return namespace;
+  }
+
+  @Override
+  public Map<String, String> sdlFiles() {
+    return Collections.singletonMap(namespace + ".graphqls", sdl);
+  }
+
+  @Override
+  public CompletableFuture<Map<String, Object>> query(ExecutionInput executionInput, GraphQLContext context) {
+    return CompletableFuture.completedFuture(response);
+  }
+}
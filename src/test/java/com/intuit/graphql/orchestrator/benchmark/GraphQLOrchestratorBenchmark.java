@@ -0,0 +1,102 @@
+package com.intuit.graphql.orchestrator.benchmark;
+
+import com.google.common.collect.ImmutableMap;
+import com.intuit.graphql.orchestrator.GraphQLOrchestrator;
+import com.intuit.graphql.orchestrator.schema.RuntimeGraph;
+import com.intuit.graphql.orchestrator.stitching.SchemaStitcher;
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.GraphQLContext;
+import graphql.execution.AsyncExecutionStrategy;
+import graphql.execution.instrumentation.ChainedInstrumentation;
+import graphql.execution.instrumentation.dataloader.DataLoaderDispatcherInstrumentation;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.dataloader.BatchLoader;
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the per-request overhead of {@link GraphQLOrchestrator#execute(ExecutionInput)}. {@code perRequestEngine}
+ * reproduces the previous behaviour of building a {@link GraphQL} engine for every request, {@code prebuiltEngine}
+ * uses the engine the orchestrator builds once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphQLOrchestratorBenchmark {
+
+  private static final String SDL = "type Query { a: A b: B } "
+      + "type A { id: String name: String } "
+      + "type B { id: String count: Int }";
+
+  private static final String QUERY = "{ a { id name } b { id count } }";
+
+  private RuntimeGraph runtimeGraph;
+  private GraphQLOrchestrator orchestrator;
+
+  @Setup
+  public void setup() {
+    Map<String, Object> data = ImmutableMap.of(
+        "a", ImmutableMap.of("id", "a1", "name", "name"),
+        "b", ImmutableMap.of("id", "b1", "count", 1));
+
+    runtimeGraph = SchemaStitcher.newBuilder()
+        .service(new BenchmarkServiceProvider("SVC", SDL, data))
+        .build()
+        .stitchGraph();
+
+    orchestrator = GraphQLOrchestrator.newOrchestrator()
+        .runtimeGraph(runtimeGraph)
+        .build();
+  }
+
+  @Benchmark
+  public ExecutionResult prebuiltEngine() {
+    return orchestrator.execute(newExecutionInput()).join();
+  }
+
+  @Benchmark
+  @SuppressWarnings("unchecked")
+  public ExecutionResult perRequestEngine() {
+    GraphQL graphQL = GraphQL.newGraphQL(runtimeGraph.getExecutableSchema())
+        .instrumentation(new ChainedInstrumentation(
+            Collections.singletonList(new DataLoaderDispatcherInstrumentation())))
+        .queryExecutionStrategy(new AsyncExecutionStrategy())
+        .build();
+
+    DataLoaderRegistry dataLoaderRegistry = new DataLoaderRegistry();
+    Map<BatchLoader, DataLoader> dataLoaders = runtimeGraph.getBatchLoaderMap().values().stream().distinct()
+        .collect(Collectors.toMap(Function.identity(), DataLoader::new));
+    runtimeGraph.getBatchLoaderMap()
+        .forEach((key, batchLoader) -> dataLoaderRegistry.register(key, dataLoaders.get(batchLoader)));
+
+    ExecutionInput executionInput = newExecutionInput()
+        .transform(builder -> builder.dataLoaderRegistry(dataLoaderRegistry));
+    return graphQL.executeAsync(executionInput).join();
+  }
+
+  private ExecutionInput newExecutionInput() {
+    return ExecutionInput.newExecutionInput()
+        .query(QUERY)
+        .context(GraphQLContext.newContext().build())
+        .build();
+  }
+}
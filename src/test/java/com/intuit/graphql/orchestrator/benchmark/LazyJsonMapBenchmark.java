@@ -0,0 +1,116 @@
+package com.intuit.graphql.orchestrator.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.intuit.graphql.orchestrator.batch.LazyJsonMap;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures decoding a downstream response of {@code entityCount} entities, each with a nested object and an array.
+ * {@code eager*} decodes the whole response with an {@link ObjectMapper}, {@code lazy*} uses {@link LazyJsonMap}.
+ * The {@code PartialRead} variants read one field of every entity, as when most fields of the response were added by
+ * the orchestrator, and the {@code FullRead} variants read every value.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LazyJsonMapBenchmark {
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {
+  };
+
+  @Param({"1000"})
+  private int entityCount;
+
+  private byte[] response;
+
+  @Setup
+  public void setup() {
+    StringBuilder json = new StringBuilder("{\"data\":{\"entities\":[");
+    for (int i = 0; i < entityCount; i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append("{\"__typename\":\"Entity\",\"id\":\"entity-").append(i)
+          .append("\",\"name\":\"Entity number ").append(i)
+          .append("\",\"description\":\"A longer description of entity ").append(i).append(" for the response\"")
+          .append(",\"score\":").append(i * 0.5)
+          .append(",\"active\":").append(i % 2 == 0)
+          .append(",\"address\":{\"street\":\"").append(i).append(" Main Street\",\"city\":\"Mountain View\"")
+          .append(",\"zip\":\"94043\"}")
+          .append(",\"tags\":[\"a\",\"b\",\"c\"]}");
+    }
+    json.append("]}}");
+    response = json.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public int eagerPartialRead() throws IOException {
+    return readIds(OBJECT_MAPPER.readValue(response, MAP_TYPE));
+  }
+
+  @Benchmark
+  public int lazyPartialRead() {
+    return readIds(LazyJsonMap.parse(response));
+  }
+
+  @Benchmark
+  public int eagerFullRead() throws IOException {
+    return readAll(OBJECT_MAPPER.readValue(response, MAP_TYPE));
+  }
+
+  @Benchmark
+  public int lazyFullRead() {
+    return readAll(LazyJsonMap.parse(response));
+  }
+
+  private static List<?> entities(Map<String, Object> response) {
+    return (List<?>) ((Map<?, ?>) response.get("data")).get("entities");
+  }
+
+  private static int readIds(Map<String, Object> response) {
+    int length = 0;
+    for (Object entity : entities(response)) {
+      length += ((String) ((Map<?, ?>) entity).get("id")).length();
+    }
+    return length;
+  }
+
+  private static int readAll(Object value) {
+    if (value instanceof Map) {
+      int count = 0;
+      for (Object child : ((Map<?, ?>) value).values()) {
+        count += readAll(child);
+      }
+      return count;
+    }
+    if (value instanceof List) {
+      int count = 0;
+      for (Object child : (List<?>) value) {
+        count += readAll(child);
+      }
+      return count;
+    }
+    return value == null ? 0 : 1;
+  }
+}
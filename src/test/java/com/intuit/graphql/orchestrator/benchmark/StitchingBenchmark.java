@@ -0,0 +1,61 @@
+package com.intuit.graphql.orchestrator.benchmark;
+
+import com.intuit.graphql.orchestrator.schema.RuntimeGraph;
+import com.intuit.graphql.orchestrator.stitching.SchemaStitcher;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures stitching a synthetic schema of {@code typeCount} object types, each of which is extended once. Type
+ * lookups used to scan the whole resource set, which made stitch time grow quadratically with the number of types.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class StitchingBenchmark {
+
+  @Param({"500", "5000"})
+  private int typeCount;
+
+  private BenchmarkServiceProvider serviceProvider;
+
+  @Setup
+  public void setup() {
+    serviceProvider = new BenchmarkServiceProvider("SVC", syntheticSchema(typeCount), Collections.emptyMap());
+  }
+
+  @Benchmark
+  public RuntimeGraph stitch() {
+    return SchemaStitcher.newBuilder()
+        .service(serviceProvider)
+        .build()
+        .stitchGraph();
+  }
+
+  static String syntheticSchema(int typeCount) {
+    StringBuilder sdl = new StringBuilder("type Query {\n");
+    for (int i = 0; i < typeCount; i++) {
+      sdl.append("  type").append(i).append(": Type").append(i).append('\n');
+    }
+    sdl.append("}\n");
+    for (int i = 0; i < typeCount; i++) {
+      sdl.append("type Type").append(i).append(" { id: ID name: String }\n");
+      sdl.append("extend type Type").append(i).append(" { description: String }\n");
+    }
+    return sdl.toString();
+  }
+}
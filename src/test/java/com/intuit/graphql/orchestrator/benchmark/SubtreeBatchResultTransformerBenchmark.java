@@ -0,0 +1,132 @@
+package com.intuit.graphql.orchestrator.benchmark;
+
+import static graphql.execution.ExecutionStepInfo.newExecutionStepInfo;
+import static graphql.execution.MergedField.newMergedField;
+import static graphql.language.Field.newField;
+import static graphql.schema.DataFetchingEnvironmentImpl.newDataFetchingEnvironment;
+
+import com.intuit.graphql.orchestrator.batch.SubtreeBatchResultTransformer;
+import graphql.Scalars;
+import graphql.execution.DataFetcherResult;
+import graphql.execution.ExecutionStepInfo;
+import graphql.execution.ResultPath;
+import graphql.language.Field;
+import graphql.schema.DataFetchingEnvironment;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Stack;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures partitioning a downstream response across a batch of keys. Each key is at
+ * {@code /consumer/group<n>/field<m>}, so keys share path prefixes. {@code stackWalk} reproduces the previous
+ * per-key {@link Stack} based lookup, {@code sharedPrefixes} uses {@link SubtreeBatchResultTransformer}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SubtreeBatchResultTransformerBenchmark {
+
+  private static final int KEYS_PER_GROUP = 20;
+
+  @Param({"1000"})
+  private int keyCount;
+
+  private final SubtreeBatchResultTransformer transformer = new SubtreeBatchResultTransformer();
+
+  private List<DataFetchingEnvironment> keys;
+  private DataFetcherResult<Map<String, Object>> result;
+
+  @Setup
+  public void setup() {
+    ExecutionStepInfo root = newExecutionStepInfo()
+        .type(Scalars.GraphQLString)
+        .path(ResultPath.rootPath())
+        .build();
+    ExecutionStepInfo consumer = stepInfo(root, "consumer");
+
+    Map<String, Object> consumerData = new HashMap<>();
+    keys = new ArrayList<>(keyCount);
+
+    ExecutionStepInfo group = null;
+    Map<String, Object> groupData = null;
+    for (int i = 0; i < keyCount; i++) {
+      if (i % KEYS_PER_GROUP == 0) {
+        String groupName = "group" + i / KEYS_PER_GROUP;
+        group = stepInfo(consumer, groupName);
+        groupData = new HashMap<>();
+        consumerData.put(groupName, groupData);
+      }
+      String fieldName = "field" + i;
+      groupData.put(fieldName, i);
+
+      ExecutionStepInfo leaf = stepInfo(group, fieldName);
+      keys.add(newDataFetchingEnvironment()
+          .mergedField(leaf.getField())
+          .executionStepInfo(leaf)
+          .build());
+    }
+
+    Map<String, Object> data = new HashMap<>();
+    data.put("consumer", consumerData);
+    result = DataFetcherResult.<Map<String, Object>>newResult().data(data).build();
+  }
+
+  private static ExecutionStepInfo stepInfo(ExecutionStepInfo parent, String fieldName) {
+    return newExecutionStepInfo()
+        .parentInfo(parent)
+        .field(newMergedField(newField(fieldName).build()).build())
+        .type(Scalars.GraphQLString)
+        .path(parent.getPath().segment(fieldName))
+        .build();
+  }
+
+  @Benchmark
+  public List<DataFetcherResult<Object>> sharedPrefixes() {
+    return transformer.toBatchResult(result, keys);
+  }
+
+  @Benchmark
+  public List<DataFetcherResult<Object>> stackWalk() {
+    List<DataFetcherResult<Object>> results = new ArrayList<>();
+    final Map<String, Object> data = result.getData();
+
+    for (final DataFetchingEnvironment key : keys) {
+      Stack<String> dataFetchingPath = new Stack<>();
+      ExecutionStepInfo curr = key.getExecutionStepInfo();
+      while (curr != null && curr.getPath().getLevel() != 0) {
+        final Field field = curr.getField().getSingleField();
+        dataFetchingPath.push(field.getAlias() != null ? field.getAlias() : field.getName());
+        curr = curr.getParent();
+      }
+
+      Object partitionedResult = data;
+      while (!dataFetchingPath.isEmpty()) {
+        final String step = dataFetchingPath.pop();
+        partitionedResult = partitionedResult instanceof Map ? ((Map) partitionedResult).get(step) : null;
+        if (partitionedResult == null) {
+          break;
+        }
+      }
+
+      results.add(DataFetcherResult.newResult().data(partitionedResult).build());
+    }
+    return results;
+  }
+}